@@ -0,0 +1,90 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Arrays;
+
+/**
+ * Right preconditioned BiCGSTAB method for general nonsymmetric systems.
+ */
+public class BiCGSTAB extends KrylovSolver {
+
+    @Override
+    protected void iterate(LinearOperator a, double[] b, double[] x, double bNorm) {
+        final int n = b.length;
+        final double[][] w = work(7, n);
+        final double[] r = w[0];
+        final double[] rHat = w[1];
+        final double[] p = w[2];
+        final double[] v = w[3];
+        final double[] pHat = w[4];
+        final double[] s = w[5];
+        final double[] t = w[6];
+
+        residual(a, b, x, r);
+        System.arraycopy(r, 0, rHat, 0, n);
+        Arrays.fill(p, 0);
+        Arrays.fill(v, 0);
+        double rho = 1;
+        double alpha = 1;
+        double omega = 1;
+
+        while (!step(norm(r) / bNorm)) {
+            double rhoNew = VectorKernels.dot(rHat, 0, r, 0, n);
+            // breakdown
+            if (rhoNew == 0 || omega == 0)
+                return;
+
+            // p = r + beta * (p - omega * v)
+            double beta = (rhoNew / rho) * (alpha / omega);
+            VectorKernels.fma(v, 0, -omega, p, 0, p, 0, n);
+            VectorKernels.fma(p, 0, beta, r, 0, p, 0, n);
+
+            precondition(p, pHat);
+            a.apply(pHat, v);
+            double rHatV = VectorKernels.dot(rHat, 0, v, 0, n);
+            if (rHatV == 0)
+                return;
+            alpha = rhoNew / rHatV;
+            VectorKernels.fma(pHat, 0, alpha, x, 0, x, 0, n);
+            VectorKernels.fma(v, 0, -alpha, r, 0, s, 0, n);
+            countIteration();
+
+            double sNorm = norm(s);
+            if (sNorm / bNorm <= getTolerance()) {
+                System.arraycopy(s, 0, r, 0, n);
+                step(sNorm / bNorm);
+                return;
+            }
+
+            // s is preconditioned into pHat, which is no longer needed
+            precondition(s, pHat);
+            a.apply(pHat, t);
+            double tt = VectorKernels.dot(t, 0, t, 0, n);
+            omega = tt == 0 ? 0 : VectorKernels.dot(t, 0, s, 0, n) / tt;
+            VectorKernels.fma(pHat, 0, omega, x, 0, x, 0, n);
+            VectorKernels.fma(t, 0, -omega, s, 0, r, 0, n);
+            rho = rhoNew;
+        }
+    }
+}
@@ -463,6 +463,13 @@ public class CerberusMath {
     }
 
     public static Matrixxf solveXGauss(Matrixxf m, Matrixxf b) {
+        if (m.rows() == m.columns()) {
+            // factor once instead of eliminating once per column
+            LUDecompositionf lu = new LUDecompositionf(m);
+            if (!lu.isSingular())
+                return lu.solve(b);
+        }
+
         Matrixxf out = new Matrixxf(b.rows(), b.columns());
 
         for (int c = 0; c < b.columns(); c++) {
@@ -482,6 +489,13 @@ public class CerberusMath {
     }
 
     public static Matrixxd solveXGauss(Matrixxd m, Matrixxd b) {
+        if (m.rows() == m.columns()) {
+            // factor once instead of eliminating once per column
+            LUDecompositiond lu = new LUDecompositiond(m);
+            if (!lu.isSingular())
+                return lu.solve(b);
+        }
+
         Matrixxd out = new Matrixxd(b.rows(), b.columns());
 
         for (int c = 0; c < b.columns(); c++) {
@@ -501,6 +515,13 @@ public class CerberusMath {
     }
 
     public static Matrixxf solveXGaussSmart(Matrixxf m, Matrixxf b) {
+        if (m.rows() == m.columns()) {
+            // factor once instead of eliminating once per column
+            LUDecompositionf lu = new LUDecompositionf(m);
+            if (!lu.isSingular())
+                return lu.solve(b);
+        }
+
         Matrixxf out = new Matrixxf(b.rows(), b.columns());
 
         for (int c = 0; c < b.columns(); c++) {
@@ -520,6 +541,13 @@ public class CerberusMath {
     }
 
     public static Matrixxd solveXGaussSmart(Matrixxd m, Matrixxd b) {
+        if (m.rows() == m.columns()) {
+            // factor once instead of eliminating once per column
+            LUDecompositiond lu = new LUDecompositiond(m);
+            if (!lu.isSingular())
+                return lu.solve(b);
+        }
+
         Matrixxd out = new Matrixxd(b.rows(), b.columns());
 
         for (int c = 0; c < b.columns(); c++) {
@@ -586,6 +614,28 @@ public class CerberusMath {
         return out;
     }
 
+    /**
+     * Solves the least-squares problem min ||A * X - B|| with a column
+     * pivoted QR decomposition of A, without forming normal equations.
+     * @param a matrix with at least as many rows as columns
+     * @param b right-hand sides, one per column
+     * @return solution X
+     */
+    public static Matrixxf solveLeastSquares(Matrixxf a, Matrixxf b) {
+        return new QRDecompositionf(a, true).solve(b);
+    }
+
+    /**
+     * Solves the least-squares problem min ||A * X - B|| with a column
+     * pivoted QR decomposition of A, without forming normal equations.
+     * @param a matrix with at least as many rows as columns
+     * @param b right-hand sides, one per column
+     * @return solution X
+     */
+    public static Matrixxd solveLeastSquares(Matrixxd a, Matrixxd b) {
+        return new QRDecompositiond(a, true).solve(b);
+    }
+
     public static Matrixxf diag(int n) {
         Matrixxf out = new Matrixxf(n, n);
         for (int i = 0; i < n; i++)
@@ -644,44 +694,59 @@ public class CerberusMath {
         return out;
     }
 
+    /**
+     * Solves a * x = b with a single precision LU decomposition that is
+     * refined with residuals computed in double precision, so the result
+     * is accurate to float precision even for badly scaled systems.
+     * @param a square matrix
+     * @param b right-hand sides, one per column
+     * @param error normwise backward error to reach
+     * @return solution x
+     * @see MixedPrecisionSolver
+     */
     public static Matrixxf highPrecision(Matrixxf a, Matrixxf b, float error) {
-        // Calculate lower and upper matrix
-        Matrixxf lu = a.factorize();
-        Matrixxf l = lower(lu);
-        Matrixxf u = upper(lu);
-
-        // Solve first iteration matrix
-        Matrixxf x = solveX(l, u, b);
-        // Calc first iteration error
-        Matrixxf deltaB = a.mul(x);
-        // iteratively reduce rounding errors
-        Matrixxf deltaX = solveX(l, u, deltaB);
-        while (deltaX.abs() > error) {
-            deltaX = solveX(l, u, deltaB);
-            x.subSelf(deltaX);
-            deltaB = a.mul(x);
+        Matrixxd x = highPrecision(toDouble(a), toDouble(b), (double) error);
+        Matrixxf out = new Matrixxf(x.rows(), x.columns());
+        for (int r = 0; r < x.rows(); r++) {
+            for (int c = 0; c < x.columns(); c++)
+                out.set(r, c, (float) x.get(r, c));
         }
-        return x;
+        return out;
     }
 
+    /**
+     * Solves a * x = b to double precision with a single precision LU
+     * decomposition and iterative refinement.
+     *
+     * If the refinement does not reach the error, because a is too ill
+     * conditioned or even singular in single precision, the system is
+     * solved with a double precision LU decomposition instead, like
+     * LAPACK's dsgesv does.
+     * @param a square matrix
+     * @param b right-hand sides, one per column
+     * @param error normwise backward error to reach
+     * @return solution x
+     * @throws IllegalStateException if a is singular
+     * @see MixedPrecisionSolver
+     */
     public static Matrixxd highPrecision(Matrixxd a, Matrixxd b, double error) {
-        // Calculate lower and upper matrix
-        Matrixxd lu = a.factorize();
-        Matrixxd l = lower(lu);
-        Matrixxd u = upper(lu);
+        MixedPrecisionSolver solver = new MixedPrecisionSolver(a);
+        if (!solver.isSingular()) {
+            solver.setTolerance(error);
+            Matrixxd x = solver.solve(b);
+            if (solver.hasConverged())
+                return x;
+        }
+        return new LUDecompositiond(a).solve(b);
+    }
 
-        // Solve first iteration matrix
-        Matrixxd x = solveX(l, u, b);
-        // Calc first iteration error
-        Matrixxd deltaB = a.mul(x);
-        // iteratively reduce rounding errors
-        Matrixxd deltaX = solveX(l, u, deltaB);
-        while (deltaX.abs() > error) {
-            deltaX = solveX(l, u, deltaB);
-            x.subSelf(deltaX);
-            deltaB = a.mul(x);
+    private static Matrixxd toDouble(Matrixxf m) {
+        Matrixxd out = new Matrixxd(m.rows(), m.columns());
+        for (int r = 0; r < m.rows(); r++) {
+            for (int c = 0; c < m.columns(); c++)
+                out.set(r, c, m.get(r, c));
         }
-        return x;
+        return out;
     }
 
     public static float scalar(Matrixxf a, Matrixxf b) {
@@ -708,114 +773,32 @@ public class CerberusMath {
         return sum;
     }
 
-    @SuppressWarnings("DuplicatedCode")
+    /**
+     * Diagonalizes the symmetric matrix a with cyclic Jacobi rotations.
+     * On return a holds the eigenvalues on its diagonal (see
+     * extractEigenvalues) in ascending order, and the returned matrix
+     * holds the matching eigenvectors as columns.
+     * @param a symmetric matrix, overwritten with the eigenvalues
+     * @return eigenvectors
+     */
     public static Matrixxf createJacobi(Matrixxf a) {
-        Matrixxf x = diag(a.rows());
-        boolean flag = true;
-
-        int k = 0;
-        while (flag) {
-            flag = false;
-            for (int p = 0; p < a.rows(); p++) {
-                for (int q = 0; q < a.rows(); q++) {
-                    // skipp main diagonal elements
-                    if (p == q)
-                        continue;
-
-                    // check for quasi zero elements
-                    if ((Math.abs(a.get(p, q)) < Math.abs(a.get(p, q)) * 1e-9)
-                            || (Math.abs(a.get(p, q)) < Math.abs(a.get(q, p)) * 1e-9)) {
-
-                        continue;
-                    } else
-                        flag = true;
-
-                    // generate t, s and c from matrix a
-                    float theta = (a.get(q, p) - a.get(p, p)) / (2 * a.get(p, q));
-                    float t = Math.signum(theta) / (float) (Math.abs(theta) + Math.sqrt(theta * theta + 1));
-
-                    float c = 1f / (float) Math.sqrt(1 + t * t);
-                    float s = c * t;
-
-                    a.set(p, q, a.get(p, p) - t * a.get(p, q));
-                    a.set(q, q, a.get(q, q) + t * a.get(p, q));
-                    a.set(p, q, 0f);
-                    a.set(q, p, 0);
-
-                    for (int r = 0; r < a.rows(); r++) {
-                        float temp = x.get(r, p);
-                        x.set(r, p, c * x.get(r, p) - s * x.get(r, q));
-                        x.set(r, q, c * x.get(r, q) + s * temp);
-
-                        if (r == p || r == q)
-                            continue;
-
-                        temp = a.get(r, p);
-                        a.set(r, p, c * a.get(r, p) - s * a.get(r, q));
-                        a.set(r, q, c * a.get(r, q) + s * temp);
-
-                        a.set(p, r, a.get(r, p));
-                        a.set(q, r, a.get(r, q));
-                    }
-                }
-            }
-        }
-        return x;
-    }
-
-    @SuppressWarnings("DuplicatedCode")
+        SymmetricEigenDecompositionf eigen = SymmetricEigenDecompositionf.jacobi(a);
+        a.set(eigen.getD());
+        return eigen.getV();
+    }
+
+    /**
+     * Diagonalizes the symmetric matrix a with cyclic Jacobi rotations.
+     * On return a holds the eigenvalues on its diagonal (see
+     * extractEigenvalues) in ascending order, and the returned matrix
+     * holds the matching eigenvectors as columns.
+     * @param a symmetric matrix, overwritten with the eigenvalues
+     * @return eigenvectors
+     */
     public static Matrixxd createJacobi(Matrixxd a) {
-        Matrixxd x = diagD(a.rows());
-        boolean flag = true;
-
-        int k = 0;
-        while (flag) {
-            flag = false;
-            for (int p = 0; p < a.rows(); p++) {
-                for (int q = 0; q < a.rows(); q++) {
-                    // skipp main diagonal elements
-                    if (p == q)
-                        continue;
-
-                    // check for quasi zero elements
-                    if ((Math.abs(a.get(p, q)) < Math.abs(a.get(p, q)) * 1e-9)
-                            || (Math.abs(a.get(p, q)) < Math.abs(a.get(q, p)) * 1e-9)) {
-
-                        continue;
-                    } else
-                        flag = true;
-
-                    // generate t, s and c from matrix a
-                    double theta = (a.get(q, p) - a.get(p, p)) / (2 * a.get(p, q));
-                    double t = Math.signum(theta) / (Math.abs(theta) + Math.sqrt(theta * theta + 1));
-
-                    double c = 1f / Math.sqrt(1 + t * t);
-                    double s = c * t;
-
-                    a.set(p, q, a.get(p, p) - t * a.get(p, q));
-                    a.set(q, q, a.get(q, q) + t * a.get(p, q));
-                    a.set(p, q, 0f);
-                    a.set(q, p, 0);
-
-                    for (int r = 0; r < a.rows(); r++) {
-                        double temp = x.get(r, p);
-                        x.set(r, p, c * x.get(r, p) - s * x.get(r, q));
-                        x.set(r, q, c * x.get(r, q) + s * temp);
-
-                        if (r == p || r == q)
-                            continue;
-
-                        temp = a.get(r, p);
-                        a.set(r, p, c * a.get(r, p) - s * a.get(r, q));
-                        a.set(r, q, c * a.get(r, q) + s * temp);
-
-                        a.set(p, r, a.get(r, p));
-                        a.set(q, r, a.get(r, q));
-                    }
-                }
-            }
-        }
-        return x;
+        SymmetricEigenDecompositiond eigen = SymmetricEigenDecompositiond.jacobi(a);
+        a.set(eigen.getD());
+        return eigen.getV();
     }
 
     public static Matrixxf extractEigenvalues(Matrixxf a) {
@@ -0,0 +1,265 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Cholesky decomposition A = L * L^T of a symmetric positive definite
+ * matrix.
+ *
+ * Only the lower triangle of A is read. The factorization is blocked and
+ * right-looking: each diagonal block is factored, the panel below it is
+ * solved against it and the trailing lower triangle is updated before
+ * moving on to the next block. Input that is not positive definite is
+ * detected by a non-positive pivot, at which point the factorization stops.
+ */
+@SuppressWarnings("Duplicates")
+public class CholeskyDecompositionf {
+
+    /** Size of the diagonal blocks */
+    private static final int BLOCK = 128;
+
+    private final Matrixxf l;
+    private final boolean spd;
+
+    public CholeskyDecompositionf(Matrixxf a) {
+        if (a.rows() != a.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        final int n = a.rows();
+        l = a.copy();
+        float[] d = l.data;
+
+        boolean spd = true;
+        for (int kb = 0; kb < n && spd; kb += BLOCK) {
+            final int k0 = kb;
+            final int k1 = Math.min(kb + BLOCK, n);
+
+            // factor the diagonal block
+            for (int j = k0; j < k1 && spd; j++) {
+                for (int i = j; i < k1; i++) {
+                    float value = d[i * n + j] - VectorKernels.dot(d, i * n + k0, d, j * n + k0, j - k0);
+                    if (i == j) {
+                        if (!(value > 0)) {
+                            spd = false;
+                            break;
+                        }
+                        d[j * n + j] = (float) Math.sqrt(value);
+                    } else {
+                        d[i * n + j] = value / d[j * n + j];
+                    }
+                }
+            }
+            if (!spd || k1 == n)
+                break;
+
+            // solve the panel below the diagonal block
+            for (int i = k1; i < n; i++) {
+                for (int j = k0; j < k1; j++) {
+                    d[i * n + j] = (d[i * n + j] - VectorKernels.dot(d, i * n + k0, d, j * n + k0, j - k0))
+                            / d[j * n + j];
+                }
+            }
+
+            // update the trailing lower triangle with the panel. The panel
+            // is transposed first, so that each row of the trailing matrix
+            // is updated with contiguous multiply-adds
+            final int width = k1 - k0;
+            final int m = n - k1;
+            final float[] panel = new float[width * m];
+            for (int j = 0; j < m; j++) {
+                for (int p = 0; p < width; p++)
+                    panel[p * m + j] = d[(k1 + j) * n + k0 + p];
+            }
+            RangeTask.Kernel update = (from, to) -> {
+                for (int i = from; i < to; i++) {
+                    int row = i * n + k1;
+                    for (int p = 0; p < width; p++) {
+                        float factor = d[i * n + k0 + p];
+                        if (factor != 0)
+                            VectorKernels.fma(panel, p * m, -factor, d, row, d, row, i - k1 + 1);
+                    }
+                }
+            };
+            ForkJoinPool pool = MatrixParallelism.pool((long) (n - k1) * (n - k1) / 2);
+            if (pool == null)
+                update.run(k1, n);
+            else
+                RangeTask.run(pool, k1, n, Math.max(1, BLOCK / 4), update);
+        }
+        this.spd = spd;
+
+        // clear the upper triangle, which still holds the input
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++)
+                d[i * n + j] = 0;
+        }
+    }
+
+    /**
+     * @return true if the matrix is symmetric positive definite. Only
+     *          then the factor and the solve methods are available.
+     */
+    public boolean isSPD() {
+        return spd;
+    }
+
+    /**
+     * @return the lower triangular factor
+     * @throws IllegalStateException if the matrix is not positive definite
+     */
+    public Matrixxf getL() {
+        checkSPD();
+        return l.copy();
+    }
+
+    public float det() {
+        if (!spd)
+            return 0;
+
+        final int n = l.rows();
+        float det = 1;
+        for (int i = 0; i < n; i++)
+            det *= l.data[i * n + i];
+        return det * det;
+    }
+
+    /**
+     * Solves A * X = B.
+     * @param b right-hand sides, one per column
+     * @return solution X
+     * @throws IllegalStateException if the matrix is not positive definite
+     */
+    public Matrixxf solve(Matrixxf b) {
+        return solve(b, new Matrixxf(b.rows(), b.columns()));
+    }
+
+    /**
+     * Solves A * X = B and stores X in dest. dest may be b itself.
+     * @param b right-hand sides, one per column
+     * @param dest solution X
+     * @return dest
+     * @throws IllegalStateException if the matrix is not positive definite
+     */
+    public Matrixxf solve(Matrixxf b, Matrixxf dest) {
+        final int n = l.rows();
+        if (b.rows() != n || dest.rows() != n || dest.columns() != b.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+        checkSPD();
+
+        final int r = b.columns();
+        Matrixxf x = b.copy();
+
+        ForkJoinPool pool = MatrixParallelism.pool((long) n * r);
+        if (pool == null) {
+            substitute(x);
+        } else {
+            RangeTask.run(pool, 0, r, Math.max(1, MatrixParallelism.GRAIN / Math.max(1, n)),
+                    (from, to) -> substitute(x.subMatrix(0, from, n, to - from)));
+        }
+        return dest.set(x);
+    }
+
+    /**
+     * Solves A * x = b for a single right-hand side.
+     * @param b right-hand side
+     * @param x solution, may be b itself
+     * @return x
+     * @throws IllegalStateException if the matrix is not positive definite
+     */
+    public float[] solve(float[] b, float[] x) {
+        final int n = l.rows();
+        if (b.length != n || x.length != n)
+            throw new IllegalArgumentException("Invalid matrix format!");
+        checkSPD();
+
+        float[] d = l.data;
+        float[] y = b.clone();
+        for (int i = 0; i < n; i++)
+            y[i] = (y[i] - VectorKernels.dot(d, i * n, y, 0, i)) / d[i * n + i];
+        for (int k = n - 1; k >= 0; k--) {
+            y[k] /= d[k * n + k];
+            float value = y[k];
+            for (int i = 0; i < k; i++)
+                y[i] -= d[k * n + i] * value;
+        }
+
+        System.arraycopy(y, 0, x, 0, n);
+        return x;
+    }
+
+    public float[] solve(float[] b) {
+        return solve(b, new float[b.length]);
+    }
+
+    /**
+     * @return inverse of the decomposed matrix
+     * @throws IllegalStateException if the matrix is not positive definite
+     */
+    public Matrixxf inverse() {
+        return solve(CerberusMath.diag(l.rows()));
+    }
+
+    private void checkSPD() {
+        if (!spd)
+            throw new IllegalStateException("Matrix is not symmetric positive definite");
+    }
+
+    /**
+     * Forward substitution with L and back substitution with L^T on a
+     * block of right-hand sides with contiguous rows.
+     */
+    private void substitute(Matrixxf x) {
+        final int n = l.rows();
+        final int r = x.columns;
+        float[] d = l.data;
+        float[] xd = x.data;
+
+        // L * Y = B
+        for (int k = 0; k < n; k++) {
+            int rowK = x.offset + k * x.rowStride;
+            VectorKernels.mul(xd, rowK, 1f / d[k * n + k], xd, rowK, r);
+            for (int i = k + 1; i < n; i++) {
+                float factor = d[i * n + k];
+                if (factor != 0) {
+                    int rowI = x.offset + i * x.rowStride;
+                    VectorKernels.fma(xd, rowK, -factor, xd, rowI, xd, rowI, r);
+                }
+            }
+        }
+
+        // L^T * X = Y
+        for (int k = n - 1; k >= 0; k--) {
+            int rowK = x.offset + k * x.rowStride;
+            VectorKernels.mul(xd, rowK, 1f / d[k * n + k], xd, rowK, r);
+            for (int i = 0; i < k; i++) {
+                float factor = d[k * n + i];
+                if (factor != 0) {
+                    int rowI = x.offset + i * x.rowStride;
+                    VectorKernels.fma(xd, rowK, -factor, xd, rowI, xd, rowI, r);
+                }
+            }
+        }
+    }
+}
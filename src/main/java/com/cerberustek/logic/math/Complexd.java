@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 public class Complexd {
 
     /** Real component of the complex number */
@@ -62,6 +60,10 @@ public class Complexd {
         return new Complexd(re + other.re, im + other.im);
     }
 
+    public Complexd add(Complexd other, Complexd dest) {
+        return dest.set(re + other.re, im + other.im);
+    }
+
     /**
      * Returns the sum of this and a real number.
      *
@@ -72,14 +74,26 @@ public class Complexd {
         return new Complexd(re + s, im);
     }
 
+    public Complexd add(double s, Complexd dest) {
+        return dest.set(re + s, im);
+    }
+
     public Complexd sub(Complexd other) {
         return new Complexd(re - other.re, im - other.im);
     }
 
+    public Complexd sub(Complexd other, Complexd dest) {
+        return dest.set(re - other.re, im - other.im);
+    }
+
     public Complexd sub(double s) {
         return new Complexd(re - s, im);
     }
 
+    public Complexd sub(double s, Complexd dest) {
+        return dest.set(re - s, im);
+    }
+
     /**
      * Returns the product of this and an other complex number.
      *
@@ -90,6 +104,10 @@ public class Complexd {
         return new Complexd(re * other.re - im * other.im, re * other.im + other.re * im);
     }
 
+    public Complexd mul(Complexd other, Complexd dest) {
+        return dest.set(re * other.re - im * other.im, re * other.im + other.re * im);
+    }
+
     /**
      * Returns the product of this and a real number
      * @param s real number to multiply with
@@ -99,15 +117,28 @@ public class Complexd {
         return new Complexd(re * s, im * s);
     }
 
+    public Complexd mul(double s, Complexd dest) {
+        return dest.set(re * s, im * s);
+    }
+
     public Complexd div(Complexd other) {
         double s = other.re * other.re + other.im * other.im;
         return new Complexd((re * other.re + im * other.im) / s, (im * other.re - re * other.im) / s);
     }
 
+    public Complexd div(Complexd other, Complexd dest) {
+        double s = other.re * other.re + other.im * other.im;
+        return dest.set((re * other.re + im * other.im) / s, (im * other.re - re * other.im) / s);
+    }
+
     public Complexd div(double s) {
         return new Complexd(re / s, im / s);
     }
 
+    public Complexd div(double s, Complexd dest) {
+        return dest.set(re / s, im / s);
+    }
+
     public Complexd pow(int exp) {
         if (exp == 0)
             return new Complexd(1, 0);
@@ -125,6 +156,35 @@ public class Complexd {
         }
     }
 
+    /**
+     * Raises this number to an integer power by repeated squaring and
+     * stores the result in dest.
+     * @param exp exponent, may be negative
+     * @param dest destination (may be this)
+     * @return dest
+     */
+    public Complexd pow(int exp, Complexd dest) {
+        double baseRe = re;
+        double baseIm = im;
+        double outRe = 1;
+        double outIm = 0;
+        for (long e = Math.abs((long) exp); e > 0; e >>= 1) {
+            if ((e & 1) != 0) {
+                double tmp = outRe * baseRe - outIm * baseIm;
+                outIm = outRe * baseIm + baseRe * outIm;
+                outRe = tmp;
+            }
+            double tmp = baseRe * baseRe - baseIm * baseIm;
+            baseIm = 2 * baseRe * baseIm;
+            baseRe = tmp;
+        }
+        if (exp < 0) {
+            double s = outRe * outRe + outIm * outIm;
+            return dest.set(outRe / s, -outIm / s);
+        }
+        return dest.set(outRe, outIm);
+    }
+
     /**
      * Returns the absolute value of this number (in a non-mathematical
      * sense)
@@ -141,6 +201,10 @@ public class Complexd {
         return new Complexd(Math.abs(re), Math.abs(im));
     }
 
+    public Complexd abs(Complexd dest) {
+        return dest.set(Math.abs(re), Math.abs(im));
+    }
+
     /**
      * Returns the complex conjugate of this.
      *
@@ -150,6 +214,10 @@ public class Complexd {
         return new Complexd(re, -im);
     }
 
+    public Complexd conjugate(Complexd dest) {
+        return dest.set(re, -im);
+    }
+
     /**
      * Returns the length of this complex number in the gaussian number plane.
      *
@@ -226,7 +294,9 @@ public class Complexd {
 
     @Override
     public int hashCode() {
-        return Objects.hash(re, im);
+        int result = 31 + Double.hashCode(re);
+        result = 31 * result + Double.hashCode(im);
+        return result;
     }
 
     @Override
@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 public class Complexf {
 
     /** Real component of the complex number */
@@ -62,6 +60,10 @@ public class Complexf {
         return new Complexf(re + other.re, im + other.im);
     }
 
+    public Complexf add(Complexf other, Complexf dest) {
+        return dest.set(re + other.re, im + other.im);
+    }
+
     /**
      * Returns the sum of this and a real number.
      *
@@ -72,14 +74,26 @@ public class Complexf {
         return new Complexf(re + s, im);
     }
 
+    public Complexf add(float s, Complexf dest) {
+        return dest.set(re + s, im);
+    }
+
     public Complexf sub(Complexf other) {
         return new Complexf(re - other.re, im - other.im);
     }
 
+    public Complexf sub(Complexf other, Complexf dest) {
+        return dest.set(re - other.re, im - other.im);
+    }
+
     public Complexf sub(float s) {
         return new Complexf(re - s, im);
     }
 
+    public Complexf sub(float s, Complexf dest) {
+        return dest.set(re - s, im);
+    }
+
     /**
      * Returns the product of this and an other complex number.
      *
@@ -90,6 +104,10 @@ public class Complexf {
         return new Complexf(re * other.re - im * other.im, re * other.im + other.re * im);
     }
 
+    public Complexf mul(Complexf other, Complexf dest) {
+        return dest.set(re * other.re - im * other.im, re * other.im + other.re * im);
+    }
+
     /**
      * Returns the product of this and a real number
      * @param s real number to multiply with
@@ -99,15 +117,28 @@ public class Complexf {
         return new Complexf(re * s, im * s);
     }
 
+    public Complexf mul(float s, Complexf dest) {
+        return dest.set(re * s, im * s);
+    }
+
     public Complexf div(Complexf other) {
         float s = other.re * other.re + other.im * other.im;
         return new Complexf((re * other.re + im * other.im) / s, (im * other.re - re * other.im) / s);
     }
 
+    public Complexf div(Complexf other, Complexf dest) {
+        float s = other.re * other.re + other.im * other.im;
+        return dest.set((re * other.re + im * other.im) / s, (im * other.re - re * other.im) / s);
+    }
+
     public Complexf div(float s) {
         return new Complexf(re / s, im / s);
     }
 
+    public Complexf div(float s, Complexf dest) {
+        return dest.set(re / s, im / s);
+    }
+
     public Complexf pow(int exp) {
         if (exp == 0)
             return new Complexf(1, 0);
@@ -123,6 +154,35 @@ public class Complexf {
             return new Complexf(1, 0).div(pow(-exp));
     }
 
+    /**
+     * Raises this number to an integer power by repeated squaring and
+     * stores the result in dest.
+     * @param exp exponent, may be negative
+     * @param dest destination (may be this)
+     * @return dest
+     */
+    public Complexf pow(int exp, Complexf dest) {
+        float baseRe = re;
+        float baseIm = im;
+        float outRe = 1;
+        float outIm = 0;
+        for (long e = Math.abs((long) exp); e > 0; e >>= 1) {
+            if ((e & 1) != 0) {
+                float tmp = outRe * baseRe - outIm * baseIm;
+                outIm = outRe * baseIm + baseRe * outIm;
+                outRe = tmp;
+            }
+            float tmp = baseRe * baseRe - baseIm * baseIm;
+            baseIm = 2 * baseRe * baseIm;
+            baseRe = tmp;
+        }
+        if (exp < 0) {
+            float s = outRe * outRe + outIm * outIm;
+            return dest.set(outRe / s, -outIm / s);
+        }
+        return dest.set(outRe, outIm);
+    }
+
     /**
      * Returns the absolute value of this number (in a non-mathematical
      * sense)
@@ -139,6 +199,10 @@ public class Complexf {
         return new Complexf(Math.abs(re), Math.abs(im));
     }
 
+    public Complexf abs(Complexf dest) {
+        return dest.set(Math.abs(re), Math.abs(im));
+    }
+
     /**
      * Returns the complex conjugate of this.
      *
@@ -148,6 +212,10 @@ public class Complexf {
         return new Complexf(re, -im);
     }
 
+    public Complexf conjugate(Complexf dest) {
+        return dest.set(re, -im);
+    }
+
     /**
      * Returns the length of this complex number in the gaussian number plane.
      *
@@ -224,7 +292,9 @@ public class Complexf {
 
     @Override
     public int hashCode() {
-        return Objects.hash(re, im);
+        int result = 31 + Float.hashCode(re);
+        result = 31 * result + Float.hashCode(im);
+        return result;
     }
 
     @Override
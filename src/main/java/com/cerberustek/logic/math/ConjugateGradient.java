@@ -0,0 +1,65 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+/**
+ * Preconditioned conjugate gradient method for symmetric positive definite
+ * systems. The preconditioner must be symmetric positive definite as
+ * well, e.g. Jacobi or SSOR.
+ */
+public class ConjugateGradient extends KrylovSolver {
+
+    @Override
+    protected void iterate(LinearOperator a, double[] b, double[] x, double bNorm) {
+        final int n = b.length;
+        final double[][] w = work(4, n);
+        final double[] r = w[0];
+        final double[] z = w[1];
+        final double[] p = w[2];
+        final double[] q = w[3];
+
+        residual(a, b, x, r);
+        precondition(r, z);
+        System.arraycopy(z, 0, p, 0, n);
+        double rz = VectorKernels.dot(r, 0, z, 0, n);
+
+        while (!step(norm(r) / bNorm)) {
+            a.apply(p, q);
+            double pq = VectorKernels.dot(p, 0, q, 0, n);
+            // A or M is not positive definite
+            if (!(pq > 0))
+                return;
+
+            double alpha = rz / pq;
+            VectorKernels.fma(p, 0, alpha, x, 0, x, 0, n);
+            VectorKernels.fma(q, 0, -alpha, r, 0, r, 0, n);
+            countIteration();
+
+            precondition(r, z);
+            double rzNew = VectorKernels.dot(r, 0, z, 0, n);
+            // p = z + beta * p
+            VectorKernels.fma(p, 0, rzNew / rz, z, 0, p, 0, n);
+            rz = rzNew;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * View frustum extracted from a view-projection matrix.
+ *
+ * The six planes are obtained with the method of Gribb and Hartmann by
+ * adding and subtracting the rows of the matrix, so any projection built
+ * with {@link Matrix4f#initProjection(float, float, float, float)} or
+ * {@link Matrix4f#initOrthographic(float, float, float, float, float, float)}
+ * combined with a view and model matrix works. Plane normals point into
+ * the frustum and are normalized, so sphere tests are exact.
+ *
+ * Bulk culling writes one bit per object into a long[] bitset. Bit i of
+ * the bitset belongs to the object at off + i and is set if the object
+ * is at least partially inside the frustum.
+ */
+@SuppressWarnings("Duplicates")
+public class Frustum {
+
+    public static final int LEFT = 0;
+    public static final int RIGHT = 1;
+    public static final int BOTTOM = 2;
+    public static final int TOP = 3;
+    public static final int NEAR = 4;
+    public static final int FAR = 5;
+
+    /** Objects per task below which bulk culling is not split any further */
+    private static final int PARALLEL_GRAIN = 1 << 14;
+
+    /** a, b, c, d of the plane equations ax + by + cz + d = 0 */
+    private final float[] planes = new float[24];
+
+    public Frustum() {}
+
+    public Frustum(Matrix4f viewProjection) {
+        set(viewProjection);
+    }
+
+    public Frustum(Matrix4d viewProjection) {
+        set(viewProjection);
+    }
+
+    public Frustum set(Matrix4f viewProjection) {
+        float[] m = viewProjection.getData();
+        for (int col = 0; col < 4; col++) {
+            float r0 = m[col * 4];
+            float r1 = m[col * 4 + 1];
+            float r2 = m[col * 4 + 2];
+            float r3 = m[col * 4 + 3];
+            planes[LEFT * 4 + col] = r3 + r0;
+            planes[RIGHT * 4 + col] = r3 - r0;
+            planes[BOTTOM * 4 + col] = r3 + r1;
+            planes[TOP * 4 + col] = r3 - r1;
+            planes[NEAR * 4 + col] = r3 + r2;
+            planes[FAR * 4 + col] = r3 - r2;
+        }
+        normalize();
+        return this;
+    }
+
+    public Frustum set(Matrix4d viewProjection) {
+        double[] m = viewProjection.getData();
+        for (int col = 0; col < 4; col++) {
+            double r0 = m[col * 4];
+            double r1 = m[col * 4 + 1];
+            double r2 = m[col * 4 + 2];
+            double r3 = m[col * 4 + 3];
+            planes[LEFT * 4 + col] = (float) (r3 + r0);
+            planes[RIGHT * 4 + col] = (float) (r3 - r0);
+            planes[BOTTOM * 4 + col] = (float) (r3 + r1);
+            planes[TOP * 4 + col] = (float) (r3 - r1);
+            planes[NEAR * 4 + col] = (float) (r3 + r2);
+            planes[FAR * 4 + col] = (float) (r3 - r2);
+        }
+        normalize();
+        return this;
+    }
+
+    private void normalize() {
+        for (int i = 0; i < 24; i += 4) {
+            float length = (float) Math.sqrt(planes[i] * planes[i] + planes[i + 1] * planes[i + 1]
+                    + planes[i + 2] * planes[i + 2]);
+            if (length != 0) {
+                planes[i] /= length;
+                planes[i + 1] /= length;
+                planes[i + 2] /= length;
+                planes[i + 3] /= length;
+            }
+        }
+    }
+
+    /**
+     * Returns the plane with the given index as (a, b, c, d).
+     *
+     * @param index one of LEFT, RIGHT, BOTTOM, TOP, NEAR and FAR
+     * @param dest destination vector
+     * @return dest
+     */
+    public Vector4f getPlane(int index, Vector4f dest) {
+        Objects.checkIndex(index, 6);
+        return dest.set(planes[index * 4], planes[index * 4 + 1], planes[index * 4 + 2], planes[index * 4 + 3]);
+    }
+
+    public boolean testPoint(float x, float y, float z) {
+        return testSphere(x, y, z, 0);
+    }
+
+    public boolean testPoint(Vector3f point) {
+        return testSphere(point.getX(), point.getY(), point.getZ(), 0);
+    }
+
+    /**
+     * Returns true if the sphere is at least partially inside the frustum.
+     */
+    public boolean testSphere(float x, float y, float z, float radius) {
+        for (int i = 0; i < 24; i += 4) {
+            if (planes[i] * x + planes[i + 1] * y + planes[i + 2] * z + planes[i + 3] < -radius)
+                return false;
+        }
+        return true;
+    }
+
+    public boolean testSphere(Vector3f center, float radius) {
+        return testSphere(center.getX(), center.getY(), center.getZ(), radius);
+    }
+
+    /**
+     * Returns true if the axis aligned box is at least partially inside the
+     * frustum. Boxes that are close to a corner of the frustum may be
+     * reported as visible even though they are not, which is the usual
+     * trade-off of the plane test.
+     */
+    public boolean testAabb(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        for (int i = 0; i < 24; i += 4) {
+            float a = planes[i];
+            float b = planes[i + 1];
+            float c = planes[i + 2];
+            if (a * (a > 0 ? maxX : minX) + b * (b > 0 ? maxY : minY) + c * (c > 0 ? maxZ : minZ)
+                    + planes[i + 3] < 0)
+                return false;
+        }
+        return true;
+    }
+
+    public boolean testAabb(Vector3f min, Vector3f max) {
+        return testAabb(min.getX(), min.getY(), min.getZ(), max.getX(), max.getY(), max.getZ());
+    }
+
+    private static void checkBulk(int off, int count, int length, long[] visible) {
+        Objects.checkFromIndexSize(off, count, length);
+        if (visible.length < (count + 63) >>> 6)
+            throw new IllegalArgumentException("Bitset is too small!");
+    }
+
+    /**
+     * Culls count spheres with the centers (x[i], y[i], z[i]) and radii r[i]
+     * starting at off.
+     *
+     * @return visible
+     */
+    public long[] cullSpheres(float[] x, float[] y, float[] z, float[] r, int off, int count, long[] visible) {
+        checkSpheres(x, y, z, r, off, count, visible);
+        cullSpheres(x, y, z, r, off, count, visible, 0, (count + 63) >>> 6);
+        return visible;
+    }
+
+    /**
+     * Same as {@link #cullSpheres(float[], float[], float[], float[], int, int, long[])},
+     * but splits the work across the pool. Every task covers whole words of
+     * the bitset, so no two tasks write to the same word.
+     *
+     * @return visible
+     */
+    public long[] cullSpheres(float[] x, float[] y, float[] z, float[] r, int off, int count, long[] visible,
+                              ForkJoinPool pool) {
+        checkSpheres(x, y, z, r, off, count, visible);
+        RangeTask.run(pool, 0, (count + 63) >>> 6, PARALLEL_GRAIN >>> 6,
+                (from, to) -> cullSpheres(x, y, z, r, off, count, visible, from, to));
+        return visible;
+    }
+
+    public long[] cullSpheres(Vector3fArray centers, float[] r, int off, int count, long[] visible) {
+        return cullSpheres(centers.getXArray(), centers.getYArray(), centers.getZArray(), r, off, count, visible);
+    }
+
+    public long[] cullSpheres(Vector3fArray centers, float[] r, int off, int count, long[] visible,
+                              ForkJoinPool pool) {
+        return cullSpheres(centers.getXArray(), centers.getYArray(), centers.getZArray(), r, off, count, visible,
+                pool);
+    }
+
+    private static void checkSpheres(float[] x, float[] y, float[] z, float[] r, int off, int count,
+                                     long[] visible) {
+        checkBulk(off, count, x.length, visible);
+        Objects.checkFromIndexSize(off, count, y.length);
+        Objects.checkFromIndexSize(off, count, z.length);
+        Objects.checkFromIndexSize(off, count, r.length);
+    }
+
+    private void cullSpheres(float[] x, float[] y, float[] z, float[] r, int off, int count, long[] visible,
+                             int fromWord, int toWord) {
+        float a0 = planes[0], b0 = planes[1], c0 = planes[2], d0 = planes[3];
+        float a1 = planes[4], b1 = planes[5], c1 = planes[6], d1 = planes[7];
+        float a2 = planes[8], b2 = planes[9], c2 = planes[10], d2 = planes[11];
+        float a3 = planes[12], b3 = planes[13], c3 = planes[14], d3 = planes[15];
+        float a4 = planes[16], b4 = planes[17], c4 = planes[18], d4 = planes[19];
+        float a5 = planes[20], b5 = planes[21], c5 = planes[22], d5 = planes[23];
+
+        for (int word = fromWord; word < toWord; word++) {
+            int start = off + (word << 6);
+            int end = Math.min(start + 64, off + count);
+            long bits = 0;
+            for (int i = start; i < end; i++) {
+                float px = x[i];
+                float py = y[i];
+                float pz = z[i];
+                float nr = -r[i];
+                // evaluate all planes without branching, the outcome is hard to predict
+                boolean inside = a0 * px + b0 * py + c0 * pz + d0 >= nr
+                        & a1 * px + b1 * py + c1 * pz + d1 >= nr
+                        & a2 * px + b2 * py + c2 * pz + d2 >= nr
+                        & a3 * px + b3 * py + c3 * pz + d3 >= nr
+                        & a4 * px + b4 * py + c4 * pz + d4 >= nr
+                        & a5 * px + b5 * py + c5 * pz + d5 >= nr;
+                bits |= (inside ? 1L : 0L) << (i - start);
+            }
+            visible[word] = bits;
+        }
+    }
+
+    /**
+     * Culls count axis aligned boxes with the corners (minX[i], minY[i],
+     * minZ[i]) and (maxX[i], maxY[i], maxZ[i]) starting at off.
+     *
+     * @return visible
+     */
+    public long[] cullAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ,
+                            int off, int count, long[] visible) {
+        checkAabbs(minX, minY, minZ, maxX, maxY, maxZ, off, count, visible);
+        cullAabbs(minX, minY, minZ, maxX, maxY, maxZ, off, count, visible, 0, (count + 63) >>> 6);
+        return visible;
+    }
+
+    /**
+     * Same as {@link #cullAabbs(float[], float[], float[], float[], float[], float[], int, int, long[])},
+     * but splits the work across the pool. Every task covers whole words of
+     * the bitset, so no two tasks write to the same word.
+     *
+     * @return visible
+     */
+    public long[] cullAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ,
+                            int off, int count, long[] visible, ForkJoinPool pool) {
+        checkAabbs(minX, minY, minZ, maxX, maxY, maxZ, off, count, visible);
+        RangeTask.run(pool, 0, (count + 63) >>> 6, PARALLEL_GRAIN >>> 6,
+                (from, to) -> cullAabbs(minX, minY, minZ, maxX, maxY, maxZ, off, count, visible, from, to));
+        return visible;
+    }
+
+    public long[] cullAabbs(Vector3fArray min, Vector3fArray max, int off, int count, long[] visible) {
+        return cullAabbs(min.getXArray(), min.getYArray(), min.getZArray(),
+                max.getXArray(), max.getYArray(), max.getZArray(), off, count, visible);
+    }
+
+    public long[] cullAabbs(Vector3fArray min, Vector3fArray max, int off, int count, long[] visible,
+                            ForkJoinPool pool) {
+        return cullAabbs(min.getXArray(), min.getYArray(), min.getZArray(),
+                max.getXArray(), max.getYArray(), max.getZArray(), off, count, visible, pool);
+    }
+
+    private static void checkAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY,
+                                   float[] maxZ, int off, int count, long[] visible) {
+        checkBulk(off, count, minX.length, visible);
+        Objects.checkFromIndexSize(off, count, minY.length);
+        Objects.checkFromIndexSize(off, count, minZ.length);
+        Objects.checkFromIndexSize(off, count, maxX.length);
+        Objects.checkFromIndexSize(off, count, maxY.length);
+        Objects.checkFromIndexSize(off, count, maxZ.length);
+    }
+
+    private void cullAabbs(float[] minX, float[] minY, float[] minZ, float[] maxX, float[] maxY, float[] maxZ,
+                           int off, int count, long[] visible, int fromWord, int toWord) {
+        float a0 = planes[0], b0 = planes[1], c0 = planes[2], d0 = planes[3];
+        float a1 = planes[4], b1 = planes[5], c1 = planes[6], d1 = planes[7];
+        float a2 = planes[8], b2 = planes[9], c2 = planes[10], d2 = planes[11];
+        float a3 = planes[12], b3 = planes[13], c3 = planes[14], d3 = planes[15];
+        float a4 = planes[16], b4 = planes[17], c4 = planes[18], d4 = planes[19];
+        float a5 = planes[20], b5 = planes[21], c5 = planes[22], d5 = planes[23];
+
+        for (int word = fromWord; word < toWord; word++) {
+            int start = off + (word << 6);
+            int end = Math.min(start + 64, off + count);
+            long bits = 0;
+            for (int i = start; i < end; i++) {
+                float nx = minX[i], ny = minY[i], nz = minZ[i];
+                float xx = maxX[i], xy = maxY[i], xz = maxZ[i];
+                // evaluate all planes without branching, the outcome is hard to predict
+                boolean inside = a0 * (a0 > 0 ? xx : nx) + b0 * (b0 > 0 ? xy : ny) + c0 * (c0 > 0 ? xz : nz) + d0 >= 0
+                        & a1 * (a1 > 0 ? xx : nx) + b1 * (b1 > 0 ? xy : ny) + c1 * (c1 > 0 ? xz : nz) + d1 >= 0
+                        & a2 * (a2 > 0 ? xx : nx) + b2 * (b2 > 0 ? xy : ny) + c2 * (c2 > 0 ? xz : nz) + d2 >= 0
+                        & a3 * (a3 > 0 ? xx : nx) + b3 * (b3 > 0 ? xy : ny) + c3 * (c3 > 0 ? xz : nz) + d3 >= 0
+                        & a4 * (a4 > 0 ? xx : nx) + b4 * (b4 > 0 ? xy : ny) + c4 * (c4 > 0 ? xz : nz) + d4 >= 0
+                        & a5 * (a5 > 0 ? xx : nx) + b5 * (b5 > 0 ? xy : ny) + c5 * (c5 > 0 ? xz : nz) + d5 >= 0;
+                bits |= (inside ? 1L : 0L) << (i - start);
+            }
+            visible[word] = bits;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append('[');
+        for (int i = 0; i < 24; i += 4) {
+            stringBuilder.append("\n\t").append(planes[i]).append("\t").append(planes[i + 1])
+                    .append("\t").append(planes[i + 2]).append("\t").append(planes[i + 3]);
+        }
+        stringBuilder.append("\n]");
+        return stringBuilder.toString();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Arrays;
+
+/**
+ * Right preconditioned restarted GMRES(m) method for general systems.
+ *
+ * Every restart cycle builds an orthonormal basis of at most m Krylov
+ * vectors with modified Gram-Schmidt and minimizes the residual over it.
+ * The least squares problem is kept triangular with Givens rotations, so
+ * the residual norm is known after every iteration without computing it.
+ */
+public class GMRES extends KrylovSolver {
+
+    private int restart;
+
+    private double[] hessenberg;
+    private double[] cosines;
+    private double[] sines;
+    private double[] g;
+
+    /**
+     * @param restart number of iterations between restarts
+     */
+    public GMRES(int restart) {
+        setRestart(restart);
+    }
+
+    public GMRES() {
+        this(30);
+    }
+
+    @Override
+    protected void iterate(LinearOperator a, double[] b, double[] x, double bNorm) {
+        final int n = b.length;
+        final int m = Math.min(restart, n);
+        final double[][] w = work(m + 3, n);
+        final double[] r = w[m + 1];
+        final double[] z = w[m + 2];
+        if (hessenberg == null || g.length != m + 1) {
+            hessenberg = new double[(m + 1) * m];
+            cosines = new double[m];
+            sines = new double[m];
+            g = new double[m + 1];
+        }
+
+        residual(a, b, x, r);
+        double beta = norm(r);
+        while (!step(beta / bNorm)) {
+            // v0 = r / |r|
+            VectorKernels.mul(r, 0, 1 / beta, w[0], 0, n);
+            Arrays.fill(g, 0);
+            g[0] = beta;
+
+            int k = 0;
+            boolean done = false;
+            while (k < m && !done) {
+                precondition(w[k], z);
+                double[] v = w[k + 1];
+                a.apply(z, v);
+
+                // modified Gram-Schmidt, column k of H is stored at k * (m + 1)
+                final int column = k * (m + 1);
+                for (int i = 0; i <= k; i++) {
+                    double h = VectorKernels.dot(v, 0, w[i], 0, n);
+                    hessenberg[column + i] = h;
+                    VectorKernels.fma(w[i], 0, -h, v, 0, v, 0, n);
+                }
+                double h = norm(v);
+                hessenberg[column + k + 1] = h;
+                if (h != 0)
+                    VectorKernels.mul(v, 0, 1 / h, v, 0, n);
+
+                // apply previous rotations, then eliminate H(k + 1, k)
+                for (int i = 0; i < k; i++) {
+                    double h0 = hessenberg[column + i];
+                    double h1 = hessenberg[column + i + 1];
+                    hessenberg[column + i] = cosines[i] * h0 + sines[i] * h1;
+                    hessenberg[column + i + 1] = -sines[i] * h0 + cosines[i] * h1;
+                }
+                double diagonal = hessenberg[column + k];
+                double radius = Math.hypot(diagonal, h);
+                cosines[k] = diagonal / radius;
+                sines[k] = h / radius;
+                hessenberg[column + k] = radius;
+                hessenberg[column + k + 1] = 0;
+                g[k + 1] = -sines[k] * g[k];
+                g[k] = cosines[k] * g[k];
+
+                k++;
+                countIteration();
+                // h == 0 means the solution lies in the current subspace
+                done = h == 0 || step(Math.abs(g[k]) / bNorm);
+            }
+
+            // solve H y = g in place and add M^-1 * V * y to x
+            for (int i = k - 1; i >= 0; i--) {
+                double sum = g[i];
+                for (int j = i + 1; j < k; j++)
+                    sum -= hessenberg[j * (m + 1) + i] * g[j];
+                g[i] = sum / hessenberg[i * (m + 1) + i];
+            }
+            Arrays.fill(r, 0);
+            for (int i = 0; i < k; i++)
+                VectorKernels.fma(w[i], 0, g[i], r, 0, r, 0, n);
+            precondition(r, z);
+            VectorKernels.add(x, 0, z, 0, x, 0, n);
+
+            residual(a, b, x, r);
+            beta = norm(r);
+        }
+    }
+
+    public int getRestart() {
+        return restart;
+    }
+
+    /**
+     * @param restart number of iterations between restarts
+     */
+    public void setRestart(int restart) {
+        if (restart < 1)
+            throw new IllegalArgumentException("Restart must be positive!");
+        this.restart = restart;
+    }
+}
@@ -0,0 +1,522 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * General matrix multiplication for Matrixxf and Matrixxd.
+ *
+ * Large products are computed in blocks: a KC x NC block of B and an
+ * MC x KC block of A are packed into contiguous panels so that the
+ * innermost loops only read sequential memory, and a 4 x 4 tile of the
+ * result is accumulated in local variables. Small products use a
+ * simple row-wise loop because packing does not pay off for them.
+ *
+ * Products whose result has at least MatrixParallelism.getThreshold()
+ * elements are split into row or column blocks and run in the pool
+ * configured in MatrixParallelism.
+ */
+@SuppressWarnings("Duplicates")
+public final class Gemm {
+
+    /** Rows of the register tile */
+    private static final int MR = 4;
+    /** Columns of the register tile */
+    private static final int NR = 4;
+    /** Rows of a packed A block; MC x KC elements are kept in L2 */
+    private static final int MC = 64;
+    /** Depth of the packed blocks */
+    private static final int KC = 256;
+    /** Columns of a packed B block; KC x NC elements are kept in L3 */
+    private static final int NC = 2048;
+    /** Products with at most this many multiply-adds skip packing */
+    private static final long SMALL = 32 * 32 * 32;
+
+    private Gemm() {}
+
+    private static int roundUp(int value, int multiple) {
+        return (value + multiple - 1) / multiple * multiple;
+    }
+
+    /** Splits a dimension into about four blocks per thread, but no less than MC */
+    private static int grain(int length, ForkJoinPool pool) {
+        return Math.max(MC, length / (4 * pool.getParallelism()));
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C.
+     *
+     * C must not share its backing array with A or B. If beta is zero, C is
+     * overwritten without being read, so it may contain NaN.
+     * @param alpha factor of the product
+     * @param a left operand (m x k)
+     * @param b right operand (k x n)
+     * @param beta factor of the previous content of C
+     * @param c result (m x n)
+     */
+    public static void gemm(float alpha, Matrixxf a, Matrixxf b, float beta, Matrixxf c) {
+        check(a, b, c);
+        ForkJoinPool pool = MatrixParallelism.pool((long) c.rows * c.columns);
+        if (pool == null || (long) a.rows * b.columns * a.columns <= SMALL)
+            multiply(alpha, a, b, beta, c);
+        else
+            gemm(alpha, a, b, beta, c, pool);
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C in the specified pool. The
+     * larger dimension of C is split into blocks that are multiplied
+     * independently.
+     * @param alpha factor of the product
+     * @param a left operand (m x k)
+     * @param b right operand (k x n)
+     * @param beta factor of the previous content of C
+     * @param c result (m x n)
+     * @param pool pool to run in
+     */
+    public static void gemm(float alpha, Matrixxf a, Matrixxf b, float beta, Matrixxf c, ForkJoinPool pool) {
+        check(a, b, c);
+        final int m = a.rows;
+        final int n = b.columns;
+        final int k = a.columns;
+
+        if (m >= n) {
+            RangeTask.run(pool, 0, m, grain(m, pool), (from, to) -> multiply(alpha,
+                    a.subMatrix(from, 0, to - from, k), b, beta, c.subMatrix(from, 0, to - from, n)));
+        } else {
+            RangeTask.run(pool, 0, n, grain(n, pool), (from, to) -> multiply(alpha,
+                    a, b.subMatrix(0, from, k, to - from), beta, c.subMatrix(0, from, m, to - from)));
+        }
+    }
+
+    private static void check(Matrixxf a, Matrixxf b, Matrixxf c) {
+        if (a.columns != b.rows || c.rows != a.rows || c.columns != b.columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+        if (c.data == a.data || c.data == b.data)
+            throw new IllegalArgumentException("Result matrix must not share data with the operands!");
+    }
+
+    private static void multiply(float alpha, Matrixxf a, Matrixxf b, float beta, Matrixxf c) {
+        final int m = a.rows;
+        final int n = b.columns;
+        final int k = a.columns;
+
+        scale(beta, c);
+        if (m == 0 || n == 0 || k == 0 || alpha == 0)
+            return;
+
+        if ((long) m * n * k <= SMALL) {
+            naive(alpha, a, b, c);
+            return;
+        }
+
+        final int kcMax = Math.min(KC, k);
+        float[] bPack = new float[kcMax * roundUp(Math.min(NC, n), NR)];
+        float[] aPack = new float[roundUp(Math.min(MC, m), MR) * kcMax];
+        float[] tile = new float[MR * NR];
+
+        for (int jc = 0; jc < n; jc += NC) {
+            int nc = Math.min(NC, n - jc);
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                packB(b, pc, jc, kc, nc, bPack);
+                for (int ic = 0; ic < m; ic += MC) {
+                    int mc = Math.min(MC, m - ic);
+                    packA(alpha, a, ic, pc, mc, kc, aPack);
+                    macroKernel(mc, nc, kc, aPack, bPack, c, ic, jc, tile);
+                }
+            }
+        }
+    }
+
+    private static void scale(float beta, Matrixxf c) {
+        if (beta == 1)
+            return;
+
+        for (int row = 0; row < c.rows; row++) {
+            int index = c.offset + row * c.rowStride;
+            for (int column = 0; column < c.columns; column++, index += c.colStride)
+                c.data[index] = beta == 0 ? 0 : c.data[index] * beta;
+        }
+    }
+
+    private static void naive(float alpha, Matrixxf a, Matrixxf b, Matrixxf c) {
+        final int n = b.columns;
+        for (int row = 0; row < a.rows; row++) {
+            int cRow = c.offset + row * c.rowStride;
+            int aIndex = a.offset + row * a.rowStride;
+            for (int k = 0; k < a.columns; k++, aIndex += a.colStride) {
+                float f = alpha * a.data[aIndex];
+                if (f == 0)
+                    continue;
+
+                int bRow = b.offset + k * b.rowStride;
+                if (b.colStride == 1 && c.colStride == 1) {
+                    VectorKernels.fma(b.data, bRow, f, c.data, cRow, c.data, cRow, n);
+                } else {
+                    for (int j = 0; j < n; j++)
+                        c.data[cRow + j * c.colStride] += f * b.data[bRow + j * b.colStride];
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs the kc x nc block of B at (pc, jc) into panels of NR columns.
+     * Each panel stores its kc rows one after another, padded with zeros.
+     */
+    private static void packB(Matrixxf b, int pc, int jc, int kc, int nc, float[] pack) {
+        int dst = 0;
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            for (int p = 0; p < kc; p++) {
+                int src = b.offset + (pc + p) * b.rowStride + (jc + jr) * b.colStride;
+                int j = 0;
+                for (; j < nr; j++, src += b.colStride)
+                    pack[dst + j] = b.data[src];
+                for (; j < NR; j++)
+                    pack[dst + j] = 0;
+                dst += NR;
+            }
+        }
+    }
+
+    /**
+     * Packs the mc x kc block of A at (ic, pc), scaled by alpha, into panels
+     * of MR rows. Each panel stores its kc columns one after another, padded
+     * with zeros.
+     */
+    private static void packA(float alpha, Matrixxf a, int ic, int pc, int mc, int kc, float[] pack) {
+        int panel = 0;
+        for (int ir = 0; ir < mc; ir += MR, panel += MR * kc) {
+            int mr = Math.min(MR, mc - ir);
+            for (int i = 0; i < MR; i++) {
+                int dst = panel + i;
+                if (i < mr) {
+                    int src = a.offset + (ic + ir + i) * a.rowStride + pc * a.colStride;
+                    for (int p = 0; p < kc; p++, dst += MR, src += a.colStride)
+                        pack[dst] = alpha * a.data[src];
+                } else {
+                    for (int p = 0; p < kc; p++, dst += MR)
+                        pack[dst] = 0;
+                }
+            }
+        }
+    }
+
+    private static void macroKernel(int mc, int nc, int kc, float[] aPack, float[] bPack,
+                                    Matrixxf c, int ic, int jc, float[] tile) {
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            int bOff = jr * kc;
+            for (int ir = 0; ir < mc; ir += MR) {
+                int mr = Math.min(MR, mc - ir);
+                int cOff = c.offset + (ic + ir) * c.rowStride + (jc + jr) * c.colStride;
+                microKernel(kc, aPack, ir * kc, bPack, bOff, c.data, cOff, c.rowStride, c.colStride, mr, nr, tile);
+            }
+        }
+    }
+
+    /**
+     * Adds the product of an MR x kc panel of A and a kc x NR panel of B to
+     * the mr x nr tile of C at cOff. The tile is accumulated in locals.
+     */
+    private static void microKernel(int kc, float[] a, int aOff, float[] b, int bOff,
+                                    float[] c, int cOff, int rs, int cs, int mr, int nr, float[] tile) {
+        float c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        float c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        float c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        float c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+
+        for (int p = 0; p < kc; p++, aOff += MR, bOff += NR) {
+            float a0 = a[aOff], a1 = a[aOff + 1], a2 = a[aOff + 2], a3 = a[aOff + 3];
+            float b0 = b[bOff], b1 = b[bOff + 1];
+            float b2 = b[bOff + 2], b3 = b[bOff + 3];
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+        }
+
+        if (mr == MR && nr == NR) {
+            int r0 = cOff;
+            int r1 = cOff + rs;
+            int r2 = cOff + 2 * rs;
+            int r3 = cOff + 3 * rs;
+            if (cs == 1) {
+                c[r0] += c00; c[r0 + 1] += c01;
+                c[r0 + 2] += c02; c[r0 + 3] += c03;
+                c[r1] += c10; c[r1 + 1] += c11;
+                c[r1 + 2] += c12; c[r1 + 3] += c13;
+                c[r2] += c20; c[r2 + 1] += c21;
+                c[r2 + 2] += c22; c[r2 + 3] += c23;
+                c[r3] += c30; c[r3 + 1] += c31;
+                c[r3 + 2] += c32; c[r3 + 3] += c33;
+                return;
+            }
+        }
+
+        tile[0] = c00; tile[1] = c01;
+        tile[2] = c02; tile[3] = c03;
+        tile[4] = c10; tile[5] = c11;
+        tile[6] = c12; tile[7] = c13;
+        tile[8] = c20; tile[9] = c21;
+        tile[10] = c22; tile[11] = c23;
+        tile[12] = c30; tile[13] = c31;
+        tile[14] = c32; tile[15] = c33;
+        for (int i = 0; i < mr; i++) {
+            int index = cOff + i * rs;
+            for (int j = 0; j < nr; j++, index += cs)
+                c[index] += tile[i * NR + j];
+        }
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C.
+     *
+     * C must not share its backing array with A or B. If beta is zero, C is
+     * overwritten without being read, so it may contain NaN.
+     * @param alpha factor of the product
+     * @param a left operand (m x k)
+     * @param b right operand (k x n)
+     * @param beta factor of the previous content of C
+     * @param c result (m x n)
+     */
+    public static void gemm(double alpha, Matrixxd a, Matrixxd b, double beta, Matrixxd c) {
+        check(a, b, c);
+        ForkJoinPool pool = MatrixParallelism.pool((long) c.rows * c.columns);
+        if (pool == null || (long) a.rows * b.columns * a.columns <= SMALL)
+            multiply(alpha, a, b, beta, c);
+        else
+            gemm(alpha, a, b, beta, c, pool);
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C in the specified pool. The
+     * larger dimension of C is split into blocks that are multiplied
+     * independently.
+     * @param alpha factor of the product
+     * @param a left operand (m x k)
+     * @param b right operand (k x n)
+     * @param beta factor of the previous content of C
+     * @param c result (m x n)
+     * @param pool pool to run in
+     */
+    public static void gemm(double alpha, Matrixxd a, Matrixxd b, double beta, Matrixxd c, ForkJoinPool pool) {
+        check(a, b, c);
+        final int m = a.rows;
+        final int n = b.columns;
+        final int k = a.columns;
+
+        if (m >= n) {
+            RangeTask.run(pool, 0, m, grain(m, pool), (from, to) -> multiply(alpha,
+                    a.subMatrix(from, 0, to - from, k), b, beta, c.subMatrix(from, 0, to - from, n)));
+        } else {
+            RangeTask.run(pool, 0, n, grain(n, pool), (from, to) -> multiply(alpha,
+                    a, b.subMatrix(0, from, k, to - from), beta, c.subMatrix(0, from, m, to - from)));
+        }
+    }
+
+    private static void check(Matrixxd a, Matrixxd b, Matrixxd c) {
+        if (a.columns != b.rows || c.rows != a.rows || c.columns != b.columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+        if (c.data == a.data || c.data == b.data)
+            throw new IllegalArgumentException("Result matrix must not share data with the operands!");
+    }
+
+    private static void multiply(double alpha, Matrixxd a, Matrixxd b, double beta, Matrixxd c) {
+        final int m = a.rows;
+        final int n = b.columns;
+        final int k = a.columns;
+
+        scale(beta, c);
+        if (m == 0 || n == 0 || k == 0 || alpha == 0)
+            return;
+
+        if ((long) m * n * k <= SMALL) {
+            naive(alpha, a, b, c);
+            return;
+        }
+
+        final int kcMax = Math.min(KC, k);
+        double[] bPack = new double[kcMax * roundUp(Math.min(NC, n), NR)];
+        double[] aPack = new double[roundUp(Math.min(MC, m), MR) * kcMax];
+        double[] tile = new double[MR * NR];
+
+        for (int jc = 0; jc < n; jc += NC) {
+            int nc = Math.min(NC, n - jc);
+            for (int pc = 0; pc < k; pc += KC) {
+                int kc = Math.min(KC, k - pc);
+                packB(b, pc, jc, kc, nc, bPack);
+                for (int ic = 0; ic < m; ic += MC) {
+                    int mc = Math.min(MC, m - ic);
+                    packA(alpha, a, ic, pc, mc, kc, aPack);
+                    macroKernel(mc, nc, kc, aPack, bPack, c, ic, jc, tile);
+                }
+            }
+        }
+    }
+
+    private static void scale(double beta, Matrixxd c) {
+        if (beta == 1)
+            return;
+
+        for (int row = 0; row < c.rows; row++) {
+            int index = c.offset + row * c.rowStride;
+            for (int column = 0; column < c.columns; column++, index += c.colStride)
+                c.data[index] = beta == 0 ? 0 : c.data[index] * beta;
+        }
+    }
+
+    private static void naive(double alpha, Matrixxd a, Matrixxd b, Matrixxd c) {
+        final int n = b.columns;
+        for (int row = 0; row < a.rows; row++) {
+            int cRow = c.offset + row * c.rowStride;
+            int aIndex = a.offset + row * a.rowStride;
+            for (int k = 0; k < a.columns; k++, aIndex += a.colStride) {
+                double f = alpha * a.data[aIndex];
+                if (f == 0)
+                    continue;
+
+                int bRow = b.offset + k * b.rowStride;
+                if (b.colStride == 1 && c.colStride == 1) {
+                    VectorKernels.fma(b.data, bRow, f, c.data, cRow, c.data, cRow, n);
+                } else {
+                    for (int j = 0; j < n; j++)
+                        c.data[cRow + j * c.colStride] += f * b.data[bRow + j * b.colStride];
+                }
+            }
+        }
+    }
+
+    /**
+     * Packs the kc x nc block of B at (pc, jc) into panels of NR columns.
+     * Each panel stores its kc rows one after another, padded with zeros.
+     */
+    private static void packB(Matrixxd b, int pc, int jc, int kc, int nc, double[] pack) {
+        int dst = 0;
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            for (int p = 0; p < kc; p++) {
+                int src = b.offset + (pc + p) * b.rowStride + (jc + jr) * b.colStride;
+                int j = 0;
+                for (; j < nr; j++, src += b.colStride)
+                    pack[dst + j] = b.data[src];
+                for (; j < NR; j++)
+                    pack[dst + j] = 0;
+                dst += NR;
+            }
+        }
+    }
+
+    /**
+     * Packs the mc x kc block of A at (ic, pc), scaled by alpha, into panels
+     * of MR rows. Each panel stores its kc columns one after another, padded
+     * with zeros.
+     */
+    private static void packA(double alpha, Matrixxd a, int ic, int pc, int mc, int kc, double[] pack) {
+        int panel = 0;
+        for (int ir = 0; ir < mc; ir += MR, panel += MR * kc) {
+            int mr = Math.min(MR, mc - ir);
+            for (int i = 0; i < MR; i++) {
+                int dst = panel + i;
+                if (i < mr) {
+                    int src = a.offset + (ic + ir + i) * a.rowStride + pc * a.colStride;
+                    for (int p = 0; p < kc; p++, dst += MR, src += a.colStride)
+                        pack[dst] = alpha * a.data[src];
+                } else {
+                    for (int p = 0; p < kc; p++, dst += MR)
+                        pack[dst] = 0;
+                }
+            }
+        }
+    }
+
+    private static void macroKernel(int mc, int nc, int kc, double[] aPack, double[] bPack,
+                                    Matrixxd c, int ic, int jc, double[] tile) {
+        for (int jr = 0; jr < nc; jr += NR) {
+            int nr = Math.min(NR, nc - jr);
+            int bOff = jr * kc;
+            for (int ir = 0; ir < mc; ir += MR) {
+                int mr = Math.min(MR, mc - ir);
+                int cOff = c.offset + (ic + ir) * c.rowStride + (jc + jr) * c.colStride;
+                microKernel(kc, aPack, ir * kc, bPack, bOff, c.data, cOff, c.rowStride, c.colStride, mr, nr, tile);
+            }
+        }
+    }
+
+    /**
+     * Adds the product of an MR x kc panel of A and a kc x NR panel of B to
+     * the mr x nr tile of C at cOff. The tile is accumulated in locals.
+     */
+    private static void microKernel(int kc, double[] a, int aOff, double[] b, int bOff,
+                                    double[] c, int cOff, int rs, int cs, int mr, int nr, double[] tile) {
+        double c00 = 0, c01 = 0, c02 = 0, c03 = 0;
+        double c10 = 0, c11 = 0, c12 = 0, c13 = 0;
+        double c20 = 0, c21 = 0, c22 = 0, c23 = 0;
+        double c30 = 0, c31 = 0, c32 = 0, c33 = 0;
+
+        for (int p = 0; p < kc; p++, aOff += MR, bOff += NR) {
+            double a0 = a[aOff], a1 = a[aOff + 1], a2 = a[aOff + 2], a3 = a[aOff + 3];
+            double b0 = b[bOff], b1 = b[bOff + 1];
+            double b2 = b[bOff + 2], b3 = b[bOff + 3];
+            c00 += a0 * b0; c01 += a0 * b1; c02 += a0 * b2; c03 += a0 * b3;
+            c10 += a1 * b0; c11 += a1 * b1; c12 += a1 * b2; c13 += a1 * b3;
+            c20 += a2 * b0; c21 += a2 * b1; c22 += a2 * b2; c23 += a2 * b3;
+            c30 += a3 * b0; c31 += a3 * b1; c32 += a3 * b2; c33 += a3 * b3;
+        }
+
+        if (mr == MR && nr == NR) {
+            int r0 = cOff;
+            int r1 = cOff + rs;
+            int r2 = cOff + 2 * rs;
+            int r3 = cOff + 3 * rs;
+            if (cs == 1) {
+                c[r0] += c00; c[r0 + 1] += c01;
+                c[r0 + 2] += c02; c[r0 + 3] += c03;
+                c[r1] += c10; c[r1 + 1] += c11;
+                c[r1 + 2] += c12; c[r1 + 3] += c13;
+                c[r2] += c20; c[r2 + 1] += c21;
+                c[r2 + 2] += c22; c[r2 + 3] += c23;
+                c[r3] += c30; c[r3 + 1] += c31;
+                c[r3 + 2] += c32; c[r3 + 3] += c33;
+                return;
+            }
+        }
+
+        tile[0] = c00; tile[1] = c01;
+        tile[2] = c02; tile[3] = c03;
+        tile[4] = c10; tile[5] = c11;
+        tile[6] = c12; tile[7] = c13;
+        tile[8] = c20; tile[9] = c21;
+        tile[10] = c22; tile[11] = c23;
+        tile[12] = c30; tile[13] = c31;
+        tile[14] = c32; tile[15] = c33;
+        for (int i = 0; i < mr; i++) {
+            int index = cOff + i * rs;
+            for (int j = 0; j < nr; j++, index += cs)
+                c[index] += tile[i * NR + j];
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Arrays;
+
+/**
+ * Incomplete LU factorization without fill-in, ILU(0). L and U have the
+ * same sparsity pattern as the lower and upper part of A, and L * U
+ * matches A on that pattern.
+ */
+public class ILU0Preconditioner implements Preconditioner {
+
+    private final int[] pointers;
+    private final int[] indices;
+    private final int[] diagonal;
+    /** strictly lower part holds L (with unit diagonal), the rest U */
+    private final double[] lu;
+
+    /**
+     * @param a square matrix without zeros on its diagonal
+     * @throws IllegalStateException if a zero pivot occurs
+     */
+    public ILU0Preconditioner(SparseMatrixd a) {
+        if (a.rows() != a.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        SparseMatrixd csr = a.toCSR();
+        final int n = csr.rows();
+        pointers = csr.getPointers();
+        indices = csr.getIndices();
+        diagonal = SSORPreconditioner.diagonalPositions(csr);
+        lu = Arrays.copyOf(csr.getValues(), csr.nonZeros());
+
+        // position of each column in the current row, or -1
+        int[] position = new int[n];
+        Arrays.fill(position, -1);
+
+        for (int i = 1; i < n; i++) {
+            for (int k = pointers[i]; k < pointers[i + 1]; k++)
+                position[indices[k]] = k;
+
+            for (int k = pointers[i]; k < diagonal[i]; k++) {
+                int row = indices[k];
+                double l = lu[k] / lu[diagonal[row]];
+                lu[k] = l;
+                for (int p = diagonal[row] + 1; p < pointers[row + 1]; p++) {
+                    int target = position[indices[p]];
+                    if (target != -1)
+                        lu[target] -= l * lu[p];
+                }
+            }
+            if (lu[diagonal[i]] == 0)
+                throw new IllegalStateException("Zero pivot in incomplete factorization!");
+
+            for (int k = pointers[i]; k < pointers[i + 1]; k++)
+                position[indices[k]] = -1;
+        }
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        final int n = z.length;
+
+        // L y = r
+        for (int i = 0; i < n; i++) {
+            double sum = r[i];
+            for (int k = pointers[i]; k < diagonal[i]; k++)
+                sum -= lu[k] * z[indices[k]];
+            z[i] = sum;
+        }
+        // U z = y
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = z[i];
+            for (int k = diagonal[i] + 1; k < pointers[i + 1]; k++)
+                sum -= lu[k] * z[indices[k]];
+            z[i] = sum / lu[diagonal[i]];
+        }
+    }
+}
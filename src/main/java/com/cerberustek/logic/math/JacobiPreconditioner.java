@@ -0,0 +1,52 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+/**
+ * Jacobi (diagonal) preconditioner M = diag(A).
+ */
+public class JacobiPreconditioner implements Preconditioner {
+
+    private final double[] inverseDiagonal;
+
+    /**
+     * @param a square matrix without zeros on its diagonal
+     */
+    public JacobiPreconditioner(SparseMatrixd a) {
+        if (a.rows() != a.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        inverseDiagonal = new double[a.rows()];
+        for (int i = 0; i < inverseDiagonal.length; i++) {
+            double d = a.get(i, i);
+            if (d == 0)
+                throw new IllegalArgumentException("Matrix has a zero on its diagonal!");
+            inverseDiagonal[i] = 1 / d;
+        }
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        VectorKernels.mul(r, 0, inverseDiagonal, 0, z, 0, z.length);
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Arrays;
+
+/**
+ * Base class of the Krylov subspace solvers for A * x = b.
+ *
+ * A solver is configured once and can then be used for any number of
+ * systems. Work vectors are allocated on the first solve and reused as
+ * long as the system size stays the same, and the iterations themselves
+ * allocate nothing. A solver instance must therefore not be used by more
+ * than one thread at a time.
+ *
+ * Whether a whole solve is free of allocations depends on the operator
+ * and preconditioner. The preconditioners of this package allocate
+ * nothing, and neither do sparse matrices as long as they are multiplied
+ * sequentially. Products that run in the MatrixParallelism pool allocate
+ * their fork/join tasks on every call, so set the pool to null if every
+ * iteration has to be allocation-free.
+ *
+ * Convergence is reached once the residual norm |b - A * x| drops to
+ * tolerance * |b|.
+ */
+public abstract class KrylovSolver {
+
+    private double tolerance = 1e-10;
+    private int maxIterations = 1000;
+    private Preconditioner preconditioner;
+
+    private int iterations;
+    private double residual;
+    private boolean converged;
+
+    protected double[][] work;
+
+    /**
+     * Solves A * x = b.
+     * @param a square system matrix
+     * @param b right hand side
+     * @param x initial guess, overwritten with the solution
+     * @return true if the solver converged
+     */
+    public boolean solve(LinearOperator a, double[] b, double[] x) {
+        final int n = b.length;
+        if (a.rows() != n || a.columns() != n || x.length != n)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        iterations = 0;
+        converged = false;
+        double bNorm = Math.sqrt(VectorKernels.dot(b, 0, b, 0, n));
+        if (bNorm == 0) {
+            Arrays.fill(x, 0);
+            residual = 0;
+            converged = true;
+            return true;
+        }
+
+        iterate(a, b, x, bNorm);
+        return converged;
+    }
+
+    /**
+     * Solves A * x = b with x = 0 as initial guess.
+     * @param a square system matrix
+     * @param b right hand side
+     * @return solution
+     */
+    public double[] solve(LinearOperator a, double[] b) {
+        double[] x = new double[b.length];
+        solve(a, b, x);
+        return x;
+    }
+
+    /**
+     * Runs the iteration. Implementations report their progress with
+     * {@link #step(double)}.
+     * @param bNorm norm of b, not zero
+     */
+    protected abstract void iterate(LinearOperator a, double[] b, double[] x, double bNorm);
+
+    /**
+     * Returns count work vectors of length n, reusing the previous ones
+     * if possible.
+     */
+    protected double[][] work(int count, int n) {
+        if (work == null || work.length != count || work[0].length != n)
+            work = new double[count][n];
+        return work;
+    }
+
+    /**
+     * Records the relative residual after an iteration.
+     * @param relativeResidual residual norm divided by |b|
+     * @return true if the iteration should stop
+     */
+    protected boolean step(double relativeResidual) {
+        residual = relativeResidual;
+        converged = relativeResidual <= tolerance;
+        return converged || iterations >= maxIterations;
+    }
+
+    protected void countIteration() {
+        iterations++;
+    }
+
+    /**
+     * Applies the preconditioner, or copies r into z if there is none.
+     */
+    protected void precondition(double[] r, double[] z) {
+        if (preconditioner == null)
+            System.arraycopy(r, 0, z, 0, z.length);
+        else
+            preconditioner.apply(r, z);
+    }
+
+    /**
+     * Computes r = b - A * x.
+     */
+    protected static void residual(LinearOperator a, double[] b, double[] x, double[] r) {
+        a.apply(x, r);
+        VectorKernels.sub(b, 0, r, 0, r, 0, r.length);
+    }
+
+    protected static double norm(double[] v) {
+        return Math.sqrt(VectorKernels.dot(v, 0, v, 0, v.length));
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @param tolerance relative residual to reach
+     */
+    public void setTolerance(double tolerance) {
+        if (!(tolerance >= 0))
+            throw new IllegalArgumentException("Tolerance must not be negative!");
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0)
+            throw new IllegalArgumentException("Iteration count must not be negative!");
+        this.maxIterations = maxIterations;
+    }
+
+    public Preconditioner getPreconditioner() {
+        return preconditioner;
+    }
+
+    /**
+     * @param preconditioner preconditioner, or null for none
+     */
+    public void setPreconditioner(Preconditioner preconditioner) {
+        this.preconditioner = preconditioner;
+    }
+
+    /**
+     * @return number of iterations of the last solve
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return relative residual after the last solve
+     */
+    public double getResidual() {
+        return residual;
+    }
+
+    /**
+     * @return true if the last solve converged
+     */
+    public boolean hasConverged() {
+        return converged;
+    }
+}
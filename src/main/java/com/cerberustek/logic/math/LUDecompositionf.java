@@ -0,0 +1,269 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * LU decomposition with partial (row) pivoting of a square matrix, such
+ * that P * A = L * U.
+ *
+ * The matrix is factored once in the constructor. Afterwards any number
+ * of right-hand sides can be solved in O(n^2) each, and the determinant
+ * and inverse are derived from the factors.
+ */
+@SuppressWarnings("Duplicates")
+public class LUDecompositionf {
+
+    /** L below the diagonal (unit diagonal implied) and U on and above it */
+    private final Matrixxf lu;
+    /** pivot[i] is the row of A that ended up in row i */
+    private final int[] pivot;
+    private final int pivotSign;
+    private final boolean singular;
+
+    public LUDecompositionf(Matrixxf a) {
+        if (a.rows() != a.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        final int n = a.rows();
+        lu = a.copy();
+        pivot = new int[n];
+        for (int i = 0; i < n; i++)
+            pivot[i] = i;
+
+        float[] d = lu.data;
+        int sign = 1;
+        boolean singular = false;
+
+        for (int k = 0; k < n; k++) {
+            // find the element with the largest absolute value in
+            // the remaining part of the current column
+            int p = k;
+            float max = Math.abs(d[k * n + k]);
+            for (int i = k + 1; i < n; i++) {
+                float value = Math.abs(d[i * n + k]);
+                if (value > max) {
+                    max = value;
+                    p = i;
+                }
+            }
+
+            if (p != k) {
+                for (int j = 0; j < n; j++) {
+                    float buffer = d[p * n + j];
+                    d[p * n + j] = d[k * n + j];
+                    d[k * n + j] = buffer;
+                }
+                int buffer = pivot[p];
+                pivot[p] = pivot[k];
+                pivot[k] = buffer;
+                sign = -sign;
+            }
+
+            float diagonal = d[k * n + k];
+            if (diagonal == 0) {
+                // nothing left to eliminate in this column
+                singular = true;
+                continue;
+            }
+
+            // eliminate the column below the pivot and update the
+            // remaining rows of the trailing sub matrix
+            int rest = n - k - 1;
+            for (int i = k + 1; i < n; i++) {
+                float factor = d[i * n + k] / diagonal;
+                d[i * n + k] = factor;
+                if (factor != 0)
+                    VectorKernels.fma(d, k * n + k + 1, -factor, d, i * n + k + 1, d, i * n + k + 1, rest);
+            }
+        }
+        this.pivotSign = sign;
+        this.singular = singular;
+    }
+
+    public boolean isSingular() {
+        return singular;
+    }
+
+    /**
+     * @return the unit lower triangular factor
+     */
+    public Matrixxf getL() {
+        final int n = lu.rows();
+        Matrixxf out = new Matrixxf(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < i; j++)
+                out.set(i, j, lu.get(i, j));
+            out.set(i, i, 1);
+        }
+        return out;
+    }
+
+    /**
+     * @return the upper triangular factor
+     */
+    public Matrixxf getU() {
+        final int n = lu.rows();
+        Matrixxf out = new Matrixxf(n, n);
+        for (int i = 0; i < n; i++) {
+            for (int j = i; j < n; j++)
+                out.set(i, j, lu.get(i, j));
+        }
+        return out;
+    }
+
+    /**
+     * @return copy of the row permutation; entry i is the row of the
+     *          original matrix that was moved to row i
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    public float det() {
+        final int n = lu.rows();
+        float det = pivotSign;
+        for (int i = 0; i < n; i++)
+            det *= lu.data[i * n + i];
+        return det;
+    }
+
+    /**
+     * Solves A * X = B.
+     * @param b right-hand sides, one per column
+     * @return solution X
+     * @throws IllegalStateException if the matrix is singular
+     */
+    public Matrixxf solve(Matrixxf b) {
+        return solve(b, new Matrixxf(b.rows(), b.columns()));
+    }
+
+    /**
+     * Solves A * X = B and stores X in dest. dest may be b itself.
+     * @param b right-hand sides, one per column
+     * @param dest solution X
+     * @return dest
+     * @throws IllegalStateException if the matrix is singular
+     */
+    public Matrixxf solve(Matrixxf b, Matrixxf dest) {
+        final int n = lu.rows();
+        if (b.rows() != n || dest.rows() != n || dest.columns() != b.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+        if (singular)
+            throw new IllegalStateException("Matrix is singular");
+
+        // apply the row permutation into a contiguous working copy
+        final int r = b.columns();
+        Matrixxf x = new Matrixxf(n, r);
+        for (int i = 0; i < n; i++)
+            x.row(i).set(b.row(pivot[i]));
+
+        ForkJoinPool pool = MatrixParallelism.pool((long) n * r);
+        if (pool == null) {
+            substitute(x);
+        } else {
+            // the right-hand sides are independent, so each block of
+            // columns can be solved separately
+            RangeTask.run(pool, 0, r, Math.max(1, MatrixParallelism.GRAIN / Math.max(1, n)),
+                    (from, to) -> substitute(x.subMatrix(0, from, n, to - from)));
+        }
+        return dest.set(x);
+    }
+
+    /**
+     * Solves A * x = b for a single right-hand side.
+     * @param b right-hand side
+     * @param x solution, may be b itself
+     * @return x
+     * @throws IllegalStateException if the matrix is singular
+     */
+    public float[] solve(float[] b, float[] x) {
+        final int n = lu.rows();
+        if (b.length != n || x.length != n)
+            throw new IllegalArgumentException("Invalid matrix format!");
+        if (singular)
+            throw new IllegalStateException("Matrix is singular");
+
+        float[] y = new float[n];
+        for (int i = 0; i < n; i++)
+            y[i] = b[pivot[i]];
+
+        float[] d = lu.data;
+        for (int i = 0; i < n; i++)
+            y[i] -= VectorKernels.dot(d, i * n, y, 0, i);
+        for (int i = n - 1; i >= 0; i--)
+            y[i] = (y[i] - VectorKernels.dot(d, i * n + i + 1, y, i + 1, n - i - 1)) / d[i * n + i];
+
+        System.arraycopy(y, 0, x, 0, n);
+        return x;
+    }
+
+    public float[] solve(float[] b) {
+        return solve(b, new float[b.length]);
+    }
+
+    /**
+     * @return inverse of the decomposed matrix
+     * @throws IllegalStateException if the matrix is singular
+     */
+    public Matrixxf inverse() {
+        return solve(CerberusMath.diag(lu.rows()));
+    }
+
+    /**
+     * Forward and back substitution on a permuted block of right-hand
+     * sides with contiguous rows.
+     */
+    private void substitute(Matrixxf x) {
+        final int n = lu.rows();
+        final int r = x.columns;
+        float[] d = lu.data;
+        float[] xd = x.data;
+
+        // L * Y = P * B
+        for (int k = 0; k < n; k++) {
+            int rowK = x.offset + k * x.rowStride;
+            for (int i = k + 1; i < n; i++) {
+                float factor = d[i * n + k];
+                if (factor != 0) {
+                    int rowI = x.offset + i * x.rowStride;
+                    VectorKernels.fma(xd, rowK, -factor, xd, rowI, xd, rowI, r);
+                }
+            }
+        }
+
+        // U * X = Y
+        for (int k = n - 1; k >= 0; k--) {
+            int rowK = x.offset + k * x.rowStride;
+            VectorKernels.mul(xd, rowK, 1f / d[k * n + k], xd, rowK, r);
+            for (int i = 0; i < k; i++) {
+                float factor = d[i * n + k];
+                if (factor != 0) {
+                    int rowI = x.offset + i * x.rowStride;
+                    VectorKernels.fma(xd, rowK, -factor, xd, rowI, xd, rowI, r);
+                }
+            }
+        }
+    }
+}
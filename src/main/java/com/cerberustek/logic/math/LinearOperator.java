@@ -0,0 +1,86 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+/**
+ * Square or rectangular linear map y = A * x that is only known through
+ * its action on vectors. This is all the iterative solvers need, so they
+ * work with sparse matrices, dense matrices and matrix-free operators
+ * alike.
+ */
+public interface LinearOperator {
+
+    /**
+     * @return length of the result vector
+     */
+    int rows();
+
+    /**
+     * @return length of the input vector
+     */
+    int columns();
+
+    /**
+     * Computes y = A * x. x and y are never the same array.
+     * @param x input vector
+     * @param y output vector
+     */
+    void apply(double[] x, double[] y);
+
+    /**
+     * Wraps a dense matrix. The matrix is not copied, so later changes to
+     * it are visible through the operator.
+     * @param m dense matrix
+     * @return operator multiplying with m
+     */
+    static LinearOperator of(Matrixxd m) {
+        return new LinearOperator() {
+            @Override
+            public int rows() {
+                return m.rows();
+            }
+
+            @Override
+            public int columns() {
+                return m.columns();
+            }
+
+            @Override
+            public void apply(double[] x, double[] y) {
+                if (x.length != m.columns() || y.length != m.rows())
+                    throw new IllegalArgumentException("Invalid matrix format!");
+
+                for (int i = 0; i < m.rows(); i++) {
+                    if (m.getColStride() == 1) {
+                        y[i] = VectorKernels.dot(m.data, m.offset + i * m.getRowStride(), x, 0, x.length);
+                    } else {
+                        double sum = 0;
+                        for (int j = 0; j < x.length; j++)
+                            sum += m.get(i, j) * x[j];
+                        y[i] = sum;
+                    }
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Dense double matrix stored in a memory mapped file, for matrices that do
+ * not fit into the heap.
+ *
+ * The matrix is split into square tiles of tileSize x tileSize entries.
+ * Each tile is stored row major and contiguous in the file, with the
+ * tiles themselves in row major order. Edge tiles are padded to full
+ * size. The file is mapped in segments of at most 1 GiB that always hold
+ * whole tiles, so a tile never straddles two mappings. Entries are stored
+ * little endian. The file holds no header; the dimensions and tile size
+ * must be the same whenever the file is opened.
+ *
+ * Bulk operations copy tiles or strips of tiles into the heap, work on
+ * them there and write them back, so only a small working set of the file
+ * is touched at any time and the page cache can evict the rest.
+ */
+public class MappedMatrixd implements Closeable {
+
+    public static final int DEFAULT_TILE_SIZE = 256;
+
+    private static final long SEGMENT_BYTES = 1L << 30;
+
+    private final FileChannel channel;
+    private final int rows;
+    private final int columns;
+    private final int tileSize;
+    private final int tileColumns;
+    private final int tilesPerSegment;
+    private final MappedByteBuffer[] segments;
+    private final DoubleBuffer[] doubles;
+
+    /**
+     * Opens or creates a mapped matrix. Existing file contents are kept,
+     * new files are filled with zeros.
+     * @param file backing file
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param tileSize edge length of the tiles
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public MappedMatrixd(Path file, int rows, int columns, int tileSize) throws IOException {
+        if (rows < 1 || columns < 1 || tileSize < 1 || (long) tileSize * tileSize * Double.BYTES > SEGMENT_BYTES)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        this.rows = rows;
+        this.columns = columns;
+        this.tileSize = tileSize;
+        tileColumns = (columns + tileSize - 1) / tileSize;
+        long tiles = (long) tileColumns * ((rows + tileSize - 1) / tileSize);
+        long tileBytes = (long) tileSize * tileSize * Double.BYTES;
+        tilesPerSegment = (int) (SEGMENT_BYTES / tileBytes);
+
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            int count = (int) ((tiles + tilesPerSegment - 1) / tilesPerSegment);
+            segments = new MappedByteBuffer[count];
+            doubles = new DoubleBuffer[count];
+            for (int s = 0; s < count; s++) {
+                long first = (long) s * tilesPerSegment;
+                long size = Math.min(tilesPerSegment, tiles - first) * tileBytes;
+                segments[s] = channel.map(FileChannel.MapMode.READ_WRITE, first * tileBytes, size);
+                doubles[s] = segments[s].order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public MappedMatrixd(Path file, int rows, int columns) throws IOException {
+        this(file, rows, columns, DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Creates a mapped copy of a dense matrix.
+     * @param file backing file
+     * @param m dense matrix
+     * @param tileSize edge length of the tiles
+     * @return mapped matrix
+     * @throws IOException if the file cannot be opened or mapped
+     */
+    public static MappedMatrixd of(Path file, Matrixxd m, int tileSize) throws IOException {
+        MappedMatrixd out = new MappedMatrixd(file, m.rows(), m.columns(), tileSize);
+        out.setBlock(0, 0, m);
+        return out;
+    }
+
+    public double get(int row, int column) {
+        check(row, column, 1, 1);
+        int tile = (row / tileSize) * tileColumns + column / tileSize;
+        return doubles[tile / tilesPerSegment].get(position(tile, row % tileSize, column % tileSize));
+    }
+
+    public void set(int row, int column, double value) {
+        check(row, column, 1, 1);
+        int tile = (row / tileSize) * tileColumns + column / tileSize;
+        doubles[tile / tilesPerSegment].put(position(tile, row % tileSize, column % tileSize), value);
+    }
+
+    /**
+     * Copies a block of the matrix into the heap.
+     * @param row first row
+     * @param column first column
+     * @param rows number of rows
+     * @param columns number of columns
+     * @return dense copy of the block
+     */
+    public Matrixxd getBlock(int row, int column, int rows, int columns) {
+        Matrixxd out = new Matrixxd(rows, columns);
+        transfer(row, column, rows, columns, out.data, 0, columns, false);
+        return out;
+    }
+
+    /**
+     * Overwrites a block of the matrix.
+     * @param row first row
+     * @param column first column
+     * @param m values to write
+     */
+    public void setBlock(int row, int column, Matrixxd m) {
+        Matrixxd packed = m.isContiguous() ? m : m.copy();
+        transfer(row, column, m.rows(), m.columns(), packed.data, packed.offset, m.columns(), true);
+    }
+
+    /**
+     * @return dense copy of count consecutive rows
+     */
+    public Matrixxd getRows(int row, int count) {
+        return getBlock(row, 0, count, columns);
+    }
+
+    /**
+     * @return dense copy of count consecutive columns
+     */
+    public Matrixxd getColumns(int column, int count) {
+        return getBlock(0, column, rows, count);
+    }
+
+    /**
+     * @return dense copy of the whole matrix
+     */
+    public Matrixxd toDense() {
+        return getBlock(0, 0, rows, columns);
+    }
+
+    /**
+     * Copies a block between the file and a row major heap array.
+     */
+    private void transfer(int row, int column, int rows, int columns,
+                          double[] array, int offset, int stride, boolean write) {
+        check(row, column, rows, columns);
+
+        // independent views, so that concurrent transfers do not share positions
+        DoubleBuffer[] views = new DoubleBuffer[doubles.length];
+        for (int r = 0; r < rows; r++) {
+            int globalRow = row + r;
+            int tileRow = globalRow / tileSize;
+            int localRow = globalRow % tileSize;
+            int c = 0;
+            while (c < columns) {
+                int globalColumn = column + c;
+                int localColumn = globalColumn % tileSize;
+                int length = Math.min(tileSize - localColumn, columns - c);
+                int tile = tileRow * tileColumns + globalColumn / tileSize;
+                int segment = tile / tilesPerSegment;
+                if (views[segment] == null)
+                    views[segment] = doubles[segment].duplicate();
+
+                DoubleBuffer view = views[segment];
+                view.position(position(tile, localRow, localColumn));
+                if (write)
+                    view.put(array, offset + r * stride + c, length);
+                else
+                    view.get(array, offset + r * stride + c, length);
+                c += length;
+            }
+        }
+    }
+
+    private int position(int tile, int localRow, int localColumn) {
+        return (tile % tilesPerSegment) * tileSize * tileSize + localRow * tileSize + localColumn;
+    }
+
+    private void check(int row, int column, int rows, int columns) {
+        if (row < 0 || column < 0 || rows < 0 || columns < 0
+                || row + rows > this.rows || column + columns > this.columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+    }
+
+    /**
+     * Computes C = alpha * A * B + beta * C tile by tile. Only one block of
+     * each matrix is held in the heap at a time; the blocks are multiplied
+     * with {@link Gemm}, which parallelizes large blocks.
+     * @param alpha factor of the product
+     * @param a left factor
+     * @param b right factor
+     * @param beta factor of the previous content of c
+     * @param c result, must not be a or b
+     */
+    public static void gemm(double alpha, MappedMatrixd a, MappedMatrixd b, double beta, MappedMatrixd c) {
+        if (a.columns != b.rows || c.rows != a.rows || c.columns != b.columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+        if (c == a || c == b)
+            throw new IllegalArgumentException("Result must not be one of the factors!");
+
+        final int block = c.tileSize;
+        final int depth = a.tileSize;
+        final double[] aData = new double[block * depth];
+        final double[] bData = new double[depth * block];
+        final double[] cData = new double[block * block];
+
+        for (int i = 0; i < c.rows; i += block) {
+            int m = Math.min(block, c.rows - i);
+            for (int j = 0; j < c.columns; j += block) {
+                int n = Math.min(block, c.columns - j);
+                Matrixxd cBlock = new Matrixxd(cData, 0, m, n, n, 1);
+                if (beta == 0) {
+                    Arrays.fill(cData, 0, m * n, 0);
+                } else {
+                    c.transfer(i, j, m, n, cData, 0, n, false);
+                    if (beta != 1)
+                        VectorKernels.mul(cData, 0, beta, cData, 0, m * n);
+                }
+
+                for (int k = 0; k < a.columns; k += depth) {
+                    int d = Math.min(depth, a.columns - k);
+                    a.transfer(i, k, m, d, aData, 0, d, false);
+                    b.transfer(k, j, d, n, bData, 0, n, false);
+                    Gemm.gemm(alpha, new Matrixxd(aData, 0, m, d, d, 1),
+                            new Matrixxd(bData, 0, d, n, n, 1), 1, cBlock);
+                }
+                c.transfer(i, j, m, n, cData, 0, n, true);
+            }
+        }
+    }
+
+    /**
+     * Overwrites this square matrix with its LU decomposition with partial
+     * pivoting, P * A = L * U. L is unit lower triangular and stored below
+     * the diagonal, U is stored on and above it.
+     *
+     * The factorization is right looking by column strips of one tile
+     * width. Each step holds the current panel and one other strip in the
+     * heap, 2 * rows * tileSize entries in total.
+     * @return pivot, row i was swapped with row pivot[i] in step i
+     */
+    public int[] factorizeLU() {
+        if (rows != columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        final int n = rows;
+        final int[] pivot = new int[n];
+        final int[] local = new int[tileSize];
+
+        for (int k = 0; k < n; k += tileSize) {
+            final int w = Math.min(tileSize, n - k);
+            final int m = n - k;
+
+            // factor the panel below the diagonal
+            double[] panel = new double[m * w];
+            transfer(k, k, m, w, panel, 0, w, false);
+            boolean swapped = factorPanel(panel, m, w, local);
+            for (int c = 0; c < w; c++)
+                pivot[k + c] = k + local[c];
+            transfer(k, k, m, w, panel, 0, w, true);
+
+            double[] strip = new double[m * tileSize];
+            // only apply the row swaps left of the panel
+            if (swapped) {
+                for (int j = 0; j < k; j += tileSize) {
+                    int width = Math.min(tileSize, k - j);
+                    transfer(k, j, m, width, strip, 0, width, false);
+                    swapRows(strip, width, local, w);
+                    transfer(k, j, m, width, strip, 0, width, true);
+                }
+            }
+
+            // swap, solve for the U row block and update the trailing matrix
+            for (int j = k + w; j < n; j += tileSize) {
+                int width = Math.min(tileSize, n - j);
+                transfer(k, j, m, width, strip, 0, width, false);
+                swapRows(strip, width, local, w);
+                for (int i = 1; i < w; i++) {
+                    for (int p = 0; p < i; p++)
+                        VectorKernels.fma(strip, p * width, -panel[i * w + p], strip, i * width,
+                                strip, i * width, width);
+                }
+                if (m > w) {
+                    Matrixxd u = new Matrixxd(Arrays.copyOf(strip, w * width), 0, w, width, width, 1);
+                    Gemm.gemm(-1, new Matrixxd(panel, w * w, m - w, w, w, 1), u,
+                            1, new Matrixxd(strip, w * width, m - w, width, width, 1));
+                }
+                transfer(k, j, m, width, strip, 0, width, true);
+            }
+        }
+        return pivot;
+    }
+
+    /**
+     * Unblocked LU decomposition with partial pivoting of a tall row major
+     * panel.
+     * @return true if any rows were swapped
+     */
+    private static boolean factorPanel(double[] panel, int m, int w, int[] pivot) {
+        boolean swapped = false;
+        for (int c = 0; c < w; c++) {
+            int p = c;
+            for (int i = c + 1; i < m; i++) {
+                if (Math.abs(panel[i * w + c]) > Math.abs(panel[p * w + c]))
+                    p = i;
+            }
+            pivot[c] = p;
+            if (p != c) {
+                swapped = true;
+                for (int j = 0; j < w; j++) {
+                    double tmp = panel[c * w + j];
+                    panel[c * w + j] = panel[p * w + j];
+                    panel[p * w + j] = tmp;
+                }
+            }
+
+            double d = panel[c * w + c];
+            if (d == 0)
+                continue;
+            double inverse = 1 / d;
+            for (int i = c + 1; i < m; i++) {
+                double l = panel[i * w + c] * inverse;
+                panel[i * w + c] = l;
+                VectorKernels.fma(panel, c * w + c + 1, -l, panel, i * w + c + 1,
+                        panel, i * w + c + 1, w - c - 1);
+            }
+        }
+        return swapped;
+    }
+
+    private static void swapRows(double[] strip, int width, int[] pivot, int count) {
+        for (int c = 0; c < count; c++) {
+            int p = pivot[c];
+            if (p == c)
+                continue;
+            for (int j = 0; j < width; j++) {
+                double tmp = strip[c * width + j];
+                strip[c * width + j] = strip[p * width + j];
+                strip[p * width + j] = tmp;
+            }
+        }
+    }
+
+    /**
+     * Solves A * x = b with a factorization computed by
+     * {@link #factorizeLU()}, reading one tile at a time.
+     * @param pivot pivot returned by factorizeLU
+     * @param b right hand side
+     * @return solution
+     * @throws IllegalStateException if the matrix is singular
+     */
+    public double[] solveLU(int[] pivot, double[] b) {
+        if (rows != columns || pivot.length != rows || b.length != rows)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        final int n = rows;
+        double[] x = b.clone();
+        for (int i = 0; i < n; i++) {
+            double tmp = x[i];
+            x[i] = x[pivot[i]];
+            x[pivot[i]] = tmp;
+        }
+
+        final double[] tile = new double[tileSize * tileSize];
+        // L y = P b
+        for (int i = 0; i < n; i += tileSize) {
+            int m = Math.min(tileSize, n - i);
+            for (int j = 0; j <= i; j += tileSize) {
+                int w = Math.min(tileSize, n - j);
+                transfer(i, j, m, w, tile, 0, w, false);
+                for (int r = 0; r < m; r++) {
+                    int end = j == i ? r : w;
+                    x[i + r] -= VectorKernels.dot(tile, r * w, x, j, end);
+                }
+            }
+        }
+        // U x = y
+        for (int i = (n - 1) / tileSize * tileSize; i >= 0; i -= tileSize) {
+            int m = Math.min(tileSize, n - i);
+            for (int j = (n - 1) / tileSize * tileSize; j >= i; j -= tileSize) {
+                int w = Math.min(tileSize, n - j);
+                transfer(i, j, m, w, tile, 0, w, false);
+                for (int r = m - 1; r >= 0; r--) {
+                    if (j == i) {
+                        double d = tile[r * w + r];
+                        if (d == 0)
+                            throw new IllegalStateException("Matrix is singular");
+                        int start = r + 1;
+                        x[i + r] = (x[i + r] - VectorKernels.dot(tile, r * w + start, x, j + start, w - start)) / d;
+                    } else {
+                        x[i + r] -= VectorKernels.dot(tile, r * w, x, j, w);
+                    }
+                }
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Writes all changes back to the file.
+     */
+    public void flush() {
+        for (MappedByteBuffer segment : segments)
+            segment.force();
+    }
+
+    /**
+     * Flushes and closes the file. The mappings themselves are released
+     * once this object is garbage collected.
+     * @throws IOException if closing the file fails
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        channel.close();
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    @Override
+    public String toString() {
+        return "MappedMatrixd{" + rows + "x" + columns + ", tileSize=" + tileSize + '}';
+    }
+}
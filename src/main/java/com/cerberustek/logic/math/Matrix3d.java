@@ -242,6 +242,38 @@ public class Matrix3d {
         return out;
     }
 
+    /**
+     * Stores the inverse of this matrix in dest.
+     *
+     * Just like {@link #inverse()}, this returns null and leaves dest
+     * untouched if this matrix is singular.
+     *
+     * @param dest destination matrix (may be this)
+     * @return dest or null
+     */
+    public Matrix3d inverse(Matrix3d dest) {
+        double det = det();
+        if (det == 0)
+            return null;
+
+        double a00 = m[0][0], a01 = m[0][1], a02 = m[0][2];
+        double a10 = m[1][0], a11 = m[1][1], a12 = m[1][2];
+        double a20 = m[2][0], a21 = m[2][1], a22 = m[2][2];
+
+        dest.m[0][0] = (a11 * a22 - a12 * a21) / det;
+        dest.m[1][0] = (a12 * a20 - a10 * a22) / det;
+        dest.m[2][0] = (a10 * a21 - a11 * a20) / det;
+
+        dest.m[0][1] = (a02 * a21 - a01 * a22) / det;
+        dest.m[1][1] = (a00 * a22 - a02 * a20) / det;
+        dest.m[2][1] = (a01 * a20 - a00 * a21) / det;
+
+        dest.m[0][2] = (a01 * a12 - a02 * a11) / det;
+        dest.m[1][2] = (a02 * a10 - a00 * a12) / det;
+        dest.m[2][2] = (a00 * a11 - a01 * a10) / det;
+        return dest;
+    }
+
     public Matrix3d adj() {
         Matrix3d out = new Matrix3d();
         if (symmetric()) {
@@ -272,6 +304,25 @@ public class Matrix3d {
         return out;
     }
 
+    public Matrix3d adj(Matrix3d dest) {
+        double a00 = m[0][0]; double a01 = m[0][1]; double a02 = m[0][2];
+        double a10 = m[1][0]; double a11 = m[1][1]; double a12 = m[1][2];
+        double a20 = m[2][0]; double a21 = m[2][1]; double a22 = m[2][2];
+
+        dest.m[0][0] = a11 * a22 - a12 * a21;
+        dest.m[1][0] = a12 * a20 - a10 * a22;
+        dest.m[2][0] = a10 * a21 - a11 * a20;
+
+        dest.m[0][1] = a02 * a21 - a01 * a22;
+        dest.m[1][1] = a00 * a22 - a02 * a20;
+        dest.m[2][1] = a01 * a20 - a00 * a21;
+
+        dest.m[0][2] = a01 * a12 - a02 * a11;
+        dest.m[1][2] = a02 * a10 - a00 * a12;
+        dest.m[2][2] = a00 * a11 - a01 * a10;
+        return dest;
+    }
+
     public Matrix3d transpose() {
         Matrix3d out = new Matrix3d();
         out.m[0][0] = m[0][0];
@@ -288,6 +339,22 @@ public class Matrix3d {
         return out;
     }
 
+    public Matrix3d transpose(Matrix3d dest) {
+        double m01 = m[0][1], m02 = m[0][2], m12 = m[1][2];
+        dest.m[0][0] = m[0][0];
+        dest.m[1][1] = m[1][1];
+        dest.m[2][2] = m[2][2];
+
+        dest.m[0][1] = m[1][0];
+        dest.m[0][2] = m[2][0];
+        dest.m[1][2] = m[2][1];
+
+        dest.m[1][0] = m01;
+        dest.m[2][0] = m02;
+        dest.m[2][1] = m12;
+        return dest;
+    }
+
     public Matrix3d mul(Matrix3d other) {
         Matrix3d out = new Matrix3d();
         for (int i = 0; i < 3; i++) {
@@ -302,6 +369,37 @@ public class Matrix3d {
         return out;
     }
 
+    /**
+     * Multiplies this with the other matrix and stores the product in dest.
+     *
+     * Both operands are read completely before dest is written, so dest
+     * may be this or the other matrix.
+     *
+     * @param other matrix to multiply with
+     * @param dest destination matrix
+     * @return dest
+     */
+    public Matrix3d mul(Matrix3d other, Matrix3d dest) {
+        double a00 = m[0][0]; double a01 = m[0][1]; double a02 = m[0][2];
+        double a10 = m[1][0]; double a11 = m[1][1]; double a12 = m[1][2];
+        double a20 = m[2][0]; double a21 = m[2][1]; double a22 = m[2][2];
+
+        double b00 = other.m[0][0]; double b01 = other.m[0][1]; double b02 = other.m[0][2];
+        double b10 = other.m[1][0]; double b11 = other.m[1][1]; double b12 = other.m[1][2];
+        double b20 = other.m[2][0]; double b21 = other.m[2][1]; double b22 = other.m[2][2];
+
+        dest.m[0][0] = a00 * b00 + a01 * b10 + a02 * b20;
+        dest.m[0][1] = a00 * b01 + a01 * b11 + a02 * b21;
+        dest.m[0][2] = a00 * b02 + a01 * b12 + a02 * b22;
+        dest.m[1][0] = a10 * b00 + a11 * b10 + a12 * b20;
+        dest.m[1][1] = a10 * b01 + a11 * b11 + a12 * b21;
+        dest.m[1][2] = a10 * b02 + a11 * b12 + a12 * b22;
+        dest.m[2][0] = a20 * b00 + a21 * b10 + a22 * b20;
+        dest.m[2][1] = a20 * b01 + a21 * b11 + a22 * b21;
+        dest.m[2][2] = a20 * b02 + a21 * b12 + a22 * b22;
+        return dest;
+    }
+
     public Matrix3d mul(Matrix3f other) {
         Matrix3d out = new Matrix3d();
         for (int i = 0; i < 3; i++) {
@@ -324,6 +422,14 @@ public class Matrix3d {
         );
     }
 
+    public Vector3d mul(Vector3d vec, Vector3d dest) {
+        return dest.set(
+                vec.getX() * m[0][0] + vec.getY() * m[0][1] + vec.getZ() * m[0][2],
+                vec.getX() * m[1][0] + vec.getY() * m[1][1] + vec.getZ() * m[1][2],
+                vec.getX() * m[2][0] + vec.getY() * m[2][1] + vec.getZ() * m[2][2]
+        );
+    }
+
     public Vector3d mul(Vector3f vec) {
         return new Vector3d(
                 vec.getX() * m[0][0] + vec.getY() * m[0][1] + vec.getZ() * m[0][2],
@@ -389,11 +495,41 @@ public class Matrix3d {
         }
     }
 
+    /**
+     * Raises this matrix to a non-negative integer power by repeated
+     * squaring and stores the result in dest. If dest is this matrix, one
+     * temporary copy is made.
+     * @param exp exponent
+     * @param dest destination (may be this)
+     * @return dest
+     */
+    public Matrix3d pow(int exp, Matrix3d dest) {
+        if (exp < 0)
+            throw new IllegalArgumentException("Exponent must not be negative!");
+        if (exp == 0)
+            return dest.initIdentity();
+
+        Matrix3d base = dest == this ? copy() : this;
+        dest.set(base);
+        for (int bit = Integer.highestOneBit(exp) >> 1; bit > 0; bit >>= 1) {
+            dest.mul(dest, dest);
+            if ((exp & bit) != 0)
+                dest.mul(base, dest);
+        }
+        return dest;
+    }
+
     public Matrix3d setM(double[][] m) {
         this.m = m;
         return this;
     }
 
+    public Matrix3d set(Matrix3d other) {
+        for (int row = 0; row < 3; row++)
+            System.arraycopy(other.m[row], 0, m[row], 0, 3);
+        return this;
+    }
+
     public double[][] getM() {
         return m;
     }
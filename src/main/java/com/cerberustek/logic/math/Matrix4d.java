@@ -22,7 +22,11 @@
 
 package com.cerberustek.logic.math;
 
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
 import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Created by LateinCecker on 02.03.2016.
@@ -30,17 +34,21 @@ import java.util.Arrays;
 @SuppressWarnings("Duplicates")
 public class Matrix4d {
 
-    private double[][] m;
+    /** Points per task below which bulk transformations are not split any further */
+    private static final int PARALLEL_GRAIN = 1 << 14;
+
+    /** Elements in column-major order, element (row, col) lives at col * 4 + row */
+    private final double[] m;
 
     public Matrix4d() {
-        m = new double[4][4];
+        m = new double[16];
     }
 
     public Matrix4d initIdentity() {
-        m[0][0] = 1;    m[0][1] = 0;    m[0][2] = 0;    m[0][3] = 0;
-        m[1][0] = 0;    m[1][1] = 1;    m[1][2] = 0;    m[1][3] = 0;
-        m[2][0] = 0;    m[2][1] = 0;    m[2][2] = 1;    m[2][3] = 0;
-        m[3][0] = 0;    m[3][1] = 0;    m[3][2] = 0;    m[3][3] = 1;
+        m[0] = 1;    m[4] = 0;    m[8] = 0;    m[12] = 0;
+        m[1] = 0;    m[5] = 1;    m[9] = 0;    m[13] = 0;
+        m[2] = 0;    m[6] = 0;    m[10] = 1;    m[14] = 0;
+        m[3] = 0;    m[7] = 0;    m[11] = 0;    m[15] = 1;
         return this;
     }
 
@@ -49,26 +57,26 @@ public class Matrix4d {
         double height = top - bottom;
         double depth = far - near;
 
-        m[0][0] = 2 / width;    m[0][1] = 0;            m[0][2] = 0;            m[0][3] = - (right + left) / width;
-        m[1][0] = 0;            m[1][1] = 2 / height;   m[1][2] = 0;            m[1][3] = - (top + bottom) / height;
-        m[2][0] = 0;            m[2][1] = 0;            m[2][2] = - 2 / depth;  m[2][3] = - (far + near) / depth;
-        m[3][0] = 0;            m[3][1] = 0;            m[3][2] = 0;            m[3][3] = 1;
+        m[0] = 2 / width;    m[4] = 0;            m[8] = 0;            m[12] = - (right + left) / width;
+        m[1] = 0;            m[5] = 2 / height;   m[9] = 0;            m[13] = - (top + bottom) / height;
+        m[2] = 0;            m[6] = 0;            m[10] = - 2 / depth;  m[14] = - (far + near) / depth;
+        m[3] = 0;            m[7] = 0;            m[11] = 0;            m[15] = 1;
         return this;
     }
 
     public Matrix4d initTranslation(double x, double y, double z) {
-        m[0][0] = 1;    m[0][1] = 0;    m[0][2] = 0;    m[0][3] = x;
-        m[1][0] = 0;    m[1][1] = 1;    m[1][2] = 0;    m[1][3] = y;
-        m[2][0] = 0;    m[2][1] = 0;    m[2][2] = 1;    m[2][3] = z;
-        m[3][0] = 0;    m[3][1] = 0;    m[3][2] = 0;    m[3][3] = 1;
+        m[0] = 1;    m[4] = 0;    m[8] = 0;    m[12] = x;
+        m[1] = 0;    m[5] = 1;    m[9] = 0;    m[13] = y;
+        m[2] = 0;    m[6] = 0;    m[10] = 1;    m[14] = z;
+        m[3] = 0;    m[7] = 0;    m[11] = 0;    m[15] = 1;
         return this;
     }
 
     public Matrix4d initInverseTranslation(double x, double y, double z) {
-        m[0][0] = 1;    m[0][1] = 0;    m[0][2] = 0;    m[0][3] = -x;
-        m[1][0] = 0;    m[1][1] = 1;    m[1][2] = 0;    m[1][3] = -y;
-        m[2][0] = 0;    m[2][1] = 0;    m[2][2] = 1;    m[2][3] = -z;
-        m[3][0] = 0;    m[3][1] = 0;    m[3][2] = 0;    m[3][3] = 1;
+        m[0] = 1;    m[4] = 0;    m[8] = 0;    m[12] = -x;
+        m[1] = 0;    m[5] = 1;    m[9] = 0;    m[13] = -y;
+        m[2] = 0;    m[6] = 0;    m[10] = 1;    m[14] = -z;
+        m[3] = 0;    m[7] = 0;    m[11] = 0;    m[15] = 1;
         return this;
     }
 
@@ -85,47 +93,54 @@ public class Matrix4d {
         Matrix4d ry = new Matrix4d();
         Matrix4d rz = new Matrix4d();
 
-        rx.m[0][0] = 1;    rx.m[0][1] = 0;    rx.m[0][2] = 0;    rx.m[0][3] = 0;
-        rx.m[1][0] = 0;    rx.m[1][1] = Math.cos(x);    rx.m[1][2] = - Math.sin(x);    rx.m[1][3] = 0;
-        rx.m[2][0] = 0;    rx.m[2][1] = Math.sin(x);    rx.m[2][2] = Math.cos(x);    rx.m[2][3] = 0;
-        rx.m[3][0] = 0;    rx.m[3][1] = 0;    rx.m[3][2] = 0;    rx.m[3][3] = 1;
+        rx.m[0] = 1;    rx.m[4] = 0;    rx.m[8] = 0;    rx.m[12] = 0;
+        rx.m[1] = 0;    rx.m[5] = Math.cos(x);    rx.m[9] = - Math.sin(x);    rx.m[13] = 0;
+        rx.m[2] = 0;    rx.m[6] = Math.sin(x);    rx.m[10] = Math.cos(x);    rx.m[14] = 0;
+        rx.m[3] = 0;    rx.m[7] = 0;    rx.m[11] = 0;    rx.m[15] = 1;
 
-        ry.m[0][0] = Math.cos(y);    ry.m[0][1] = 0;    ry.m[0][2] = - Math.sin(y);    ry.m[0][3] = 0;
-        ry.m[1][0] = 0;    ry.m[1][1] = 1;    ry.m[1][2] = 0;    ry.m[1][3] = 0;
-        ry.m[2][0] = Math.sin(y);    ry.m[2][1] = 0;    ry.m[2][2] = Math.cos(y);    ry.m[2][3] = 0;
-        ry.m[3][0] = 0;    ry.m[3][1] = 0;    ry.m[3][2] = 0;    ry.m[3][3] = 1;
+        ry.m[0] = Math.cos(y);    ry.m[4] = 0;    ry.m[8] = - Math.sin(y);    ry.m[12] = 0;
+        ry.m[1] = 0;    ry.m[5] = 1;    ry.m[9] = 0;    ry.m[13] = 0;
+        ry.m[2] = Math.sin(y);    ry.m[6] = 0;    ry.m[10] = Math.cos(y);    ry.m[14] = 0;
+        ry.m[3] = 0;    ry.m[7] = 0;    ry.m[11] = 0;    ry.m[15] = 1;
 
-        rz.m[0][0] = Math.cos(z);    rz.m[0][1] = - Math.sin(z);    rz.m[0][2] = 0;    rz.m[0][3] = 0;
-        rz.m[1][0] = Math.sin(z);    rz.m[1][1] = Math.cos(z);    rz.m[1][2] = 0;    rz.m[1][3] = 0;
-        rz.m[2][0] = 0;    rz.m[2][1] = 0;    rz.m[2][2] = 1;    rz.m[2][3] = 0;
-        rz.m[3][0] = 0;    rz.m[3][1] = 0;    rz.m[3][2] = 0;    rz.m[3][3] = 1;
+        rz.m[0] = Math.cos(z);    rz.m[4] = - Math.sin(z);    rz.m[8] = 0;    rz.m[12] = 0;
+        rz.m[1] = Math.sin(z);    rz.m[5] = Math.cos(z);    rz.m[9] = 0;    rz.m[13] = 0;
+        rz.m[2] = 0;    rz.m[6] = 0;    rz.m[10] = 1;    rz.m[14] = 0;
+        rz.m[3] = 0;    rz.m[7] = 0;    rz.m[11] = 0;    rz.m[15] = 1;
 
-        m = rz.mul(ry.mul(rx)).getM();
-        return this;
+        return rz.mul(ry.mul(rx, ry), this);
     }
 
     public Matrix4d initRotation(Vector3d rotation) {
         return initRotation(rotation.getX(), rotation.getY(), rotation.getZ());
     }
 
-    @Deprecated
     public Matrix4d initRotation(Quaterniond rotation) {
-        return rotation.toRotationMatrix();
+        double x = rotation.getX();
+        double y = rotation.getY();
+        double z = rotation.getZ();
+        double w = rotation.getW();
+
+        m[0] = 1 - 2 * (y * y + z * z);  m[4] = 2 * (x * y - w * z);      m[8] = 2 * (x * z + w * y);      m[12] = 0;
+        m[1] = 2 * (x * y + w * z);      m[5] = 1 - 2 * (x * x + z * z);  m[9] = 2 * (y * z - w * x);      m[13] = 0;
+        m[2] = 2 * (x * z - w * y);      m[6] = 2 * (y * z + w * x);      m[10] = 1 - 2 * (x * x + y * y);  m[14] = 0;
+        m[3] = 0;                        m[7] = 0;                        m[11] = 0;                        m[15] = 1;
+        return this;
     }
 
     public Matrix4d initScale(double x, double y, double z) {
-        m[0][0] = x;    m[0][1] = 0;    m[0][2] = 0;    m[0][3] = 0;
-        m[1][0] = 0;    m[1][1] = y;    m[1][2] = 0;    m[1][3] = 0;
-        m[2][0] = 0;    m[2][1] = 0;    m[2][2] = z;    m[2][3] = 0;
-        m[3][0] = 0;    m[3][1] = 0;    m[3][2] = 0;    m[3][3] = 1;
+        m[0] = x;    m[4] = 0;    m[8] = 0;    m[12] = 0;
+        m[1] = 0;    m[5] = y;    m[9] = 0;    m[13] = 0;
+        m[2] = 0;    m[6] = 0;    m[10] = z;    m[14] = 0;
+        m[3] = 0;    m[7] = 0;    m[11] = 0;    m[15] = 1;
         return this;
     }
 
     public Matrix4d initInverseScale(double x, double y, double z) {
-        m[0][0] = x != 0 ? 1d / x : 1d;    m[0][1] = 0;    m[0][2] = 0;    m[0][3] = 0;
-        m[1][0] = 0;    m[1][1] = y != 0 ? 1d / y : 1d;    m[1][2] = 0;    m[1][3] = 0;
-        m[2][0] = 0;    m[2][1] = 0;    m[2][2] = z != 0 ? 1d / z : 1d;    m[2][3] = 0;
-        m[3][0] = 0;    m[3][1] = 0;    m[3][2] = 0;    m[3][3] = 1;
+        m[0] = x != 0 ? 1d / x : 1d;    m[4] = 0;    m[8] = 0;    m[12] = 0;
+        m[1] = 0;    m[5] = y != 0 ? 1d / y : 1d;    m[9] = 0;    m[13] = 0;
+        m[2] = 0;    m[6] = 0;    m[10] = z != 0 ? 1d / z : 1d;    m[14] = 0;
+        m[3] = 0;    m[7] = 0;    m[11] = 0;    m[15] = 1;
         return this;
     }
 
@@ -141,10 +156,10 @@ public class Matrix4d {
         double tanHalfFov = (double) Math.tan(fov / 2);
         double zRange = zNear - zFar;
 
-        m[0][0] = 1 / (tanHalfFov * aspect);    m[0][1] = 0;    m[0][2] = 0;    m[0][3] = 0;
-        m[1][0] = 0;    m[1][1] = 1 / tanHalfFov;    m[1][2] = 0;    m[1][3] = 0;
-        m[2][0] = 0;    m[2][1] = 0;    m[2][2] = (-zNear - zFar) / zRange;    m[2][3] = 2 * zFar * zNear / zRange;
-        m[3][0] = 0;    m[3][1] = 0;    m[3][2] = 1;    m[3][3] = 0;
+        m[0] = 1 / (tanHalfFov * aspect);    m[4] = 0;    m[8] = 0;    m[12] = 0;
+        m[1] = 0;    m[5] = 1 / tanHalfFov;    m[9] = 0;    m[13] = 0;
+        m[2] = 0;    m[6] = 0;    m[10] = (-zNear - zFar) / zRange;    m[14] = 2 * zFar * zNear / zRange;
+        m[3] = 0;    m[7] = 0;    m[11] = 1;    m[15] = 0;
         return this;
     }
 
@@ -152,10 +167,10 @@ public class Matrix4d {
         double tanHalfFov = Math.tan(fov / 2);
         double zRange = zNear - zFar;
 
-        m[0][0] = tanHalfFov * aspect;     m[0][1] = 0;            m[0][2] = 0;                             m[0][3] = 0;
-        m[1][0] = 0;                       m[1][1] = tanHalfFov;   m[1][2] = 0;                             m[1][3] = 0;
-        m[2][0] = 0;                       m[2][1] = 0;            m[2][2] = 0;                             m[2][3] = 1;
-        m[3][0] = 0;                       m[3][1] = 0;            m[3][2] = zRange / (2 * zFar * zNear);   m[3][3] = (zNear + zFar) / (2 * zFar * zNear);
+        m[0] = tanHalfFov * aspect;     m[4] = 0;            m[8] = 0;                             m[12] = 0;
+        m[1] = 0;                       m[5] = tanHalfFov;   m[9] = 0;                             m[13] = 0;
+        m[2] = 0;                       m[6] = 0;            m[10] = 0;                             m[14] = 1;
+        m[3] = 0;                       m[7] = 0;            m[11] = zRange / (2 * zFar * zNear);   m[15] = (zNear + zFar) / (2 * zFar * zNear);
         return this;
     }
 
@@ -170,10 +185,10 @@ public class Matrix4d {
 
     public Matrix4d initRotation(Vector3d forward, Vector3d up, Vector3d right)
     {
-        m[0][0] = right.getX();	m[0][1] = right.getY();	m[0][2] = right.getZ();	m[0][3] = 0;
-        m[1][0] = up.getX();	m[1][1] = up.getY();	m[1][2] = up.getZ();	m[1][3] = 0;
-        m[2][0] = forward.getX();	m[2][1] = forward.getY();	m[2][2] = forward.getZ();	m[2][3] = 0;
-        m[3][0] = 0;		m[3][1] = 0;		m[3][2] = 0;		m[3][3] = 1;
+        m[0] = right.getX();	m[4] = right.getY();	m[8] = right.getZ();	m[12] = 0;
+        m[1] = up.getX();	m[5] = up.getY();	m[9] = up.getZ();	m[13] = 0;
+        m[2] = forward.getX();	m[6] = forward.getY();	m[10] = forward.getZ();	m[14] = 0;
+        m[3] = 0;		m[7] = 0;		m[11] = 0;		m[15] = 1;
 
         return this;
     }
@@ -183,27 +198,30 @@ public class Matrix4d {
         int j = 0;
 
         while (i < 4 && j < 4) {
-            if (m[i][j] == 0) {
-                double[] buffer = m[i];
-                for (int k = i; k < 4; k++) {
-                    if (m[k][j] != 0) {
-                        m[i] = m[k];
-                        m[k] = buffer;
-                        break;
+            if (m[j * 4 + i] == 0) {
+                int k = i + 1;
+                while (k < 4 && m[j * 4 + k] == 0)
+                    k++;
+
+                if (k == 4) {
+                    j++;
+                } else {
+                    for (int l = 0; l < 4; l++) {
+                        double buffer = m[l * 4 + i];
+                        m[l * 4 + i] = m[l * 4 + k];
+                        m[l * 4 + k] = buffer;
                     }
                 }
-                if (buffer == m[i])
-                    j++;
             } else {
-                double pivot = m[i][j];
+                double pivot = m[j * 4 + i];
                 for (int l = 0; l < 4; l++)
-                    m[i][l] /= pivot;
+                    m[l * 4 + i] /= pivot;
 
                 for (int y = 0; y < 4; y++) {
                     if (y != i) {
-                        double mul = m[y][j];
+                        double mul = m[j * 4 + y];
                         for (int x = 0; x < 4; x++)
-                            m[y][x] -= mul * m[i][x];
+                            m[x * 4 + y] -= mul * m[x * 4 + i];
                     }
                 }
                 i++;
@@ -214,18 +232,47 @@ public class Matrix4d {
     }
 
     public Matrix4d mul(Matrix4d other) {
-        Matrix4d out = new Matrix4d();
-        for (int i = 0; i < 4; i++) {
-            for (int j = 0; j < 4; j++) {
-                out.set(i, j,
-                        m[i][0] * other.get(0, j) +
-                        m[i][1] * other.get(1, j) +
-                        m[i][2] * other.get(2, j) +
-                        m[i][3] * other.get(3, j));
-            }
-        }
+        return mul(other, new Matrix4d());
+    }
 
-        return out;
+    /**
+     * Multiplies this with the other matrix and stores the product in dest.
+     *
+     * Both operands are read completely before dest is written, so dest
+     * may be this or the other matrix.
+     *
+     * @param other matrix to multiply with
+     * @param dest destination matrix
+     * @return dest
+     */
+    public Matrix4d mul(Matrix4d other, Matrix4d dest) {
+        double a00 = m[0]; double a01 = m[4]; double a02 = m[8]; double a03 = m[12];
+        double a10 = m[1]; double a11 = m[5]; double a12 = m[9]; double a13 = m[13];
+        double a20 = m[2]; double a21 = m[6]; double a22 = m[10]; double a23 = m[14];
+        double a30 = m[3]; double a31 = m[7]; double a32 = m[11]; double a33 = m[15];
+
+        double b00 = other.m[0]; double b01 = other.m[4]; double b02 = other.m[8]; double b03 = other.m[12];
+        double b10 = other.m[1]; double b11 = other.m[5]; double b12 = other.m[9]; double b13 = other.m[13];
+        double b20 = other.m[2]; double b21 = other.m[6]; double b22 = other.m[10]; double b23 = other.m[14];
+        double b30 = other.m[3]; double b31 = other.m[7]; double b32 = other.m[11]; double b33 = other.m[15];
+
+        dest.m[0] = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+        dest.m[4] = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+        dest.m[8] = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+        dest.m[12] = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+        dest.m[1] = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+        dest.m[5] = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+        dest.m[9] = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+        dest.m[13] = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+        dest.m[2] = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+        dest.m[6] = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+        dest.m[10] = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+        dest.m[14] = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+        dest.m[3] = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+        dest.m[7] = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+        dest.m[11] = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+        dest.m[15] = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
+        return dest;
     }
 
     public Matrix4d mul(Matrix4f other) {
@@ -233,10 +280,10 @@ public class Matrix4d {
         for (int i = 0; i < 4; i++) {
             for (int j = 0; j < 4; j++) {
                 out.set(i, j,
-                        m[i][0] * other.get(0, j) +
-                                m[i][1] * other.get(1, j) +
-                                m[i][2] * other.get(2, j) +
-                                m[i][3] * other.get(3, j));
+                        m[i] * other.get(0, j) +
+                                m[4 + i] * other.get(1, j) +
+                                m[8 + i] * other.get(2, j) +
+                                m[12 + i] * other.get(3, j));
             }
         }
         return out;
@@ -244,19 +291,28 @@ public class Matrix4d {
 
     public Vector4d mul(Vector4d vec) {
         return new Vector4d(
-                vec.getX() * m[0][0] + vec.getY() * m[0][1] + vec.getZ() * m[0][2] + vec.getW() * m[0][3],
-                vec.getX() * m[1][0] + vec.getY() * m[1][1] + vec.getZ() * m[1][2] + vec.getW() * m[1][3],
-                vec.getX() * m[2][0] + vec.getY() * m[2][1] + vec.getZ() * m[2][2] + vec.getW() * m[2][3],
-                vec.getX() * m[3][0] + vec.getY() * m[3][1] + vec.getZ() * m[3][2] + vec.getW() * m[3][3]
+                vec.getX() * m[0] + vec.getY() * m[4] + vec.getZ() * m[8] + vec.getW() * m[12],
+                vec.getX() * m[1] + vec.getY() * m[5] + vec.getZ() * m[9] + vec.getW() * m[13],
+                vec.getX() * m[2] + vec.getY() * m[6] + vec.getZ() * m[10] + vec.getW() * m[14],
+                vec.getX() * m[3] + vec.getY() * m[7] + vec.getZ() * m[11] + vec.getW() * m[15]
+        );
+    }
+
+    public Vector4d mul(Vector4d vec, Vector4d dest) {
+        return dest.set(
+                vec.getX() * m[0] + vec.getY() * m[4] + vec.getZ() * m[8] + vec.getW() * m[12],
+                vec.getX() * m[1] + vec.getY() * m[5] + vec.getZ() * m[9] + vec.getW() * m[13],
+                vec.getX() * m[2] + vec.getY() * m[6] + vec.getZ() * m[10] + vec.getW() * m[14],
+                vec.getX() * m[3] + vec.getY() * m[7] + vec.getZ() * m[11] + vec.getW() * m[15]
         );
     }
 
     public Vector4d mul(Vector4f vec) {
         return new Vector4d(
-                vec.getX() * m[0][0] + vec.getY() * m[0][1] + vec.getZ() * m[0][2] + vec.getW() * m[0][3],
-                vec.getX() * m[1][0] + vec.getY() * m[1][1] + vec.getZ() * m[1][2] + vec.getW() * m[1][3],
-                vec.getX() * m[2][0] + vec.getY() * m[2][1] + vec.getZ() * m[2][2] + vec.getW() * m[2][3],
-                vec.getX() * m[3][0] + vec.getY() * m[3][1] + vec.getZ() * m[3][2] + vec.getW() * m[3][3]
+                vec.getX() * m[0] + vec.getY() * m[4] + vec.getZ() * m[8] + vec.getW() * m[12],
+                vec.getX() * m[1] + vec.getY() * m[5] + vec.getZ() * m[9] + vec.getW() * m[13],
+                vec.getX() * m[2] + vec.getY() * m[6] + vec.getZ() * m[10] + vec.getW() * m[14],
+                vec.getX() * m[3] + vec.getY() * m[7] + vec.getZ() * m[11] + vec.getW() * m[15]
         );
     }
 
@@ -265,10 +321,10 @@ public class Matrix4d {
         for (int i = 0; i < 4; i++) {
             for (int j = 0; j < 4; j++) {
                 out.set(i, j,
-                        (float) (m[i][0] * other.get(0, j) +
-                                m[i][1] * other.get(1, j) +
-                                m[i][2] * other.get(2, j) +
-                                m[i][3] * other.get(3, j)));
+                        (float) (m[i] * other.get(0, j) +
+                                m[4 + i] * other.get(1, j) +
+                                m[8 + i] * other.get(2, j) +
+                                m[12 + i] * other.get(3, j)));
             }
         }
 
@@ -280,10 +336,10 @@ public class Matrix4d {
         for (int i = 0; i < 4; i++) {
             for (int j = 0; j < 4; j++) {
                 out.set(i, j,
-                        (float) (m[i][0] * other.get(0, j) +
-                                m[i][1] * other.get(1, j) +
-                                m[i][2] * other.get(2, j) +
-                                m[i][3] * other.get(3, j)));
+                        (float) (m[i] * other.get(0, j) +
+                                m[4 + i] * other.get(1, j) +
+                                m[8 + i] * other.get(2, j) +
+                                m[12 + i] * other.get(3, j)));
             }
         }
         return out;
@@ -291,32 +347,44 @@ public class Matrix4d {
 
     public Vector4f mul4f(Vector4d vec) {
         return new Vector4f(
-                (float) (vec.getX() * m[0][0] + vec.getY() * m[0][1] + vec.getZ() * m[0][2] + vec.getW() * m[0][3]),
-                (float) (vec.getX() * m[1][0] + vec.getY() * m[1][1] + vec.getZ() * m[1][2] + vec.getW() * m[1][3]),
-                (float) (vec.getX() * m[2][0] + vec.getY() * m[2][1] + vec.getZ() * m[2][2] + vec.getW() * m[2][3]),
-                (float) (vec.getX() * m[3][0] + vec.getY() * m[3][1] + vec.getZ() * m[3][2] + vec.getW() * m[3][3])
+                (float) (vec.getX() * m[0] + vec.getY() * m[4] + vec.getZ() * m[8] + vec.getW() * m[12]),
+                (float) (vec.getX() * m[1] + vec.getY() * m[5] + vec.getZ() * m[9] + vec.getW() * m[13]),
+                (float) (vec.getX() * m[2] + vec.getY() * m[6] + vec.getZ() * m[10] + vec.getW() * m[14]),
+                (float) (vec.getX() * m[3] + vec.getY() * m[7] + vec.getZ() * m[11] + vec.getW() * m[15])
         );
     }
 
     public Vector4f mul4f(Vector4f vec) {
         return new Vector4f(
-                (float) (vec.getX() * m[0][0] + vec.getY() * m[0][1] + vec.getZ() * m[0][2] + vec.getW() * m[0][3]),
-                (float) (vec.getX() * m[1][0] + vec.getY() * m[1][1] + vec.getZ() * m[1][2] + vec.getW() * m[1][3]),
-                (float) (vec.getX() * m[2][0] + vec.getY() * m[2][1] + vec.getZ() * m[2][2] + vec.getW() * m[2][3]),
-                (float) (vec.getX() * m[3][0] + vec.getY() * m[3][1] + vec.getZ() * m[3][2] + vec.getW() * m[3][3])
+                (float) (vec.getX() * m[0] + vec.getY() * m[4] + vec.getZ() * m[8] + vec.getW() * m[12]),
+                (float) (vec.getX() * m[1] + vec.getY() * m[5] + vec.getZ() * m[9] + vec.getW() * m[13]),
+                (float) (vec.getX() * m[2] + vec.getY() * m[6] + vec.getZ() * m[10] + vec.getW() * m[14]),
+                (float) (vec.getX() * m[3] + vec.getY() * m[7] + vec.getZ() * m[11] + vec.getW() * m[15])
         );
     }
 
     public Vector3d mul(Vector3d vec) {
         Vector3d out = new Vector3d(
-                vec.getX() * m[0][0] + vec.getY() * m[0][1] + vec.getZ() * m[0][2] + m[0][3],
-                vec.getX() * m[1][0] + vec.getY() * m[1][1] + vec.getZ() * m[1][2] + m[1][3],
-                vec.getX() * m[2][0] + vec.getY() * m[2][1] + vec.getZ() * m[2][2] + m[2][3]
+                vec.getX() * m[0] + vec.getY() * m[4] + vec.getZ() * m[8] + m[12],
+                vec.getX() * m[1] + vec.getY() * m[5] + vec.getZ() * m[9] + m[13],
+                vec.getX() * m[2] + vec.getY() * m[6] + vec.getZ() * m[10] + m[14]
         );
-        double w = vec.getX() * m[3][0] + vec.getY() * m[3][1] + vec.getZ() * m[3][2] + m[3][3];
+        double w = vec.getX() * m[3] + vec.getY() * m[7] + vec.getZ() * m[11] + m[15];
         return out.div(w);
     }
 
+    public Vector3d mul(Vector3d vec, Vector3d dest) {
+        double x = vec.getX();
+        double y = vec.getY();
+        double z = vec.getZ();
+        double w = x * m[3] + y * m[7] + z * m[11] + m[15];
+        return dest.set(
+                (x * m[0] + y * m[4] + z * m[8] + m[12]) / w,
+                (x * m[1] + y * m[5] + z * m[9] + m[13]) / w,
+                (x * m[2] + y * m[6] + z * m[10] + m[14]) / w
+        );
+    }
+
     public Matrix4d pow(int exp) {
         if (exp == 0)
             return new Matrix4d().initIdentity();
@@ -330,45 +398,157 @@ public class Matrix4d {
         }
     }
 
+    /**
+     * Raises this matrix to a non-negative integer power by repeated
+     * squaring and stores the result in dest. If dest is this matrix, one
+     * temporary copy is made.
+     * @param exp exponent
+     * @param dest destination (may be this)
+     * @return dest
+     */
+    public Matrix4d pow(int exp, Matrix4d dest) {
+        if (exp < 0)
+            throw new IllegalArgumentException("Exponent must not be negative!");
+        if (exp == 0)
+            return dest.initIdentity();
+
+        Matrix4d base = dest == this ? copy() : this;
+        dest.set(base);
+        for (int bit = Integer.highestOneBit(exp) >> 1; bit > 0; bit >>= 1) {
+            dest.mul(dest, dest);
+            if ((exp & bit) != 0)
+                dest.mul(base, dest);
+        }
+        return dest;
+    }
+
+    /**
+     * Copies the elements of a row-major two dimensional array into
+     * this matrix.
+     *
+     * @param m array with m[row][col] layout
+     * @return this
+     */
     public Matrix4d setM(double[][] m) {
-        this.m = m;
+        for (int row = 0; row < 4; row++)
+            for (int col = 0; col < 4; col++)
+                this.m[col * 4 + row] = m[row][col];
+        return this;
+    }
+
+    public Matrix4d set(Matrix4d other) {
+        System.arraycopy(other.m, 0, m, 0, 16);
         return this;
     }
 
+    /**
+     * Returns a row-major copy of this matrix in the m[row][col] layout.
+     *
+     * Changes to the returned array are not reflected by this matrix.
+     *
+     * @return two dimensional copy
+     */
     public double[][] getM() {
+        double[][] out = new double[4][4];
+        for (int row = 0; row < 4; row++)
+            for (int col = 0; col < 4; col++)
+                out[row][col] = m[col * 4 + row];
+        return out;
+    }
+
+    /**
+     * Returns the backing array of this matrix in column-major order,
+     * ready to be passed to OpenGL without transposing.
+     *
+     * @return backing array
+     */
+    public double[] getData() {
         return m;
     }
 
+    /**
+     * Copies 16 column-major elements starting at offset into this matrix.
+     *
+     * @param src source array
+     * @param offset offset of the first element
+     * @return this
+     */
+    public Matrix4d set(double[] src, int offset) {
+        System.arraycopy(src, offset, m, 0, 16);
+        return this;
+    }
+
+    /**
+     * Copies the 16 elements of this matrix in column-major order into dest.
+     *
+     * @param dest destination array
+     * @param offset offset of the first element
+     * @return dest
+     */
+    public double[] get(double[] dest, int offset) {
+        System.arraycopy(m, 0, dest, offset, 16);
+        return dest;
+    }
+
+    /**
+     * Writes the elements of this matrix in column-major order into the
+     * buffer at its current position. The position of the buffer is
+     * not changed.
+     *
+     * @param dest destination buffer
+     * @return dest
+     */
+    public DoubleBuffer get(DoubleBuffer dest) {
+        int position = dest.position();
+        for (int i = 0; i < 16; i++)
+            dest.put(position + i, m[i]);
+        return dest;
+    }
+
+    /**
+     * Reads 16 column-major elements from the buffer at its current
+     * position. The position of the buffer is not changed.
+     *
+     * @param src source buffer
+     * @return this
+     */
+    public Matrix4d set(DoubleBuffer src) {
+        int position = src.position();
+        for (int i = 0; i < 16; i++)
+            m[i] = src.get(position + i);
+        return this;
+    }
+
     public double get(int x, int y) {
-        return m[x][y];
+        return m[y * 4 + x];
     }
 
     public Matrix4d set(int x, int y, double value) {
-        m[x][y] = value;
+        m[y * 4 + x] = value;
         return this;
     }
 
     public Vector4d getRow(int index) {
-        return new Vector4d(m[index][0], m[index][1], m[index][2], m[index][3]);
+        return new Vector4d(m[index], m[4 + index], m[8 + index], m[12 + index]);
     }
 
     public Vector4d getCoulumb(int index) {
-        return new Vector4d(m[0][index], m[1][index], m[2][index], m[3][index]);
+        return new Vector4d(m[index * 4], m[index * 4 + 1], m[index * 4 + 2], m[index * 4 + 3]);
     }
 
     public Matrix4d setRow(int index, Vector4d row) {
-        m[index][0] = row.getX();
-        m[index][1] = row.getY();
-        m[index][2] = row.getZ();
-        m[index][3] = row.getW();
+        m[index] = row.getX();
+        m[4 + index] = row.getY();
+        m[8 + index] = row.getZ();
+        m[12 + index] = row.getW();
         return this;
     }
 
     public Matrix4d setCoulomb(int index, Vector4d coulomb) {
-        m[0][index] = coulomb.getX();
-        m[1][index] = coulomb.getY();
-        m[2][index] = coulomb.getZ();
-        m[3][index] = coulomb.getW();
+        m[index * 4] = coulomb.getX();
+        m[index * 4 + 1] = coulomb.getY();
+        m[index * 4 + 2] = coulomb.getZ();
+        m[index * 4 + 3] = coulomb.getW();
         return this;
     }
 
@@ -376,15 +556,689 @@ public class Matrix4d {
         Matrix4f out = new Matrix4f();
         for (int row = 0; row < 4; row++)
             for (int coulomb = 0; coulomb < 4; coulomb++)
-                out.set(row, coulomb, (float) m[row][coulomb]);
+                out.set(row, coulomb, (float) m[coulomb * 4 + row]);
+        return out;
+    }
+
+    public double determinant() {
+        return (m[0] * m[5] - m[4] * m[1]) * (m[10] * m[15] - m[14] * m[11])
+                - (m[0] * m[9] - m[8] * m[1]) * (m[6] * m[15] - m[14] * m[7])
+                + (m[0] * m[13] - m[12] * m[1]) * (m[6] * m[11] - m[10] * m[7])
+                + (m[4] * m[9] - m[8] * m[5]) * (m[2] * m[15] - m[14] * m[3])
+                - (m[4] * m[13] - m[12] * m[5]) * (m[2] * m[11] - m[10] * m[3])
+                + (m[8] * m[13] - m[12] * m[9]) * (m[2] * m[7] - m[6] * m[3]);
+    }
+
+    /**
+     * Inverts this matrix in place. If this matrix is singular, it is
+     * left unchanged.
+     *
+     * @return this
+     */
+    public Matrix4d invert() {
+        invert(this);
+        return this;
+    }
+
+    /**
+     * Stores the inverse of this matrix in dest without allocating.
+     *
+     * If this matrix is singular, null is returned and dest is left
+     * untouched. dest may be this matrix.
+     *
+     * @param dest destination matrix
+     * @return dest or null
+     */
+    public Matrix4d invert(Matrix4d dest) {
+        double a00 = m[0], a10 = m[1], a20 = m[2], a30 = m[3];
+        double a01 = m[4], a11 = m[5], a21 = m[6], a31 = m[7];
+        double a02 = m[8], a12 = m[9], a22 = m[10], a32 = m[11];
+        double a03 = m[12], a13 = m[13], a23 = m[14], a33 = m[15];
+
+        double s0 = a00 * a11 - a10 * a01;
+        double s1 = a00 * a12 - a10 * a02;
+        double s2 = a00 * a13 - a10 * a03;
+        double s3 = a01 * a12 - a11 * a02;
+        double s4 = a01 * a13 - a11 * a03;
+        double s5 = a02 * a13 - a12 * a03;
+
+        double c5 = a22 * a33 - a32 * a23;
+        double c4 = a21 * a33 - a31 * a23;
+        double c3 = a21 * a32 - a31 * a22;
+        double c2 = a20 * a33 - a30 * a23;
+        double c1 = a20 * a32 - a30 * a22;
+        double c0 = a20 * a31 - a30 * a21;
+
+        double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+        if (det == 0)
+            return null;
+        double inv = 1d / det;
+
+        dest.m[0] = (a11 * c5 - a12 * c4 + a13 * c3) * inv;
+        dest.m[1] = (-a10 * c5 + a12 * c2 - a13 * c1) * inv;
+        dest.m[2] = (a10 * c4 - a11 * c2 + a13 * c0) * inv;
+        dest.m[3] = (-a10 * c3 + a11 * c1 - a12 * c0) * inv;
+
+        dest.m[4] = (-a01 * c5 + a02 * c4 - a03 * c3) * inv;
+        dest.m[5] = (a00 * c5 - a02 * c2 + a03 * c1) * inv;
+        dest.m[6] = (-a00 * c4 + a01 * c2 - a03 * c0) * inv;
+        dest.m[7] = (a00 * c3 - a01 * c1 + a02 * c0) * inv;
+
+        dest.m[8] = (a31 * s5 - a32 * s4 + a33 * s3) * inv;
+        dest.m[9] = (-a30 * s5 + a32 * s2 - a33 * s1) * inv;
+        dest.m[10] = (a30 * s4 - a31 * s2 + a33 * s0) * inv;
+        dest.m[11] = (-a30 * s3 + a31 * s1 - a32 * s0) * inv;
+
+        dest.m[12] = (-a21 * s5 + a22 * s4 - a23 * s3) * inv;
+        dest.m[13] = (a20 * s5 - a22 * s2 + a23 * s1) * inv;
+        dest.m[14] = (-a20 * s4 + a21 * s2 - a23 * s0) * inv;
+        dest.m[15] = (a20 * s3 - a21 * s1 + a22 * s0) * inv;
+        return dest;
+    }
+
+    /**
+     * Inverts this affine matrix in place. See {@link #invertAffine(Matrix4d)}.
+     *
+     * @return this
+     */
+    public Matrix4d invertAffine() {
+        invertAffine(this);
+        return this;
+    }
+
+    /**
+     * Stores the inverse of this matrix in dest, assuming that the bottom
+     * row is [0 0 0 1]. Only the upper 3x3 block is inverted, which is
+     * considerably cheaper than {@link #invert(Matrix4d)}.
+     *
+     * If the upper 3x3 block is singular, null is returned and dest is
+     * left untouched. dest may be this matrix.
+     *
+     * @param dest destination matrix
+     * @return dest or null
+     */
+    public Matrix4d invertAffine(Matrix4d dest) {
+        double a00 = m[0], a10 = m[1], a20 = m[2];
+        double a01 = m[4], a11 = m[5], a21 = m[6];
+        double a02 = m[8], a12 = m[9], a22 = m[10];
+        double tx = m[12], ty = m[13], tz = m[14];
+
+        double c00 = a11 * a22 - a12 * a21;
+        double c01 = a12 * a20 - a10 * a22;
+        double c02 = a10 * a21 - a11 * a20;
+
+        double det = a00 * c00 + a01 * c01 + a02 * c02;
+        if (det == 0)
+            return null;
+        double inv = 1d / det;
+
+        double b00 = c00 * inv;
+        double b10 = c01 * inv;
+        double b20 = c02 * inv;
+        double b01 = (a02 * a21 - a01 * a22) * inv;
+        double b11 = (a00 * a22 - a02 * a20) * inv;
+        double b21 = (a01 * a20 - a00 * a21) * inv;
+        double b02 = (a01 * a12 - a02 * a11) * inv;
+        double b12 = (a02 * a10 - a00 * a12) * inv;
+        double b22 = (a00 * a11 - a01 * a10) * inv;
+
+        dest.m[0] = b00;    dest.m[4] = b01;    dest.m[8] = b02;     dest.m[12] = -(b00 * tx + b01 * ty + b02 * tz);
+        dest.m[1] = b10;    dest.m[5] = b11;    dest.m[9] = b12;     dest.m[13] = -(b10 * tx + b11 * ty + b12 * tz);
+        dest.m[2] = b20;    dest.m[6] = b21;    dest.m[10] = b22;    dest.m[14] = -(b20 * tx + b21 * ty + b22 * tz);
+        dest.m[3] = 0;      dest.m[7] = 0;      dest.m[11] = 0;      dest.m[15] = 1;
+        return dest;
+    }
+
+    /**
+     * Inverts this rigid body transformation in place.
+     * See {@link #invertRigid(Matrix4d)}.
+     *
+     * @return this
+     */
+    public Matrix4d invertRigid() {
+        return invertRigid(this);
+    }
+
+    /**
+     * Stores the inverse of this matrix in dest, assuming that it only
+     * consists of a rotation and a translation. The inverse is then just
+     * the transposed rotation and the rotated, negated translation.
+     *
+     * The result is undefined for matrices containing scale, shear or
+     * projection. dest may be this matrix.
+     *
+     * @param dest destination matrix
+     * @return dest
+     */
+    public Matrix4d invertRigid(Matrix4d dest) {
+        double a00 = m[0], a10 = m[1], a20 = m[2];
+        double a01 = m[4], a11 = m[5], a21 = m[6];
+        double a02 = m[8], a12 = m[9], a22 = m[10];
+        double tx = m[12], ty = m[13], tz = m[14];
+
+        dest.m[0] = a00;    dest.m[4] = a10;    dest.m[8] = a20;     dest.m[12] = -(a00 * tx + a10 * ty + a20 * tz);
+        dest.m[1] = a01;    dest.m[5] = a11;    dest.m[9] = a21;     dest.m[13] = -(a01 * tx + a11 * ty + a21 * tz);
+        dest.m[2] = a02;    dest.m[6] = a12;    dest.m[10] = a22;    dest.m[14] = -(a02 * tx + a12 * ty + a22 * tz);
+        dest.m[3] = 0;      dest.m[7] = 0;      dest.m[11] = 0;      dest.m[15] = 1;
+        return dest;
+    }
+
+    /**
+     * Returns true if the bottom row of this matrix is exactly [0 0 0 1].
+     *
+     * @return true if the matrix is affine
+     */
+    public boolean isAffine() {
+        return m[3] == 0 && m[7] == 0 && m[11] == 0 && m[15] == 1;
+    }
+
+    /**
+     * Transforms count points from in to out. Points are stored as
+     * interleaved x, y, z triples and are treated as having w = 1. If
+     * this matrix is not affine, the result is divided by the transformed
+     * w just like {@link #mul(Vector3d)} does.
+     *
+     * in and out may be the same array as long as inOff equals outOff.
+     *
+     * @param in source coordinates
+     * @param inOff offset of the first source coordinate
+     * @param out destination coordinates
+     * @param outOff offset of the first destination coordinate
+     * @param count number of points
+     * @return out
+     */
+    public double[] transformPoints(double[] in, int inOff, double[] out, int outOff, int count) {
+        Objects.checkFromIndexSize(inOff, count * 3, in.length);
+        Objects.checkFromIndexSize(outOff, count * 3, out.length);
+        if (isAffine())
+            transformPointsAffine(in, inOff, out, outOff, count);
+        else
+            transformPointsProjective(in, inOff, out, outOff, count);
         return out;
     }
 
+    /**
+     * Same as {@link #transformPoints(double[], int, double[], int, int)}, but
+     * splits the work across the pool for large counts. This matrix must
+     * not be modified until the call returns.
+     *
+     * @param in source coordinates
+     * @param inOff offset of the first source coordinate
+     * @param out destination coordinates
+     * @param outOff offset of the first destination coordinate
+     * @param count number of points
+     * @param pool pool to run in
+     * @return out
+     */
+    public double[] transformPoints(double[] in, int inOff, double[] out, int outOff, int count, ForkJoinPool pool) {
+        Objects.checkFromIndexSize(inOff, count * 3, in.length);
+        Objects.checkFromIndexSize(outOff, count * 3, out.length);
+        boolean affine = isAffine();
+        RangeTask.run(pool, 0, count, PARALLEL_GRAIN, (from, to) -> {
+            if (affine)
+                transformPointsAffine(in, inOff + from * 3, out, outOff + from * 3, to - from);
+            else
+                transformPointsProjective(in, inOff + from * 3, out, outOff + from * 3, to - from);
+        });
+        return out;
+    }
+
+    /**
+     * Transforms count points starting at the current positions of the
+     * buffers. See {@link #transformPoints(double[], int, double[], int, int)}.
+     * The positions of the buffers are not changed.
+     *
+     * @param in source coordinates
+     * @param out destination coordinates
+     * @param count number of points
+     * @return out
+     */
+    public DoubleBuffer transformPoints(DoubleBuffer in, DoubleBuffer out, int count) {
+        Objects.checkFromIndexSize(in.position(), count * 3, in.limit());
+        Objects.checkFromIndexSize(out.position(), count * 3, out.limit());
+        if (isAffine())
+            transformPointsAffine(in, in.position(), out, out.position(), count);
+        else
+            transformPointsProjective(in, in.position(), out, out.position(), count);
+        return out;
+    }
+
+    /**
+     * Transforms count points stored as doubles in the byte order of the
+     * buffers, starting at their current positions. This is meant for
+     * direct buffers that are shared with native code. The positions of
+     * the buffers are not changed.
+     *
+     * @param in source coordinates
+     * @param out destination coordinates
+     * @param count number of points
+     * @return out
+     */
+    public ByteBuffer transformPoints(ByteBuffer in, ByteBuffer out, int count) {
+        transformPoints(in.asDoubleBuffer(), out.asDoubleBuffer(), count);
+        return out;
+    }
+
+    /**
+     * Transforms count directions from in to out. Directions are stored
+     * as interleaved x, y, z triples and are treated as having w = 0, so
+     * only the upper 3x3 block of this matrix is applied.
+     *
+     * in and out may be the same array as long as inOff equals outOff.
+     *
+     * @param in source coordinates
+     * @param inOff offset of the first source coordinate
+     * @param out destination coordinates
+     * @param outOff offset of the first destination coordinate
+     * @param count number of directions
+     * @return out
+     */
+    public double[] transformDirections(double[] in, int inOff, double[] out, int outOff, int count) {
+        Objects.checkFromIndexSize(inOff, count * 3, in.length);
+        Objects.checkFromIndexSize(outOff, count * 3, out.length);
+        transformDirectionsKernel(in, inOff, out, outOff, count);
+        return out;
+    }
+
+    /**
+     * Same as {@link #transformDirections(double[], int, double[], int, int)},
+     * but splits the work across the pool for large counts. This matrix
+     * must not be modified until the call returns.
+     *
+     * @param in source coordinates
+     * @param inOff offset of the first source coordinate
+     * @param out destination coordinates
+     * @param outOff offset of the first destination coordinate
+     * @param count number of directions
+     * @param pool pool to run in
+     * @return out
+     */
+    public double[] transformDirections(double[] in, int inOff, double[] out, int outOff, int count, ForkJoinPool pool) {
+        Objects.checkFromIndexSize(inOff, count * 3, in.length);
+        Objects.checkFromIndexSize(outOff, count * 3, out.length);
+        RangeTask.run(pool, 0, count, PARALLEL_GRAIN, (from, to) ->
+                transformDirectionsKernel(in, inOff + from * 3, out, outOff + from * 3, to - from));
+        return out;
+    }
+
+    /**
+     * Transforms count directions starting at the current positions of the
+     * buffers. The positions of the buffers are not changed.
+     *
+     * @param in source coordinates
+     * @param out destination coordinates
+     * @param count number of directions
+     * @return out
+     */
+    public DoubleBuffer transformDirections(DoubleBuffer in, DoubleBuffer out, int count) {
+        Objects.checkFromIndexSize(in.position(), count * 3, in.limit());
+        Objects.checkFromIndexSize(out.position(), count * 3, out.limit());
+        transformDirectionsKernel(in, in.position(), out, out.position(), count);
+        return out;
+    }
+
+    /**
+     * Transforms count directions stored as doubles in the byte order of the
+     * buffers, starting at their current positions. The positions of the
+     * buffers are not changed.
+     *
+     * @param in source coordinates
+     * @param out destination coordinates
+     * @param count number of directions
+     * @return out
+     */
+    public ByteBuffer transformDirections(ByteBuffer in, ByteBuffer out, int count) {
+        transformDirections(in.asDoubleBuffer(), out.asDoubleBuffer(), count);
+        return out;
+    }
+
+    private void transformPointsAffine(double[] in, int inOff, double[] out, int outOff, int count) {
+        double m00 = m[0], m01 = m[4], m02 = m[8], m03 = m[12];
+        double m10 = m[1], m11 = m[5], m12 = m[9], m13 = m[13];
+        double m20 = m[2], m21 = m[6], m22 = m[10], m23 = m[14];
+
+        for (int i = inOff, o = outOff, end = inOff + count * 3; i < end; i += 3, o += 3) {
+            double x = in[i];
+            double y = in[i + 1];
+            double z = in[i + 2];
+            out[o] = m00 * x + m01 * y + m02 * z + m03;
+            out[o + 1] = m10 * x + m11 * y + m12 * z + m13;
+            out[o + 2] = m20 * x + m21 * y + m22 * z + m23;
+        }
+    }
+
+    private void transformPointsProjective(double[] in, int inOff, double[] out, int outOff, int count) {
+        double m00 = m[0], m01 = m[4], m02 = m[8], m03 = m[12];
+        double m10 = m[1], m11 = m[5], m12 = m[9], m13 = m[13];
+        double m20 = m[2], m21 = m[6], m22 = m[10], m23 = m[14];
+        double m30 = m[3], m31 = m[7], m32 = m[11], m33 = m[15];
+
+        for (int i = inOff, o = outOff, end = inOff + count * 3; i < end; i += 3, o += 3) {
+            double x = in[i];
+            double y = in[i + 1];
+            double z = in[i + 2];
+            double w = m30 * x + m31 * y + m32 * z + m33;
+            out[o] = (m00 * x + m01 * y + m02 * z + m03) / w;
+            out[o + 1] = (m10 * x + m11 * y + m12 * z + m13) / w;
+            out[o + 2] = (m20 * x + m21 * y + m22 * z + m23) / w;
+        }
+    }
+
+    private void transformDirectionsKernel(double[] in, int inOff, double[] out, int outOff, int count) {
+        double m00 = m[0], m01 = m[4], m02 = m[8];
+        double m10 = m[1], m11 = m[5], m12 = m[9];
+        double m20 = m[2], m21 = m[6], m22 = m[10];
+
+        for (int i = inOff, o = outOff, end = inOff + count * 3; i < end; i += 3, o += 3) {
+            double x = in[i];
+            double y = in[i + 1];
+            double z = in[i + 2];
+            out[o] = m00 * x + m01 * y + m02 * z;
+            out[o + 1] = m10 * x + m11 * y + m12 * z;
+            out[o + 2] = m20 * x + m21 * y + m22 * z;
+        }
+    }
+
+    private void transformPointsAffine(DoubleBuffer in, int inOff, DoubleBuffer out, int outOff, int count) {
+        double m00 = m[0], m01 = m[4], m02 = m[8], m03 = m[12];
+        double m10 = m[1], m11 = m[5], m12 = m[9], m13 = m[13];
+        double m20 = m[2], m21 = m[6], m22 = m[10], m23 = m[14];
+
+        for (int i = inOff, o = outOff, end = inOff + count * 3; i < end; i += 3, o += 3) {
+            double x = in.get(i);
+            double y = in.get(i + 1);
+            double z = in.get(i + 2);
+            out.put(o, m00 * x + m01 * y + m02 * z + m03);
+            out.put(o + 1, m10 * x + m11 * y + m12 * z + m13);
+            out.put(o + 2, m20 * x + m21 * y + m22 * z + m23);
+        }
+    }
+
+    private void transformPointsProjective(DoubleBuffer in, int inOff, DoubleBuffer out, int outOff, int count) {
+        double m00 = m[0], m01 = m[4], m02 = m[8], m03 = m[12];
+        double m10 = m[1], m11 = m[5], m12 = m[9], m13 = m[13];
+        double m20 = m[2], m21 = m[6], m22 = m[10], m23 = m[14];
+        double m30 = m[3], m31 = m[7], m32 = m[11], m33 = m[15];
+
+        for (int i = inOff, o = outOff, end = inOff + count * 3; i < end; i += 3, o += 3) {
+            double x = in.get(i);
+            double y = in.get(i + 1);
+            double z = in.get(i + 2);
+            double w = m30 * x + m31 * y + m32 * z + m33;
+            out.put(o, (m00 * x + m01 * y + m02 * z + m03) / w);
+            out.put(o + 1, (m10 * x + m11 * y + m12 * z + m13) / w);
+            out.put(o + 2, (m20 * x + m21 * y + m22 * z + m23) / w);
+        }
+    }
+
+    private void transformDirectionsKernel(DoubleBuffer in, int inOff, DoubleBuffer out, int outOff, int count) {
+        double m00 = m[0], m01 = m[4], m02 = m[8];
+        double m10 = m[1], m11 = m[5], m12 = m[9];
+        double m20 = m[2], m21 = m[6], m22 = m[10];
+
+        for (int i = inOff, o = outOff, end = inOff + count * 3; i < end; i += 3, o += 3) {
+            double x = in.get(i);
+            double y = in.get(i + 1);
+            double z = in.get(i + 2);
+            out.put(o, m00 * x + m01 * y + m02 * z);
+            out.put(o + 1, m10 * x + m11 * y + m12 * z);
+            out.put(o + 2, m20 * x + m21 * y + m22 * z);
+        }
+    }
+
+    /**
+     * Stores the normal matrix of this transformation in dest, which is the
+     * inverse transpose of the upper 3x3 block. It is computed in closed
+     * form as the cofactor matrix divided by the determinant.
+     *
+     * If the upper 3x3 block is singular, null is returned and dest is
+     * left untouched.
+     *
+     * @param dest destination matrix
+     * @return dest or null
+     */
+    public Matrix3d normalMatrix(Matrix3d dest) {
+        double a00 = m[0], a01 = m[4], a02 = m[8];
+        double a10 = m[1], a11 = m[5], a12 = m[9];
+        double a20 = m[2], a21 = m[6], a22 = m[10];
+
+        // each row of the cofactor matrix is the cross product of the other two rows
+        double c00 = a11 * a22 - a12 * a21, c01 = a12 * a20 - a10 * a22, c02 = a10 * a21 - a11 * a20;
+        double det = a00 * c00 + a01 * c01 + a02 * c02;
+        if (det == 0)
+            return null;
+        double inv = 1d / det;
+
+        dest.set(0, 0, c00 * inv);
+        dest.set(0, 1, c01 * inv);
+        dest.set(0, 2, c02 * inv);
+        dest.set(1, 0, (a02 * a21 - a01 * a22) * inv);
+        dest.set(1, 1, (a00 * a22 - a02 * a20) * inv);
+        dest.set(1, 2, (a01 * a20 - a00 * a21) * inv);
+        dest.set(2, 0, (a01 * a12 - a02 * a11) * inv);
+        dest.set(2, 1, (a02 * a10 - a00 * a12) * inv);
+        dest.set(2, 2, (a00 * a11 - a01 * a10) * inv);
+        return dest;
+    }
+
+    /**
+     * Stores the normal matrix of this transformation in dest, assuming
+     * that the upper 3x3 block is a rotation with a uniform scale s. The
+     * inverse transpose of s * R is R / s, which equals the block divided
+     * by the squared length of its first column.
+     *
+     * The result is undefined for non-uniform scale or shear.
+     *
+     * @param dest destination matrix
+     * @return dest or null if the scale is zero
+     */
+    public Matrix3d normalMatrixUniformScale(Matrix3d dest) {
+        double scaleSquared = m[0] * m[0] + m[1] * m[1] + m[2] * m[2];
+        if (scaleSquared == 0)
+            return null;
+        double inv = 1d / scaleSquared;
+
+        dest.set(0, 0, m[0] * inv);
+        dest.set(0, 1, m[4] * inv);
+        dest.set(0, 2, m[8] * inv);
+        dest.set(1, 0, m[1] * inv);
+        dest.set(1, 1, m[5] * inv);
+        dest.set(1, 2, m[9] * inv);
+        dest.set(2, 0, m[2] * inv);
+        dest.set(2, 1, m[6] * inv);
+        dest.set(2, 2, m[10] * inv);
+        return dest;
+    }
+
+    /**
+     * Computes the normal matrices of count model matrices at once.
+     *
+     * The model matrices are read as 16 column-major elements each, like
+     * {@link #getData()} provides them, and the normal matrices are written
+     * as 9 column-major elements each, ready for a mat3 uniform or buffer.
+     * Singular matrices produce a zero normal matrix.
+     *
+     * @param models source matrices
+     * @param modelOff offset of the first source matrix
+     * @param normals destination matrices
+     * @param normalOff offset of the first destination matrix
+     * @param count number of matrices
+     * @return normals
+     */
+    public static double[] normalMatrices(double[] models, int modelOff, double[] normals, int normalOff, int count) {
+        Objects.checkFromIndexSize(modelOff, count * 16, models.length);
+        Objects.checkFromIndexSize(normalOff, count * 9, normals.length);
+
+        for (int i = 0, s = modelOff, d = normalOff; i < count; i++, s += 16, d += 9) {
+            double a00 = models[s], a01 = models[s + 4], a02 = models[s + 8];
+            double a10 = models[s + 1], a11 = models[s + 5], a12 = models[s + 9];
+            double a20 = models[s + 2], a21 = models[s + 6], a22 = models[s + 10];
+
+            double c00 = a11 * a22 - a12 * a21, c01 = a12 * a20 - a10 * a22, c02 = a10 * a21 - a11 * a20;
+            double det = a00 * c00 + a01 * c01 + a02 * c02;
+            double inv = det != 0 ? 1d / det : 0;
+
+            // column-major: element (row, col) at col * 3 + row
+            normals[d] = c00 * inv;
+            normals[d + 3] = c01 * inv;
+            normals[d + 6] = c02 * inv;
+            normals[d + 1] = (a02 * a21 - a01 * a22) * inv;
+            normals[d + 4] = (a00 * a22 - a02 * a20) * inv;
+            normals[d + 7] = (a01 * a20 - a00 * a21) * inv;
+            normals[d + 2] = (a01 * a12 - a02 * a11) * inv;
+            normals[d + 5] = (a02 * a10 - a00 * a12) * inv;
+            normals[d + 8] = (a00 * a11 - a01 * a10) * inv;
+        }
+        return normals;
+    }
+
+    /**
+     * Decomposes this matrix into translation, rotation and scale, so that
+     * it equals translation * rotation * scale using
+     * {@link #initTranslation(Vector3d)}, {@link #initRotation(Quaterniond)} and
+     * {@link #initScale(Vector3d)}.
+     *
+     * If the matrix mirrors, i.e. the determinant of the upper 3x3 block is
+     * negative, the x scale is negated. Shear and projection are not
+     * represented and get lost. None of the destinations may be null.
+     *
+     * @param translation destination for the translation
+     * @param rotation destination for the rotation
+     * @param scale destination for the scale
+     * @return this
+     */
+    public Matrix4d decompose(Vector3d translation, Quaterniond rotation, Vector3d scale) {
+        double sx = decomposeScaleX(m, 0);
+        double sy = columnLength(m, 4);
+        double sz = columnLength(m, 8);
+        decomposeRotation(m, 0, sx, sy, sz, rotation);
+        translation.set(m[12], m[13], m[14]);
+        scale.set(sx, sy, sz);
+        return this;
+    }
+
+    /**
+     * Decomposes count matrices at once, see
+     * {@link #decompose(Vector3d, Quaterniond, Vector3d)}.
+     *
+     * The matrices are read as 16 column-major elements each. Translations
+     * and scales are written as x, y, z triples and rotations as x, y, z, w
+     * quadruples.
+     *
+     * @param matrices source matrices
+     * @param off offset of the first source matrix
+     * @param translations destination translations
+     * @param tOff offset of the first translation
+     * @param rotations destination rotations
+     * @param rOff offset of the first rotation
+     * @param scales destination scales
+     * @param sOff offset of the first scale
+     * @param count number of matrices
+     */
+    public static void decompose(double[] matrices, int off, double[] translations, int tOff, double[] rotations, int rOff,
+                                 double[] scales, int sOff, int count) {
+        Objects.checkFromIndexSize(off, count * 16, matrices.length);
+        Objects.checkFromIndexSize(tOff, count * 3, translations.length);
+        Objects.checkFromIndexSize(rOff, count * 4, rotations.length);
+        Objects.checkFromIndexSize(sOff, count * 3, scales.length);
+
+        Quaterniond rotation = new Quaterniond();
+        for (int i = 0; i < count; i++) {
+            int s = off + i * 16;
+            double sx = decomposeScaleX(matrices, s);
+            double sy = columnLength(matrices, s + 4);
+            double sz = columnLength(matrices, s + 8);
+            decomposeRotation(matrices, s, sx, sy, sz, rotation);
+
+            int t = tOff + i * 3;
+            translations[t] = matrices[s + 12];
+            translations[t + 1] = matrices[s + 13];
+            translations[t + 2] = matrices[s + 14];
+
+            int r = rOff + i * 4;
+            rotations[r] = rotation.getX();
+            rotations[r + 1] = rotation.getY();
+            rotations[r + 2] = rotation.getZ();
+            rotations[r + 3] = rotation.getW();
+
+            int c = sOff + i * 3;
+            scales[c] = sx;
+            scales[c + 1] = sy;
+            scales[c + 2] = sz;
+        }
+    }
+
+    /**
+     * Returns the length of the three elements starting at src[c], which is
+     * the scale of one column of the upper 3x3 block.
+     */
+    private static double columnLength(double[] src, int c) {
+        return Math.sqrt(src[c] * src[c] + src[c + 1] * src[c + 1] + src[c + 2] * src[c + 2]);
+    }
+
+    /**
+     * Returns the x scale of the matrix stored as 16 column-major elements
+     * at src[s], negated if the matrix mirrors.
+     */
+    private static double decomposeScaleX(double[] src, int s) {
+        double a00 = src[s], a01 = src[s + 4], a02 = src[s + 8];
+        double a10 = src[s + 1], a11 = src[s + 5], a12 = src[s + 9];
+        double a20 = src[s + 2], a21 = src[s + 6], a22 = src[s + 10];
+
+        // a mirroring can not be expressed by a rotation, so it is moved into the x scale
+        double det = a00 * (a11 * a22 - a12 * a21) - a01 * (a10 * a22 - a12 * a20) + a02 * (a10 * a21 - a11 * a20);
+        double sx = columnLength(src, s);
+        return det < 0 ? -sx : sx;
+    }
+
+    /**
+     * Writes the rotation of the matrix stored as 16 column-major elements at
+     * src[s] into dest, after dividing the given scales out of its columns.
+     */
+    private static void decomposeRotation(double[] src, int s, double sx, double sy, double sz, Quaterniond dest) {
+        double ix = sx != 0 ? 1d / sx : 0;
+        double iy = sy != 0 ? 1d / sy : 0;
+        double iz = sz != 0 ? 1d / sz : 0;
+        double r00 = src[s] * ix, r01 = src[s + 4] * iy, r02 = src[s + 8] * iz;
+        double r10 = src[s + 1] * ix, r11 = src[s + 5] * iy, r12 = src[s + 9] * iz;
+        double r20 = src[s + 2] * ix, r21 = src[s + 6] * iy, r22 = src[s + 10] * iz;
+
+        double qx, qy, qz, qw;
+        double trace = r00 + r11 + r22;
+        if (trace > 0) {
+            double f = Math.sqrt(trace + 1) * 2;
+            qw = 0.25d * f;
+            qx = (r21 - r12) / f;
+            qy = (r02 - r20) / f;
+            qz = (r10 - r01) / f;
+        } else if (r00 > r11 && r00 > r22) {
+            double f = Math.sqrt(1 + r00 - r11 - r22) * 2;
+            qw = (r21 - r12) / f;
+            qx = 0.25d * f;
+            qy = (r01 + r10) / f;
+            qz = (r02 + r20) / f;
+        } else if (r11 > r22) {
+            double f = Math.sqrt(1 + r11 - r00 - r22) * 2;
+            qw = (r02 - r20) / f;
+            qx = (r01 + r10) / f;
+            qy = 0.25d * f;
+            qz = (r12 + r21) / f;
+        } else {
+            double f = Math.sqrt(1 + r22 - r00 - r11) * 2;
+            qw = (r10 - r01) / f;
+            qx = (r02 + r20) / f;
+            qy = (r12 + r21) / f;
+            qz = 0.25d * f;
+        }
+
+        dest.set(qx, qy, qz, qw);
+    }
+
     public Matrix3f toReducedMatrix3f() {
         Matrix3f out = new Matrix3f();
         for (int row = 0; row < 3; row++)
             for (int coulomb = 0; coulomb < 3; coulomb++)
-                out.set(row, coulomb, (float) m[row][coulomb]);
+                out.set(row, coulomb, (float) m[coulomb * 4 + row]);
         return out;
     }
 
@@ -392,15 +1246,12 @@ public class Matrix4d {
         Matrix3d out = new Matrix3d();
         for (int row = 0; row < 3; row++)
             for (int coulomb = 0; coulomb < 3; coulomb++)
-                out.set(row, coulomb, m[row][coulomb]);
+                out.set(row, coulomb, m[coulomb * 4 + row]);
         return out;
     }
 
     public Matrix4d copy() {
-        Matrix4d copy = new Matrix4d();
-        for (int row = 0; row < 4; row++)
-            System.arraycopy(m[row], 0, copy.m[row], 0, 4);
-        return copy;
+        return new Matrix4d().set(this);
     }
 
     @Override
@@ -423,7 +1274,7 @@ public class Matrix4d {
         for (int i = 0; i < 4; i++) {
             stringBuilder.append("\n");
             for (int j = 0; j < 4; j++)
-                stringBuilder.append("\t").append(m[i][j]);
+                stringBuilder.append("\t").append(m[j * 4 + i]);
         }
         stringBuilder.append("\n]");
         return stringBuilder.toString();
@@ -0,0 +1,493 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary file format for dense matrices and vector arrays.
+ *
+ * A file starts with a 64 byte little endian header:
+ * <pre>
+ *  0  int   magic "CBMX"
+ *  4  short version
+ *  6  byte  element size, 4 for float and 8 for double
+ *  7  byte  payload byte order, 0 little and 1 big endian
+ *  8  byte  layout, see {@link Layout}
+ *  9  byte  reserved
+ * 10  short flags, bit 0 set if the payload has checksums
+ * 12  int   checksum chunk size in bytes
+ * 16  long  rows, or number of vectors
+ * 24  long  columns, or number of components
+ * 32  long  payload size in bytes
+ * 40  int   CRC32C of bytes 0 to 39
+ * </pre>
+ * The raw payload follows at offset 64, so it is aligned for direct
+ * access. Vector arrays store one array per component. If checksums are
+ * enabled, the payload is followed by one CRC32C per chunk.
+ *
+ * Files are written in the native byte order. An opened file maps the
+ * payload into memory, so it can be used without copying it into the
+ * heap, or copied into a matrix with bulk transfers.
+ */
+@SuppressWarnings("Duplicates")
+public final class MatrixFile implements Closeable {
+
+    public enum Layout {
+        ROW_MAJOR, COLUMN_MAJOR, VECTORS
+    }
+
+    public static final int HEADER_SIZE = 64;
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private static final int MAGIC = 0x584D4243;
+    private static final short VERSION = 1;
+    private static final long WINDOW = 1L << 30;
+
+    private final FileChannel channel;
+    private final int elementSize;
+    private final ByteOrder order;
+    private final Layout layout;
+    private final int chunkSize;
+    private final long rows;
+    private final long columns;
+    private final long payloadSize;
+
+    private MatrixFile(FileChannel channel, ByteBuffer header) throws IOException {
+        this.channel = channel;
+
+        CRC32C crc = new CRC32C();
+        crc.update(header.array(), 0, 40);
+        if (header.getInt(0) != MAGIC || header.getShort(4) != VERSION || header.getInt(40) != (int) crc.getValue())
+            throw new IOException("Invalid matrix file header");
+
+        elementSize = header.get(6);
+        order = header.get(7) == 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+        int layoutIndex = header.get(8);
+        chunkSize = (header.getShort(10) & 1) != 0 ? header.getInt(12) : 0;
+        rows = header.getLong(16);
+        columns = header.getLong(24);
+        payloadSize = header.getLong(32);
+
+        if ((elementSize != Float.BYTES && elementSize != Double.BYTES) || layoutIndex < 0
+                || layoutIndex >= Layout.values().length || rows < 0 || columns < 0 || chunkSize < 0
+                || payloadSize != rows * columns * elementSize
+                || channel.size() < HEADER_SIZE + payloadSize + checksumCount() * Integer.BYTES)
+            throw new IOException("Invalid matrix file header");
+        layout = Layout.values()[layoutIndex];
+    }
+
+    /**
+     * Opens a matrix file for reading and validates its header.
+     * @param file file to open
+     * @return opened file
+     * @throws IOException if the file cannot be read or is not a matrix file
+     */
+    public static MatrixFile open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0)
+                    throw new IOException("Invalid matrix file header");
+            }
+            return new MatrixFile(channel, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public static void write(Path file, Matrixxd m) throws IOException {
+        write(file, m, false);
+    }
+
+    /**
+     * Writes a matrix. Row major matrices and transposed views of them are
+     * written without an intermediate copy.
+     * @param file file to write
+     * @param m matrix
+     * @param checksums true to append chunk checksums
+     * @throws IOException if writing fails
+     */
+    public static void write(Path file, Matrixxd m, boolean checksums) throws IOException {
+        Layout layout = m.getColStride() != 1 && m.getRowStride() == 1 && m.getColStride() == m.rows()
+                ? Layout.COLUMN_MAJOR : Layout.ROW_MAJOR;
+        if (layout == Layout.ROW_MAJOR && !m.isContiguous())
+            m = m.copy();
+        write(file, Double.BYTES, layout, m.rows(), m.columns(), checksums,
+                new Object[] {m.data}, new int[] {m.offset}, m.rows() * m.columns());
+    }
+
+    public static void write(Path file, Matrixxf m) throws IOException {
+        write(file, m, false);
+    }
+
+    /**
+     * Writes a matrix. Row major matrices and transposed views of them are
+     * written without an intermediate copy.
+     * @param file file to write
+     * @param m matrix
+     * @param checksums true to append chunk checksums
+     * @throws IOException if writing fails
+     */
+    public static void write(Path file, Matrixxf m, boolean checksums) throws IOException {
+        Layout layout = m.getColStride() != 1 && m.getRowStride() == 1 && m.getColStride() == m.rows()
+                ? Layout.COLUMN_MAJOR : Layout.ROW_MAJOR;
+        if (layout == Layout.ROW_MAJOR && !m.isContiguous())
+            m = m.copy();
+        write(file, Float.BYTES, layout, m.rows(), m.columns(), checksums,
+                new Object[] {m.data}, new int[] {m.offset}, m.rows() * m.columns());
+    }
+
+    public static void write(Path file, Vector3dArray v, boolean checksums) throws IOException {
+        write(file, Double.BYTES, Layout.VECTORS, v.size(), 3, checksums,
+                new Object[] {v.getXArray(), v.getYArray(), v.getZArray()}, new int[3], v.size());
+    }
+
+    public static void write(Path file, Vector3fArray v, boolean checksums) throws IOException {
+        write(file, Float.BYTES, Layout.VECTORS, v.size(), 3, checksums,
+                new Object[] {v.getXArray(), v.getYArray(), v.getZArray()}, new int[3], v.size());
+    }
+
+    public static void write(Path file, double[] v, boolean checksums) throws IOException {
+        write(file, Double.BYTES, Layout.VECTORS, v.length, 1, checksums, new Object[] {v}, new int[1], v.length);
+    }
+
+    public static void write(Path file, float[] v, boolean checksums) throws IOException {
+        write(file, Float.BYTES, Layout.VECTORS, v.length, 1, checksums, new Object[] {v}, new int[1], v.length);
+    }
+
+    /**
+     * Writes the header and the parts of the payload through one direct
+     * buffer of the checksum chunk size, so each chunk is checksummed while
+     * it is still in the buffer.
+     * @param parts float or double arrays, written one after the other
+     * @param offsets first element of each part
+     * @param length number of elements of each part
+     */
+    private static void write(Path file, int elementSize, Layout layout, long rows, long columns, boolean checksums,
+                              Object[] parts, int[] offsets, int length) throws IOException {
+        final ByteOrder order = ByteOrder.nativeOrder();
+        final long payloadSize = rows * columns * elementSize;
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(0, MAGIC);
+        header.putShort(4, VERSION);
+        header.put(6, (byte) elementSize);
+        header.put(7, (byte) (order == ByteOrder.LITTLE_ENDIAN ? 0 : 1));
+        header.put(8, (byte) layout.ordinal());
+        header.putShort(10, (short) (checksums ? 1 : 0));
+        header.putInt(12, checksums ? DEFAULT_CHUNK_SIZE : 0);
+        header.putLong(16, rows);
+        header.putLong(24, columns);
+        header.putLong(32, payloadSize);
+        CRC32C crc = new CRC32C();
+        crc.update(header.array(), 0, 40);
+        header.putInt(40, (int) crc.getValue());
+
+        long chunks = checksums ? (payloadSize + DEFAULT_CHUNK_SIZE - 1) / DEFAULT_CHUNK_SIZE : 0;
+        ByteBuffer table = ByteBuffer.allocate((int) (chunks * Integer.BYTES)).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(DEFAULT_CHUNK_SIZE).order(order);
+        int capacity = DEFAULT_CHUNK_SIZE / elementSize;
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+
+            for (int p = 0; p < parts.length; p++) {
+                int done = 0;
+                while (done < length) {
+                    int count = Math.min(length - done, capacity - buffer.position() / elementSize);
+                    if (elementSize == Double.BYTES)
+                        buffer.asDoubleBuffer().put((double[]) parts[p], offsets[p] + done, count);
+                    else
+                        buffer.asFloatBuffer().put((float[]) parts[p], offsets[p] + done, count);
+                    buffer.position(buffer.position() + count * elementSize);
+                    done += count;
+                    if (!buffer.hasRemaining())
+                        flushChunk(channel, buffer, checksums ? table : null, crc);
+                }
+            }
+            if (buffer.position() > 0)
+                flushChunk(channel, buffer, checksums ? table : null, crc);
+
+            table.flip();
+            writeFully(channel, table);
+        }
+    }
+
+    private static void flushChunk(FileChannel channel, ByteBuffer buffer, ByteBuffer table, CRC32C crc)
+            throws IOException {
+        buffer.flip();
+        if (table != null) {
+            crc.reset();
+            crc.update(buffer.duplicate());
+            table.putInt((int) crc.getValue());
+        }
+        writeFully(channel, buffer);
+        buffer.clear();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+    }
+
+    /**
+     * Maps the payload without copying it into the heap. The payload must
+     * be smaller than 2 GiB.
+     * @return read only buffer in the byte order of the payload
+     * @throws IOException if mapping fails
+     */
+    public ByteBuffer map() throws IOException {
+        if (payloadSize > Integer.MAX_VALUE)
+            throw new IllegalStateException("Payload is too large to map at once");
+        return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE, payloadSize).order(order);
+    }
+
+    /**
+     * @return view of the payload of a double precision file
+     * @throws IOException if mapping fails
+     */
+    public DoubleBuffer doubles() throws IOException {
+        if (elementSize != Double.BYTES)
+            throw new IllegalStateException("File does not hold doubles");
+        return map().asDoubleBuffer();
+    }
+
+    /**
+     * @return view of the payload of a single precision file
+     * @throws IOException if mapping fails
+     */
+    public FloatBuffer floats() throws IOException {
+        if (elementSize != Float.BYTES)
+            throw new IllegalStateException("File does not hold floats");
+        return map().asFloatBuffer();
+    }
+
+    /**
+     * Recomputes the chunk checksums of the payload.
+     * @return true if all checksums match
+     * @throws IOException if reading fails
+     */
+    public boolean verify() throws IOException {
+        if (chunkSize == 0)
+            throw new IllegalStateException("File has no checksums");
+
+        long chunks = checksumCount();
+        ByteBuffer table = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + payloadSize,
+                chunks * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        CRC32C crc = new CRC32C();
+        // windows hold whole chunks
+        long window = Math.max(1, WINDOW / chunkSize) * chunkSize;
+        long chunk = 0;
+        for (long start = 0; start < payloadSize; start += window) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start,
+                    Math.min(window, payloadSize - start));
+            for (int position = 0; position < mapped.capacity(); position += chunkSize) {
+                ByteBuffer slice = mapped.duplicate();
+                slice.position(position).limit(Math.min(position + chunkSize, mapped.capacity()));
+                crc.reset();
+                crc.update(slice);
+                if ((int) crc.getValue() != table.getInt((int) (chunk++ * Integer.BYTES)))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the payload into a heap array, converting the precision if
+     * necessary.
+     */
+    private void read(long first, double[] dest, int offset, int count) throws IOException {
+        long start = first * elementSize;
+        int done = 0;
+        while (done < count) {
+            int n = (int) Math.min(count - done, WINDOW / elementSize);
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start,
+                    (long) n * elementSize).order(order);
+            if (elementSize == Double.BYTES) {
+                mapped.asDoubleBuffer().get(dest, offset + done, n);
+            } else {
+                FloatBuffer floats = mapped.asFloatBuffer();
+                for (int i = 0; i < n; i++)
+                    dest[offset + done + i] = floats.get(i);
+            }
+            start += (long) n * elementSize;
+            done += n;
+        }
+    }
+
+    /**
+     * Copies the payload into a heap array, converting the precision if
+     * necessary.
+     */
+    private void read(long first, float[] dest, int offset, int count) throws IOException {
+        long start = first * elementSize;
+        int done = 0;
+        while (done < count) {
+            int n = (int) Math.min(count - done, WINDOW / elementSize);
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start,
+                    (long) n * elementSize).order(order);
+            if (elementSize == Float.BYTES) {
+                mapped.asFloatBuffer().get(dest, offset + done, n);
+            } else {
+                DoubleBuffer doubles = mapped.asDoubleBuffer();
+                for (int i = 0; i < n; i++)
+                    dest[offset + done + i] = (float) doubles.get(i);
+            }
+            start += (long) n * elementSize;
+            done += n;
+        }
+    }
+
+    /**
+     * @return matrix with the contents of this file
+     * @throws IOException if reading fails
+     */
+    public Matrixxd toMatrixxd() throws IOException {
+        int r = checkedSize(rows, columns);
+        Matrixxd out = new Matrixxd(r, (int) columns);
+        if (layout == Layout.COLUMN_MAJOR) {
+            double[] data = new double[out.data.length];
+            read(0, data, 0, data.length);
+            return out.set(new Matrixxd(data, 0, r, (int) columns, 1, r));
+        }
+        read(0, out.data, 0, out.data.length);
+        return out;
+    }
+
+    /**
+     * @return matrix with the contents of this file
+     * @throws IOException if reading fails
+     */
+    public Matrixxf toMatrixxf() throws IOException {
+        int r = checkedSize(rows, columns);
+        Matrixxf out = new Matrixxf(r, (int) columns);
+        if (layout == Layout.COLUMN_MAJOR) {
+            float[] data = new float[out.data.length];
+            read(0, data, 0, data.length);
+            return out.set(new Matrixxf(data, 0, r, (int) columns, 1, r));
+        }
+        read(0, out.data, 0, out.data.length);
+        return out;
+    }
+
+    public Vector3dArray toVector3dArray() throws IOException {
+        int n = checkedVectors(3);
+        double[][] components = new double[3][n];
+        for (int c = 0; c < 3; c++)
+            read((long) c * n, components[c], 0, n);
+        return new Vector3dArray(components[0], components[1], components[2]);
+    }
+
+    public Vector3fArray toVector3fArray() throws IOException {
+        int n = checkedVectors(3);
+        float[][] components = new float[3][n];
+        for (int c = 0; c < 3; c++)
+            read((long) c * n, components[c], 0, n);
+        return new Vector3fArray(components[0], components[1], components[2]);
+    }
+
+    public double[] toDoubleArray() throws IOException {
+        double[] out = new double[checkedVectors(1)];
+        read(0, out, 0, out.length);
+        return out;
+    }
+
+    public float[] toFloatArray() throws IOException {
+        float[] out = new float[checkedVectors(1)];
+        read(0, out, 0, out.length);
+        return out;
+    }
+
+    private int checkedSize(long rows, long columns) {
+        if (layout == Layout.VECTORS)
+            throw new IllegalStateException("File does not hold a matrix");
+        if (rows * columns > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Matrix is too large for the heap");
+        return (int) rows;
+    }
+
+    private int checkedVectors(int components) {
+        if (layout != Layout.VECTORS || columns != components)
+            throw new IllegalStateException("File does not hold vectors with " + components + " components");
+        if (rows > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Vector array is too large for the heap");
+        return (int) rows;
+    }
+
+    private long checksumCount() {
+        return chunkSize == 0 ? 0 : (payloadSize + chunkSize - 1) / chunkSize;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    public long columns() {
+        return columns;
+    }
+
+    /**
+     * @return size of one element in bytes, 4 for float and 8 for double
+     */
+    public int getElementSize() {
+        return elementSize;
+    }
+
+    public ByteOrder getByteOrder() {
+        return order;
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public boolean hasChecksums() {
+        return chunkSize != 0;
+    }
+
+    @Override
+    public String toString() {
+        return "MatrixFile{" + rows + "x" + columns + ", " + (elementSize == Double.BYTES ? "double" : "float")
+                + ", " + layout + ", " + order + '}';
+    }
+}
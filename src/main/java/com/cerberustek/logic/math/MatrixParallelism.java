@@ -0,0 +1,97 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Parallel execution settings for Matrixxf and Matrixxd.
+ *
+ * Matrix multiplication and element-wise operations on matrices with at
+ * least {@link #getThreshold()} elements are split into row or column
+ * blocks and run in the configured pool. Smaller matrices, and all
+ * matrices while no pool is set, are processed in the calling thread.
+ * By default the common pool is used.
+ */
+public final class MatrixParallelism {
+
+    /** Number of elements a single element-wise task should process */
+    static final int GRAIN = 1 << 14;
+
+    private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+    private static volatile int threshold = 1 << 16;
+
+    private MatrixParallelism() {}
+
+    /**
+     * Sets the pool that large matrix operations run in. This allows them
+     * to share a pool with the application.
+     * @param pool pool to use, or null to run everything sequentially
+     */
+    public static void setPool(ForkJoinPool pool) {
+        MatrixParallelism.pool = pool;
+    }
+
+    public static ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Sets the number of elements from which on a matrix operation runs
+     * in parallel.
+     * @param threshold minimum number of elements
+     */
+    public static void setThreshold(int threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException("Threshold must not be negative");
+        MatrixParallelism.threshold = threshold;
+    }
+
+    public static int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Returns the pool an operation on the specified number of elements
+     * should run in, or null if it should run sequentially.
+     */
+    static ForkJoinPool pool(long elements) {
+        ForkJoinPool pool = MatrixParallelism.pool;
+        if (pool == null || pool.getParallelism() < 2 || elements < threshold)
+            return null;
+        return pool;
+    }
+
+    /**
+     * Runs the kernel over the rows [0, rows) of a matrix with the
+     * specified number of columns, in parallel if the matrix is large
+     * enough.
+     */
+    static void forRows(int rows, int columns, RangeTask.Kernel kernel) {
+        ForkJoinPool pool = pool((long) rows * columns);
+        if (pool == null)
+            kernel.run(0, rows);
+        else
+            RangeTask.run(pool, 0, rows, Math.max(1, GRAIN / Math.max(1, columns)), kernel);
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Stack of Matrix4f transformations for scene graph traversal.
+ *
+ * All levels live in one contiguous column-major array that only grows
+ * while the stack gets deeper than ever before, so a warmed up stack
+ * does not allocate. Every operation modifies the matrix on top of the
+ * stack and multiplies from the right, i.e. translate followed by rotate
+ * rotates the object before translating it, just like
+ * {@code top.mul(new Matrix4f().initTranslation(..)).mul(rotation.toRotationMatrix())}.
+ */
+@SuppressWarnings("Duplicates")
+public class MatrixStack4f {
+
+    private float[] data;
+    private int top;
+
+    public MatrixStack4f() {
+        this(16);
+    }
+
+    /**
+     * Creates a stack with space for the given depth. The bottom level is
+     * initialized with the identity matrix.
+     *
+     * @param depth number of levels to preallocate
+     */
+    public MatrixStack4f(int depth) {
+        if (depth < 1)
+            throw new IllegalArgumentException("Depth must be at least 1!");
+        data = new float[depth * 16];
+        loadIdentity();
+    }
+
+    /**
+     * Pushes a copy of the current matrix on the stack.
+     *
+     * @return this
+     */
+    public MatrixStack4f push() {
+        int offset = top * 16;
+        if (offset + 32 > data.length) {
+            float[] grown = new float[data.length * 2];
+            System.arraycopy(data, 0, grown, 0, data.length);
+            data = grown;
+        }
+        System.arraycopy(data, offset, data, offset + 16, 16);
+        top++;
+        return this;
+    }
+
+    /**
+     * Discards the current matrix and returns to the one below.
+     *
+     * @return this
+     */
+    public MatrixStack4f pop() {
+        if (top == 0)
+            throw new IllegalStateException("Can not pop the last matrix of the stack!");
+        top--;
+        return this;
+    }
+
+    /**
+     * Returns the number of pushes that have not been popped yet.
+     *
+     * @return depth of the current matrix
+     */
+    public int depth() {
+        return top;
+    }
+
+    public MatrixStack4f loadIdentity() {
+        int i = top * 16;
+        data[i] = 1;        data[i + 4] = 0;    data[i + 8] = 0;     data[i + 12] = 0;
+        data[i + 1] = 0;    data[i + 5] = 1;    data[i + 9] = 0;     data[i + 13] = 0;
+        data[i + 2] = 0;    data[i + 6] = 0;    data[i + 10] = 1;    data[i + 14] = 0;
+        data[i + 3] = 0;    data[i + 7] = 0;    data[i + 11] = 0;    data[i + 15] = 1;
+        return this;
+    }
+
+    public MatrixStack4f load(Matrix4f matrix) {
+        matrix.get(data, top * 16);
+        return this;
+    }
+
+    /**
+     * Multiplies the current matrix with a general matrix from the right.
+     *
+     * @param matrix matrix to multiply with
+     * @return this
+     */
+    public MatrixStack4f mul(Matrix4f matrix) {
+        float[] b = matrix.getData();
+        int i = top * 16;
+        float a00 = data[i], a01 = data[i + 4], a02 = data[i + 8], a03 = data[i + 12];
+        float a10 = data[i + 1], a11 = data[i + 5], a12 = data[i + 9], a13 = data[i + 13];
+        float a20 = data[i + 2], a21 = data[i + 6], a22 = data[i + 10], a23 = data[i + 14];
+        float a30 = data[i + 3], a31 = data[i + 7], a32 = data[i + 11], a33 = data[i + 15];
+
+        for (int col = 0; col < 4; col++) {
+            float b0 = b[col * 4], b1 = b[col * 4 + 1], b2 = b[col * 4 + 2], b3 = b[col * 4 + 3];
+            int d = i + col * 4;
+            data[d] = a00 * b0 + a01 * b1 + a02 * b2 + a03 * b3;
+            data[d + 1] = a10 * b0 + a11 * b1 + a12 * b2 + a13 * b3;
+            data[d + 2] = a20 * b0 + a21 * b1 + a22 * b2 + a23 * b3;
+            data[d + 3] = a30 * b0 + a31 * b1 + a32 * b2 + a33 * b3;
+        }
+        return this;
+    }
+
+    /**
+     * Multiplies the current matrix with an affine matrix from the right.
+     * Both matrices must have a bottom row of [0 0 0 1], which is the case
+     * for any combination of translations, rotations and scales.
+     *
+     * @param matrix affine matrix to multiply with
+     * @return this
+     */
+    public MatrixStack4f mulAffine(Matrix4f matrix) {
+        float[] b = matrix.getData();
+        int i = top * 16;
+        float a00 = data[i], a01 = data[i + 4], a02 = data[i + 8];
+        float a10 = data[i + 1], a11 = data[i + 5], a12 = data[i + 9];
+        float a20 = data[i + 2], a21 = data[i + 6], a22 = data[i + 10];
+
+        for (int col = 0; col < 3; col++) {
+            float b0 = b[col * 4], b1 = b[col * 4 + 1], b2 = b[col * 4 + 2];
+            int d = i + col * 4;
+            data[d] = a00 * b0 + a01 * b1 + a02 * b2;
+            data[d + 1] = a10 * b0 + a11 * b1 + a12 * b2;
+            data[d + 2] = a20 * b0 + a21 * b1 + a22 * b2;
+        }
+
+        float tx = b[12], ty = b[13], tz = b[14];
+        data[i + 12] += a00 * tx + a01 * ty + a02 * tz;
+        data[i + 13] += a10 * tx + a11 * ty + a12 * tz;
+        data[i + 14] += a20 * tx + a21 * ty + a22 * tz;
+        return this;
+    }
+
+    /**
+     * Applies a translation, equal to multiplying with
+     * {@link Matrix4f#initTranslation(float, float, float)}.
+     *
+     * @return this
+     */
+    public MatrixStack4f translate(float x, float y, float z) {
+        int i = top * 16;
+        for (int row = i; row < i + 4; row++)
+            data[row + 12] += data[row] * x + data[row + 4] * y + data[row + 8] * z;
+        return this;
+    }
+
+    public MatrixStack4f translate(Vector3f translation) {
+        return translate(translation.getX(), translation.getY(), translation.getZ());
+    }
+
+    /**
+     * Applies a scale, equal to multiplying with
+     * {@link Matrix4f#initScale(float, float, float)}.
+     *
+     * @return this
+     */
+    public MatrixStack4f scale(float x, float y, float z) {
+        int i = top * 16;
+        for (int row = i; row < i + 4; row++) {
+            data[row] *= x;
+            data[row + 4] *= y;
+            data[row + 8] *= z;
+        }
+        return this;
+    }
+
+    public MatrixStack4f scale(Vector3f scale) {
+        return scale(scale.getX(), scale.getY(), scale.getZ());
+    }
+
+    /**
+     * Applies a rotation, equal to multiplying with
+     * {@link Matrix4f#initRotation(Quaternionf)}.
+     *
+     * @param rotation rotation to apply
+     * @return this
+     */
+    public MatrixStack4f rotate(Quaternionf rotation) {
+        float x = rotation.getX();
+        float y = rotation.getY();
+        float z = rotation.getZ();
+        float w = rotation.getW();
+
+        float r00 = 1 - 2 * (y * y + z * z), r01 = 2 * (x * y - w * z),     r02 = 2 * (x * z + w * y);
+        float r10 = 2 * (x * y + w * z),     r11 = 1 - 2 * (x * x + z * z), r12 = 2 * (y * z - w * x);
+        float r20 = 2 * (x * z - w * y),     r21 = 2 * (y * z + w * x),     r22 = 1 - 2 * (x * x + y * y);
+
+        int i = top * 16;
+        for (int row = i; row < i + 4; row++) {
+            float a0 = data[row], a1 = data[row + 4], a2 = data[row + 8];
+            data[row] = a0 * r00 + a1 * r10 + a2 * r20;
+            data[row + 4] = a0 * r01 + a1 * r11 + a2 * r21;
+            data[row + 8] = a0 * r02 + a1 * r12 + a2 * r22;
+        }
+        return this;
+    }
+
+    /**
+     * Copies the current matrix into dest.
+     *
+     * @param dest destination matrix
+     * @return dest
+     */
+    public Matrix4f get(Matrix4f dest) {
+        return dest.set(data, top * 16);
+    }
+
+    /**
+     * Copies the current matrix in column-major order into dest.
+     *
+     * @param dest destination array
+     * @param offset offset of the first element
+     * @return dest
+     */
+    public float[] get(float[] dest, int offset) {
+        System.arraycopy(data, top * 16, dest, offset, 16);
+        return dest;
+    }
+
+    /**
+     * Writes the current matrix in column-major order into the buffer at
+     * its current position. The position of the buffer is not changed.
+     *
+     * @param dest destination buffer
+     * @return dest
+     */
+    public FloatBuffer get(FloatBuffer dest) {
+        int position = dest.position();
+        int offset = top * 16;
+        for (int i = 0; i < 16; i++)
+            dest.put(position + i, data[offset + i]);
+        return dest;
+    }
+}
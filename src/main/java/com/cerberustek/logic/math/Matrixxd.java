@@ -22,22 +22,82 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Created by LateinCecker on 29.08.2016.
+ *
+ * The elements are stored in a single array. The element at (row, column)
+ * is located at offset + row * rowStride + column * colStride, which allows
+ * transposed matrices, sub matrices, rows and columns to be views onto the
+ * same data instead of copies. Writing to a view writes to the matrix it was
+ * created from.
  */
 @SuppressWarnings("DuplicatedCode")
 public class Matrixxd {
 
-    protected double m[][];
+    protected double[] data;
+    protected int offset;
+    protected int rows;
+    protected int columns;
+    protected int rowStride;
+    protected int colStride;
 
     public Matrixxd(int rows, int cols) {
-        m = new double[rows][cols];
+        this(new double[rows * cols], 0, rows, cols, cols, 1);
     }
 
+    /**
+     * Creates a new matrix from the specified row arrays. The values are
+     * copied into the matrix.
+     * @param m row arrays
+     */
     public Matrixxd(double[][] m) {
-        this.m = m;
+        this(m.length, m.length == 0 ? 0 : m[0].length);
+        for (int row = 0; row < rows; row++)
+            System.arraycopy(m[row], 0, data, row * columns, columns);
+    }
+
+    /**
+     * Creates a matrix that is backed by the specified array. The array is
+     * not copied.
+     * @param data backing array
+     * @param offset index of the element (0, 0)
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param rowStride distance between two rows in the array
+     * @param colStride distance between two columns in the array
+     */
+    public Matrixxd(double[] data, int offset, int rows, int columns, int rowStride, int colStride) {
+        if (rows < 0 || columns < 0 || offset < 0)
+            throw new IllegalArgumentException("Invalid matrix format!");
+        if (rows > 0 && columns > 0) {
+            long last = offset + (long) (rows - 1) * rowStride + (long) (columns - 1) * colStride;
+            if (last < 0 || last >= data.length || offset >= data.length)
+                throw new IllegalArgumentException("Invalid matrix format!");
+        }
+        this.data = data;
+        this.offset = offset;
+        this.rows = rows;
+        this.columns = columns;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
+    }
+
+    private int index(int row, int column) {
+        return offset + row * rowStride + column * colStride;
+    }
+
+    private void swapRows(int a, int b) {
+        int ia = index(a, 0);
+        int ib = index(b, 0);
+        for (int c = 0; c < columns; c++) {
+            double buffer = data[ia];
+            data[ia] = data[ib];
+            data[ib] = buffer;
+            ia += colStride;
+            ib += colStride;
+        }
     }
 
     /**
@@ -47,48 +107,37 @@ public class Matrixxd {
     @SuppressWarnings("DuplicatedCode")
     public Matrixxd rref() {
         Matrixxd copy = copy();
+        double[] d = copy.data;
+        final int rows = copy.rows;
+        final int columns = copy.columns;
 
         int i = 0;
         int j = 0;
 
-        while (i < rows() && j < columns()) {
+        while (i < rows && j < columns) {
             // check if the pivot element of the current row is zero.
             // If this is the case and there are other elements remaining
             // in the current column that are not zero, the current
             // pivot row has to be swapped with some other row in which
             // the pivot element for the current column is not zero.
-            if (copy.m[i][j] == 0) {
+            if (d[i * columns + j] == 0) {
                 // find the next possible pivot element on the current
                 // column that is not equal to zero
-                double[] buffer = copy.m[i];
-                for (int k = i + 1; k < rows(); k++) {
-                    if (copy.m[k][j] != 0) {
-                        copy.m[i] = copy.m[k];
-                        copy.m[k] = buffer;
+                boolean swapped = false;
+                for (int k = i + 1; k < rows; k++) {
+                    if (d[k * columns + j] != 0) {
+                        copy.swapRows(i, k);
+                        swapped = true;
                         break;
                     }
                 }
 
                 // if all remaining elements on the current column are
                 // zero, do nothing and move on with the next column
-                if (buffer == copy.m[i])
+                if (!swapped)
                     j++;
             } else {
-                // divide all elements on the current column by the
-                // current pivot element
-                double pivot = copy.m[i][j];
-                for (int l = 0; l < columns(); l++)
-                    copy.m[i][l] /= pivot;
-
-                for (int y = 0; y < rows(); y++) {
-                    if (y != i) {
-                        // subtract the pivot row from all rows of the
-                        // matrix except the pivot row itself
-                        double mul = copy.m[y][j];
-                        for (int x = 0; x < columns(); x++)
-                            copy.m[y][x] -= mul * copy.m[i][x];
-                    }
-                }
+                copy.eliminate(i, j);
                 // move on with the next row nad column
                 i++;
                 j++;
@@ -100,47 +149,34 @@ public class Matrixxd {
     @SuppressWarnings("DuplicatedCode")
     public Matrixxd smartRref() {
         Matrixxd copy = copy();
+        double[] d = copy.data;
+        final int rows = copy.rows;
+        final int columns = copy.columns;
 
         int i = 0;
         int j = 0;
 
-        while (i < rows() && j < columns()) {
+        while (i < rows && j < columns) {
 
             // find better pivot element (element of the current
             // column with the max absolute value)
             int permute = i;
-            for (int l = i + 1; l < rows(); l++) {
-                if (Math.abs(copy.m[l][j]) > Math.abs(copy.m[permute][j]))
+            for (int l = i + 1; l < rows; l++) {
+                if (Math.abs(d[l * columns + j]) > Math.abs(d[permute * columns + j]))
                     permute = l;
             }
 
             if (permute != i) {
                 // swap row "i" with row "permute"
-                double[] buffer = copy.m[i];
-                copy.m[i] = copy.m[permute];
-                copy.m[permute] = buffer;
-            } else if (m[i][j] == 0) {
+                copy.swapRows(i, permute);
+            } else if (d[i * columns + j] == 0) {
                 // if all remaining elements on the current column are
                 // zero, do nothing and move on with the next column
                 j++;
                 continue;
             }
 
-            // divide all elements on the current column by the
-            // current pivot element
-            double pivot = copy.m[i][j];
-            for (int l = 0; l < columns(); l++)
-                copy.m[i][l] /= pivot;
-
-            for (int y = 0; y < rows(); y++) {
-                if (y != i) {
-                    // subtract the pivot row from all rows of the
-                    // matrix except the pivot row itself
-                    double mul = copy.m[y][j];
-                    for (int x = 0; x < columns(); x++)
-                        copy.m[y][x] -= mul * copy.m[i][x];
-                }
-            }
+            copy.eliminate(i, j);
             // move on with the next row and column
             i++;
             j++;
@@ -148,54 +184,92 @@ public class Matrixxd {
         return copy;
     }
 
+    /**
+     * Gauss-Jordan elimination step on a contiguous matrix. Divides the
+     * pivot row by the pivot element and subtracts it from all other rows.
+     */
+    private void eliminate(int i, int j) {
+        // divide all elements on the current column by the
+        // current pivot element
+        int pivotRow = i * columns;
+        VectorKernels.mul(data, pivotRow, 1 / data[pivotRow + j], data, pivotRow, columns);
+        data[pivotRow + j] = 1;
+
+        for (int y = 0; y < rows; y++) {
+            if (y != i) {
+                // subtract the pivot row from all rows of the
+                // matrix except the pivot row itself
+                int row = y * columns;
+                double mul = data[row + j];
+                if (mul != 0)
+                    VectorKernels.fma(data, pivotRow, -mul, data, row, data, row, columns);
+            }
+        }
+    }
+
     public Matrixxd factorize() {
-        Matrixxd out = new Matrixxd(m.length, m[0].length);
+        Matrixxd out = new Matrixxd(rows, columns);
 
-        for (int j = 0; j < out.columns(); j++) {
+        for (int j = 0; j < out.columns; j++) {
             // compute entries for upper matrix for this column
             for (int i = 0; i <= j; i++) {
                 double sum = 0;
-                for (int k = 0; k <= i; k++)
-                    sum += (k == i ? 1 : out.m[i][k]) * out.m[k][j];
-                out.m[i][j] = m[i][j] - sum;
+                for (int k = 0; k < i; k++)
+                    sum += out.get(i, k) * out.get(k, j);
+                out.set(i, j, get(i, j) - sum);
             }
 
             // compute entries for the lower matrix for this column
-            for (int i = j + 1; i < out.rows(); i++) {
+            for (int i = j + 1; i < out.rows; i++) {
                 double sum = 0;
                 for (int k = 0; k < j; k++)
-                    sum += (k == i ? 1 : out.m[i][k]) * out.m[k][j];
-                out.m[i][j] = (m[i][j] - sum) / out.m[j][j];
+                    sum += out.get(i, k) * out.get(k, j);
+                out.set(i, j, (get(i, j) - sum) / out.get(j, j));
             }
         }
         return out;
     }
 
-    public Matrixxd cholesky() {
-        Matrixxd out = new Matrixxd(rows(), columns());
+    /**
+     * Factors this square matrix with partial pivoting. The decomposition
+     * can be reused to solve any number of right-hand sides.
+     * @return LU decomposition
+     */
+    public LUDecompositiond lu() {
+        return new LUDecompositiond(this);
+    }
 
-        for (int j = 0; j < out.columns(); j++) {
-            for (int i = 0; i < j; i++) {
-                double sum = 0;
-                for (int k = 0; k < i; k++)
-                    sum += out.m[i][k] * out.m[j][k];
-                out.m[j][i] = (m[j][i] - sum) / out.m[i][i];
-            }
-        }
+    /**
+     * Computes the Householder QR decomposition of this matrix.
+     * @return QR decomposition
+     */
+    public QRDecompositiond qr() {
+        return new QRDecompositiond(this);
+    }
 
-        for (int j = 0; j < out.columns(); j++) {
-            double sum = 0;
-            for (int k = 0; k < j; k++)
-                sum += out.m[j][k] * out.m[j][k];
-            out.m[j][j] = (double) Math.sqrt(m[j][j] - sum);
-        }
-        return out;
+    /**
+     * Computes the thin singular value decomposition of this matrix.
+     * @return singular value decomposition
+     */
+    public SingularValueDecompositiond svd() {
+        return new SingularValueDecompositiond(this);
+    }
+
+    /**
+     * Computes the lower triangular Cholesky factor L with A = L * L^T.
+     * Use CholeskyDecompositiond directly to solve systems with the factor.
+     * @return lower triangular factor
+     * @throws IllegalStateException if this matrix is not symmetric
+     *          positive definite
+     */
+    public Matrixxd cholesky() {
+        return new CholeskyDecompositiond(this).getL();
     }
 
     public boolean isRRF() {
-        for (int j = 1; j < rows(); j++) {
-            for (int i = 0; i < j; i++) {
-                if (m[j][i] != 0)
+        for (int j = 1; j < rows; j++) {
+            for (int i = 0; i < j && i < columns; i++) {
+                if (get(j, i) != 0)
                     return false;
             }
         }
@@ -211,161 +285,186 @@ public class Matrixxd {
     }
 
     public double abs() {
-        double sum = 0;
-        for (int j = 0; j < columns(); j++) {
-            for (int i = 0; i < rows(); i++)
-                sum += m[i][j] * m[i][j];
-        }
-        return (double) Math.sqrt(sum);
+        return Math.sqrt(absSquared());
     }
 
     public double absSquared() {
+        ForkJoinPool pool = MatrixParallelism.pool((long) rows * columns);
         double sum = 0;
-        for (int j = 0; j < columns(); j++) {
-            for (int i = 0; i < rows(); i++)
-                sum += m[i][j] * m[i][j];
+        if (pool == null) {
+            for (int row = 0; row < rows; row++)
+                sum += rowSquared(row);
+            return sum;
         }
+
+        // sum up the partial results in row order, so that the result
+        // does not depend on how the rows were split
+        double[] partial = new double[rows];
+        RangeTask.run(pool, 0, rows, Math.max(1, MatrixParallelism.GRAIN / Math.max(1, columns)), (from, to) -> {
+            for (int row = from; row < to; row++)
+                partial[row] = rowSquared(row);
+        });
+        for (int row = 0; row < rows; row++)
+            sum += partial[row];
+        return sum;
+    }
+
+    private double rowSquared(int row) {
+        int index = index(row, 0);
+        if (colStride == 1)
+            return VectorKernels.dot(data, index, data, index, columns);
+
+        double sum = 0;
+        for (int column = 0; column < columns; column++, index += colStride)
+            sum += data[index] * data[index];
         return sum;
     }
 
     public Matrixxd mul(Matrixxd other) {
-        if (columns() != other.rows())
+        if (columns != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxd out = new Matrixxd(rows(), columns());
-
-        for (int j = 0; j < rows(); j++) {
-            // iterate through rows
-            for (int i = 0; i < other.columns(); i++) {
-                // iterate through columns
-                double sum = 0;
-                for (int k = 0; k < columns(); k++)
-                    sum += m[j][k] * other.m[k][i];
-                out.m[j][i] = sum;
-            }
-        }
+        Matrixxd out = new Matrixxd(rows, other.columns);
+        Gemm.gemm(1, this, other, 0, out);
         return out;
     }
 
     public Matrixxd mulSelf(Matrixxd other) {
-        if (columns() != other.rows())
+        if (columns != other.rows || other.rows != other.columns)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxd copy = copy();
-
-        for (int columnOther = 0; columnOther < other.columns(); columnOther++) {
-            for (int row = 0; row < copy.rows(); row++) {
-                double sum = 0;
-                for (int column = 0; column < copy.columns(); column++)
-                    sum += copy.m[row][column] * other.m[column][columnOther];
-                m[row][columnOther] = sum;
-            }
-        }
-        return this;
+        return set(mul(other));
     }
 
     public Matrixxd add(Matrixxd other) {
-        if (columns() != other.columns() || rows() != other.rows())
+        if (columns != other.columns || rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxd out = new Matrixxd(rows(), columns());
-
-        for (int row = 0; row < rows(); row++) {
-            for (int column = 0; column < columns(); column++)
-                out.m[row][column] = m[row][column] + other.m[row][column];
-        }
+        Matrixxd out = new Matrixxd(rows, columns);
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                add(other, 1, row, out);
+        });
         return out;
     }
 
     public Matrixxd addSelf(Matrixxd other) {
-        if (columns() != other.columns() || rows() != other.rows())
+        if (columns != other.columns || rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        for (int row = 0; row < rows(); row++) {
-            for (int column = 0; column < columns(); column++)
-                m[row][column] += other.m[row][column];
-        }
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                add(other, 1, row, this);
+        });
         return this;
     }
 
     public Matrixxd sub(Matrixxd other) {
-        if (columns() != other.columns() || rows() != other.rows())
+        if (columns != other.columns || rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxd out = new Matrixxd(rows(), columns());
-        for (int row = 0; row < rows(); row++) {
-            for (int column = 0; column < columns(); column++)
-                out.m[row][column] = m[row][column] - other.m[row][column];
-        }
+        Matrixxd out = new Matrixxd(rows, columns);
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                add(other, -1, row, out);
+        });
         return out;
     }
 
     public Matrixxd subSelf(Matrixxd other) {
-        if (columns() != other.columns() || rows() != other.rows())
+        if (columns != other.columns || rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxd out = new Matrixxd(rows(), columns());
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                add(other, -1, row, this);
+        });
+        return this;
+    }
 
-        for (int row = 0; row < rows(); row++) {
-            for (int column = 0; column < columns(); column++)
-                m[row][column] -= other.m[row][column];
+    /**
+     * Writes row + sign * other.row into the specified row of dest.
+     */
+    private void add(Matrixxd other, int sign, int row, Matrixxd dest) {
+        int a = index(row, 0);
+        int b = other.index(row, 0);
+        int d = dest.index(row, 0);
+        if (colStride == 1 && other.colStride == 1 && dest.colStride == 1) {
+            if (sign > 0)
+                VectorKernels.add(data, a, other.data, b, dest.data, d, columns);
+            else
+                VectorKernels.sub(data, a, other.data, b, dest.data, d, columns);
+        } else {
+            for (int c = 0; c < columns; c++) {
+                dest.data[d] = sign > 0 ? data[a] + other.data[b] : data[a] - other.data[b];
+                a += colStride;
+                b += other.colStride;
+                d += dest.colStride;
+            }
         }
-        return out;
     }
 
     public Matrixxd mul(double f) {
-        Matrixxd out = new Matrixxd(rows(), columns());
-
-        for (int r = 0; r < rows(); r++) {
-            for (int c = 0; c < columns(); c++)
-                out.m[r][c] = m[r][c] * f;
-        }
+        Matrixxd out = new Matrixxd(rows, columns);
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                map(f, true, row, out);
+        });
         return out;
     }
 
     public Matrixxd mulSelf(double f) {
-        for (int r = 0; r < rows(); r++) {
-            for (int c = 0; c < columns(); c++) {
-                m[r][c] *= f;
-            }
-        }
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                map(f, true, row, this);
+        });
         return this;
     }
 
     public Matrixxd add(double f) {
-        Matrixxd out = new Matrixxd(rows(), columns());
-
-        for (int i = 0; i < rows(); i++) {
-            for (int j = 0; j < columns(); j++)
-                out.m[i][j] = m[i][j] + f;
-        }
+        Matrixxd out = new Matrixxd(rows, columns);
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                map(f, false, row, out);
+        });
         return out;
     }
 
     public Matrixxd addSelf(double f) {
-        for (int i = 0; i < rows(); i++) {
-            for (int j = 0; j < columns(); j++)
-                m[i][j] += f;
-        }
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                map(f, false, row, this);
+        });
         return this;
     }
 
     public Matrixxd sub(double f) {
-        Matrixxd out = new Matrixxd(rows(), columns());
-
-        for (int i = 0; i < rows(); i++) {
-            for (int j = 0; j < columns(); j++)
-                out.m[i][j] = m[i][j] - f;
-        }
-        return out;
+        return add(-f);
     }
 
     public Matrixxd subSelf(double sub) {
-        for (int i = 0; i < rows(); i++) {
-            for (int j = 0; j < columns(); j++)
-                m[i][j] -= sub;
+        return addSelf(-sub);
+    }
+
+    /**
+     * Writes the specified row multiplied with, or added to, a scalar
+     * into dest.
+     */
+    private void map(double f, boolean multiply, int row, Matrixxd dest) {
+        int a = index(row, 0);
+        int d = dest.index(row, 0);
+        if (colStride == 1 && dest.colStride == 1) {
+            if (multiply)
+                VectorKernels.mul(data, a, f, dest.data, d, columns);
+            else
+                VectorKernels.add(data, a, f, dest.data, d, columns);
+        } else {
+            for (int c = 0; c < columns; c++) {
+                dest.data[d] = multiply ? data[a] * f : data[a] + f;
+                a += colStride;
+                d += dest.colStride;
+            }
         }
-        return this;
     }
 
     /**
@@ -380,61 +479,98 @@ public class Matrixxd {
      * @return matrix
      */
     public Matrixxd push(Matrixxd other) {
-        if (rows() != other.rows())
+        if (rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format");
 
-        Matrixxd out = new Matrixxd(rows(), columns() + other.columns());
-
-        for (int column = 0; column < columns(); column++) {
-            for (int row = 0; row < rows(); row++)
-                out.m[row][column] = m[row][column];
-        }
-
-        for (int column = 0; column < other.columns(); column++) {
-            for (int row = 0; row < rows(); row++)
-                out.m[row][columns() + column] = other.m[row][column];
-        }
+        Matrixxd out = new Matrixxd(rows, columns + other.columns);
+        out.subMatrix(0, 0, rows, columns).set(this);
+        out.subMatrix(0, columns, rows, other.columns).set(other);
         return out;
     }
 
+    /**
+     * Returns a view of the specified column. The returned matrix
+     * shares its data with this matrix.
+     * @param i column index
+     * @return column view
+     */
     public Matrixxd getColumn(int i) {
-        if (i >= columns())
+        if (i < 0 || i >= columns)
             throw new IllegalArgumentException("That column does not exit");
+        return column(i);
+    }
+
+    /**
+     * Returns a rows x 1 view of the specified column.
+     * @param column column index
+     * @return column view
+     */
+    public Matrixxd column(int column) {
+        return subMatrix(0, column, rows, 1);
+    }
 
-        Matrixxd out = new Matrixxd(rows(), 1);
+    /**
+     * Returns a 1 x columns view of the specified row.
+     * @param row row index
+     * @return row view
+     */
+    public Matrixxd row(int row) {
+        return subMatrix(row, 0, 1, columns);
+    }
 
-        for (int row = 0; row < rows(); row++)
-            out.m[row][0] = m[row][i];
-        return out;
+    /**
+     * Returns a view of the specified block of this matrix.
+     * @param row first row of the block
+     * @param column first column of the block
+     * @param rows number of rows of the block
+     * @param columns number of columns of the block
+     * @return block view
+     */
+    public Matrixxd subMatrix(int row, int column, int rows, int columns) {
+        if (row < 0 || column < 0 || rows < 0 || columns < 0
+                || row + rows > this.rows || column + columns > this.columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        int start = rows == 0 || columns == 0 ? offset : index(row, column);
+        return new Matrixxd(data, start, rows, columns, rowStride, colStride);
+    }
+
+    /**
+     * Returns a transposed view of this matrix.
+     * @return transposed view
+     */
+    public Matrixxd transpose() {
+        return new Matrixxd(data, offset, columns, rows, colStride, rowStride);
     }
 
     public Vector3d mul(Vector3d vector3f) {
         if (getWidth() == 3 && getHeight() == 3) {
+            double sum = get(0, 0) + get(1, 0) + get(2, 0);
             return new Vector3d(
-                    vector3f.getX() * (m[0][0] + m[1][0] + m[2][0]),
-                    vector3f.getY() * (m[0][0] + m[1][0] + m[2][0]),
-                    vector3f.getZ() * (m[0][0] + m[1][0] + m[2][0]));
+                    vector3f.getX() * sum,
+                    vector3f.getY() * sum,
+                    vector3f.getZ() * sum);
         }
         return null;
     }
 
     public double diagProduct() {
-        if (rows() != columns() || rows() == 0)
+        if (rows != columns || rows == 0)
             throw new IllegalStateException("Matrix is not symmetrical");
 
-        double prod = m[0][0];
-        for (int i = 1; i < rows() && i < columns(); i++)
-            prod *= m[i][i];
+        double prod = data[offset];
+        for (int i = 1; i < rows; i++)
+            prod *= get(i, i);
         return prod;
     }
 
     public boolean isDefinite() {
         for (int i = 0; i < getWidth() - 1 && i < getHeight(); i++) {
-            if (m[i][i] != 1)
+            if (get(i, i) != 1)
                 return false;
 
-            for (int j = 0; j < getHeight(); j++) {
-                if (j != i && m[i][j] != 0) {
+            for (int j = 0; j < getHeight() && j < getWidth(); j++) {
+                if (j != i && get(i, j) != 0) {
                     return false;
                 }
             }
@@ -443,69 +579,159 @@ public class Matrixxd {
     }
 
     public double distance() {
-        return m[2][getWidth() - 1];
+        return get(2, getWidth() - 1);
     }
 
     public Vector2d hitCoords() {
-        return new Vector2d(m[0][getWidth() - 1], m[1][getWidth() - 1]);
+        return new Vector2d(get(0, getWidth() - 1), get(1, getWidth() - 1));
     }
 
     public boolean hitTriangle(double scale) {
-        return Math.abs(m[0][getWidth() - 1]) + Math.abs(m[1][getWidth() - 1]) <= scale;
+        return Math.abs(get(0, getWidth() - 1)) + Math.abs(get(1, getWidth() - 1)) <= scale;
     }
 
     public boolean hitQuad(double scale) {
-        return Math.abs(m[0][getWidth() - 1]) <= scale && Math.abs(m[1][getWidth() - 1]) <= scale;
+        return Math.abs(get(0, getWidth() - 1)) <= scale && Math.abs(get(1, getWidth() - 1)) <= scale;
     }
 
+    /**
+     * Copies the specified row arrays into this matrix. If the format
+     * differs from the current one, this matrix is reallocated and no
+     * longer shares its data with any views.
+     * @param m row arrays
+     */
     public void set(double[][] m) {
-        this.m = m;
+        int newRows = m.length;
+        int newColumns = newRows == 0 ? 0 : m[0].length;
+        if (newRows != rows || newColumns != columns) {
+            data = new double[newRows * newColumns];
+            offset = 0;
+            rows = newRows;
+            columns = newColumns;
+            rowStride = newColumns;
+            colStride = 1;
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++)
+                set(row, column, m[row][column]);
+        }
+    }
+
+    /**
+     * Copies the values of the specified matrix into this matrix.
+     * @param other matrix to copy
+     * @return this
+     */
+    public Matrixxd set(Matrixxd other) {
+        if (rows != other.rows || columns != other.columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        for (int row = 0; row < rows; row++) {
+            int src = other.index(row, 0);
+            int dst = index(row, 0);
+            if (colStride == 1 && other.colStride == 1) {
+                System.arraycopy(other.data, src, data, dst, columns);
+            } else {
+                for (int c = 0; c < columns; c++) {
+                    data[dst] = other.data[src];
+                    src += other.colStride;
+                    dst += colStride;
+                }
+            }
+        }
+        return this;
     }
 
     public void set(int x, int y, double value) {
-        m[x][y] = value;
+        data[index(x, y)] = value;
     }
 
     public double get(int x, int y) {
-        return m[x][y];
+        return data[index(x, y)];
+    }
+
+    /**
+     * Returns the backing array of this matrix. Use the offset and
+     * strides to locate elements.
+     * @return backing array
+     */
+    public double[] getData() {
+        return data;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getRowStride() {
+        return rowStride;
+    }
+
+    public int getColStride() {
+        return colStride;
+    }
+
+    /**
+     * Returns true if the rows of this matrix are packed one after
+     * another without gaps in the backing array.
+     * @return true if contiguous
+     */
+    public boolean isContiguous() {
+        return colStride == 1 && (rowStride == columns || rows <= 1);
     }
 
     public int getWidth() {
-        return m[0].length;
+        return columns;
     }
 
     public int getHeight() {
-        return m.length;
+        return rows;
     }
 
     public int rows() {
-        return m.length;
+        return rows;
     }
 
     public int columns() {
-        return m[0].length;
+        return columns;
     }
 
+    /**
+     * Returns a contiguous copy of this matrix that does not share its
+     * data with this matrix.
+     * @return copy
+     */
     public Matrixxd copy() {
-        Matrixxd out = new Matrixxd(rows(), columns());
-
-        for (int i = 0; i < rows(); i++) {
-            System.arraycopy(m[i], 0, out.m[i], 0, columns());
-        }
-        return out;
+        return new Matrixxd(rows, columns).set(this);
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (!(o instanceof Matrixxd)) return false;
-        Matrixxd matrixxf = (Matrixxd) o;
-        return Arrays.equals(m, matrixxf.m);
+        Matrixxd matrixxd = (Matrixxd) o;
+        if (rows != matrixxd.rows || columns != matrixxd.columns)
+            return false;
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (Double.compare(get(row, column), matrixxd.get(row, column)) != 0)
+                    return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(m);
+        int result = 31 * rows + columns;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                long bits = Double.doubleToLongBits(get(row, column));
+                result = 31 * result + (int) (bits ^ (bits >>> 32));
+            }
+        }
+        return result;
     }
 
     public String toString() {
@@ -514,7 +740,7 @@ public class Matrixxd {
         for (int i = 0; i < getHeight(); i++) {
             stringBuilder.append("\n");
             for (int j = 0; j < getWidth(); j++)
-                stringBuilder.append("\t").append(m[i][j]);
+                stringBuilder.append("\t").append(get(i, j));
         }
         stringBuilder.append("\n]");
         return stringBuilder.toString();
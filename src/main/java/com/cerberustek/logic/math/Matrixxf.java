@@ -22,22 +22,82 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Created by LateinCecker on 29.08.2016.
+ *
+ * The elements are stored in a single array. The element at (row, column)
+ * is located at offset + row * rowStride + column * colStride, which allows
+ * transposed matrices, sub matrices, rows and columns to be views onto the
+ * same data instead of copies. Writing to a view writes to the matrix it was
+ * created from.
  */
 @SuppressWarnings("DuplicatedCode")
 public class Matrixxf {
 
-    protected float m[][];
+    protected float[] data;
+    protected int offset;
+    protected int rows;
+    protected int columns;
+    protected int rowStride;
+    protected int colStride;
 
-    public Matrixxf(int width, int height) {
-        m = new float[height][width];
+    public Matrixxf(int rows, int cols) {
+        this(new float[rows * cols], 0, rows, cols, cols, 1);
     }
 
+    /**
+     * Creates a new matrix from the specified row arrays. The values are
+     * copied into the matrix.
+     * @param m row arrays
+     */
     public Matrixxf(float[][] m) {
-        this.m = m;
+        this(m.length, m.length == 0 ? 0 : m[0].length);
+        for (int row = 0; row < rows; row++)
+            System.arraycopy(m[row], 0, data, row * columns, columns);
+    }
+
+    /**
+     * Creates a matrix that is backed by the specified array. The array is
+     * not copied.
+     * @param data backing array
+     * @param offset index of the element (0, 0)
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param rowStride distance between two rows in the array
+     * @param colStride distance between two columns in the array
+     */
+    public Matrixxf(float[] data, int offset, int rows, int columns, int rowStride, int colStride) {
+        if (rows < 0 || columns < 0 || offset < 0)
+            throw new IllegalArgumentException("Invalid matrix format!");
+        if (rows > 0 && columns > 0) {
+            long last = offset + (long) (rows - 1) * rowStride + (long) (columns - 1) * colStride;
+            if (last < 0 || last >= data.length || offset >= data.length)
+                throw new IllegalArgumentException("Invalid matrix format!");
+        }
+        this.data = data;
+        this.offset = offset;
+        this.rows = rows;
+        this.columns = columns;
+        this.rowStride = rowStride;
+        this.colStride = colStride;
+    }
+
+    private int index(int row, int column) {
+        return offset + row * rowStride + column * colStride;
+    }
+
+    private void swapRows(int a, int b) {
+        int ia = index(a, 0);
+        int ib = index(b, 0);
+        for (int c = 0; c < columns; c++) {
+            float buffer = data[ia];
+            data[ia] = data[ib];
+            data[ib] = buffer;
+            ia += colStride;
+            ib += colStride;
+        }
     }
 
     /**
@@ -47,9 +107,9 @@ public class Matrixxf {
     @SuppressWarnings("DuplicatedCode")
     public Matrixxf rref() {
         Matrixxf copy = copy();
-
-        final int rows = m.length;
-        final int columns = m[0].length;
+        float[] d = copy.data;
+        final int rows = copy.rows;
+        final int columns = copy.columns;
 
         int i = 0;
         int j = 0;
@@ -60,38 +120,24 @@ public class Matrixxf {
             // in the current column that are not zero, the current
             // pivot row has to be swapped with some other row in which
             // the pivot element for the current column is not zero.
-            if (copy.m[i][j] == 0) {
+            if (d[i * columns + j] == 0) {
                 // find the next possible pivot element on the current
                 // column that is not equal to zero
-                float[] buffer = copy.m[i];
+                boolean swapped = false;
                 for (int k = i + 1; k < rows; k++) {
-                    if (copy.m[k][j] != 0) {
-                        copy.m[i] = copy.m[k];
-                        copy.m[k] = buffer;
+                    if (d[k * columns + j] != 0) {
+                        copy.swapRows(i, k);
+                        swapped = true;
                         break;
                     }
                 }
 
                 // if all remaining elements on the current column are
                 // zero, do nothing and move on with the next column
-                if (buffer == copy.m[i])
+                if (!swapped)
                     j++;
             } else {
-                // divide all elements on the current column by the
-                // current pivot element
-                double pivot = copy.m[i][j];
-                for (int l = 0; l < columns; l++)
-                    copy.m[i][l] /= pivot;
-
-                for (int y = 0; y < rows; y++) {
-                    if (y != i) {
-                        // subtract the pivot row from all rows of the
-                        // matrix except the pivot row itself
-                        double mul = copy.m[y][j];
-                        for (int x = 0; x < columns; x++)
-                            copy.m[y][x] -= mul * copy.m[i][x];
-                    }
-                }
+                copy.eliminate(i, j);
                 // move on with the next row nad column
                 i++;
                 j++;
@@ -103,9 +149,9 @@ public class Matrixxf {
     @SuppressWarnings("DuplicatedCode")
     public Matrixxf smartRref() {
         Matrixxf copy = copy();
-
-        final int rows = m.length;
-        final int columns = m[0].length;
+        float[] d = copy.data;
+        final int rows = copy.rows;
+        final int columns = copy.columns;
 
         int i = 0;
         int j = 0;
@@ -116,37 +162,21 @@ public class Matrixxf {
             // column with the max absolute value)
             int permute = i;
             for (int l = i + 1; l < rows; l++) {
-                if (Math.abs(copy.m[l][j]) > Math.abs(copy.m[permute][j]))
+                if (Math.abs(d[l * columns + j]) > Math.abs(d[permute * columns + j]))
                     permute = l;
             }
 
             if (permute != i) {
                 // swap row "i" with row "permute"
-                float[] buffer = copy.m[i];
-                copy.m[i] = copy.m[permute];
-                copy.m[permute] = buffer;
-            } else if (m[i][j] == 0) {
+                copy.swapRows(i, permute);
+            } else if (d[i * columns + j] == 0) {
                 // if all remaining elements on the current column are
                 // zero, do nothing and move on with the next column
                 j++;
                 continue;
             }
 
-            // divide all elements on the current column by the
-            // current pivot element
-            double pivot = copy.m[i][j];
-            for (int l = 0; l < columns; l++)
-                copy.m[i][l] /= pivot;
-
-            for (int y = 0; y < rows; y++) {
-                if (y != i) {
-                    // subtract the pivot row from all rows of the
-                    // matrix except the pivot row itself
-                    double mul = copy.m[y][j];
-                    for (int x = 0; x < columns; x++)
-                        copy.m[y][x] -= mul * copy.m[i][x];
-                }
-            }
+            copy.eliminate(i, j);
             // move on with the next row and column
             i++;
             j++;
@@ -154,54 +184,92 @@ public class Matrixxf {
         return copy;
     }
 
+    /**
+     * Gauss-Jordan elimination step on a contiguous matrix. Divides the
+     * pivot row by the pivot element and subtracts it from all other rows.
+     */
+    private void eliminate(int i, int j) {
+        // divide all elements on the current column by the
+        // current pivot element
+        int pivotRow = i * columns;
+        VectorKernels.mul(data, pivotRow, 1f / data[pivotRow + j], data, pivotRow, columns);
+        data[pivotRow + j] = 1;
+
+        for (int y = 0; y < rows; y++) {
+            if (y != i) {
+                // subtract the pivot row from all rows of the
+                // matrix except the pivot row itself
+                int row = y * columns;
+                float mul = data[row + j];
+                if (mul != 0)
+                    VectorKernels.fma(data, pivotRow, -mul, data, row, data, row, columns);
+            }
+        }
+    }
+
     public Matrixxf factorize() {
-        Matrixxf out = new Matrixxf(m.length, m[0].length);
+        Matrixxf out = new Matrixxf(rows, columns);
 
-        for (int j = 0; j < out.columns(); j++) {
+        for (int j = 0; j < out.columns; j++) {
             // compute entries for upper matrix for this column
             for (int i = 0; i <= j; i++) {
                 float sum = 0;
-                for (int k = 0; k <= i; k++)
-                    sum += (k == i ? 1 : out.m[i][k]) * out.m[k][j];
-                out.m[i][j] = m[i][j] - sum;
+                for (int k = 0; k < i; k++)
+                    sum += out.get(i, k) * out.get(k, j);
+                out.set(i, j, get(i, j) - sum);
             }
 
             // compute entries for the lower matrix for this column
-            for (int i = j + 1; i < out.rows(); i++) {
+            for (int i = j + 1; i < out.rows; i++) {
                 float sum = 0;
                 for (int k = 0; k < j; k++)
-                    sum += (k == i ? 1 : out.m[i][k]) * out.m[k][j];
-                out.m[i][j] = (m[i][j] - sum) / out.m[j][j];
+                    sum += out.get(i, k) * out.get(k, j);
+                out.set(i, j, (get(i, j) - sum) / out.get(j, j));
             }
         }
         return out;
     }
 
-    public Matrixxf cholesky() {
-        Matrixxf out = new Matrixxf(rows(), columns());
+    /**
+     * Factors this square matrix with partial pivoting. The decomposition
+     * can be reused to solve any number of right-hand sides.
+     * @return LU decomposition
+     */
+    public LUDecompositionf lu() {
+        return new LUDecompositionf(this);
+    }
 
-        for (int j = 0; j < out.columns(); j++) {
-            for (int i = 0; i < j; i++) {
-                float sum = 0;
-                for (int k = 0; k < i; k++)
-                    sum += out.m[i][k] * out.m[j][k];
-                out.m[j][i] = (m[j][i] - sum) / out.m[i][i];
-            }
-        }
+    /**
+     * Computes the Householder QR decomposition of this matrix.
+     * @return QR decomposition
+     */
+    public QRDecompositionf qr() {
+        return new QRDecompositionf(this);
+    }
 
-        for (int j = 0; j < out.columns(); j++) {
-            float sum = 0;
-            for (int k = 0; k < j; k++)
-                sum += out.m[j][k] * out.m[j][k];
-            out.m[j][j] = (float) Math.sqrt(m[j][j] - sum);
-        }
-        return out;
+    /**
+     * Computes the thin singular value decomposition of this matrix.
+     * @return singular value decomposition
+     */
+    public SingularValueDecompositionf svd() {
+        return new SingularValueDecompositionf(this);
+    }
+
+    /**
+     * Computes the lower triangular Cholesky factor L with A = L * L^T.
+     * Use CholeskyDecompositionf directly to solve systems with the factor.
+     * @return lower triangular factor
+     * @throws IllegalStateException if this matrix is not symmetric
+     *          positive definite
+     */
+    public Matrixxf cholesky() {
+        return new CholeskyDecompositionf(this).getL();
     }
 
     public boolean isRRF() {
-        for (int j = 1; j < rows(); j++) {
-            for (int i = 0; i < j; i++) {
-                if (m[j][i] != 0)
+        for (int j = 1; j < rows; j++) {
+            for (int i = 0; i < j && i < columns; i++) {
+                if (get(j, i) != 0)
                     return false;
             }
         }
@@ -217,161 +285,186 @@ public class Matrixxf {
     }
 
     public float abs() {
-        float sum = 0;
-        for (int j = 0; j < columns(); j++) {
-            for (int i = 0; i < rows(); i++)
-                sum += m[i][j] * m[i][j];
-        }
-        return (float) Math.sqrt(sum);
+        return (float) Math.sqrt(absSquared());
     }
 
     public float absSquared() {
+        ForkJoinPool pool = MatrixParallelism.pool((long) rows * columns);
         float sum = 0;
-        for (int j = 0; j < columns(); j++) {
-            for (int i = 0; i < rows(); i++)
-                sum += m[i][j] * m[i][j];
+        if (pool == null) {
+            for (int row = 0; row < rows; row++)
+                sum += rowSquared(row);
+            return sum;
         }
+
+        // sum up the partial results in row order, so that the result
+        // does not depend on how the rows were split
+        float[] partial = new float[rows];
+        RangeTask.run(pool, 0, rows, Math.max(1, MatrixParallelism.GRAIN / Math.max(1, columns)), (from, to) -> {
+            for (int row = from; row < to; row++)
+                partial[row] = rowSquared(row);
+        });
+        for (int row = 0; row < rows; row++)
+            sum += partial[row];
+        return sum;
+    }
+
+    private float rowSquared(int row) {
+        int index = index(row, 0);
+        if (colStride == 1)
+            return VectorKernels.dot(data, index, data, index, columns);
+
+        float sum = 0;
+        for (int column = 0; column < columns; column++, index += colStride)
+            sum += data[index] * data[index];
         return sum;
     }
 
     public Matrixxf mul(Matrixxf other) {
-        if (columns() != other.rows())
+        if (columns != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxf out = new Matrixxf(rows(), columns());
-
-        for (int j = 0; j < rows(); j++) {
-            // iterate through rows
-            for (int i = 0; i < other.columns(); i++) {
-                // iterate through columns
-                float sum = 0;
-                for (int k = 0; k < columns(); k++)
-                    sum += m[j][k] * other.m[k][i];
-                out.m[j][i] = sum;
-            }
-        }
+        Matrixxf out = new Matrixxf(rows, other.columns);
+        Gemm.gemm(1f, this, other, 0, out);
         return out;
     }
 
     public Matrixxf mulSelf(Matrixxf other) {
-        if (columns() != other.rows())
+        if (columns != other.rows || other.rows != other.columns)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxf copy = copy();
-
-        for (int columnOther = 0; columnOther < other.columns(); columnOther++) {
-            for (int row = 0; row < copy.rows(); row++) {
-                float sum = 0;
-                for (int column = 0; column < copy.columns(); column++)
-                    sum += copy.m[row][column] * other.m[column][columnOther];
-                m[row][columnOther] = sum;
-            }
-        }
-        return this;
+        return set(mul(other));
     }
 
     public Matrixxf add(Matrixxf other) {
-        if (columns() != other.columns() || rows() != other.rows())
+        if (columns != other.columns || rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxf out = new Matrixxf(rows(), columns());
-
-        for (int row = 0; row < rows(); row++) {
-            for (int column = 0; column < columns(); column++)
-                out.m[row][column] = m[row][column] + other.m[row][column];
-        }
+        Matrixxf out = new Matrixxf(rows, columns);
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                add(other, 1, row, out);
+        });
         return out;
     }
 
     public Matrixxf addSelf(Matrixxf other) {
-        if (columns() != other.columns() || rows() != other.rows())
+        if (columns != other.columns || rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        for (int row = 0; row < rows(); row++) {
-            for (int column = 0; column < columns(); column++)
-                m[row][column] += other.m[row][column];
-        }
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                add(other, 1, row, this);
+        });
         return this;
     }
 
     public Matrixxf sub(Matrixxf other) {
-        if (columns() != other.columns() || rows() != other.rows())
+        if (columns != other.columns || rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxf out = new Matrixxf(rows(), columns());
-        for (int row = 0; row < rows(); row++) {
-            for (int column = 0; column < columns(); column++)
-                out.m[row][column] = m[row][column] - other.m[row][column];
-        }
+        Matrixxf out = new Matrixxf(rows, columns);
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                add(other, -1, row, out);
+        });
         return out;
     }
 
     public Matrixxf subSelf(Matrixxf other) {
-        if (columns() != other.columns() || rows() != other.rows())
+        if (columns != other.columns || rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format!");
 
-        Matrixxf out = new Matrixxf(rows(), columns());
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                add(other, -1, row, this);
+        });
+        return this;
+    }
 
-        for (int row = 0; row < rows(); row++) {
-            for (int column = 0; column < columns(); column++)
-                m[row][column] -= other.m[row][column];
+    /**
+     * Writes row + sign * other.row into the specified row of dest.
+     */
+    private void add(Matrixxf other, int sign, int row, Matrixxf dest) {
+        int a = index(row, 0);
+        int b = other.index(row, 0);
+        int d = dest.index(row, 0);
+        if (colStride == 1 && other.colStride == 1 && dest.colStride == 1) {
+            if (sign > 0)
+                VectorKernels.add(data, a, other.data, b, dest.data, d, columns);
+            else
+                VectorKernels.sub(data, a, other.data, b, dest.data, d, columns);
+        } else {
+            for (int c = 0; c < columns; c++) {
+                dest.data[d] = sign > 0 ? data[a] + other.data[b] : data[a] - other.data[b];
+                a += colStride;
+                b += other.colStride;
+                d += dest.colStride;
+            }
         }
-        return out;
     }
 
     public Matrixxf mul(float f) {
-        Matrixxf out = new Matrixxf(rows(), columns());
-
-        for (int r = 0; r < rows(); r++) {
-            for (int c = 0; c < columns(); c++)
-                out.m[r][c] = m[r][c] * f;
-        }
+        Matrixxf out = new Matrixxf(rows, columns);
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                map(f, true, row, out);
+        });
         return out;
     }
 
     public Matrixxf mulSelf(float f) {
-        for (int r = 0; r < rows(); r++) {
-            for (int c = 0; c < columns(); c++) {
-                m[r][c] *= f;
-            }
-        }
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                map(f, true, row, this);
+        });
         return this;
     }
 
     public Matrixxf add(float f) {
-        Matrixxf out = new Matrixxf(rows(), columns());
-
-        for (int i = 0; i < rows(); i++) {
-            for (int j = 0; j < columns(); j++)
-                out.m[i][j] = m[i][j] + f;
-        }
+        Matrixxf out = new Matrixxf(rows, columns);
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                map(f, false, row, out);
+        });
         return out;
     }
 
     public Matrixxf addSelf(float f) {
-        for (int i = 0; i < rows(); i++) {
-            for (int j = 0; j < columns(); j++)
-                m[i][j] += f;
-        }
+        MatrixParallelism.forRows(rows, columns, (from, to) -> {
+            for (int row = from; row < to; row++)
+                map(f, false, row, this);
+        });
         return this;
     }
 
     public Matrixxf sub(float f) {
-        Matrixxf out = new Matrixxf(rows(), columns());
-
-        for (int i = 0; i < rows(); i++) {
-            for (int j = 0; j < columns(); j++)
-                out.m[i][j] = m[i][j] - f;
-        }
-        return out;
+        return add(-f);
     }
 
     public Matrixxf subSelf(float sub) {
-        for (int i = 0; i < rows(); i++) {
-            for (int j = 0; j < columns(); j++)
-                m[i][j] -= sub;
+        return addSelf(-sub);
+    }
+
+    /**
+     * Writes the specified row multiplied with, or added to, a scalar
+     * into dest.
+     */
+    private void map(float f, boolean multiply, int row, Matrixxf dest) {
+        int a = index(row, 0);
+        int d = dest.index(row, 0);
+        if (colStride == 1 && dest.colStride == 1) {
+            if (multiply)
+                VectorKernels.mul(data, a, f, dest.data, d, columns);
+            else
+                VectorKernels.add(data, a, f, dest.data, d, columns);
+        } else {
+            for (int c = 0; c < columns; c++) {
+                dest.data[d] = multiply ? data[a] * f : data[a] + f;
+                a += colStride;
+                d += dest.colStride;
+            }
         }
-        return this;
     }
 
     /**
@@ -386,61 +479,98 @@ public class Matrixxf {
      * @return matrix
      */
     public Matrixxf push(Matrixxf other) {
-        if (rows() != other.rows())
+        if (rows != other.rows)
             throw new IllegalArgumentException("Invalid matrix format");
 
-        Matrixxf out = new Matrixxf(rows(), columns() + other.columns());
-
-        for (int column = 0; column < columns(); column++) {
-            for (int row = 0; row < rows(); row++)
-                out.m[row][column] = m[row][column];
-        }
-
-        for (int column = 0; column < other.columns(); column++) {
-            for (int row = 0; row < rows(); row++)
-                out.m[row][columns() + column] = other.m[row][column];
-        }
+        Matrixxf out = new Matrixxf(rows, columns + other.columns);
+        out.subMatrix(0, 0, rows, columns).set(this);
+        out.subMatrix(0, columns, rows, other.columns).set(other);
         return out;
     }
 
+    /**
+     * Returns a view of the specified column. The returned matrix
+     * shares its data with this matrix.
+     * @param i column index
+     * @return column view
+     */
     public Matrixxf getColumn(int i) {
-        if (i >= columns())
+        if (i < 0 || i >= columns)
             throw new IllegalArgumentException("That column does not exit");
+        return column(i);
+    }
 
-        Matrixxf out = new Matrixxf(rows(), 1);
+    /**
+     * Returns a rows x 1 view of the specified column.
+     * @param column column index
+     * @return column view
+     */
+    public Matrixxf column(int column) {
+        return subMatrix(0, column, rows, 1);
+    }
 
-        for (int row = 0; row < rows(); row++)
-            out.m[row][0] = m[row][i];
-        return out;
+    /**
+     * Returns a 1 x columns view of the specified row.
+     * @param row row index
+     * @return row view
+     */
+    public Matrixxf row(int row) {
+        return subMatrix(row, 0, 1, columns);
+    }
+
+    /**
+     * Returns a view of the specified block of this matrix.
+     * @param row first row of the block
+     * @param column first column of the block
+     * @param rows number of rows of the block
+     * @param columns number of columns of the block
+     * @return block view
+     */
+    public Matrixxf subMatrix(int row, int column, int rows, int columns) {
+        if (row < 0 || column < 0 || rows < 0 || columns < 0
+                || row + rows > this.rows || column + columns > this.columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        int start = rows == 0 || columns == 0 ? offset : index(row, column);
+        return new Matrixxf(data, start, rows, columns, rowStride, colStride);
+    }
+
+    /**
+     * Returns a transposed view of this matrix.
+     * @return transposed view
+     */
+    public Matrixxf transpose() {
+        return new Matrixxf(data, offset, columns, rows, colStride, rowStride);
     }
 
     public Vector3f mul(Vector3f vector3f) {
         if (getWidth() == 3 && getHeight() == 3) {
+            float sum = get(0, 0) + get(1, 0) + get(2, 0);
             return new Vector3f(
-                    vector3f.getX() * (m[0][0] + m[1][0] + m[2][0]),
-                    vector3f.getY() * (m[0][0] + m[1][0] + m[2][0]),
-                    vector3f.getZ() * (m[0][0] + m[1][0] + m[2][0]));
+                    vector3f.getX() * sum,
+                    vector3f.getY() * sum,
+                    vector3f.getZ() * sum);
         }
         return null;
     }
 
     public float diagProduct() {
-        if (rows() != columns() || rows() == 0)
+        if (rows != columns || rows == 0)
             throw new IllegalStateException("Matrix is not symmetrical");
 
-        float prod = m[0][0];
-        for (int i = 1; i < rows() && i < columns(); i++)
-            prod *= m[i][i];
+        float prod = data[offset];
+        for (int i = 1; i < rows; i++)
+            prod *= get(i, i);
         return prod;
     }
 
     public boolean isDefinite() {
         for (int i = 0; i < getWidth() - 1 && i < getHeight(); i++) {
-            if (m[i][i] != 1)
+            if (get(i, i) != 1)
                 return false;
 
-            for (int j = 0; j < getHeight(); j++) {
-                if (j != i && m[i][j] != 0) {
+            for (int j = 0; j < getHeight() && j < getWidth(); j++) {
+                if (j != i && get(i, j) != 0) {
                     return false;
                 }
             }
@@ -449,56 +579,130 @@ public class Matrixxf {
     }
 
     public float distance() {
-        return m[2][getWidth() - 1];
+        return get(2, getWidth() - 1);
     }
 
     public Vector2f hitCoords() {
-        return new Vector2f(m[0][getWidth() - 1], m[1][getWidth() - 1]);
+        return new Vector2f(get(0, getWidth() - 1), get(1, getWidth() - 1));
     }
 
     public boolean hitTriangle(float scale) {
-        return Math.abs(m[0][getWidth() - 1]) + Math.abs(m[1][getWidth() - 1]) <= scale;
+        return Math.abs(get(0, getWidth() - 1)) + Math.abs(get(1, getWidth() - 1)) <= scale;
     }
 
     public boolean hitQuad(float scale) {
-        return Math.abs(m[0][getWidth() - 1]) <= scale && Math.abs(m[1][getWidth() - 1]) <= scale;
+        return Math.abs(get(0, getWidth() - 1)) <= scale && Math.abs(get(1, getWidth() - 1)) <= scale;
     }
 
+    /**
+     * Copies the specified row arrays into this matrix. If the format
+     * differs from the current one, this matrix is reallocated and no
+     * longer shares its data with any views.
+     * @param m row arrays
+     */
     public void set(float[][] m) {
-        this.m = m;
+        int newRows = m.length;
+        int newColumns = newRows == 0 ? 0 : m[0].length;
+        if (newRows != rows || newColumns != columns) {
+            data = new float[newRows * newColumns];
+            offset = 0;
+            rows = newRows;
+            columns = newColumns;
+            rowStride = newColumns;
+            colStride = 1;
+        }
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++)
+                set(row, column, m[row][column]);
+        }
+    }
+
+    /**
+     * Copies the values of the specified matrix into this matrix.
+     * @param other matrix to copy
+     * @return this
+     */
+    public Matrixxf set(Matrixxf other) {
+        if (rows != other.rows || columns != other.columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        for (int row = 0; row < rows; row++) {
+            int src = other.index(row, 0);
+            int dst = index(row, 0);
+            if (colStride == 1 && other.colStride == 1) {
+                System.arraycopy(other.data, src, data, dst, columns);
+            } else {
+                for (int c = 0; c < columns; c++) {
+                    data[dst] = other.data[src];
+                    src += other.colStride;
+                    dst += colStride;
+                }
+            }
+        }
+        return this;
     }
 
     public void set(int x, int y, float value) {
-        m[x][y] = value;
+        data[index(x, y)] = value;
     }
 
     public float get(int x, int y) {
-        return m[x][y];
+        return data[index(x, y)];
+    }
+
+    /**
+     * Returns the backing array of this matrix. Use the offset and
+     * strides to locate elements.
+     * @return backing array
+     */
+    public float[] getData() {
+        return data;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getRowStride() {
+        return rowStride;
+    }
+
+    public int getColStride() {
+        return colStride;
+    }
+
+    /**
+     * Returns true if the rows of this matrix are packed one after
+     * another without gaps in the backing array.
+     * @return true if contiguous
+     */
+    public boolean isContiguous() {
+        return colStride == 1 && (rowStride == columns || rows <= 1);
     }
 
     public int getWidth() {
-        return m[0].length;
+        return columns;
     }
 
     public int getHeight() {
-        return m.length;
+        return rows;
     }
 
     public int rows() {
-        return m.length;
+        return rows;
     }
 
     public int columns() {
-        return m[0].length;
+        return columns;
     }
 
+    /**
+     * Returns a contiguous copy of this matrix that does not share its
+     * data with this matrix.
+     * @return copy
+     */
     public Matrixxf copy() {
-        Matrixxf out = new Matrixxf(getWidth(), getHeight());
-
-        for (int i = 0; i < getWidth(); i++) {
-            if (getHeight() >= 0) System.arraycopy(m[i], 0, out.m[i], 0, getHeight());
-        }
-        return out;
+        return new Matrixxf(rows, columns).set(this);
     }
 
     @Override
@@ -506,12 +710,27 @@ public class Matrixxf {
         if (this == o) return true;
         if (!(o instanceof Matrixxf)) return false;
         Matrixxf matrixxf = (Matrixxf) o;
-        return Arrays.equals(m, matrixxf.m);
+        if (rows != matrixxf.rows || columns != matrixxf.columns)
+            return false;
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                if (Float.compare(get(row, column), matrixxf.get(row, column)) != 0)
+                    return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(m);
+        int result = 31 * rows + columns;
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                result = 31 * result + Float.floatToIntBits(get(row, column));
+            }
+        }
+        return result;
     }
 
     public String toString() {
@@ -520,7 +739,7 @@ public class Matrixxf {
         for (int i = 0; i < getHeight(); i++) {
             stringBuilder.append("\n");
             for (int j = 0; j < getWidth(); j++)
-                stringBuilder.append("\t").append(m[i][j]);
+                stringBuilder.append("\t").append(get(i, j));
         }
         stringBuilder.append("\n]");
         return stringBuilder.toString();
@@ -0,0 +1,209 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+/**
+ * Solves dense systems A * X = B to double precision with a single
+ * precision LU decomposition and iterative refinement.
+ *
+ * The decomposition, which dominates the cost, is computed once in float
+ * with partial pivoting. Each refinement step computes the residual
+ * R = B - A * X in double, solves for a correction with the float factors
+ * and adds it to X in double. This converges to double precision as long
+ * as A is not too ill conditioned for float, roughly cond(A) < 1e7.
+ *
+ * A column has converged once its residual satisfies
+ * |r| <= tolerance * |A| * |x| in the maximum norm, i.e. its normwise
+ * backward error is below the tolerance.
+ */
+@SuppressWarnings("Duplicates")
+public class MixedPrecisionSolver {
+
+    private final Matrixxd a;
+    private final LUDecompositionf lu;
+    private final double norm;
+
+    private double tolerance;
+    private int maxIterations = 30;
+
+    private int iterations;
+    private double backwardError;
+
+    /**
+     * Factors the matrix in single precision. The matrix is not copied and
+     * must not change while the solver is used.
+     * @param a square matrix
+     */
+    public MixedPrecisionSolver(Matrixxd a) {
+        if (a.rows() != a.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        final int n = a.rows();
+        this.a = a;
+        Matrixxf single = new Matrixxf(n, n);
+        double norm = 0;
+        for (int i = 0; i < n; i++) {
+            double sum = 0;
+            for (int j = 0; j < n; j++) {
+                double value = a.get(i, j);
+                single.data[i * n + j] = (float) value;
+                sum += Math.abs(value);
+            }
+            norm = Math.max(norm, sum);
+        }
+        this.norm = norm;
+        lu = new LUDecompositionf(single);
+        tolerance = Math.ulp(1.0) * Math.sqrt(Math.max(1, n));
+    }
+
+    /**
+     * @return true if the single precision factors are singular, in which
+     *          case nothing can be solved
+     */
+    public boolean isSingular() {
+        return lu.isSingular();
+    }
+
+    /**
+     * Solves A * X = B.
+     * @param b right-hand sides, one per column
+     * @return solution X
+     * @throws IllegalStateException if the matrix is singular in single
+     *          precision
+     */
+    public Matrixxd solve(Matrixxd b) {
+        final int n = a.rows();
+        final int r = b.columns();
+        if (b.rows() != n)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        Matrixxd x = new Matrixxd(n, r);
+        Matrixxf correction = lu.solve(toSingle(b));
+        Matrixxd residual = new Matrixxd(n, r);
+
+        iterations = 0;
+        while (true) {
+            add(x, correction);
+
+            // R = B - A * X in double precision
+            residual.set(b);
+            Gemm.gemm(-1, a, x, 1, residual);
+            backwardError = backwardError(residual, x);
+            if (backwardError <= tolerance || iterations >= maxIterations)
+                break;
+
+            lu.solve(toSingle(residual), correction);
+            iterations++;
+        }
+        return x;
+    }
+
+    /**
+     * Solves A * x = b.
+     * @param b right-hand side
+     * @return solution x
+     * @throws IllegalStateException if the matrix is singular in single
+     *          precision
+     */
+    public double[] solve(double[] b) {
+        Matrixxd x = solve(new Matrixxd(b.clone(), 0, b.length, 1, 1, 1));
+        return x.data;
+    }
+
+    /**
+     * @return largest normwise backward error of all columns
+     */
+    private double backwardError(Matrixxd residual, Matrixxd x) {
+        double error = 0;
+        for (int j = 0; j < x.columns(); j++) {
+            double r = 0;
+            double xNorm = 0;
+            for (int i = 0; i < x.rows(); i++) {
+                r = Math.max(r, Math.abs(residual.data[i * x.columns() + j]));
+                xNorm = Math.max(xNorm, Math.abs(x.data[i * x.columns() + j]));
+            }
+            double scale = norm * xNorm;
+            error = Math.max(error, r == 0 ? 0 : scale == 0 ? Double.POSITIVE_INFINITY : r / scale);
+        }
+        return error;
+    }
+
+    private static Matrixxf toSingle(Matrixxd m) {
+        Matrixxf out = new Matrixxf(m.rows(), m.columns());
+        for (int i = 0; i < m.rows(); i++) {
+            for (int j = 0; j < m.columns(); j++)
+                out.data[i * m.columns() + j] = (float) m.get(i, j);
+        }
+        return out;
+    }
+
+    private static void add(Matrixxd x, Matrixxf correction) {
+        for (int k = 0; k < x.data.length; k++)
+            x.data[k] += correction.data[k];
+    }
+
+    public double getTolerance() {
+        return tolerance;
+    }
+
+    /**
+     * @param tolerance normwise backward error to reach, defaults to
+     *                  sqrt(n) times the double precision machine epsilon
+     */
+    public void setTolerance(double tolerance) {
+        if (!(tolerance >= 0))
+            throw new IllegalArgumentException("Tolerance must not be negative!");
+        this.tolerance = tolerance;
+    }
+
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 0)
+            throw new IllegalArgumentException("Iteration count must not be negative!");
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @return number of refinement steps of the last solve
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return normwise backward error after the last solve
+     */
+    public double getBackwardError() {
+        return backwardError;
+    }
+
+    /**
+     * @return true if the last solve reached the tolerance
+     */
+    public boolean hasConverged() {
+        return backwardError <= tolerance;
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+/**
+ * Approximate inverse M^-1 of a system matrix A that is cheap to apply.
+ * Iterative solvers converge faster on M^-1 * A than on A if M is close
+ * to A.
+ */
+public interface Preconditioner {
+
+    /**
+     * Computes z = M^-1 * r. r and z are never the same array.
+     * @param r residual
+     * @param z preconditioned residual
+     */
+    void apply(double[] r, double[] z);
+}
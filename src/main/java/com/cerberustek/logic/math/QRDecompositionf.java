@@ -0,0 +1,394 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+/**
+ * Householder QR decomposition A * P = Q * R of an m x n matrix.
+ *
+ * Without pivoting, the columns are processed in panels: each panel is
+ * factored column by column and its reflectors are then applied to the
+ * remaining columns at once in the compact WY form I - V * T * V^T,
+ * which turns most of the work into matrix products.
+ *
+ * With column pivoting, the column with the largest remaining norm is
+ * moved to the front in every step, so that the magnitudes on the
+ * diagonal of R decrease and reveal the numerical rank. Since every
+ * step depends on the previous one, the pivoted factorization is not
+ * blocked.
+ *
+ * The reflectors are stored below the diagonal of R. Q is only formed
+ * on request.
+ */
+@SuppressWarnings("Duplicates")
+public class QRDecompositionf {
+
+    /** Number of columns per panel */
+    private static final int BLOCK = 32;
+    private static final float EPS = Math.ulp(1f);
+
+    private final int rows;
+    private final int columns;
+    /** R on and above the diagonal, Householder vectors below */
+    private final Matrixxf qr;
+    private final float[] tau;
+    /** pivot[i] is the column of A that ended up in column i */
+    private final int[] pivot;
+    private final boolean pivoting;
+
+    public QRDecompositionf(Matrixxf a) {
+        this(a, false);
+    }
+
+    /**
+     * @param a matrix to decompose
+     * @param pivoting true to use column pivoting for rank detection
+     */
+    public QRDecompositionf(Matrixxf a, boolean pivoting) {
+        rows = a.rows();
+        columns = a.columns();
+        qr = a.copy();
+        tau = new float[Math.min(rows, columns)];
+        pivot = new int[columns];
+        for (int i = 0; i < columns; i++)
+            pivot[i] = i;
+        this.pivoting = pivoting;
+
+        if (pivoting)
+            factorPivoted();
+        else
+            factorBlocked();
+    }
+
+    private void factorBlocked() {
+        final int k = tau.length;
+        float[] w = new float[columns];
+
+        for (int j0 = 0; j0 < k; j0 += BLOCK) {
+            final int j1 = Math.min(j0 + BLOCK, k);
+
+            // factor the panel column by column
+            for (int j = j0; j < j1; j++) {
+                householder(j);
+                reflect(j, qr.data, 0, columns, j + 1, j1, w);
+            }
+            if (j1 >= columns)
+                continue;
+
+            // apply the panel to the remaining columns as a block reflector
+            final int nb = j1 - j0;
+            Matrixxf v = reflectors(j0, nb);
+            Matrixxf t = triangularFactor(v, j0, nb);
+            Matrixxf rest = qr.subMatrix(j0, j1, rows - j0, columns - j1);
+
+            Matrixxf vtA = new Matrixxf(nb, columns - j1);
+            Gemm.gemm(1, v.transpose(), rest, 0, vtA);
+            Matrixxf tvtA = new Matrixxf(nb, columns - j1);
+            Gemm.gemm(1, t.transpose(), vtA, 0, tvtA);
+            Gemm.gemm(-1, v, tvtA, 1, rest);
+        }
+    }
+
+    private void factorPivoted() {
+        final int k = tau.length;
+        final float[] d = qr.data;
+        float[] w = new float[columns];
+
+        // partial column norms and the norms they were last computed at
+        float[] norms = new float[columns];
+        float[] reference = new float[columns];
+        for (int c = 0; c < columns; c++) {
+            norms[c] = columnNorm(c, 0);
+            reference[c] = norms[c];
+        }
+
+        for (int j = 0; j < k; j++) {
+            int p = j;
+            for (int c = j + 1; c < columns; c++) {
+                if (norms[c] > norms[p])
+                    p = c;
+            }
+
+            if (p != j) {
+                for (int r = 0; r < rows; r++) {
+                    float buffer = d[r * columns + p];
+                    d[r * columns + p] = d[r * columns + j];
+                    d[r * columns + j] = buffer;
+                }
+                int buffer = pivot[p];
+                pivot[p] = pivot[j];
+                pivot[j] = buffer;
+                norms[p] = norms[j];
+                reference[p] = reference[j];
+            }
+
+            householder(j);
+            reflect(j, d, 0, columns, j + 1, columns, w);
+
+            // downdate the norms of the remaining columns and recompute
+            // them when cancellation made the downdate inaccurate
+            for (int c = j + 1; c < columns; c++) {
+                if (norms[c] == 0)
+                    continue;
+
+                float ratio = Math.abs(d[j * columns + c]) / norms[c];
+                float factor = Math.max(0, 1 - ratio * ratio);
+                float check = factor * (norms[c] / reference[c]) * (norms[c] / reference[c]);
+                if (check <= (float) Math.sqrt(EPS)) {
+                    norms[c] = columnNorm(c, j + 1);
+                    reference[c] = norms[c];
+                } else {
+                    norms[c] *= (float) Math.sqrt(factor);
+                }
+            }
+        }
+    }
+
+    private float columnNorm(int column, int from) {
+        float sum = 0;
+        for (int r = from; r < rows; r++) {
+            float value = qr.data[r * columns + column];
+            sum += value * value;
+        }
+        return (float) Math.sqrt(sum);
+    }
+
+    /**
+     * Replaces column j below row j with a Householder vector v (v_j = 1
+     * implied) and the diagonal element with the resulting R_jj.
+     */
+    private void householder(int j) {
+        final float[] d = qr.data;
+        float alpha = d[j * columns + j];
+        float sigma = 0;
+        for (int r = j + 1; r < rows; r++)
+            sigma += d[r * columns + j] * d[r * columns + j];
+
+        if (sigma == 0) {
+            tau[j] = 0;
+            return;
+        }
+
+        float norm = (float) Math.sqrt(alpha * alpha + sigma);
+        float beta = alpha <= 0 ? norm : -norm;
+        tau[j] = (beta - alpha) / beta;
+        float scale = 1f / (alpha - beta);
+        for (int r = j + 1; r < rows; r++)
+            d[r * columns + j] *= scale;
+        d[j * columns + j] = beta;
+    }
+
+    /**
+     * Applies reflector j to the rows [j, rows) and the columns [c0, c1)
+     * of the row-major matrix x with the specified row stride.
+     */
+    private void reflect(int j, float[] x, int offset, int stride, int c0, int c1, float[] w) {
+        final int len = c1 - c0;
+        final float t = tau[j];
+        if (len <= 0 || t == 0)
+            return;
+
+        final float[] d = qr.data;
+        int rowJ = offset + j * stride + c0;
+        System.arraycopy(x, rowJ, w, 0, len);
+        for (int r = j + 1; r < rows; r++) {
+            float v = d[r * columns + j];
+            if (v != 0)
+                VectorKernels.fma(x, offset + r * stride + c0, v, w, 0, w, 0, len);
+        }
+
+        VectorKernels.fma(w, 0, -t, x, rowJ, x, rowJ, len);
+        for (int r = j + 1; r < rows; r++) {
+            float v = d[r * columns + j];
+            if (v != 0) {
+                int row = offset + r * stride + c0;
+                VectorKernels.fma(w, 0, -t * v, x, row, x, row, len);
+            }
+        }
+    }
+
+    /**
+     * Copies the reflectors j0 .. j0 + nb - 1 into an explicit matrix V
+     * with unit diagonal and zeros above it.
+     */
+    private Matrixxf reflectors(int j0, int nb) {
+        Matrixxf v = new Matrixxf(rows - j0, nb);
+        for (int r = 0; r < rows - j0; r++) {
+            for (int c = 0; c < nb && c <= r; c++)
+                v.data[r * nb + c] = c == r ? 1 : qr.data[(j0 + r) * columns + j0 + c];
+        }
+        return v;
+    }
+
+    /**
+     * Computes the upper triangular T with H_j0 * ... * H_(j0 + nb - 1)
+     * = I - V * T * V^T.
+     */
+    private Matrixxf triangularFactor(Matrixxf v, int j0, int nb) {
+        Matrixxf t = new Matrixxf(nb, nb);
+        float[] z = new float[nb];
+        final int m = v.rows;
+
+        for (int i = 0; i < nb; i++) {
+            float ti = tau[j0 + i];
+            t.data[i * nb + i] = ti;
+            if (i == 0)
+                continue;
+
+            // z = V(:, 0 .. i - 1)^T * v_i, where v_i is zero above row i
+            for (int c = 0; c < i; c++)
+                z[c] = 0;
+            for (int r = i; r < m; r++) {
+                float vi = v.data[r * nb + i];
+                if (vi != 0)
+                    VectorKernels.fma(v.data, r * nb, vi, z, 0, z, 0, i);
+            }
+
+            // T(0 .. i - 1, i) = -tau_i * T(0 .. i - 1, 0 .. i - 1) * z
+            for (int r = 0; r < i; r++) {
+                float sum = VectorKernels.dot(t.data, r * nb + r, z, r, i - r);
+                t.data[r * nb + i] = -ti * sum;
+            }
+        }
+        return t;
+    }
+
+    public boolean isPivoting() {
+        return pivoting;
+    }
+
+    /**
+     * Estimates the numerical rank as the number of diagonal elements of
+     * R that are larger than max(m, n) * eps * |R_00|. The estimate is
+     * only reliable with column pivoting.
+     * @return numerical rank
+     */
+    public int rank() {
+        if (tau.length == 0)
+            return 0;
+
+        float tolerance = Math.max(rows, columns) * EPS * Math.abs(qr.data[0]);
+        int rank = 0;
+        for (int i = 0; i < tau.length; i++) {
+            if (Math.abs(qr.data[i * columns + i]) > tolerance)
+                rank++;
+        }
+        return rank;
+    }
+
+    public boolean isFullRank() {
+        return rank() == Math.min(rows, columns);
+    }
+
+    /**
+     * @return copy of the column permutation; entry i is the column of
+     *          the original matrix that was moved to column i
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    /**
+     * @return the upper triangular factor R with min(m, n) rows
+     */
+    public Matrixxf getR() {
+        final int k = tau.length;
+        Matrixxf out = new Matrixxf(k, columns);
+        for (int r = 0; r < k; r++)
+            System.arraycopy(qr.data, r * columns + r, out.data, r * columns + r, columns - r);
+        return out;
+    }
+
+    /**
+     * @return the first min(m, n) columns of the orthogonal factor Q
+     */
+    public Matrixxf getQ() {
+        final int k = tau.length;
+        Matrixxf q = new Matrixxf(rows, k);
+        for (int i = 0; i < k; i++)
+            q.data[i * k + i] = 1;
+
+        float[] w = new float[k];
+        for (int j = k - 1; j >= 0; j--)
+            reflect(j, q.data, 0, k, j, k, w);
+        return q;
+    }
+
+    /**
+     * Solves the least-squares problem min ||A * X - B|| for every column
+     * of B. With column pivoting, rank deficient matrices yield a basic
+     * solution in which the entries belonging to the dependent columns
+     * are zero.
+     * @param b right-hand sides, one per column
+     * @return solution X with n rows
+     * @throws IllegalStateException if A has fewer rows than columns, or
+     *          if it is rank deficient and no pivoting was used
+     */
+    public Matrixxf solve(Matrixxf b) {
+        if (b.rows() != rows)
+            throw new IllegalArgumentException("Invalid matrix format!");
+        if (rows < columns)
+            throw new IllegalStateException("Least squares requires at least as many rows as columns");
+
+        int rank = pivoting ? rank() : columns;
+        if (!pivoting) {
+            for (int i = 0; i < columns; i++) {
+                if (qr.data[i * columns + i] == 0)
+                    throw new IllegalStateException("Matrix is rank deficient");
+            }
+        }
+
+        // Y = Q^T * B
+        final int r = b.columns();
+        Matrixxf y = b.copy();
+        float[] w = new float[r];
+        for (int j = 0; j < tau.length; j++)
+            reflect(j, y.data, 0, r, 0, r, w);
+
+        // R11 * X = Y for the leading rank x rank block
+        final float[] d = qr.data;
+        for (int k = rank - 1; k >= 0; k--) {
+            VectorKernels.mul(y.data, k * r, 1f / d[k * columns + k], y.data, k * r, r);
+            for (int i = 0; i < k; i++) {
+                float factor = d[i * columns + k];
+                if (factor != 0)
+                    VectorKernels.fma(y.data, k * r, -factor, y.data, i * r, y.data, i * r, r);
+            }
+        }
+
+        Matrixxf x = new Matrixxf(columns, r);
+        for (int i = 0; i < rank; i++)
+            System.arraycopy(y.data, i * r, x.data, pivot[i] * r, r);
+        return x;
+    }
+
+    /**
+     * Solves the least-squares problem min ||A * x - b|| for a single
+     * right-hand side.
+     * @param b right-hand side with m entries
+     * @return solution with n entries
+     */
+    public float[] solve(float[] b) {
+        Matrixxf x = solve(new Matrixxf(b, 0, b.length, 1, 1, 1));
+        return x.data;
+    }
+}
@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -148,6 +146,13 @@ public class Quaterniond {
         return div(length);
     }
 
+    public Quaterniond normalized(Quaterniond dest) {
+        double length = length();
+        if (length == 0)
+            return dest.set(this);
+        return div(length, dest);
+    }
+
     public Quaterniond normalizeSelf() {
         double length = length();
         if (length == 0)
@@ -178,6 +183,10 @@ public class Quaterniond {
         return new Quaterniond(-x, -y, -z, w);
     }
 
+    public Quaterniond conjugate(Quaterniond dest) {
+        return dest.set(-x, -y, -z, w);
+    }
+
     public Quaterniond conjugateSelf() {
         x *= -1;
         y *= -1;
@@ -190,6 +199,11 @@ public class Quaterniond {
         return new Quaterniond(-x / dot, -y / dot, -z / dot, w / dot);
     }
 
+    public Quaterniond inverse(Quaterniond dest) {
+        double dot = x * x + y * y + z * z + w * w;
+        return dest.set(-x / dot, -y / dot, -z / dot, w / dot);
+    }
+
     public Quaterniond invertSelf() {
         double dot = x * x + y * y + z * z + w * w;
         x /= - dot;
@@ -212,6 +226,15 @@ public class Quaterniond {
         return new Quaterniond(x_, y_, z_, w_);
     }
 
+    public Quaterniond mul(Quaterniond other, Quaterniond dest) {
+        double w_ = (w * other.w) - (x * other.x) - (y * other.y) - (z * other.z);
+        double x_ = (x * other.w) + (w * other.x) + (y * other.z) - (z * other.y);
+        double y_ = (y * other.w) + (w * other.y) + (z * other.x) - (x * other.z);
+        double z_ = (z * other.w) + (w * other.z) + (x * other.y) - (y * other.x);
+
+        return dest.set(x_, y_, z_, w_);
+    }
+
     public Quaterniond mulSelf(Quaterniond other) {
         double w_ = (w * other.w) - (x * other.x) - (y * other.y) - (z * other.z);
         double x_ = (x * other.w) + (w * other.x) + (y * other.z) - (z * other.y);
@@ -251,6 +274,15 @@ public class Quaterniond {
         return new Quaterniond(x_, y_, z_, w_);
     }
 
+    public Quaterniond mul(Vector3d vector, Quaterniond dest) {
+        double w_ = - x * vector.getX() - y * vector.getY() - z * vector.getZ();
+        double x_ = w * vector.getX() + y * vector.getZ() - z * vector.getY();
+        double y_ = w * vector.getY() + z * vector.getX() - x * vector.getZ();
+        double z_ = w * vector.getZ() + x * vector.getY() - y * vector.getX();
+
+        return dest.set(x_, y_, z_, w_);
+    }
+
     public Vector3d mul3d(Vector3d vec) {
         double x_ = w * vec.getX() + y * vec.getZ() - z * vec.getY();
         double y_ = w * vec.getY() + z * vec.getX() - x * vec.getZ();
@@ -268,6 +300,10 @@ public class Quaterniond {
         );
     }
 
+    public Quaterniond mul(double value, Quaterniond dest) {
+        return dest.set(x * value, y * value, z * value, w * value);
+    }
+
     public Quaterniond mulSelf(double s) {
         x *= s;
         y *= s;
@@ -280,6 +316,10 @@ public class Quaterniond {
         return new Quaterniond(x / s, y / s, z / s, w / s);
     }
 
+    public Quaterniond div(double s, Quaterniond dest) {
+        return dest.set(x / s, y / s, z / s, w / s);
+    }
+
     public Quaterniond divSelf(double s) {
         x /= s;
         y /= s;
@@ -297,6 +337,10 @@ public class Quaterniond {
         );
     }
 
+    public Quaterniond add(Quaterniond other, Quaterniond dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z, w + other.w);
+    }
+
     public Quaterniond addSelf(Quaterniond other) {
         x += other.x;
         y += other.y;
@@ -314,6 +358,10 @@ public class Quaterniond {
         );
     }
 
+    public Quaterniond sub(Quaterniond other, Quaterniond dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z, w - other.w);
+    }
+
     public Quaterniond subSelf(Quaterniond other) {
         x -= other.x;
         y -= other.y;
@@ -334,6 +382,10 @@ public class Quaterniond {
         return new Matrix4d().initRotation(getForward(), getUp(), getRight());
     }
 
+    public Matrix4d toRotationMatrix(Matrix4d dest) {
+        return dest.initRotation(this);
+    }
+
     public Matrix4d toInverseRotationMatrix() {
         return inverse().toRotationMatrix();
     }
@@ -529,7 +581,11 @@ public class Quaterniond {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z, w);
+        int result = 31 + Double.hashCode(x);
+        result = 31 * result + Double.hashCode(y);
+        result = 31 * result + Double.hashCode(z);
+        result = 31 * result + Double.hashCode(w);
+        return result;
     }
 
     @Override
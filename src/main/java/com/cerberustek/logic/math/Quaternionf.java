@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -128,6 +126,13 @@ public class Quaternionf {
         return div(length);
     }
 
+    public Quaternionf normalized(Quaternionf dest) {
+        float length = length();
+        if (length == 0)
+            return dest.set(this);
+        return div(length, dest);
+    }
+
     public Quaternionf normalizeSelf() {
         float length = length();
         if (length == 0)
@@ -139,6 +144,10 @@ public class Quaternionf {
         return new Quaternionf(-x, -y, -z, w);
     }
 
+    public Quaternionf conjugate(Quaternionf dest) {
+        return dest.set(-x, -y, -z, w);
+    }
+
     public Quaternionf conjugateSelf() {
         x *= -1;
         y *= -1;
@@ -151,6 +160,11 @@ public class Quaternionf {
         return new Quaternionf(-x / dot, -y / dot, -z / dot, w / dot);
     }
 
+    public Quaternionf inverse(Quaternionf dest) {
+        float dot = x * x + y * y + z * z + w * w;
+        return dest.set(-x / dot, -y / dot, -z / dot, w / dot);
+    }
+
     public Quaternionf invertSelf() {
         float dot = x * x + y * y + z * z + w * w;
         x /= - dot;
@@ -174,6 +188,15 @@ public class Quaternionf {
         return new Quaternionf(x_, y_, z_, w_);
     }
 
+    public Quaternionf mul(Quaternionf r, Quaternionf dest) {
+        float w_ = (w * r.w) - (x * r.x) - (y * r.y) - (z * r.z);
+        float x_ = (x * r.w) + (w * r.x) + (y * r.z) - (z * r.y);
+        float y_ = (y * r.w) + (w * r.y) + (z * r.x) - (x * r.z);
+        float z_ = (z * r.w) + (w * r.z) + (x * r.y) - (y * r.x);
+
+        return dest.set(x_, y_, z_, w_);
+    }
+
     @SuppressWarnings("Duplicates")
     public Quaternionf mulSelf(Quaternionf r) {
         float w_ = w * r.getW() - x * r.getX() - y * r.getY() - z * r.getZ();
@@ -197,6 +220,15 @@ public class Quaternionf {
         return new Quaternionf(x_, y_, z_, w_);
     }
 
+    public Quaternionf mul(Vector3f vector, Quaternionf dest) {
+        float w_ = - x * vector.getX() - y * vector.getY() - z * vector.getZ();
+        float x_ = w * vector.getX() + y * vector.getZ() - z * vector.getY();
+        float y_ = w * vector.getY() + z * vector.getX() - x * vector.getZ();
+        float z_ = w * vector.getZ() + x * vector.getY() - y * vector.getX();
+
+        return dest.set(x_, y_, z_, w_);
+    }
+
     public Vector3f mul3f(Vector3f vec) {
         float x_ = w * vec.getX() + y * vec.getZ() - z * vec.getY();
         float y_ = w * vec.getY() + z * vec.getX() - x * vec.getZ();
@@ -231,6 +263,10 @@ public class Quaternionf {
         );
     }
 
+    public Quaternionf mul(float value, Quaternionf dest) {
+        return dest.set(x * value, y * value, z * value, w * value);
+    }
+
     public Quaternionf mulSelf(float s) {
         x *= s;
         y *= s;
@@ -243,6 +279,10 @@ public class Quaternionf {
         return new Quaternionf(x / s, y / s, z / s, w / s);
     }
 
+    public Quaternionf div(float s, Quaternionf dest) {
+        return dest.set(x / s, y / s, z / s, w / s);
+    }
+
     public Quaternionf divSelf(float s) {
         x /= s;
         y /= s;
@@ -260,6 +300,10 @@ public class Quaternionf {
         );
     }
 
+    public Quaternionf add(Quaternionf other, Quaternionf dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z, w + other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Quaternionf addSelf(Quaternionf other) {
         x += other.x;
@@ -278,6 +322,10 @@ public class Quaternionf {
         );
     }
 
+    public Quaternionf sub(Quaternionf other, Quaternionf dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z, w - other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Quaternionf subSelf(Quaternionf other) {
         x -= other.x;
@@ -365,6 +413,10 @@ public class Quaternionf {
         return new Matrix4f().initRotation(getForward(), getUp(), getRight());
     }
 
+    public Matrix4f toRotationMatrix(Matrix4f dest) {
+        return dest.initRotation(this);
+    }
+
     public Matrix4f toInverseRotationMatrix() {
         return inverse().toRotationMatrix();
     }
@@ -423,7 +475,11 @@ public class Quaternionf {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z, w);
+        int result = 31 + Float.hashCode(x);
+        result = 31 * result + Float.hashCode(y);
+        result = 31 * result + Float.hashCode(z);
+        result = 31 * result + Float.hashCode(w);
+        return result;
     }
 
     @Override
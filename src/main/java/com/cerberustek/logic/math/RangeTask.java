@@ -0,0 +1,82 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Splits an index range [from, to) into halves until the pieces are no
+ * larger than the grain size and runs a kernel on each piece.
+ *
+ * The kernel must only write to the part of its output that belongs to
+ * its own range, so that no further synchronisation is required.
+ */
+final class RangeTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    interface Kernel {
+        void run(int from, int to);
+    }
+
+    private final Kernel kernel;
+    private final int from;
+    private final int to;
+    private final int grain;
+
+    private RangeTask(Kernel kernel, int from, int to, int grain) {
+        this.kernel = kernel;
+        this.from = from;
+        this.to = to;
+        this.grain = grain;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= grain) {
+            kernel.run(from, to);
+            return;
+        }
+
+        int mid = (from + to) >>> 1;
+        invokeAll(new RangeTask(kernel, from, mid, grain), new RangeTask(kernel, mid, to, grain));
+    }
+
+    /**
+     * Runs the kernel over [from, to) in the pool. Ranges no larger than
+     * the grain size are run directly in the calling thread.
+     *
+     * @param pool pool to run in
+     * @param from first index
+     * @param to index after the last one
+     * @param grain maximum size of a single piece
+     * @param kernel kernel to run
+     */
+    static void run(ForkJoinPool pool, int from, int to, int grain, Kernel kernel) {
+        if (to - from <= grain)
+            kernel.run(from, to);
+        else
+            pool.invoke(new RangeTask(kernel, from, to, grain));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Arrays;
+
+/**
+ * Symmetric successive over-relaxation preconditioner
+ * M = w / (2 - w) * (D / w + L) * (D / w)^-1 * (D / w + U),
+ * where D, L and U are the diagonal, strictly lower and strictly upper
+ * part of A.
+ *
+ * M is symmetric positive definite if A is, so this preconditioner can be
+ * used with the conjugate gradient method.
+ */
+public class SSORPreconditioner implements Preconditioner {
+
+    private final SparseMatrixd a;
+    private final int[] diagonal;
+    private final double omega;
+
+    /**
+     * @param a square matrix without zeros on its diagonal
+     * @param omega relaxation factor in (0, 2); 1 gives symmetric
+     *              Gauss-Seidel
+     */
+    public SSORPreconditioner(SparseMatrixd a, double omega) {
+        if (a.rows() != a.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+        if (!(omega > 0 && omega < 2))
+            throw new IllegalArgumentException("Relaxation factor must be in (0, 2)!");
+
+        this.a = a.toCSR();
+        this.omega = omega;
+        diagonal = diagonalPositions(this.a);
+    }
+
+    public SSORPreconditioner(SparseMatrixd a) {
+        this(a, 1);
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        final int n = z.length;
+        final int[] pointers = a.getPointers();
+        final int[] indices = a.getIndices();
+        final double[] values = a.getValues();
+
+        // (D / w + L) y = r
+        for (int i = 0; i < n; i++) {
+            double sum = r[i];
+            for (int k = pointers[i]; k < diagonal[i]; k++)
+                sum -= values[k] * z[indices[k]];
+            z[i] = sum * omega / values[diagonal[i]];
+        }
+        // (D / w + U) z = (2 - w) / w * (D / w) y
+        final double scale = (2 - omega) / omega;
+        for (int i = n - 1; i >= 0; i--) {
+            double d = values[diagonal[i]] / omega;
+            double sum = scale * d * z[i];
+            for (int k = diagonal[i] + 1; k < pointers[i + 1]; k++)
+                sum -= values[k] * z[indices[k]];
+            z[i] = sum / d;
+        }
+    }
+
+    public double getOmega() {
+        return omega;
+    }
+
+    /**
+     * Finds the position of the diagonal entry of each row of a CSR
+     * matrix.
+     */
+    static int[] diagonalPositions(SparseMatrixd a) {
+        final int[] pointers = a.getPointers();
+        final int[] indices = a.getIndices();
+        final double[] values = a.getValues();
+
+        int[] diagonal = new int[a.rows()];
+        for (int i = 0; i < diagonal.length; i++) {
+            int k = Arrays.binarySearch(indices, pointers[i], pointers[i + 1], i);
+            if (k < 0 || values[k] == 0)
+                throw new IllegalArgumentException("Matrix has a zero on its diagonal!");
+            diagonal[i] = k;
+        }
+        return diagonal;
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+/**
+ * Plain java implementations of the bulk array kernels.
+ *
+ * These loops are used by {@link VectorKernels} whenever no SIMD
+ * implementation is available. All kernels operate on the ranges
+ * [off, off + len) of their arrays. The destination may be one of
+ * the source arrays as long as the offsets are identical.
+ */
+@SuppressWarnings("Duplicates")
+final class ScalarKernels {
+
+    private ScalarKernels() {}
+
+    static void add(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] + b[bOff + i];
+    }
+
+    static void add(float[] a, int aOff, float s, float[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] + s;
+    }
+
+    static void sub(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] - b[bOff + i];
+    }
+
+    static void mul(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * b[bOff + i];
+    }
+
+    static void mul(float[] a, int aOff, float s, float[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * s;
+    }
+
+    static void fma(float[] a, int aOff, float s, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * s + b[bOff + i];
+    }
+
+    static float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        float sum = 0;
+        for (int i = 0; i < len; i++)
+            sum += a[aOff + i] * b[bOff + i];
+        return sum;
+    }
+
+    static void dot3(float[] ax, float[] ay, float[] az, float[] bx, float[] by, float[] bz,
+                     float[] dst, int off, int len) {
+        for (int i = off; i < off + len; i++)
+            dst[i] = (ax[i] * bx[i]) + (ay[i] * by[i]) + (az[i] * bz[i]);
+    }
+
+    static void cross3(float[] ax, float[] ay, float[] az, float[] bx, float[] by, float[] bz,
+                       float[] dx, float[] dy, float[] dz, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            float x = ax[i], y = ay[i], z = az[i];
+            float ox = bx[i], oy = by[i], oz = bz[i];
+
+            dx[i] = (y * oz) - (z * oy);
+            dy[i] = (z * ox) - (x * oz);
+            dz[i] = (x * oy) - (y * ox);
+        }
+    }
+
+    static void length3(float[] x, float[] y, float[] z, float[] dst, int off, int len) {
+        for (int i = off; i < off + len; i++)
+            dst[i] = (float) Math.sqrt((x[i] * x[i]) + (y[i] * y[i]) + (z[i] * z[i]));
+    }
+
+    static void normalize3(float[] x, float[] y, float[] z, float[] dx, float[] dy, float[] dz, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            float vx = x[i], vy = y[i], vz = z[i];
+            float length = (float) Math.sqrt((vx * vx) + (vy * vy) + (vz * vz));
+            if (length != 0) {
+                vx /= length;
+                vy /= length;
+                vz /= length;
+            }
+            dx[i] = vx;
+            dy[i] = vy;
+            dz[i] = vz;
+        }
+    }
+
+    static void add(double[] a, int aOff, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] + b[bOff + i];
+    }
+
+    static void add(double[] a, int aOff, double s, double[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] + s;
+    }
+
+    static void sub(double[] a, int aOff, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] - b[bOff + i];
+    }
+
+    static void mul(double[] a, int aOff, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * b[bOff + i];
+    }
+
+    static void mul(double[] a, int aOff, double s, double[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * s;
+    }
+
+    static void fma(double[] a, int aOff, double s, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        for (int i = 0; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * s + b[bOff + i];
+    }
+
+    static double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        double sum = 0;
+        for (int i = 0; i < len; i++)
+            sum += a[aOff + i] * b[bOff + i];
+        return sum;
+    }
+
+    static void dot3(double[] ax, double[] ay, double[] az, double[] bx, double[] by, double[] bz,
+                     double[] dst, int off, int len) {
+        for (int i = off; i < off + len; i++)
+            dst[i] = (ax[i] * bx[i]) + (ay[i] * by[i]) + (az[i] * bz[i]);
+    }
+
+    static void cross3(double[] ax, double[] ay, double[] az, double[] bx, double[] by, double[] bz,
+                       double[] dx, double[] dy, double[] dz, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            double x = ax[i], y = ay[i], z = az[i];
+            double ox = bx[i], oy = by[i], oz = bz[i];
+
+            dx[i] = (y * oz) - (z * oy);
+            dy[i] = (z * ox) - (x * oz);
+            dz[i] = (x * oy) - (y * ox);
+        }
+    }
+
+    static void length3(double[] x, double[] y, double[] z, double[] dst, int off, int len) {
+        for (int i = off; i < off + len; i++)
+            dst[i] = Math.sqrt((x[i] * x[i]) + (y[i] * y[i]) + (z[i] * z[i]));
+    }
+
+    static void normalize3(double[] x, double[] y, double[] z, double[] dx, double[] dy, double[] dz, int off, int len) {
+        for (int i = off; i < off + len; i++) {
+            double vx = x[i], vy = y[i], vz = z[i];
+            double length = Math.sqrt((vx * vx) + (vy * vy) + (vz * vz));
+            if (length != 0) {
+                vx /= length;
+                vy /= length;
+                vz /= length;
+            }
+            dx[i] = vx;
+            dy[i] = vy;
+            dz[i] = vz;
+        }
+    }
+}
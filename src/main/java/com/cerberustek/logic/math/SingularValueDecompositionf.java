@@ -0,0 +1,662 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Singular value decomposition A = U * S * V^T of an m x n matrix.
+ *
+ * The constructor uses Golub-Kahan bidiagonalization followed by
+ * implicit-shift QR iterations on the bidiagonal matrix. Alternatively,
+ * {@link #jacobi(Matrixxf, boolean)} uses one-sided Jacobi rotations of
+ * column pairs, which is accurate and simple for small matrices. Its
+ * rotations are ordered round-robin, so that the disjoint pairs of a
+ * round can be rotated in parallel.
+ *
+ * In thin mode, which is the default, U has only min(m, n) columns, so
+ * the full m x m matrix is never formed for tall matrices. The singular
+ * values are sorted in descending order.
+ *
+ * All column operations work on transposed copies, so that every column
+ * of A, U and V is contiguous in memory.
+ */
+@SuppressWarnings("Duplicates")
+public class SingularValueDecompositionf {
+
+    private static final float EPS = Math.ulp(1f);
+    private static final float TINY = Math.scalb(1f, -120);
+    /** Maximum number of QR iterations per singular value */
+    private static final int MAX_ITERATIONS = 75;
+    /** Maximum number of Jacobi sweeps */
+    private static final int MAX_SWEEPS = 60;
+
+    private final int rows;
+    private final int columns;
+    private final float[] sigma;
+    private final Matrixxf u;
+    private final Matrixxf v;
+
+    public SingularValueDecompositionf(Matrixxf a) {
+        this(a, true);
+    }
+
+    /**
+     * @param a matrix to decompose
+     * @param thin true to compute only the first min(m, n) columns of U
+     *             and V, false for the square U and V
+     */
+    public SingularValueDecompositionf(Matrixxf a, boolean thin) {
+        rows = a.rows();
+        columns = a.columns();
+
+        // the algorithm requires m >= n, otherwise decompose A^T
+        boolean transposed = rows < columns;
+        final int m = Math.max(rows, columns);
+        final int n = Math.min(rows, columns);
+        final int nu = thin ? n : m;
+
+        // at holds the columns of the tall matrix as rows
+        float[] at = (transposed ? a : a.transpose()).copy().data;
+        float[] s = new float[n];
+        float[] ut = new float[nu * m];
+        float[] vt = new float[n * n];
+        if (n > 0)
+            bidiagonalize(at, s, ut, vt, m, n, nu);
+
+        sigma = s;
+        Matrixxf uTall = new Matrixxf(ut, 0, m, nu, 1, m).copy();
+        Matrixxf vTall = new Matrixxf(vt, 0, n, n, 1, n).copy();
+        if (transposed) {
+            u = vTall;
+            v = uTall;
+        } else {
+            u = uTall;
+            v = vTall;
+        }
+    }
+
+    private SingularValueDecompositionf(int rows, int columns, float[] sigma, Matrixxf u, Matrixxf v) {
+        this.rows = rows;
+        this.columns = columns;
+        this.sigma = sigma;
+        this.u = u;
+        this.v = v;
+    }
+
+    /**
+     * Golub-Kahan-Reinsch SVD of the tall m x n matrix whose columns are
+     * stored as the rows of at. Column j of U and V is written to row j
+     * of ut and vt.
+     */
+    private static void bidiagonalize(float[] at, float[] s, float[] ut, float[] vt, int m, int n, int nu) {
+        float[] e = new float[n];
+        float[] work = new float[m];
+
+        // reduce A to bidiagonal form, storing the diagonal in s and the
+        // super diagonal in e
+        int nct = Math.min(m - 1, n);
+        int nrt = Math.max(0, Math.min(n - 2, m));
+        for (int k = 0; k < Math.max(nct, nrt); k++) {
+            int colK = k * m;
+            if (k < nct) {
+                // compute the transformation for the k-th column
+                s[k] = 0;
+                for (int i = k; i < m; i++)
+                    s[k] = (float) Math.hypot(s[k], at[colK + i]);
+                if (s[k] != 0) {
+                    if (at[colK + k] < 0)
+                        s[k] = -s[k];
+                    VectorKernels.mul(at, colK + k, 1 / s[k], at, colK + k, m - k);
+                    at[colK + k] += 1;
+                }
+                s[k] = -s[k];
+            }
+            for (int j = k + 1; j < n; j++) {
+                int colJ = j * m;
+                if (k < nct && s[k] != 0) {
+                    // apply the transformation
+                    float t = -VectorKernels.dot(at, colK + k, at, colJ + k, m - k) / at[colK + k];
+                    VectorKernels.fma(at, colK + k, t, at, colJ + k, at, colJ + k, m - k);
+                }
+                // keep the k-th row for the row transformation
+                e[j] = at[colJ + k];
+            }
+            if (k < nct) {
+                // keep the transformation for the back multiplication
+                System.arraycopy(at, colK + k, ut, colK + k, m - k);
+            }
+            if (k < nrt) {
+                // compute the k-th row transformation
+                e[k] = 0;
+                for (int i = k + 1; i < n; i++)
+                    e[k] = (float) Math.hypot(e[k], e[i]);
+                if (e[k] != 0) {
+                    if (e[k + 1] < 0)
+                        e[k] = -e[k];
+                    for (int i = k + 1; i < n; i++)
+                        e[i] /= e[k];
+                    e[k + 1] += 1;
+                }
+                e[k] = -e[k];
+                if (k + 1 < m && e[k] != 0) {
+                    // apply the transformation
+                    for (int i = k + 1; i < m; i++)
+                        work[i] = 0;
+                    for (int j = k + 1; j < n; j++)
+                        VectorKernels.fma(at, j * m + k + 1, e[j], work, k + 1, work, k + 1, m - k - 1);
+                    for (int j = k + 1; j < n; j++)
+                        VectorKernels.fma(work, k + 1, -e[j] / e[k + 1], at, j * m + k + 1, at, j * m + k + 1, m - k - 1);
+                }
+                // keep the transformation for the back multiplication
+                for (int i = k + 1; i < n; i++)
+                    vt[k * n + i] = e[i];
+            }
+        }
+
+        // set up the final bidiagonal matrix of order p
+        int p = n;
+        if (nct < n)
+            s[nct] = at[nct * m + nct];
+        if (m < p)
+            s[p - 1] = 0;
+        if (nrt + 1 < p)
+            e[nrt] = at[(p - 1) * m + nrt];
+        e[p - 1] = 0;
+
+        // generate U
+        for (int j = nct; j < nu; j++) {
+            for (int i = 0; i < m; i++)
+                ut[j * m + i] = 0;
+            ut[j * m + j] = 1;
+        }
+        for (int k = nct - 1; k >= 0; k--) {
+            int colK = k * m;
+            if (s[k] != 0) {
+                for (int j = k + 1; j < nu; j++) {
+                    int colJ = j * m;
+                    float t = -VectorKernels.dot(ut, colK + k, ut, colJ + k, m - k) / ut[colK + k];
+                    VectorKernels.fma(ut, colK + k, t, ut, colJ + k, ut, colJ + k, m - k);
+                }
+                for (int i = k; i < m; i++)
+                    ut[colK + i] = -ut[colK + i];
+                ut[colK + k] += 1;
+                for (int i = 0; i < k; i++)
+                    ut[colK + i] = 0;
+            } else {
+                for (int i = 0; i < m; i++)
+                    ut[colK + i] = 0;
+                ut[colK + k] = 1;
+            }
+        }
+
+        // generate V
+        for (int k = n - 1; k >= 0; k--) {
+            int colK = k * n;
+            if (k < nrt && e[k] != 0) {
+                for (int j = k + 1; j < n; j++) {
+                    int colJ = j * n;
+                    float t = -VectorKernels.dot(vt, colK + k + 1, vt, colJ + k + 1, n - k - 1) / vt[colK + k + 1];
+                    VectorKernels.fma(vt, colK + k + 1, t, vt, colJ + k + 1, vt, colJ + k + 1, n - k - 1);
+                }
+            }
+            for (int i = 0; i < n; i++)
+                vt[colK + i] = 0;
+            vt[colK + k] = 1;
+        }
+
+        // main iteration loop for the singular values
+        int pp = p - 1;
+        int iteration = 0;
+        while (p > 0) {
+            // inspect for negligible elements in the s and e arrays:
+            // kase = 1 if s(p) and e[k - 1] are negligible and k < p
+            // kase = 2 if s(k) is negligible and k < p
+            // kase = 3 if e[k - 1] is negligible, k < p, and
+            //          s(k), ..., s(p) are not negligible (qr step)
+            // kase = 4 if e(p - 1) is negligible (convergence)
+            int k;
+            int kase;
+            for (k = p - 2; k >= 0; k--) {
+                if (Math.abs(e[k]) <= TINY + EPS * (Math.abs(s[k]) + Math.abs(s[k + 1]))) {
+                    e[k] = 0;
+                    break;
+                }
+            }
+            if (k == p - 2) {
+                kase = 4;
+            } else {
+                int ks;
+                for (ks = p - 1; ks > k; ks--) {
+                    float t = (ks != p ? Math.abs(e[ks]) : 0) + (ks != k + 1 ? Math.abs(e[ks - 1]) : 0);
+                    if (Math.abs(s[ks]) <= TINY + EPS * t) {
+                        s[ks] = 0;
+                        break;
+                    }
+                }
+                if (ks == k) {
+                    kase = 3;
+                } else if (ks == p - 1) {
+                    kase = 1;
+                } else {
+                    kase = 2;
+                    k = ks;
+                }
+            }
+            k++;
+
+            switch (kase) {
+                case 1: {
+                    // deflate negligible s(p)
+                    float f = e[p - 2];
+                    e[p - 2] = 0;
+                    for (int j = p - 2; j >= k; j--) {
+                        float t = (float) Math.hypot(s[j], f);
+                        float cs = s[j] / t;
+                        float sn = f / t;
+                        s[j] = t;
+                        if (j != k) {
+                            f = -sn * e[j - 1];
+                            e[j - 1] = cs * e[j - 1];
+                        }
+                        rotate(vt, j * n, (p - 1) * n, n, cs, sn);
+                    }
+                    break;
+                }
+                case 2: {
+                    // split at negligible s(k)
+                    float f = e[k - 1];
+                    e[k - 1] = 0;
+                    for (int j = k; j < p; j++) {
+                        float t = (float) Math.hypot(s[j], f);
+                        float cs = s[j] / t;
+                        float sn = f / t;
+                        s[j] = t;
+                        f = -sn * e[j];
+                        e[j] = cs * e[j];
+                        rotate(ut, j * m, (k - 1) * m, m, cs, sn);
+                    }
+                    break;
+                }
+                case 3: {
+                    if (++iteration > MAX_ITERATIONS)
+                        throw new IllegalStateException("Singular value iteration did not converge");
+
+                    // calculate the shift
+                    float scale = Math.max(Math.max(Math.max(Math.max(Math.abs(s[p - 1]), Math.abs(s[p - 2])),
+                            Math.abs(e[p - 2])), Math.abs(s[k])), Math.abs(e[k]));
+                    float sp = s[p - 1] / scale;
+                    float spm1 = s[p - 2] / scale;
+                    float epm1 = e[p - 2] / scale;
+                    float sk = s[k] / scale;
+                    float ek = e[k] / scale;
+                    float b = ((spm1 + sp) * (spm1 - sp) + epm1 * epm1) / 2;
+                    float c = (sp * epm1) * (sp * epm1);
+                    float shift = 0;
+                    if (b != 0 || c != 0) {
+                        shift = (float) Math.sqrt(b * b + c);
+                        if (b < 0)
+                            shift = -shift;
+                        shift = c / (b + shift);
+                    }
+                    float f = (sk + sp) * (sk - sp) + shift;
+                    float g = sk * ek;
+
+                    // chase zeros
+                    for (int j = k; j < p - 1; j++) {
+                        float t = (float) Math.hypot(f, g);
+                        float cs = f / t;
+                        float sn = g / t;
+                        if (j != k)
+                            e[j - 1] = t;
+                        f = cs * s[j] + sn * e[j];
+                        e[j] = cs * e[j] - sn * s[j];
+                        g = sn * s[j + 1];
+                        s[j + 1] = cs * s[j + 1];
+                        rotate(vt, j * n, (j + 1) * n, n, cs, sn);
+
+                        t = (float) Math.hypot(f, g);
+                        cs = f / t;
+                        sn = g / t;
+                        s[j] = t;
+                        f = cs * e[j] + sn * s[j + 1];
+                        s[j + 1] = -sn * e[j] + cs * s[j + 1];
+                        g = sn * e[j + 1];
+                        e[j + 1] = cs * e[j + 1];
+                        if (j < m - 1)
+                            rotate(ut, j * m, (j + 1) * m, m, cs, sn);
+                    }
+                    e[p - 2] = f;
+                    break;
+                }
+                default: {
+                    // convergence: make the singular value positive
+                    if (s[k] <= 0) {
+                        s[k] = s[k] < 0 ? -s[k] : 0;
+                        VectorKernels.mul(vt, k * n, -1, vt, k * n, n);
+                    }
+
+                    // order the singular values
+                    while (k < pp && s[k] < s[k + 1]) {
+                        float t = s[k];
+                        s[k] = s[k + 1];
+                        s[k + 1] = t;
+                        swap(vt, k * n, (k + 1) * n, n);
+                        swap(ut, k * m, (k + 1) * m, m);
+                        k++;
+                    }
+                    iteration = 0;
+                    p--;
+                }
+            }
+        }
+    }
+
+    /**
+     * Rotates two rows: x' = c * x + s * y, y' = c * y - s * x.
+     */
+    private static void rotate(float[] data, int x, int y, int len, float c, float s) {
+        for (int i = 0; i < len; i++) {
+            float a = data[x + i];
+            float b = data[y + i];
+            data[x + i] = c * a + s * b;
+            data[y + i] = c * b - s * a;
+        }
+    }
+
+    private static void swap(float[] data, int x, int y, int len) {
+        for (int i = 0; i < len; i++) {
+            float buffer = data[x + i];
+            data[x + i] = data[y + i];
+            data[y + i] = buffer;
+        }
+    }
+
+    /**
+     * Computes the thin decomposition with one-sided Jacobi rotations.
+     * Large matrices are rotated in the MatrixParallelism pool.
+     * @param a matrix to decompose
+     * @return singular value decomposition
+     */
+    public static SingularValueDecompositionf jacobi(Matrixxf a) {
+        return jacobi(a, true);
+    }
+
+    public static SingularValueDecompositionf jacobi(Matrixxf a, boolean thin) {
+        return jacobi(a, thin, MatrixParallelism.pool((long) a.rows() * a.columns()));
+    }
+
+    /**
+     * Computes the decomposition with one-sided Jacobi rotations.
+     *
+     * Pairs of columns are rotated until they are orthogonal. A rotation
+     * is skipped if |a_p . a_q| <= eps * |a_p| * |a_q|, and the iteration
+     * ends after the first sweep without rotations. The norms of the
+     * resulting columns are the singular values.
+     * @param a matrix to decompose
+     * @param thin true to compute only the first min(m, n) columns of U
+     *             and V, false for the square U and V
+     * @param pool pool to run the rotations of each round in, or null to
+     *             run them in the calling thread
+     * @return singular value decomposition
+     */
+    public static SingularValueDecompositionf jacobi(Matrixxf a, boolean thin, ForkJoinPool pool) {
+        final boolean transposed = a.rows() < a.columns();
+        final int m = Math.max(a.rows(), a.columns());
+        final int n = Math.min(a.rows(), a.columns());
+        final int nu = thin ? n : m;
+
+        // rows of ut are the columns of the tall matrix, rows of vt the
+        // columns of V
+        final float[] ut = new float[nu * m];
+        System.arraycopy((transposed ? a : a.transpose()).copy().data, 0, ut, 0, n * m);
+        final float[] vt = CerberusMath.diag(n).data;
+
+        final int players = n + (n & 1);
+        final int pairCount = players / 2;
+        int[] order = new int[players];
+        for (int i = 0; i < players; i++)
+            order[i] = i;
+        final int[] ps = new int[pairCount];
+        final int[] qs = new int[pairCount];
+        final boolean[] rotated = new boolean[pairCount];
+
+        RangeTask.Kernel kernel = (from, to) -> {
+            for (int k = from; k < to; k++) {
+                int p = ps[k];
+                int q = qs[k];
+                float alpha = VectorKernels.dot(ut, p * m, ut, p * m, m);
+                float beta = VectorKernels.dot(ut, q * m, ut, q * m, m);
+                float gamma = VectorKernels.dot(ut, p * m, ut, q * m, m);
+                if (Math.abs(gamma) <= EPS * (float) Math.sqrt(alpha * beta) || gamma == 0) {
+                    rotated[k] = false;
+                    continue;
+                }
+
+                float zeta = (beta - alpha) / (2 * gamma);
+                float t = Math.abs(zeta) > 1e18f ? 1 / (2 * zeta)
+                        : Math.signum(zeta == 0 ? 1 : zeta) / (Math.abs(zeta) + (float) Math.sqrt(1 + zeta * zeta));
+                float c = 1 / (float) Math.sqrt(1 + t * t);
+                float s = c * t;
+                rotate(ut, p * m, q * m, m, c, -s);
+                rotate(vt, p * n, q * n, n, c, -s);
+                rotated[k] = true;
+            }
+        };
+
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            boolean any = false;
+            for (int round = 0; round < players - 1; round++) {
+                int count = 0;
+                for (int i = 0; i < pairCount; i++) {
+                    int p = order[i];
+                    int q = order[players - 1 - i];
+                    if (p < n && q < n) {
+                        ps[count] = Math.min(p, q);
+                        qs[count] = Math.max(p, q);
+                        count++;
+                    }
+                }
+
+                // advance the schedule, keeping the first index fixed
+                int last = order[players - 1];
+                System.arraycopy(order, 1, order, 2, players - 2);
+                order[1] = last;
+
+                if (pool == null)
+                    kernel.run(0, count);
+                else
+                    RangeTask.run(pool, 0, count, Math.max(1, MatrixParallelism.GRAIN / Math.max(1, m)), kernel);
+                for (int k = 0; k < count; k++)
+                    any |= rotated[k];
+            }
+            if (!any)
+                break;
+        }
+
+        // the column norms are the singular values, the normalized
+        // columns the left singular vectors
+        float[] sigma = new float[n];
+        boolean[] missing = new boolean[nu];
+        for (int j = 0; j < n; j++) {
+            sigma[j] = (float) Math.sqrt(VectorKernels.dot(ut, j * m, ut, j * m, m));
+            if (sigma[j] != 0)
+                VectorKernels.mul(ut, j * m, 1 / sigma[j], ut, j * m, m);
+            else
+                missing[j] = true;
+        }
+        for (int j = n; j < nu; j++)
+            missing[j] = true;
+
+        // order the singular values
+        for (int i = 0; i < n - 1; i++) {
+            int k = i;
+            for (int j = i + 1; j < n; j++) {
+                if (sigma[j] > sigma[k])
+                    k = j;
+            }
+            if (k != i) {
+                float t = sigma[k];
+                sigma[k] = sigma[i];
+                sigma[i] = t;
+                boolean flag = missing[k];
+                missing[k] = missing[i];
+                missing[i] = flag;
+                swap(ut, i * m, k * m, m);
+                swap(vt, i * n, k * n, n);
+            }
+        }
+        complete(ut, m, nu, missing);
+
+        Matrixxf uTall = new Matrixxf(ut, 0, m, nu, 1, m).copy();
+        Matrixxf vTall = new Matrixxf(vt, 0, n, n, 1, n).copy();
+        return transposed ? new SingularValueDecompositionf(a.rows(), a.columns(), sigma, vTall, uTall)
+                : new SingularValueDecompositionf(a.rows(), a.columns(), sigma, uTall, vTall);
+    }
+
+    /**
+     * Replaces the missing rows of the count x m matrix ut with unit
+     * vectors orthogonal to all other rows, using Gram-Schmidt on the
+     * unit vectors e_0, e_1, ...
+     */
+    private static void complete(float[] ut, int m, int count, boolean[] missing) {
+        int candidate = 0;
+        float[] w = new float[m];
+        for (int j = 0; j < count; j++) {
+            if (!missing[j])
+                continue;
+
+            while (candidate < m) {
+                java.util.Arrays.fill(w, 0);
+                w[candidate++] = 1;
+                // orthogonalize twice for numerical stability
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int r = 0; r < count; r++) {
+                        if (r != j && !missing[r])
+                            VectorKernels.fma(ut, r * m, -VectorKernels.dot(ut, r * m, w, 0, m), w, 0, w, 0, m);
+                    }
+                }
+                float norm = (float) Math.sqrt(VectorKernels.dot(w, 0, w, 0, m));
+                // after two passes even a small remainder is orthogonal
+                // to working precision
+                if (norm > 1e-2f) {
+                    VectorKernels.mul(w, 0, 1 / norm, ut, j * m, m);
+                    missing[j] = false;
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return copy of the singular values in descending order
+     */
+    public float[] getSingularValues() {
+        return sigma.clone();
+    }
+
+    /**
+     * @return copy of the left singular vectors as columns
+     */
+    public Matrixxf getU() {
+        return u.copy();
+    }
+
+    /**
+     * @return copy of the right singular vectors as columns
+     */
+    public Matrixxf getV() {
+        return v.copy();
+    }
+
+    /**
+     * @return matrix S with the singular values on its diagonal, shaped
+     *          so that A = U * S * V^T
+     */
+    public Matrixxf getS() {
+        Matrixxf out = new Matrixxf(u.columns(), v.columns());
+        for (int i = 0; i < sigma.length; i++)
+            out.set(i, i, sigma[i]);
+        return out;
+    }
+
+    /**
+     * @return two norm, the largest singular value
+     */
+    public float norm2() {
+        return sigma.length == 0 ? 0 : sigma[0];
+    }
+
+    /**
+     * @return two norm condition number, the ratio of the largest and the
+     *          smallest singular value
+     */
+    public float cond() {
+        return sigma.length == 0 ? 0 : sigma[0] / sigma[sigma.length - 1];
+    }
+
+    private float tolerance() {
+        return Math.max(rows, columns) * norm2() * EPS;
+    }
+
+    /**
+     * @return number of singular values that are larger than
+     *          max(m, n) * sigma_0 * eps
+     */
+    public int rank() {
+        return rank(tolerance());
+    }
+
+    /**
+     * @param tolerance singular values up to this value count as zero
+     * @return number of singular values that are larger than the tolerance
+     */
+    public int rank(float tolerance) {
+        int rank = 0;
+        for (float value : sigma) {
+            if (value > tolerance)
+                rank++;
+        }
+        return rank;
+    }
+
+    /**
+     * Computes the Moore-Penrose pseudo-inverse V * S^+ * U^T. Singular
+     * values up to max(m, n) * sigma_0 * eps are treated as zero.
+     * @return n x m pseudo-inverse
+     */
+    public Matrixxf pseudoInverse() {
+        final int k = sigma.length;
+        final float tolerance = tolerance();
+        Matrixxf scaled = v.subMatrix(0, 0, columns, k).copy();
+        for (int j = 0; j < k; j++) {
+            float factor = sigma[j] > tolerance ? 1 / sigma[j] : 0;
+            for (int i = 0; i < columns; i++)
+                scaled.data[i * k + j] *= factor;
+        }
+
+        Matrixxf out = new Matrixxf(columns, rows);
+        Gemm.gemm(1, scaled, u.subMatrix(0, 0, rows, k).transpose(), 0, out);
+        return out;
+    }
+}
@@ -0,0 +1,474 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Sparse matrix in compressed sparse row (CSR) or compressed sparse
+ * column (CSC) format.
+ *
+ * In CSR format, the entries of row i are stored at the positions
+ * pointers[i] .. pointers[i + 1] - 1 of indices, which holds their
+ * column indices in ascending order, and values. CSC stores columns the
+ * same way. The transpose of a CSR matrix is the CSC matrix with the
+ * same arrays and vice versa, so transposing is free.
+ *
+ * Matrices are assembled with a {@link Builder}. Products with dense
+ * vectors and matrices run in the MatrixParallelism pool by blocks of
+ * rows if the matrix has enough nonzero entries.
+ */
+@SuppressWarnings("Duplicates")
+public class SparseMatrixd implements LinearOperator {
+
+    public enum Format {
+        CSR, CSC
+    }
+
+    private final int rows;
+    private final int columns;
+    private final Format format;
+    private final int[] pointers;
+    private final int[] indices;
+    private final double[] values;
+    /** CSR copy of a CSC matrix for parallel products, built on demand */
+    private volatile SparseMatrixd rowMajor;
+
+    /**
+     * Creates a sparse matrix from compressed arrays. The arrays are not
+     * copied.
+     * @param rows number of rows
+     * @param columns number of columns
+     * @param format storage format
+     * @param pointers start of each row (CSR) or column (CSC), followed
+     *                 by the number of entries
+     * @param indices column (CSR) or row (CSC) index of each entry,
+     *                ascending within each row or column
+     * @param values value of each entry
+     */
+    public SparseMatrixd(int rows, int columns, Format format, int[] pointers, int[] indices, double[] values) {
+        int major = format == Format.CSR ? rows : columns;
+        if (rows < 0 || columns < 0 || pointers.length != major + 1 || pointers[0] != 0
+                || indices.length < pointers[major] || values.length < pointers[major])
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        this.rows = rows;
+        this.columns = columns;
+        this.format = format;
+        this.pointers = pointers;
+        this.indices = indices;
+        this.values = values;
+    }
+
+    public static Builder builder(int rows, int columns) {
+        return new Builder(rows, columns);
+    }
+
+    /**
+     * Creates a CSR matrix from the nonzero entries of a dense matrix.
+     * @param m dense matrix
+     * @return sparse matrix
+     */
+    public static SparseMatrixd fromDense(Matrixxd m) {
+        int[] pointers = new int[m.rows() + 1];
+        for (int i = 0; i < m.rows(); i++) {
+            int count = 0;
+            for (int j = 0; j < m.columns(); j++) {
+                if (m.get(i, j) != 0)
+                    count++;
+            }
+            pointers[i + 1] = pointers[i] + count;
+        }
+
+        int[] indices = new int[pointers[m.rows()]];
+        double[] values = new double[indices.length];
+        int k = 0;
+        for (int i = 0; i < m.rows(); i++) {
+            for (int j = 0; j < m.columns(); j++) {
+                double value = m.get(i, j);
+                if (value != 0) {
+                    indices[k] = j;
+                    values[k++] = value;
+                }
+            }
+        }
+        return new SparseMatrixd(m.rows(), m.columns(), Format.CSR, pointers, indices, values);
+    }
+
+    public Matrixxd toDense() {
+        Matrixxd out = new Matrixxd(rows, columns);
+        for (int major = 0; major < pointers.length - 1; major++) {
+            for (int k = pointers[major]; k < pointers[major + 1]; k++) {
+                if (format == Format.CSR)
+                    out.data[major * columns + indices[k]] += values[k];
+                else
+                    out.data[indices[k] * columns + major] += values[k];
+            }
+        }
+        return out;
+    }
+
+    /**
+     * @return this matrix in CSR format, which is this matrix itself if
+     *          it is already stored that way
+     */
+    public SparseMatrixd toCSR() {
+        return format == Format.CSR ? this : convert();
+    }
+
+    /**
+     * @return this matrix in CSC format, which is this matrix itself if
+     *          it is already stored that way
+     */
+    public SparseMatrixd toCSC() {
+        return format == Format.CSC ? this : convert();
+    }
+
+    /**
+     * Switches between CSR and CSC with a counting sort over the minor
+     * indices, which keeps the new minor indices sorted.
+     */
+    private SparseMatrixd convert() {
+        final int major = pointers.length - 1;
+        final int minor = format == Format.CSR ? columns : rows;
+        final int nnz = pointers[major];
+
+        int[] newPointers = new int[minor + 1];
+        for (int k = 0; k < nnz; k++)
+            newPointers[indices[k] + 1]++;
+        for (int i = 0; i < minor; i++)
+            newPointers[i + 1] += newPointers[i];
+
+        int[] next = Arrays.copyOf(newPointers, minor);
+        int[] newIndices = new int[nnz];
+        double[] newValues = new double[nnz];
+        for (int i = 0; i < major; i++) {
+            for (int k = pointers[i]; k < pointers[i + 1]; k++) {
+                int position = next[indices[k]]++;
+                newIndices[position] = i;
+                newValues[position] = values[k];
+            }
+        }
+        return new SparseMatrixd(rows, columns, format == Format.CSR ? Format.CSC : Format.CSR,
+                newPointers, newIndices, newValues);
+    }
+
+    /**
+     * @return transposed matrix sharing the arrays of this matrix
+     */
+    public SparseMatrixd transpose() {
+        return new SparseMatrixd(columns, rows, format == Format.CSR ? Format.CSC : Format.CSR,
+                pointers, indices, values);
+    }
+
+    public double get(int row, int column) {
+        if (row < 0 || row >= rows || column < 0 || column >= columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        int major = format == Format.CSR ? row : column;
+        int minor = format == Format.CSR ? column : row;
+        int k = Arrays.binarySearch(indices, pointers[major], pointers[major + 1], minor);
+        return k >= 0 ? values[k] : 0;
+    }
+
+    /**
+     * Computes y = A * x.
+     * @param x vector with one entry per column
+     * @return vector with one entry per row
+     */
+    public double[] mul(double[] x) {
+        return mul(x, new double[rows]);
+    }
+
+    /**
+     * Computes y = A * x. x and y must not be the same array.
+     *
+     * Products below the MatrixParallelism threshold allocate nothing.
+     * Parallel products allocate their fork/join tasks on every call.
+     * @param x vector with one entry per column
+     * @param y vector with one entry per row
+     * @return y
+     */
+    public double[] mul(double[] x, double[] y) {
+        if (x.length != columns || y.length != rows)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        ForkJoinPool pool = MatrixParallelism.pool(nonZeros());
+        if (format == Format.CSC) {
+            if (pool != null)
+                return rowMajor().mul(x, y);
+
+            Arrays.fill(y, 0);
+            for (int j = 0; j < columns; j++) {
+                double xj = x[j];
+                for (int k = pointers[j]; k < pointers[j + 1]; k++)
+                    y[indices[k]] += values[k] * xj;
+            }
+        } else if (pool == null) {
+            rowProduct(x, y, 0, rows);
+        } else {
+            RangeTask.run(pool, 0, rows, grain(), (from, to) -> rowProduct(x, y, from, to));
+        }
+        return y;
+    }
+
+    private void rowProduct(double[] x, double[] y, int from, int to) {
+        for (int i = from; i < to; i++) {
+            double sum = 0;
+            for (int k = pointers[i]; k < pointers[i + 1]; k++)
+                sum += values[k] * x[indices[k]];
+            y[i] = sum;
+        }
+    }
+
+    @Override
+    public void apply(double[] x, double[] y) {
+        mul(x, y);
+    }
+
+    /**
+     * Computes A * B for a dense matrix B.
+     * @param b dense matrix with one row per column of A
+     * @return dense product
+     */
+    public Matrixxd mul(Matrixxd b) {
+        if (b.rows() != columns)
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        ForkJoinPool pool = MatrixParallelism.pool(nonZeros());
+        if (format == Format.CSC && pool != null)
+            return rowMajor().mul(b);
+
+        final int n = b.columns();
+        final Matrixxd out = new Matrixxd(rows, n);
+        final Matrixxd packed = b.isContiguous() ? b : b.copy();
+        final double[] bd = packed.data;
+        final int bOff = packed.offset;
+
+        if (format == Format.CSC) {
+            for (int j = 0; j < columns; j++) {
+                for (int k = pointers[j]; k < pointers[j + 1]; k++) {
+                    int row = indices[k] * n;
+                    VectorKernels.fma(bd, bOff + j * n, values[k], out.data, row, out.data, row, n);
+                }
+            }
+        } else if (pool == null) {
+            rowProduct(bd, bOff, n, out.data, 0, rows);
+        } else {
+            RangeTask.run(pool, 0, rows, grain(), (from, to) -> rowProduct(bd, bOff, n, out.data, from, to));
+        }
+        return out;
+    }
+
+    private void rowProduct(double[] b, int bOff, int n, double[] out, int from, int to) {
+        for (int i = from; i < to; i++) {
+            for (int k = pointers[i]; k < pointers[i + 1]; k++)
+                VectorKernels.fma(b, bOff + indices[k] * n, values[k], out, i * n, out, i * n, n);
+        }
+    }
+
+    /**
+     * Returns the CSR copy of a CSC matrix that parallel products run on.
+     * Splitting a CSC product by rows would touch every column once per
+     * block, so the copy is built on the first parallel product and kept.
+     */
+    private SparseMatrixd rowMajor() {
+        SparseMatrixd csr = rowMajor;
+        if (csr == null) {
+            csr = convert();
+            rowMajor = csr;
+        }
+        return csr;
+    }
+
+    /**
+     * @return number of rows per parallel block, so that each block holds
+     *          about MatrixParallelism.GRAIN entries on average
+     */
+    private int grain() {
+        return (int) Math.max(1, (long) MatrixParallelism.GRAIN * rows / Math.max(1, nonZeros()));
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int columns() {
+        return columns;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * @return number of stored entries
+     */
+    public int nonZeros() {
+        return pointers[pointers.length - 1];
+    }
+
+    public int[] getPointers() {
+        return pointers;
+    }
+
+    public int[] getIndices() {
+        return indices;
+    }
+
+    public double[] getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "SparseMatrixd{" + rows + "x" + columns + ", " + format + ", nonZeros=" + nonZeros() + '}';
+    }
+
+    /**
+     * Collects entries in coordinate (COO) format. Entries may be added in
+     * any order, and entries added more than once for the same position
+     * are summed up, as is common when assembling finite element systems.
+     */
+    public static class Builder {
+
+        private final int rows;
+        private final int columns;
+        private int[] entryRows;
+        private int[] entryColumns;
+        private double[] entryValues;
+        private int size;
+
+        public Builder(int rows, int columns) {
+            if (rows < 0 || columns < 0)
+                throw new IllegalArgumentException("Invalid matrix format!");
+
+            this.rows = rows;
+            this.columns = columns;
+            entryRows = new int[16];
+            entryColumns = new int[16];
+            entryValues = new double[16];
+        }
+
+        /**
+         * Adds a value to the entry at the specified position.
+         * @param row row index
+         * @param column column index
+         * @param value value to add
+         * @return this
+         */
+        public Builder add(int row, int column, double value) {
+            if (row < 0 || row >= rows || column < 0 || column >= columns)
+                throw new IllegalArgumentException("Invalid matrix format!");
+
+            if (size == entryRows.length) {
+                int capacity = size * 2;
+                entryRows = Arrays.copyOf(entryRows, capacity);
+                entryColumns = Arrays.copyOf(entryColumns, capacity);
+                entryValues = Arrays.copyOf(entryValues, capacity);
+            }
+            entryRows[size] = row;
+            entryColumns[size] = column;
+            entryValues[size] = value;
+            size++;
+            return this;
+        }
+
+        /**
+         * @return number of entries added so far, including duplicates
+         */
+        public int size() {
+            return size;
+        }
+
+        public SparseMatrixd build() {
+            return build(Format.CSR);
+        }
+
+        /**
+         * Builds the matrix in the specified format. The entries are
+         * sorted with two counting sorts, first by the minor and then by
+         * the major index, and duplicates are summed up.
+         * @param format storage format
+         * @return sparse matrix
+         */
+        public SparseMatrixd build(Format format) {
+            final boolean csr = format == Format.CSR;
+            final int[] majors = csr ? entryRows : entryColumns;
+            final int[] minors = csr ? entryColumns : entryRows;
+            final int majorCount = csr ? rows : columns;
+            final int minorCount = csr ? columns : rows;
+
+            // sort by minor index
+            int[] byMinor = sortedOrder(minors, minorCount, null);
+            // stable sort by major index
+            int[] order = sortedOrder(majors, majorCount, byMinor);
+
+            // compact, summing up duplicates
+            int[] pointers = new int[majorCount + 1];
+            int[] indices = new int[size];
+            double[] values = new double[size];
+            int count = 0;
+            int previousMajor = -1;
+            int previousMinor = -1;
+            for (int k = 0; k < size; k++) {
+                int e = order[k];
+                if (majors[e] == previousMajor && minors[e] == previousMinor) {
+                    values[count - 1] += entryValues[e];
+                } else {
+                    indices[count] = minors[e];
+                    values[count] = entryValues[e];
+                    pointers[majors[e] + 1]++;
+                    previousMajor = majors[e];
+                    previousMinor = minors[e];
+                    count++;
+                }
+            }
+            for (int i = 0; i < majorCount; i++)
+                pointers[i + 1] += pointers[i];
+
+            return new SparseMatrixd(rows, columns, format, pointers,
+                    Arrays.copyOf(indices, count), Arrays.copyOf(values, count));
+        }
+
+        /**
+         * Stable counting sort of the entries in the given order (or in
+         * insertion order if null) by the specified keys.
+         */
+        private int[] sortedOrder(int[] keys, int keyCount, int[] input) {
+            int[] start = new int[keyCount + 1];
+            for (int k = 0; k < size; k++)
+                start[keys[k] + 1]++;
+            for (int i = 0; i < keyCount; i++)
+                start[i + 1] += start[i];
+
+            int[] out = new int[size];
+            for (int k = 0; k < size; k++) {
+                int e = input == null ? k : input[k];
+                out[start[keys[e]]++] = e;
+            }
+            return out;
+        }
+    }
+}
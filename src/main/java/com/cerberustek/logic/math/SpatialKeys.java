@@ -0,0 +1,420 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Objects;
+
+/**
+ * Morton (Z-order) and Hilbert keys for integer grid coordinates.
+ *
+ * Sorting coordinates by these keys keeps cells that are close in space
+ * close in memory. 2D keys use all 32 bits of both coordinates. 3D keys
+ * use 21 bits per axis, so coordinates must lie in [-2^20, 2^20) and are
+ * wrapped otherwise. In both cases the coordinates are biased so that
+ * negative values sort before positive ones.
+ *
+ * Bulk methods work on interleaved coordinates, i.e. x, y for 2D and
+ * x, y, z for 3D.
+ */
+public final class SpatialKeys {
+
+    /** Bias that maps the signed 21 bit range to [0, 2^21) */
+    private static final int BIAS_3 = 1 << 20;
+    private static final long MASK_3 = 0x1FFFFFL;
+
+    private SpatialKeys() {}
+
+    private static long spread2(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    private static long compact2(long v) {
+        v &= 0x5555555555555555L;
+        v = (v ^ (v >>> 1)) & 0x3333333333333333L;
+        v = (v ^ (v >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v ^ (v >>> 4)) & 0x00FF00FF00FF00FFL;
+        v = (v ^ (v >>> 8)) & 0x0000FFFF0000FFFFL;
+        v = (v ^ (v >>> 16)) & 0x00000000FFFFFFFFL;
+        return v;
+    }
+
+    private static long spread3(long v) {
+        v &= MASK_3;
+        v = (v | (v << 32)) & 0x001F00000000FFFFL;
+        v = (v | (v << 16)) & 0x001F0000FF0000FFL;
+        v = (v | (v << 8)) & 0x100F00F00F00F00FL;
+        v = (v | (v << 4)) & 0x10C30C30C30C30C3L;
+        v = (v | (v << 2)) & 0x1249249249249249L;
+        return v;
+    }
+
+    private static long compact3(long v) {
+        v &= 0x1249249249249249L;
+        v = (v ^ (v >>> 2)) & 0x10C30C30C30C30C3L;
+        v = (v ^ (v >>> 4)) & 0x100F00F00F00F00FL;
+        v = (v ^ (v >>> 8)) & 0x001F0000FF0000FFL;
+        v = (v ^ (v >>> 16)) & 0x001F00000000FFFFL;
+        v = (v ^ (v >>> 32)) & MASK_3;
+        return v;
+    }
+
+    private static int bias2(int v) {
+        return v ^ Integer.MIN_VALUE;
+    }
+
+    private static long bias3(int v) {
+        return (v + BIAS_3) & MASK_3;
+    }
+
+    private static int unbias3(long v) {
+        return (int) v - BIAS_3;
+    }
+
+    /**
+     * Returns the Morton (Z-order) key of (x, y) by interleaving the bits of
+     * both coordinates.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return morton key
+     */
+    public static long morton2(int x, int y) {
+        return spread2(bias2(x)) | (spread2(bias2(y)) << 1);
+    }
+
+    public static int morton2X(long key) {
+        return bias2((int) compact2(key));
+    }
+
+    public static int morton2Y(long key) {
+        return bias2((int) compact2(key >>> 1));
+    }
+
+    /**
+     * Returns the Morton (Z-order) key of (x, y, z) by interleaving 21 bits
+     * of each coordinate.
+     *
+     * @param x x coordinate in [-2^20, 2^20)
+     * @param y y coordinate in [-2^20, 2^20)
+     * @param z z coordinate in [-2^20, 2^20)
+     * @return morton key
+     */
+    public static long morton3(int x, int y, int z) {
+        return spread3(bias3(x)) | (spread3(bias3(y)) << 1) | (spread3(bias3(z)) << 2);
+    }
+
+    public static int morton3X(long key) {
+        return unbias3(compact3(key));
+    }
+
+    public static int morton3Y(long key) {
+        return unbias3(compact3(key >>> 1));
+    }
+
+    public static int morton3Z(long key) {
+        return unbias3(compact3(key >>> 2));
+    }
+
+    public static long[] morton2(int[] xy, int off, long[] keys, int keyOff, int count) {
+        Objects.checkFromIndexSize(off, count * 2, xy.length);
+        Objects.checkFromIndexSize(keyOff, count, keys.length);
+        for (int i = 0; i < count; i++)
+            keys[keyOff + i] = morton2(xy[off + i * 2], xy[off + i * 2 + 1]);
+        return keys;
+    }
+
+    public static int[] decodeMorton2(long[] keys, int keyOff, int[] xy, int off, int count) {
+        Objects.checkFromIndexSize(keyOff, count, keys.length);
+        Objects.checkFromIndexSize(off, count * 2, xy.length);
+        for (int i = 0; i < count; i++) {
+            long key = keys[keyOff + i];
+            xy[off + i * 2] = morton2X(key);
+            xy[off + i * 2 + 1] = morton2Y(key);
+        }
+        return xy;
+    }
+
+    public static long[] morton3(int[] xyz, int off, long[] keys, int keyOff, int count) {
+        Objects.checkFromIndexSize(off, count * 3, xyz.length);
+        Objects.checkFromIndexSize(keyOff, count, keys.length);
+        for (int i = 0; i < count; i++)
+            keys[keyOff + i] = morton3(xyz[off + i * 3], xyz[off + i * 3 + 1], xyz[off + i * 3 + 2]);
+        return keys;
+    }
+
+    public static int[] decodeMorton3(long[] keys, int keyOff, int[] xyz, int off, int count) {
+        Objects.checkFromIndexSize(keyOff, count, keys.length);
+        Objects.checkFromIndexSize(off, count * 3, xyz.length);
+        for (int i = 0; i < count; i++) {
+            long key = keys[keyOff + i];
+            xyz[off + i * 3] = morton3X(key);
+            xyz[off + i * 3 + 1] = morton3Y(key);
+            xyz[off + i * 3 + 2] = morton3Z(key);
+        }
+        return xyz;
+    }
+
+    /**
+     * Returns the position of (x, y) along a Hilbert curve covering the
+     * whole 32 bit plane.
+     *
+     * @param x x coordinate
+     * @param y y coordinate
+     * @return hilbert key
+     */
+    public static long hilbert2(int x, int y) {
+        long hx = bias2(x) & 0xFFFFFFFFL;
+        long hy = bias2(y) & 0xFFFFFFFFL;
+        long key = 0;
+
+        for (int bit = 31; bit >= 0; bit--) {
+            long s = 1L << bit;
+            int rx = (hx & s) != 0 ? 1 : 0;
+            int ry = (hy & s) != 0 ? 1 : 0;
+            key |= (long) ((3 * rx) ^ ry) << (bit * 2);
+
+            // rotate the quadrant so that the sub curve starts at the origin
+            if (ry == 0) {
+                if (rx == 1) {
+                    hx ^= 0xFFFFFFFFL;
+                    hy ^= 0xFFFFFFFFL;
+                }
+                long t = hx;
+                hx = hy;
+                hy = t;
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Decodes a key created by {@link #hilbert2(int, int)} into dest.
+     *
+     * @param key hilbert key
+     * @param dest destination array
+     * @param off offset of the x coordinate in dest
+     * @return dest
+     */
+    public static int[] decodeHilbert2(long key, int[] dest, int off) {
+        long morton = hilbert2ToMorton(key);
+        dest[off] = morton2X(morton);
+        dest[off + 1] = morton2Y(morton);
+        return dest;
+    }
+
+    /**
+     * Converts a key created by {@link #hilbert2(int, int)} into the
+     * {@link #morton2(int, int)} key of the same point, so that single
+     * coordinates can be read with {@link #morton2X(long)} and
+     * {@link #morton2Y(long)} without an intermediate array.
+     *
+     * @param key hilbert key
+     * @return morton key
+     */
+    public static long hilbert2ToMorton(long key) {
+        long hx = 0;
+        long hy = 0;
+
+        for (int bit = 0; bit < 32; bit++) {
+            long s = 1L << bit;
+            int quadrant = (int) (key >>> (bit * 2)) & 3;
+            int rx = (quadrant >>> 1) & 1;
+            int ry = (quadrant ^ rx) & 1;
+
+            if (ry == 0) {
+                if (rx == 1) {
+                    hx = s - 1 - hx;
+                    hy = s - 1 - hy;
+                }
+                long t = hx;
+                hx = hy;
+                hy = t;
+            }
+            hx += s * rx;
+            hy += s * ry;
+        }
+
+        return spread2(hx) | (spread2(hy) << 1);
+    }
+
+    /**
+     * Returns the position of (x, y, z) along a 3D Hilbert curve of 21 bits
+     * per axis.
+     *
+     * This follows J. Skilling, "Programming the Hilbert curve" (2004): the
+     * coordinates are transformed into the transposed Hilbert index, whose
+     * bits are then interleaved with x as the most significant axis.
+     *
+     * @param x x coordinate in [-2^20, 2^20)
+     * @param y y coordinate in [-2^20, 2^20)
+     * @param z z coordinate in [-2^20, 2^20)
+     * @return hilbert key
+     */
+    public static long hilbert3(int x, int y, int z) {
+        int x0 = (int) bias3(x);
+        int x1 = (int) bias3(y);
+        int x2 = (int) bias3(z);
+        int t;
+
+        // inverse undo
+        for (int q = 1 << 20; q > 1; q >>>= 1) {
+            int p = q - 1;
+
+            if ((x0 & q) != 0)
+                x0 ^= p;
+
+            if ((x1 & q) != 0) {
+                x0 ^= p;
+            } else {
+                t = (x0 ^ x1) & p;
+                x0 ^= t;
+                x1 ^= t;
+            }
+
+            if ((x2 & q) != 0) {
+                x0 ^= p;
+            } else {
+                t = (x0 ^ x2) & p;
+                x0 ^= t;
+                x2 ^= t;
+            }
+        }
+
+        // gray encode
+        x1 ^= x0;
+        x2 ^= x1;
+        t = 0;
+        for (int q = 1 << 20; q > 1; q >>>= 1) {
+            if ((x2 & q) != 0)
+                t ^= q - 1;
+        }
+        x0 ^= t;
+        x1 ^= t;
+        x2 ^= t;
+
+        return (spread3(x0) << 2) | (spread3(x1) << 1) | spread3(x2);
+    }
+
+    /**
+     * Decodes a key created by {@link #hilbert3(int, int, int)} into dest.
+     *
+     * @param key hilbert key
+     * @param dest destination array
+     * @param off offset of the x coordinate in dest
+     * @return dest
+     */
+    public static int[] decodeHilbert3(long key, int[] dest, int off) {
+        long morton = hilbert3ToMorton(key);
+        dest[off] = morton3X(morton);
+        dest[off + 1] = morton3Y(morton);
+        dest[off + 2] = morton3Z(morton);
+        return dest;
+    }
+
+    /**
+     * Converts a key created by {@link #hilbert3(int, int, int)} into the
+     * {@link #morton3(int, int, int)} key of the same point, so that single
+     * coordinates can be read with {@link #morton3X(long)},
+     * {@link #morton3Y(long)} and {@link #morton3Z(long)} without an
+     * intermediate array.
+     *
+     * @param key hilbert key
+     * @return morton key
+     */
+    public static long hilbert3ToMorton(long key) {
+        int x0 = (int) compact3(key >>> 2);
+        int x1 = (int) compact3(key >>> 1);
+        int x2 = (int) compact3(key);
+        int t;
+
+        // gray decode
+        t = x2 >>> 1;
+        x2 ^= x1;
+        x1 ^= x0;
+        x0 ^= t;
+
+        // undo excess work
+        for (int q = 2; q != 1 << 21; q <<= 1) {
+            int p = q - 1;
+
+            if ((x2 & q) != 0) {
+                x0 ^= p;
+            } else {
+                t = (x0 ^ x2) & p;
+                x0 ^= t;
+                x2 ^= t;
+            }
+
+            if ((x1 & q) != 0) {
+                x0 ^= p;
+            } else {
+                t = (x0 ^ x1) & p;
+                x0 ^= t;
+                x1 ^= t;
+            }
+
+            if ((x0 & q) != 0)
+                x0 ^= p;
+        }
+
+        return spread3(x0) | (spread3(x1) << 1) | (spread3(x2) << 2);
+    }
+
+    public static long[] hilbert2(int[] xy, int off, long[] keys, int keyOff, int count) {
+        Objects.checkFromIndexSize(off, count * 2, xy.length);
+        Objects.checkFromIndexSize(keyOff, count, keys.length);
+        for (int i = 0; i < count; i++)
+            keys[keyOff + i] = hilbert2(xy[off + i * 2], xy[off + i * 2 + 1]);
+        return keys;
+    }
+
+    public static int[] decodeHilbert2(long[] keys, int keyOff, int[] xy, int off, int count) {
+        Objects.checkFromIndexSize(keyOff, count, keys.length);
+        Objects.checkFromIndexSize(off, count * 2, xy.length);
+        for (int i = 0; i < count; i++)
+            decodeHilbert2(keys[keyOff + i], xy, off + i * 2);
+        return xy;
+    }
+
+    public static long[] hilbert3(int[] xyz, int off, long[] keys, int keyOff, int count) {
+        Objects.checkFromIndexSize(off, count * 3, xyz.length);
+        Objects.checkFromIndexSize(keyOff, count, keys.length);
+        for (int i = 0; i < count; i++)
+            keys[keyOff + i] = hilbert3(xyz[off + i * 3], xyz[off + i * 3 + 1], xyz[off + i * 3 + 2]);
+        return keys;
+    }
+
+    public static int[] decodeHilbert3(long[] keys, int keyOff, int[] xyz, int off, int count) {
+        Objects.checkFromIndexSize(keyOff, count, keys.length);
+        Objects.checkFromIndexSize(off, count * 3, xyz.length);
+        for (int i = 0; i < count; i++)
+            decodeHilbert3(keys[keyOff + i], xyz, off + i * 3);
+        return xyz;
+    }
+}
@@ -0,0 +1,467 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Eigenvalues and eigenvectors of a symmetric matrix, A = V * D * V^T.
+ *
+ * The constructor reduces A to tridiagonal form with Householder
+ * transformations and diagonalizes the result with the implicit QL
+ * algorithm. Alternatively, {@link #jacobi(Matrixxf)} uses cyclic Jacobi
+ * rotations, which computes small eigenvalues to higher relative
+ * accuracy. Its rotations are ordered round-robin, so that every round
+ * consists of disjoint pairs that can be rotated in parallel.
+ *
+ * A is assumed to be symmetric. The eigenvalues are sorted in ascending
+ * order and the columns of V hold the matching eigenvectors.
+ */
+@SuppressWarnings("Duplicates")
+public class SymmetricEigenDecompositionf {
+
+    private static final float EPS = Math.ulp(1f);
+    /** Maximum number of QL iterations per eigenvalue */
+    private static final int MAX_ITERATIONS = 30;
+    /** Maximum number of Jacobi sweeps */
+    private static final int MAX_SWEEPS = 60;
+
+    private final int n;
+    private final float[] values;
+    /** Eigenvectors as columns, row-major */
+    private final Matrixxf vectors;
+
+    public SymmetricEigenDecompositionf(Matrixxf a) {
+        if (a.rows() != a.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        n = a.rows();
+        values = new float[n];
+        vectors = a.copy();
+        if (n == 0)
+            return;
+
+        float[] e = new float[n];
+        tridiagonalize(vectors.data, values, e);
+
+        // the QL iteration rotates pairs of eigenvectors, which are rows
+        // of the transposed matrix and therefore contiguous
+        Matrixxf transposed = vectors.transpose().copy();
+        diagonalize(transposed.data, values, e);
+        vectors.set(transposed.transpose());
+        sort();
+    }
+
+    private SymmetricEigenDecompositionf(int n, float[] values, Matrixxf vectors) {
+        this.n = n;
+        this.values = values;
+        this.vectors = vectors;
+        sort();
+    }
+
+    /**
+     * Householder reduction to tridiagonal form. On return v holds the
+     * accumulated transformation, d the diagonal and e the sub diagonal
+     * in e[1 .. n - 1].
+     */
+    private void tridiagonalize(float[] v, float[] d, float[] e) {
+        for (int j = 0; j < n; j++)
+            d[j] = v[(n - 1) * n + j];
+
+        for (int i = n - 1; i > 0; i--) {
+            // scale to avoid under- and overflow
+            float scale = 0;
+            float h = 0;
+            for (int k = 0; k < i; k++)
+                scale += Math.abs(d[k]);
+
+            if (scale == 0) {
+                e[i] = d[i - 1];
+                for (int j = 0; j < i; j++) {
+                    d[j] = v[(i - 1) * n + j];
+                    v[i * n + j] = 0;
+                    v[j * n + i] = 0;
+                }
+            } else {
+                // generate the Householder vector
+                for (int k = 0; k < i; k++) {
+                    d[k] /= scale;
+                    h += d[k] * d[k];
+                }
+                float f = d[i - 1];
+                float g = (float) Math.sqrt(h);
+                if (f > 0)
+                    g = -g;
+                e[i] = scale * g;
+                h -= f * g;
+                d[i - 1] = f - g;
+                for (int j = 0; j < i; j++)
+                    e[j] = 0;
+
+                // apply the similarity transformation to the remaining columns
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    v[j * n + i] = f;
+                    g = e[j] + v[j * n + j] * f;
+                    for (int k = j + 1; k <= i - 1; k++) {
+                        g += v[k * n + j] * d[k];
+                        e[k] += v[k * n + j] * f;
+                    }
+                    e[j] = g;
+                }
+                f = 0;
+                for (int j = 0; j < i; j++) {
+                    e[j] /= h;
+                    f += e[j] * d[j];
+                }
+                float hh = f / (h + h);
+                for (int j = 0; j < i; j++)
+                    e[j] -= hh * d[j];
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    g = e[j];
+                    for (int k = j; k <= i - 1; k++)
+                        v[k * n + j] -= f * e[k] + g * d[k];
+                    d[j] = v[(i - 1) * n + j];
+                    v[i * n + j] = 0;
+                }
+            }
+            d[i] = h;
+        }
+
+        // accumulate the transformations
+        for (int i = 0; i < n - 1; i++) {
+            v[(n - 1) * n + i] = v[i * n + i];
+            v[i * n + i] = 1;
+            float h = d[i + 1];
+            if (h != 0) {
+                for (int k = 0; k <= i; k++)
+                    d[k] = v[k * n + i + 1] / h;
+                for (int j = 0; j <= i; j++) {
+                    float g = 0;
+                    for (int k = 0; k <= i; k++)
+                        g += v[k * n + i + 1] * v[k * n + j];
+                    for (int k = 0; k <= i; k++)
+                        v[k * n + j] -= g * d[k];
+                }
+            }
+            for (int k = 0; k <= i; k++)
+                v[k * n + i + 1] = 0;
+        }
+        for (int j = 0; j < n; j++) {
+            d[j] = v[(n - 1) * n + j];
+            v[(n - 1) * n + j] = 0;
+        }
+        v[(n - 1) * n + n - 1] = 1;
+        e[0] = 0;
+    }
+
+    /**
+     * Implicit QL iteration on the tridiagonal matrix (d, e). The rows of
+     * vt are rotated along, so they end up as the eigenvectors.
+     */
+    private void diagonalize(float[] vt, float[] d, float[] e) {
+        for (int i = 1; i < n; i++)
+            e[i - 1] = e[i];
+        e[n - 1] = 0;
+
+        float f = 0;
+        float tst1 = 0;
+        for (int l = 0; l < n; l++) {
+            // find a small sub diagonal element
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < n - 1 && Math.abs(e[m]) > EPS * tst1)
+                m++;
+
+            // if m == l, d[l] is already an eigenvalue, otherwise iterate
+            if (m > l) {
+                int iteration = 0;
+                do {
+                    if (++iteration > MAX_ITERATIONS)
+                        throw new IllegalStateException("Eigenvalue iteration did not converge");
+
+                    // compute the implicit shift
+                    float g = d[l];
+                    float p = (d[l + 1] - g) / (2 * e[l]);
+                    float r = (float) Math.hypot(p, 1);
+                    if (p < 0)
+                        r = -r;
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    float dl1 = d[l + 1];
+                    float h = g - d[l];
+                    for (int i = l + 2; i < n; i++)
+                        d[i] -= h;
+                    f += h;
+
+                    // implicit QL transformation
+                    p = d[m];
+                    float c = 1;
+                    float c2 = c;
+                    float c3 = c;
+                    float el1 = e[l + 1];
+                    float s = 0;
+                    float s2 = 0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = (float) Math.hypot(p, e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+
+                        rotate(vt, i * n, (i + 1) * n, c, s);
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+                } while (Math.abs(e[l]) > EPS * tst1);
+            }
+            d[l] += f;
+            e[l] = 0;
+        }
+    }
+
+    /**
+     * Rotates two rows of length n: x' = c * x - s * y, y' = s * x + c * y.
+     */
+    private void rotate(float[] data, int x, int y, float c, float s) {
+        for (int k = 0; k < n; k++) {
+            float a = data[x + k];
+            float b = data[y + k];
+            data[x + k] = c * a - s * b;
+            data[y + k] = s * a + c * b;
+        }
+    }
+
+    /**
+     * Computes the decomposition with cyclic Jacobi rotations. Large
+     * matrices are rotated in the MatrixParallelism pool.
+     * @param a symmetric matrix
+     * @return eigen decomposition
+     */
+    public static SymmetricEigenDecompositionf jacobi(Matrixxf a) {
+        return jacobi(a, MatrixParallelism.pool((long) a.rows() * a.columns()));
+    }
+
+    /**
+     * Computes the decomposition with cyclic Jacobi rotations.
+     *
+     * A rotation is skipped if the off-diagonal element is negligible
+     * relative to its diagonal elements, |a_pq| <= eps * sqrt(|a_pp * a_qq|),
+     * and the iteration ends after the first sweep without rotations.
+     * @param a symmetric matrix
+     * @param pool pool to run the rotations of each round in, or null to
+     *             run them in the calling thread
+     * @return eigen decomposition
+     */
+    public static SymmetricEigenDecompositionf jacobi(Matrixxf a, ForkJoinPool pool) {
+        if (a.rows() != a.columns())
+            throw new IllegalArgumentException("Invalid matrix format!");
+
+        final int n = a.rows();
+        final Matrixxf copy = a.copy();
+        final float[] m = copy.data;
+        final Matrixxf vectors = CerberusMath.diag(n);
+        final float[] v = vectors.data;
+
+        // round-robin schedule: with an even number of players, every
+        // round pairs each index with exactly one other index
+        final int players = n + (n & 1);
+        final int pairCount = players / 2;
+        int[] order = new int[players];
+        for (int i = 0; i < players; i++)
+            order[i] = i;
+        final int[] ps = new int[pairCount];
+        final int[] qs = new int[pairCount];
+        final float[] cs = new float[pairCount];
+        final float[] ss = new float[pairCount];
+
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            boolean rotated = false;
+
+            for (int round = 0; round < players - 1; round++) {
+                // compute the rotations of this round from the current matrix
+                int count = 0;
+                for (int i = 0; i < pairCount; i++) {
+                    int p = Math.min(order[i], order[players - 1 - i]);
+                    int q = Math.max(order[i], order[players - 1 - i]);
+                    if (q >= n)
+                        continue;
+
+                    float apq = m[p * n + q];
+                    float app = m[p * n + p];
+                    float aqq = m[q * n + q];
+                    if (Math.abs(apq) <= EPS * (float) Math.sqrt(Math.abs(app * aqq)) || apq == 0)
+                        continue;
+
+                    float theta = (aqq - app) / (2 * apq);
+                    float t = Math.abs(theta) > 1e18f ? 1f / (2 * theta)
+                            : Math.signum(theta == 0 ? 1 : theta) / (Math.abs(theta) + (float) Math.sqrt(theta * theta + 1));
+                    float c = 1 / (float) Math.sqrt(1 + t * t);
+                    ps[count] = p;
+                    qs[count] = q;
+                    cs[count] = c;
+                    ss[count] = t * c;
+                    count++;
+                }
+
+                // advance the schedule, keeping the first index fixed
+                int last = order[players - 1];
+                System.arraycopy(order, 1, order, 2, players - 2);
+                order[1] = last;
+
+                if (count == 0)
+                    continue;
+                rotated = true;
+
+                // A = P^T * A touches the rows p and q of each pair
+                final int pairs = count;
+                RangeTask.Kernel rows = (from, to) -> {
+                    for (int k = from; k < to; k++) {
+                        int p = ps[k] * n;
+                        int q = qs[k] * n;
+                        float c = cs[k];
+                        float s = ss[k];
+                        for (int j = 0; j < n; j++) {
+                            float x = m[p + j];
+                            float y = m[q + j];
+                            m[p + j] = c * x - s * y;
+                            m[q + j] = s * x + c * y;
+                        }
+                    }
+                };
+                // A = A * P and V = V * P touch the columns p and q
+                RangeTask.Kernel columns = (from, to) -> {
+                    for (int i = from; i < to; i++) {
+                        int row = i * n;
+                        for (int k = 0; k < pairs; k++) {
+                            int p = row + ps[k];
+                            int q = row + qs[k];
+                            float c = cs[k];
+                            float s = ss[k];
+                            float x = m[p];
+                            float y = m[q];
+                            m[p] = c * x - s * y;
+                            m[q] = s * x + c * y;
+                            x = v[p];
+                            y = v[q];
+                            v[p] = c * x - s * y;
+                            v[q] = s * x + c * y;
+                        }
+                    }
+                };
+
+                if (pool == null) {
+                    rows.run(0, pairs);
+                    columns.run(0, n);
+                } else {
+                    int grain = Math.max(1, MatrixParallelism.GRAIN / Math.max(1, n));
+                    RangeTask.run(pool, 0, pairs, grain, rows);
+                    RangeTask.run(pool, 0, n, Math.max(1, grain / 2), columns);
+                }
+
+                // the rotated elements are zero up to rounding
+                for (int k = 0; k < pairs; k++) {
+                    m[ps[k] * n + qs[k]] = 0;
+                    m[qs[k] * n + ps[k]] = 0;
+                }
+            }
+
+            if (!rotated)
+                break;
+        }
+
+        float[] values = new float[n];
+        for (int i = 0; i < n; i++)
+            values[i] = m[i * n + i];
+        return new SymmetricEigenDecompositionf(n, values, vectors);
+    }
+
+    /**
+     * Sorts the eigenvalues in ascending order along with their vectors.
+     */
+    private void sort() {
+        float[] v = vectors.data;
+        for (int i = 0; i < n - 1; i++) {
+            int k = i;
+            float p = values[i];
+            for (int j = i + 1; j < n; j++) {
+                if (values[j] < p) {
+                    k = j;
+                    p = values[j];
+                }
+            }
+            if (k != i) {
+                values[k] = values[i];
+                values[i] = p;
+                for (int j = 0; j < n; j++) {
+                    float buffer = v[j * n + i];
+                    v[j * n + i] = v[j * n + k];
+                    v[j * n + k] = buffer;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return copy of the eigenvalues in ascending order
+     */
+    public float[] getEigenvalues() {
+        return values.clone();
+    }
+
+    public float getEigenvalue(int i) {
+        return values[i];
+    }
+
+    /**
+     * @return eigenvector of the i-th eigenvalue as a column view of V
+     */
+    public Matrixxf getEigenvector(int i) {
+        return vectors.column(i);
+    }
+
+    /**
+     * @return copy of the matrix V whose columns are the eigenvectors
+     */
+    public Matrixxf getV() {
+        return vectors.copy();
+    }
+
+    /**
+     * @return diagonal matrix D of the eigenvalues
+     */
+    public Matrixxf getD() {
+        Matrixxf out = new Matrixxf(n, n);
+        for (int i = 0; i < n; i++)
+            out.set(i, i, values[i]);
+        return out;
+    }
+}
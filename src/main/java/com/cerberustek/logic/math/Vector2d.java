@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -59,6 +57,11 @@ public class Vector2d {
         return new Vector2d(x / length, y / length);
     }
 
+    public Vector2d normalize(Vector2d dest) {
+        double length = length();
+        return dest.set(x / length, y / length);
+    }
+
     public Vector2d rotate(double f) {
         double rad = Math.toRadians(f);
         double cos = Math.cos(rad);
@@ -67,10 +70,22 @@ public class Vector2d {
         return new Vector2d(((x * cos) - (y * sin)), ((x * sin) + (y * cos)));
     }
 
+    public Vector2d rotate(double f, Vector2d dest) {
+        double rad = Math.toRadians(f);
+        double cos = Math.cos(rad);
+        double sin = Math.sin(rad);
+
+        return dest.set(((x * cos) - (y * sin)), ((x * sin) + (y * cos)));
+    }
+
     public Vector2d mod(double s) {
         return new Vector2d(x % s, y % s);
     }
 
+    public Vector2d mod(double s, Vector2d dest) {
+        return dest.set(x % s, y % s);
+    }
+
     public Vector2d modSelf(double s) {
         x %= s;
         y %= s;
@@ -81,6 +96,10 @@ public class Vector2d {
         return new Vector2d(x % xs, y % ys);
     }
 
+    public Vector2d mod(double xs, double ys, Vector2d dest) {
+        return dest.set(x % xs, y % ys);
+    }
+
     public Vector2d modSelf(double xs, double ys) {
         x %= xs;
         y %= ys;
@@ -91,6 +110,10 @@ public class Vector2d {
         return new Vector2d(x % other.x, y % other.y);
     }
 
+    public Vector2d mod(Vector2d other, Vector2d dest) {
+        return dest.set(x % other.x, y % other.y);
+    }
+
     public Vector2d modSelf(Vector2d other) {
         x %= other.x;
         y %= other.y;
@@ -101,6 +124,10 @@ public class Vector2d {
         return new Vector2d(x * s, y * s);
     }
 
+    public Vector2d mul(double s, Vector2d dest) {
+        return dest.set(x * s, y * s);
+    }
+
     public Vector2d mulSelf(double s) {
         x *= s;
         y *= s;
@@ -111,6 +138,10 @@ public class Vector2d {
         return new Vector2d(x * xs, y * ys);
     }
 
+    public Vector2d mul(double xs, double ys, Vector2d dest) {
+        return dest.set(x * xs, y * ys);
+    }
+
     public Vector2d mulSelf(double xs, double ys) {
         x *= xs;
         y *= ys;
@@ -121,6 +152,10 @@ public class Vector2d {
         return new Vector2d(x * other.x, y * other.y);
     }
 
+    public Vector2d mul(Vector2d other, Vector2d dest) {
+        return dest.set(x * other.x, y * other.y);
+    }
+
     public Vector2d mulSelf(Vector2d other) {
         x *= other.x;
         y *= other.y;
@@ -131,6 +166,10 @@ public class Vector2d {
         return new Vector2d(this.x + s, this.y + s);
     }
 
+    public Vector2d add(double s, Vector2d dest) {
+        return dest.set(x + s, y + s);
+    }
+
     public Vector2d addSelf(double s) {
         x += s;
         y += s;
@@ -141,6 +180,10 @@ public class Vector2d {
         return new Vector2d(this.x + x, this.y + y);
     }
 
+    public Vector2d add(double x, double y, Vector2d dest) {
+        return dest.set(this.x + x, this.y + y);
+    }
+
     public Vector2d addSelf(double x, double y) {
         this.x += x;
         this.y += y;
@@ -151,6 +194,10 @@ public class Vector2d {
         return new Vector2d(this.x + other.x, this.y + other.y);
     }
 
+    public Vector2d add(Vector2d other, Vector2d dest) {
+        return dest.set(x + other.x, y + other.y);
+    }
+
     public Vector2d addSelf(Vector2d other) {
         this.x += other.x;
         this.y += other.y;
@@ -161,6 +208,10 @@ public class Vector2d {
         return new Vector2d(this.x - s, this.x - s);
     }
 
+    public Vector2d sub(double s, Vector2d dest) {
+        return dest.set(x - s, y - s);
+    }
+
     public Vector2d subSelf(double s) {
         x -= s;
         y -= s;
@@ -171,6 +222,10 @@ public class Vector2d {
         return new Vector2d(this.x - xs, this.y - ys);
     }
 
+    public Vector2d sub(double xs, double ys, Vector2d dest) {
+        return dest.set(this.x - xs, this.y - ys);
+    }
+
     public Vector2d subSelf(double xs, double ys) {
         x -= xs;
         y -= ys;
@@ -181,6 +236,10 @@ public class Vector2d {
         return new Vector2d(this.x - other.x, this.y - other.y);
     }
 
+    public Vector2d sub(Vector2d other, Vector2d dest) {
+        return dest.set(x - other.x, y - other.y);
+    }
+
     public Vector2d subSelf(Vector2d other) {
         x -= other.x;
         y -= other.y;
@@ -191,6 +250,10 @@ public class Vector2d {
         return new Vector2d(this.x / s, this.y / s);
     }
 
+    public Vector2d div(double s, Vector2d dest) {
+        return dest.set(x / s, y / s);
+    }
+
     public Vector2d divSelf(double s) {
         x /= s;
         y /= s;
@@ -201,6 +264,10 @@ public class Vector2d {
         return new Vector2d(this.x / xs, this.y / ys);
     }
 
+    public Vector2d div(double xs, double ys, Vector2d dest) {
+        return dest.set(this.x / xs, this.y / ys);
+    }
+
     public Vector2d divSelf(double xs, double ys) {
         x /= xs;
         y /= ys;
@@ -211,6 +278,10 @@ public class Vector2d {
         return new Vector2d(this.x / other.x, this.y / other.y);
     }
 
+    public Vector2d div(Vector2d other, Vector2d dest) {
+        return dest.set(x / other.x, y / other.y);
+    }
+
     public Vector2d divSelf(Vector2d other) {
         x /= other.x;
         y /= other.y;
@@ -289,6 +360,10 @@ public class Vector2d {
         return new Vector2d(Math.abs(x), Math.abs(y));
     }
 
+    public Vector2d abs(Vector2d dest) {
+        return dest.set(Math.abs(x), Math.abs(y));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -300,7 +375,9 @@ public class Vector2d {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        int result = 31 + Double.hashCode(x);
+        result = 31 * result + Double.hashCode(y);
+        return result;
     }
 
     @Override
@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -59,6 +57,11 @@ public class Vector2f {
         return new Vector2f(x / length, y / length);
     }
 
+    public Vector2f normalize(Vector2f dest) {
+        float length = length();
+        return dest.set(x / length, y / length);
+    }
+
     public Vector2f rotate(float f) {
         double rad = Math.toRadians(f);
         double cos = Math.cos(rad);
@@ -67,10 +70,22 @@ public class Vector2f {
         return new Vector2f((float) ((x * cos) - (y * sin)), (float) ((x * sin) + (y * cos)));
     }
 
+    public Vector2f rotate(float f, Vector2f dest) {
+        double rad = Math.toRadians(f);
+        double cos = Math.cos(rad);
+        double sin = Math.sin(rad);
+
+        return dest.set((float) ((x * cos) - (y * sin)), (float) ((x * sin) + (y * cos)));
+    }
+
     public Vector2f mod(float s) {
         return new Vector2f(x % s, y % s);
     }
 
+    public Vector2f mod(float s, Vector2f dest) {
+        return dest.set(x % s, y % s);
+    }
+
     public Vector2f modSelf(float s) {
         x %= s;
         y %= s;
@@ -81,6 +96,10 @@ public class Vector2f {
         return new Vector2f(x % xs, y % ys);
     }
 
+    public Vector2f mod(float xs, float ys, Vector2f dest) {
+        return dest.set(x % xs, y % ys);
+    }
+
     public Vector2f modSelf(float xs, float ys) {
         x %= xs;
         y %= ys;
@@ -91,6 +110,10 @@ public class Vector2f {
         return new Vector2f(x % other.x, y % other.y);
     }
 
+    public Vector2f mod(Vector2f other, Vector2f dest) {
+        return dest.set(x % other.x, y % other.y);
+    }
+
     public Vector2f modSelf(Vector2f other) {
         x %= other.x;
         y %= other.y;
@@ -101,6 +124,10 @@ public class Vector2f {
         return new Vector2f(x * s, y * s);
     }
 
+    public Vector2f mul(float s, Vector2f dest) {
+        return dest.set(x * s, y * s);
+    }
+
     public Vector2f mulSelf(float s) {
         x *= s;
         y *= s;
@@ -111,6 +138,10 @@ public class Vector2f {
         return new Vector2f(x * xs, y * ys);
     }
 
+    public Vector2f mul(float xs, float ys, Vector2f dest) {
+        return dest.set(x * xs, y * ys);
+    }
+
     public Vector2f mulSelf(float xs, float ys) {
         x *= xs;
         y *= ys;
@@ -121,6 +152,10 @@ public class Vector2f {
         return new Vector2f(x * other.x, y * other.y);
     }
 
+    public Vector2f mul(Vector2f other, Vector2f dest) {
+        return dest.set(x * other.x, y * other.y);
+    }
+
     public Vector2f mulSelf(Vector2f other) {
         x *= other.x;
         y *= other.y;
@@ -131,6 +166,10 @@ public class Vector2f {
         return new Vector2f(this.x + s, this.y + s);
     }
 
+    public Vector2f add(float s, Vector2f dest) {
+        return dest.set(x + s, y + s);
+    }
+
     public Vector2f addSelf(float s) {
         x += s;
         y += s;
@@ -141,6 +180,10 @@ public class Vector2f {
         return new Vector2f(this.x + x, this.y + y);
     }
 
+    public Vector2f add(float x, float y, Vector2f dest) {
+        return dest.set(this.x + x, this.y + y);
+    }
+
     public Vector2f addSelf(float xs, float ys) {
         x += xs;
         y += ys;
@@ -151,6 +194,10 @@ public class Vector2f {
         return new Vector2f(this.x + other.x, this.y + other.y);
     }
 
+    public Vector2f add(Vector2f other, Vector2f dest) {
+        return dest.set(x + other.x, y + other.y);
+    }
+
     public Vector2f addSelf(Vector2f other) {
         x += other.x;
         y += other.y;
@@ -161,6 +208,10 @@ public class Vector2f {
         return new Vector2f(this.x - s, this.x - s);
     }
 
+    public Vector2f sub(float s, Vector2f dest) {
+        return dest.set(x - s, y - s);
+    }
+
     public Vector2f subSelf(float s) {
         x -= s;
         y -= s;
@@ -171,6 +222,10 @@ public class Vector2f {
         return new Vector2f(this.x - xs, this.y - ys);
     }
 
+    public Vector2f sub(float xs, float ys, Vector2f dest) {
+        return dest.set(this.x - xs, this.y - ys);
+    }
+
     public Vector2f subSelf(float xs, float ys) {
         x -= xs;
         y -= ys;
@@ -181,6 +236,10 @@ public class Vector2f {
         return new Vector2f(this.x - other.x, this.y - other.y);
     }
 
+    public Vector2f sub(Vector2f other, Vector2f dest) {
+        return dest.set(x - other.x, y - other.y);
+    }
+
     public Vector2f subSelf(Vector2f other) {
         x -= other.x;
         y -= other.y;
@@ -191,6 +250,10 @@ public class Vector2f {
         return new Vector2f(this.x / s, this.y / s);
     }
 
+    public Vector2f div(float s, Vector2f dest) {
+        return dest.set(x / s, y / s);
+    }
+
     public Vector2f divSelf(float s) {
         x /= s;
         y /= s;
@@ -201,6 +264,10 @@ public class Vector2f {
         return new Vector2f(this.x / xs, this.y / ys);
     }
 
+    public Vector2f div(float xs, float ys, Vector2f dest) {
+        return dest.set(this.x / xs, this.y / ys);
+    }
+
     public Vector2f divSelf(float xs, float ys) {
         x /= xs;
         y /= ys;
@@ -211,6 +278,10 @@ public class Vector2f {
         return new Vector2f(this.x / other.x, this.y / other.y);
     }
 
+    public Vector2f div(Vector2f other, Vector2f dest) {
+        return dest.set(x / other.x, y / other.y);
+    }
+
     public Vector2f divSelf(Vector2f other) {
         x /= other.x;
         y /= other.y;
@@ -253,6 +324,10 @@ public class Vector2f {
         return new Vector2f(Math.abs(x), Math.abs(y));
     }
 
+    public Vector2f abs(Vector2f dest) {
+        return dest.set(Math.abs(x), Math.abs(y));
+    }
+
     public Vector2d toVector2d() {
         return new Vector2d(x, y);
     }
@@ -300,7 +375,9 @@ public class Vector2f {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        int result = 31 + Float.hashCode(x);
+        result = 31 * result + Float.hashCode(y);
+        return result;
     }
 
     @Override
@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -59,6 +57,11 @@ public class Vector2i {
         return new Vector2i(x / length, y / length);
     }
 
+    public Vector2i normalize(Vector2i dest) {
+        int length = length();
+        return dest.set(x / length, y / length);
+    }
+
     public Vector2i rotate(double f) {
         double rad = Math.toRadians(f);
         double cos = Math.cos(rad);
@@ -67,10 +70,22 @@ public class Vector2i {
         return new Vector2i((int) ((x * cos) - (y * sin)), (int) ((x * sin) + (y * cos)));
     }
 
+    public Vector2i rotate(double f, Vector2i dest) {
+        double rad = Math.toRadians(f);
+        double cos = Math.cos(rad);
+        double sin = Math.sin(rad);
+
+        return dest.set((int) ((x * cos) - (y * sin)), (int) ((x * sin) + (y * cos)));
+    }
+
     public Vector2i mod(int s) {
         return new Vector2i(x % s, y % s);
     }
 
+    public Vector2i mod(int s, Vector2i dest) {
+        return dest.set(x % s, y % s);
+    }
+
     public Vector2i modSelf(int s) {
         x %= s;
         y %= s;
@@ -81,6 +96,10 @@ public class Vector2i {
         return new Vector2i(x % xs, y % ys);
     }
 
+    public Vector2i mod(int xs, int ys, Vector2i dest) {
+        return dest.set(x % xs, y % ys);
+    }
+
     public Vector2i modSelf(int xs, int ys) {
         x %= xs;
         y %= ys;
@@ -91,6 +110,10 @@ public class Vector2i {
         return new Vector2i(x % other.x, y % other.y);
     }
 
+    public Vector2i mod(Vector2i other, Vector2i dest) {
+        return dest.set(x % other.x, y % other.y);
+    }
+
     public Vector2i modSelf(Vector2i other) {
         x %= other.x;
         y %= other.y;
@@ -101,6 +124,10 @@ public class Vector2i {
         return new Vector2i(x * s, y * s);
     }
 
+    public Vector2i mul(int s, Vector2i dest) {
+        return dest.set(x * s, y * s);
+    }
+
     public Vector2i mulSelf(int s) {
         x *= s;
         y *= s;
@@ -111,6 +138,10 @@ public class Vector2i {
         return new Vector2i(x * xs, y * ys);
     }
 
+    public Vector2i mul(int xs, int ys, Vector2i dest) {
+        return dest.set(x * xs, y * ys);
+    }
+
     public Vector2i mulSelf(int xs, int ys) {
         x *= xs;
         y *= ys;
@@ -121,6 +152,10 @@ public class Vector2i {
         return new Vector2i(x * other.x, y * other.y);
     }
 
+    public Vector2i mul(Vector2i other, Vector2i dest) {
+        return dest.set(x * other.x, y * other.y);
+    }
+
     public Vector2i mulSelf(Vector2i other) {
         x *= other.x;
         y *= other.y;
@@ -131,6 +166,10 @@ public class Vector2i {
         return new Vector2i(this.x + s, this.y + s);
     }
 
+    public Vector2i add(int s, Vector2i dest) {
+        return dest.set(x + s, y + s);
+    }
+
     public Vector2i addSelf(int s) {
         x += s;
         y += s;
@@ -141,6 +180,10 @@ public class Vector2i {
         return new Vector2i(this.x + x, this.y + y);
     }
 
+    public Vector2i add(int x, int y, Vector2i dest) {
+        return dest.set(this.x + x, this.y + y);
+    }
+
     public Vector2i addSelf(int xs, int ys) {
         x += xs;
         y += ys;
@@ -151,6 +194,10 @@ public class Vector2i {
         return new Vector2i(this.x + other.x, this.y + other.y);
     }
 
+    public Vector2i add(Vector2i other, Vector2i dest) {
+        return dest.set(x + other.x, y + other.y);
+    }
+
     public Vector2i addSelf(Vector2i other) {
         x += other.x;
         y += other.y;
@@ -161,6 +208,10 @@ public class Vector2i {
         return new Vector2i(this.x - s, this.x - s);
     }
 
+    public Vector2i sub(int s, Vector2i dest) {
+        return dest.set(x - s, y - s);
+    }
+
     public Vector2i subSelf(int s) {
         x -= s;
         y -= s;
@@ -171,6 +222,10 @@ public class Vector2i {
         return new Vector2i(this.x - xs, this.y - ys);
     }
 
+    public Vector2i sub(int xs, int ys, Vector2i dest) {
+        return dest.set(this.x - xs, this.y - ys);
+    }
+
     public Vector2i subSelf(int xs, int ys) {
         x -= xs;
         y -= ys;
@@ -181,6 +236,10 @@ public class Vector2i {
         return new Vector2i(this.x - other.x, this.y - other.y);
     }
 
+    public Vector2i sub(Vector2i other, Vector2i dest) {
+        return dest.set(x - other.x, y - other.y);
+    }
+
     public Vector2i subSelf(Vector2i other) {
         x -= other.x;
         y -= other.y;
@@ -191,6 +250,10 @@ public class Vector2i {
         return new Vector2i(this.x / s, this.y / s);
     }
 
+    public Vector2i div(int s, Vector2i dest) {
+        return dest.set(x / s, y / s);
+    }
+
     public Vector2i divSelf(int s) {
         x /= s;
         y /= s;
@@ -201,6 +264,10 @@ public class Vector2i {
         return new Vector2i(this.x / xs, this.y / ys);
     }
 
+    public Vector2i div(int xs, int ys, Vector2i dest) {
+        return dest.set(this.x / xs, this.y / ys);
+    }
+
     public Vector2i divSelf(int xs, int ys) {
         x /= xs;
         y /= ys;
@@ -211,6 +278,10 @@ public class Vector2i {
         return new Vector2i(this.x / other.x, this.y / other.y);
     }
 
+    public Vector2i div(Vector2i other, Vector2i dest) {
+        return dest.set(x / other.x, y / other.y);
+    }
+
     public Vector2i divSelf(Vector2i other) {
         x /= other.x;
         y /= other.y;
@@ -245,6 +316,10 @@ public class Vector2i {
         return new Vector2i(Math.abs(x), Math.abs(y));
     }
 
+    public Vector2i abs(Vector2i dest) {
+        return dest.set(Math.abs(x), Math.abs(y));
+    }
+
     public Vector2d toVector2d() {
         return new Vector2d(x, y);
     }
@@ -281,6 +356,34 @@ public class Vector2i {
         return new Vector2i(x, y);
     }
 
+    /**
+     * Returns the Morton (Z-order) key of this vector.
+     * See {@link SpatialKeys#morton2(int, int)}.
+     *
+     * @return morton key
+     */
+    public long morton() {
+        return SpatialKeys.morton2(x, y);
+    }
+
+    public Vector2i setMorton(long key) {
+        return set(SpatialKeys.morton2X(key), SpatialKeys.morton2Y(key));
+    }
+
+    /**
+     * Returns the Hilbert key of this vector.
+     * See {@link SpatialKeys#hilbert2(int, int)}.
+     *
+     * @return hilbert key
+     */
+    public long hilbert() {
+        return SpatialKeys.hilbert2(x, y);
+    }
+
+    public Vector2i setHilbert(long key) {
+        return setMorton(SpatialKeys.hilbert2ToMorton(key));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -292,7 +395,9 @@ public class Vector2i {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        int result = 31 + Integer.hashCode(x);
+        result = 31 * result + Integer.hashCode(y);
+        return result;
     }
 
     @Override
@@ -0,0 +1,291 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from integer (x, y) coordinates to int values.
+ *
+ * Keys are stored unboxed in a flat int array and collisions are resolved
+ * by linear probing, so lookups take the raw coordinates and need neither
+ * a key object nor an entry object. Removal shifts following entries back
+ * instead of leaving tombstones behind.
+ *
+ * This map is not thread safe.
+ */
+@SuppressWarnings("Duplicates")
+public class Vector2iIntMap {
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(int x, int y, int value);
+    }
+
+    private static final float LOAD_FACTOR = 0.6f;
+    /** Largest slot count for which the flat key array still fits in an int index */
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    private final int missingValue;
+
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public Vector2iIntMap() {
+        this(16);
+    }
+
+    public Vector2iIntMap(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    /**
+     * Creates a map that returns missingValue for coordinates without a
+     * mapping.
+     *
+     * @param expectedSize number of mappings to reserve space for
+     * @param missingValue value that marks a missing mapping
+     */
+    public Vector2iIntMap(int expectedSize, int missingValue) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size must not be negative!");
+        this.missingValue = missingValue;
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR);
+        if (needed > MAX_CAPACITY)
+            throw new IllegalArgumentException("Expected size exceeds the map capacity!");
+        int capacity = 2;
+        while (capacity < needed)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity * 2];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        threshold = (int) Math.min(capacity * (double) LOAD_FACTOR, capacity - 1);
+    }
+
+    static int hash(int x, int y) {
+        int h = x * 73856093 ^ y * 19349663;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Returns the slot of the key, or the bitwise complement of the free
+     * slot where it would be inserted.
+     */
+    private int find(int x, int y) {
+        int index = hash(x, y) & mask;
+        while (used[index]) {
+            int k = index * 2;
+            if (keys[k] == x && keys[k + 1] == y)
+                return index;
+            index = (index + 1) & mask;
+        }
+        return ~index;
+    }
+
+    private void insert(int index, int x, int y, int value) {
+        if (size >= threshold) {
+            grow();
+            index = ~find(x, y);
+        }
+
+        int k = index * 2;
+        keys[k] = x;
+        keys[k + 1] = y;
+        values[index] = value;
+        used[index] = true;
+        size++;
+    }
+
+    private void grow() {
+        if (used.length >= MAX_CAPACITY)
+            throw new IllegalStateException("Map capacity exceeded!");
+
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(used.length * 2);
+
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (!oldUsed[i])
+                continue;
+            int o = i * 2;
+            int index = hash(oldKeys[o], oldKeys[o + 1]) & mask;
+            while (used[index])
+                index = (index + 1) & mask;
+            System.arraycopy(oldKeys, o, keys, index * 2, 2);
+            values[index] = oldValues[i];
+            used[index] = true;
+        }
+    }
+
+    /**
+     * Closes the gap at the given slot by moving back entries of the same
+     * probe sequence.
+     */
+    private void shiftBack(int gap) {
+        int index = (gap + 1) & mask;
+        while (used[index]) {
+            int k = index * 2;
+            int home = hash(keys[k], keys[k + 1]) & mask;
+            // entries may only move towards their home slot
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                System.arraycopy(keys, k, keys, gap * 2, 2);
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        used[gap] = false;
+    }
+
+    public int get(int x, int y) {
+        int index = find(x, y);
+        return index >= 0 ? values[index] : missingValue;
+    }
+
+    public int get(Vector2i key) {
+        return get(key.getX(), key.getY());
+    }
+
+    public int getOrDefault(int x, int y, int defaultValue) {
+        int index = find(x, y);
+        return index >= 0 ? values[index] : defaultValue;
+    }
+
+    public boolean containsKey(int x, int y) {
+        return find(x, y) >= 0;
+    }
+
+    public boolean containsKey(Vector2i key) {
+        return containsKey(key.getX(), key.getY());
+    }
+
+    /**
+     * Maps the coordinates to value.
+     *
+     * @return previous value or the missing value if there was none
+     */
+    public int put(int x, int y, int value) {
+        int index = find(x, y);
+        if (index >= 0) {
+            int previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+        insert(~index, x, y, value);
+        return missingValue;
+    }
+
+    public int put(Vector2i key, int value) {
+        return put(key.getX(), key.getY(), value);
+    }
+
+    /**
+     * Adds delta to the value of the coordinates. Coordinates without a
+     * mapping start at the missing value.
+     *
+     * @return new value
+     */
+    public int addTo(int x, int y, int delta) {
+        int index = find(x, y);
+        if (index >= 0)
+            return values[index] += delta;
+        insert(~index, x, y, missingValue + delta);
+        return missingValue + delta;
+    }
+
+    /**
+     * Removes the mapping of the coordinates.
+     *
+     * @return removed value or the missing value if there was none
+     */
+    public int remove(int x, int y) {
+        int index = find(x, y);
+        if (index < 0)
+            return missingValue;
+        int previous = values[index];
+        shiftBack(index);
+        size--;
+        return previous;
+    }
+
+    public int remove(Vector2i key) {
+        return remove(key.getX(), key.getY());
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                int k = i * 2;
+                consumer.accept(keys[k], keys[k + 1], values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    public int getMissingValue() {
+        return missingValue;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append('{');
+        forEach((x, y, value) -> {
+            if (stringBuilder.length() > 1)
+                stringBuilder.append(", ");
+            stringBuilder.append('(').append(x).append(", ").append(y).append(")=").append(value);
+        });
+        return stringBuilder.append('}').toString();
+    }
+}
@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -58,6 +56,11 @@ public class Vector2l {
         return new Vector2l(x / length, y / length);
     }
 
+    public Vector2l normalize(Vector2l dest) {
+        long length = length();
+        return dest.set(x / length, y / length);
+    }
+
     public Vector2l rotate(double f) {
         double rad = Math.toRadians(f);
         double cos = Math.cos(rad);
@@ -66,10 +69,22 @@ public class Vector2l {
         return new Vector2l((long) ((x * cos) - (y * sin)), (long) ((x * sin) + (y * cos)));
     }
 
+    public Vector2l rotate(double f, Vector2l dest) {
+        double rad = Math.toRadians(f);
+        double cos = Math.cos(rad);
+        double sin = Math.sin(rad);
+
+        return dest.set((long) ((x * cos) - (y * sin)), (long) ((x * sin) + (y * cos)));
+    }
+
     public Vector2l mod(long s) {
         return new Vector2l(x % s, y % s);
     }
 
+    public Vector2l mod(long s, Vector2l dest) {
+        return dest.set(x % s, y % s);
+    }
+
     public Vector2l modSelf(long s) {
         x %= s;
         y %= s;
@@ -80,6 +95,10 @@ public class Vector2l {
         return new Vector2l(x % xs, y % ys);
     }
 
+    public Vector2l mod(long xs, long ys, Vector2l dest) {
+        return dest.set(x % xs, y % ys);
+    }
+
     public Vector2l modSelf(long xs, long ys) {
         x %= xs;
         y %= ys;
@@ -87,7 +106,11 @@ public class Vector2l {
     }
 
     public Vector2l mod(Vector2l other) {
-        return new Vector2l(x % other.x, y % other.x);
+        return new Vector2l(x % other.x, y % other.y);
+    }
+
+    public Vector2l mod(Vector2l other, Vector2l dest) {
+        return dest.set(x % other.x, y % other.y);
     }
 
     public Vector2l modSelf(Vector2l other) {
@@ -100,6 +123,10 @@ public class Vector2l {
         return new Vector2l(x * s, y * s);
     }
 
+    public Vector2l mul(long s, Vector2l dest) {
+        return dest.set(x * s, y * s);
+    }
+
     public Vector2l mulSelf(long s) {
         x *= s;
         y *= s;
@@ -110,6 +137,10 @@ public class Vector2l {
         return new Vector2l(x * xs, y * ys);
     }
 
+    public Vector2l mul(long xs, long ys, Vector2l dest) {
+        return dest.set(x * xs, y * ys);
+    }
+
     public Vector2l mulSelf(long xs, long ys) {
         x *= xs;
         y *= ys;
@@ -120,6 +151,10 @@ public class Vector2l {
         return new Vector2l(x * other.x, y * other.y);
     }
 
+    public Vector2l mul(Vector2l other, Vector2l dest) {
+        return dest.set(x * other.x, y * other.y);
+    }
+
     public Vector2l mulSelf(Vector2l other) {
         x *= other.x;
         y *= other.y;
@@ -130,6 +165,10 @@ public class Vector2l {
         return new Vector2l(this.x + s, this.y + s);
     }
 
+    public Vector2l add(long s, Vector2l dest) {
+        return dest.set(x + s, y + s);
+    }
+
     public Vector2l addSelf(long s) {
         x += s;
         y += s;
@@ -140,6 +179,10 @@ public class Vector2l {
         return new Vector2l(this.x + x, this.y + y);
     }
 
+    public Vector2l add(long x, long y, Vector2l dest) {
+        return dest.set(this.x + x, this.y + y);
+    }
+
     public Vector2l addSelf(long xs, long ys) {
         x += xs;
         y += ys;
@@ -150,6 +193,10 @@ public class Vector2l {
         return new Vector2l(this.x + other.x, this.y + other.y);
     }
 
+    public Vector2l add(Vector2l other, Vector2l dest) {
+        return dest.set(x + other.x, y + other.y);
+    }
+
     public Vector2l addSelf(Vector2l other) {
         x += other.x;
         y += other.y;
@@ -160,6 +207,10 @@ public class Vector2l {
         return new Vector2l(this.x - s, this.x - s);
     }
 
+    public Vector2l sub(long s, Vector2l dest) {
+        return dest.set(x - s, y - s);
+    }
+
     public Vector2l subSelf(long s) {
         x -= s;
         y -= s;
@@ -170,6 +221,10 @@ public class Vector2l {
         return new Vector2l(this.x - xs, this.y - ys);
     }
 
+    public Vector2l sub(long xs, long ys, Vector2l dest) {
+        return dest.set(this.x - xs, this.y - ys);
+    }
+
     public Vector2l subSelf(long xs, long ys) {
         x -= xs;
         y -= ys;
@@ -180,6 +235,10 @@ public class Vector2l {
         return new Vector2l(this.x - other.x, this.y - other.y);
     }
 
+    public Vector2l sub(Vector2l other, Vector2l dest) {
+        return dest.set(x - other.x, y - other.y);
+    }
+
     public Vector2l subSelf(Vector2l other) {
         x -= other.x;
         y -= other.y;
@@ -190,6 +249,10 @@ public class Vector2l {
         return new Vector2l(this.x / s, this.y / s);
     }
 
+    public Vector2l div(long s, Vector2l dest) {
+        return dest.set(x / s, y / s);
+    }
+
     public Vector2l divSelf(long s) {
         x /= s;
         y /= s;
@@ -200,6 +263,10 @@ public class Vector2l {
         return new Vector2l(this.x / xs, this.y / ys);
     }
 
+    public Vector2l div(long xs, long ys, Vector2l dest) {
+        return dest.set(this.x / xs, this.y / ys);
+    }
+
     public Vector2l divSelf(long xs, long ys) {
         x /= xs;
         y /= ys;
@@ -210,6 +277,10 @@ public class Vector2l {
         return new Vector2l(this.x / other.x, this.y / other.y);
     }
 
+    public Vector2l div(Vector2l other, Vector2l dest) {
+        return dest.set(x / other.x, y / other.y);
+    }
+
     public Vector2l divSelf(Vector2l other) {
         x /= other.x;
         y /= other.y;
@@ -244,6 +315,10 @@ public class Vector2l {
         return new Vector2l(Math.abs(x), Math.abs(y));
     }
 
+    public Vector2l abs(Vector2l dest) {
+        return dest.set(Math.abs(x), Math.abs(y));
+    }
+
     public Vector2d toVector2d() {
         return new Vector2d(x, y);
     }
@@ -291,7 +366,9 @@ public class Vector2l {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y);
+        int result = 31 + Long.hashCode(x);
+        result = 31 * result + Long.hashCode(y);
+        return result;
     }
 
     @Override
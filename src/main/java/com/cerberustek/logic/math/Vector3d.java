@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -91,6 +89,14 @@ public class Vector3d {
         return new Vector3d(x_, y_, z_);
     }
 
+    public Vector3d cross(Vector3d other, Vector3d dest) {
+        double x_ = (y * other.z) - (z * other.y);
+        double y_ = (z * other.x) - (x * other.z);
+        double z_ = (x * other.y) - (y * other.x);
+
+        return dest.set(x_, y_, z_);
+    }
+
     public double length() {
         return Math.sqrt((x * x) + (y * y) + (z * z));
     }
@@ -102,6 +108,13 @@ public class Vector3d {
         return div(length);
     }
 
+    public Vector3d normalized(Vector3d dest) {
+        double length = length();
+        if (length == 0)
+            return dest.set(this);
+        return div(length, dest);
+    }
+
     public Vector3d normalizeSelf() {
         double length = length();
         if (length == 0)
@@ -113,6 +126,10 @@ public class Vector3d {
         return new Vector3d(-x, -y, -z);
     }
 
+    public Vector3d invert(Vector3d dest) {
+        return dest.set(-x, -y, -z);
+    }
+
     public Vector3d invertSelf() {
         x = -x;
         y = -y;
@@ -125,6 +142,32 @@ public class Vector3d {
         return new Vector3d(w.getX(), w.getY(), w.getZ());
     }
 
+    /**
+     * Rotates this vector by the specified quaternion and stores the result
+     * in dest. This is the double precision counterpart of
+     * {@link #rotate(Quaternionf)} without any temporary quaternions.
+     *
+     * @param rotation rotation
+     * @param dest destination vector (may be this)
+     * @return dest
+     */
+    public Vector3d rotate(Quaterniond rotation, Vector3d dest) {
+        double qx = rotation.getX();
+        double qy = rotation.getY();
+        double qz = rotation.getZ();
+        double qw = rotation.getW();
+
+        // q * v * q' = (w^2 - u.u) * v + 2 * (u.v) * u + 2 * w * (u x v)
+        double s = qw * qw - (qx * qx + qy * qy + qz * qz);
+        double d = 2 * (qx * x + qy * y + qz * z);
+        double c = 2 * qw;
+
+        return dest.set(
+                s * x + d * qx + c * (qy * z - qz * y),
+                s * y + d * qy + c * (qz * x - qx * z),
+                s * z + d * qz + c * (qx * y - qy * x));
+    }
+
     public Vector3d rotate(double f, Vector3d axis) {
         double sinHalfAngle = Math.sin(Math.toRadians(f / 2));
 
@@ -144,34 +187,89 @@ public class Vector3d {
         return this;
     }
 
+    /**
+     * Rotates this vector by f degrees around the specified axis and stores
+     * the result in dest, leaving this vector unchanged.
+     *
+     * @param f angle in degrees
+     * @param axis normalized rotation axis
+     * @param dest destination vector (may be this or axis)
+     * @return dest
+     */
+    public Vector3d rotate(double f, Vector3d axis, Vector3d dest) {
+        double sinHalfAngle = Math.sin(Math.toRadians(f / 2));
+        double qx = axis.getX() * sinHalfAngle;
+        double qy = axis.getY() * sinHalfAngle;
+        double qz = axis.getZ() * sinHalfAngle;
+        double qw = Math.cos(Math.toRadians(f / 2));
+
+        // q * v * q' = (w^2 - u.u) * v + 2 * (u.v) * u + 2 * w * (u x v)
+        double s = qw * qw - (qx * qx + qy * qy + qz * qz);
+        double d = 2 * (qx * x + qy * y + qz * z);
+        double c = 2 * qw;
+
+        return dest.set(
+                s * x + d * qx + c * (qy * z - qz * y),
+                s * y + d * qy + c * (qz * x - qx * z),
+                s * z + d * qz + c * (qx * y - qy * x));
+    }
+
     public Vector3d pow(double s) {
         return new Vector3d(Math.pow(x, s), Math.pow(y, s), Math.pow(z, s));
     }
 
+    public Vector3d pow(double s, Vector3d dest) {
+        return dest.set(Math.pow(x, s), Math.pow(y, s), Math.pow(z, s));
+    }
+
     public Vector3d pow(double xs, double ys, double zs) {
         return new Vector3d(Math.pow(x, xs), Math.pow(y, ys), Math.pow(z, zs));
     }
 
+    public Vector3d pow(double xs, double ys, double zs, Vector3d dest) {
+        return dest.set(Math.pow(x, xs), Math.pow(y, ys), Math.pow(z, zs));
+    }
+
     public Vector3d pow(Vector3d other) {
         return new Vector3d(Math.pow(x, other.getX()), Math.pow(y, other.getY()), Math.pow(z, other.getZ()));
     }
 
+    public Vector3d pow(Vector3d other, Vector3d dest) {
+        return dest.set(Math.pow(x, other.getX()), Math.pow(y, other.getY()), Math.pow(z, other.getZ()));
+    }
+
     public Vector3d mod(double s) {
         return new Vector3d(x % s, y % s, z % s);
     }
 
+    public Vector3d mod(double s, Vector3d dest) {
+        return dest.set(x % s, y % s, z % s);
+    }
+
     public Vector3d mod(double xs, double ys, double zs) {
         return new Vector3d(x % xs, y % ys, z % zs);
     }
 
+    public Vector3d mod(double xs, double ys, double zs, Vector3d dest) {
+        return dest.set(x % xs, y % ys, z % zs);
+    }
+
     public Vector3d mod(Vector3d other) {
         return new Vector3d(x % other.getX(), y % other.getY(), z % other.getZ());
     }
 
+    public Vector3d mod(Vector3d other, Vector3d dest) {
+        return dest.set(x % other.getX(), y % other.getY(), z % other.getZ());
+    }
+
     public Vector3d mul(double s) {
         return new Vector3d(x * s, y * s, z * s);
     }
 
+    public Vector3d mul(double s, Vector3d dest) {
+        return dest.set(x * s, y * s, z * s);
+    }
+
     public Vector3d mulSelf(double s) {
         x *= s;
         y *= s;
@@ -183,6 +281,10 @@ public class Vector3d {
         return new Vector3d(x * xs, y * ys, z * zs);
     }
 
+    public Vector3d mul(double xs, double ys, double zs, Vector3d dest) {
+        return dest.set(x * xs, y * ys, z * zs);
+    }
+
     public Vector3d mulSelf(double xs, double ys, double zs) {
         x *= xs;
         y *= ys;
@@ -194,6 +296,10 @@ public class Vector3d {
         return new Vector3d(x * other.x, y * other.y, z * other.z);
     }
 
+    public Vector3d mul(Vector3d other, Vector3d dest) {
+        return dest.set(x * other.x, y * other.y, z * other.z);
+    }
+
     public Vector3d mulSelf(Vector3d other) {
         x *= other.x;
         y *= other.y;
@@ -205,6 +311,10 @@ public class Vector3d {
         return new Vector3d(x + s, y + s, z + s);
     }
 
+    public Vector3d add(double s, Vector3d dest) {
+        return dest.set(x + s, y + s, z + s);
+    }
+
     public Vector3d addSelf(double s) {
         x += s;
         y += s;
@@ -216,6 +326,10 @@ public class Vector3d {
         return new Vector3d(x + xs, y + ys, z + zs);
     }
 
+    public Vector3d add(double xs, double ys, double zs, Vector3d dest) {
+        return dest.set(x + xs, y + ys, z + zs);
+    }
+
     public Vector3d addSelf(double xs, double ys, double zs) {
         x += xs;
         y += ys;
@@ -227,6 +341,10 @@ public class Vector3d {
         return new Vector3d(x + other.x, y + other.y, z + other.z);
     }
 
+    public Vector3d add(Vector3d other, Vector3d dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z);
+    }
+
     public Vector3d addSelf(Vector3d other) {
         x += other.x;
         y += other.y;
@@ -235,7 +353,11 @@ public class Vector3d {
     }
 
     public Vector3d sub(double s) {
-        return new Vector3d(x - s, x - s, z - s);
+        return new Vector3d(x - s, y - s, z - s);
+    }
+
+    public Vector3d sub(double s, Vector3d dest) {
+        return dest.set(x - s, y - s, z - s);
     }
 
     public Vector3d subSelf(double s) {
@@ -249,6 +371,10 @@ public class Vector3d {
         return new Vector3d(x - xs, y - ys, z - zs);
     }
 
+    public Vector3d sub(double xs, double ys, double zs, Vector3d dest) {
+        return dest.set(x - xs, y - ys, z - zs);
+    }
+
     public Vector3d subSelf(double xs, double ys, double zs) {
         x -= xs;
         y -= ys;
@@ -260,6 +386,10 @@ public class Vector3d {
         return new Vector3d(x - other.x, y - other.y, z - other.z);
     }
 
+    public Vector3d sub(Vector3d other, Vector3d dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z);
+    }
+
     public Vector3d subSelf(Vector3d other) {
         x -= other.x;
         y -= other.y;
@@ -271,6 +401,10 @@ public class Vector3d {
         return new Vector3d(x / s, y / s, z / s);
     }
 
+    public Vector3d div(double s, Vector3d dest) {
+        return dest.set(x / s, y / s, z / s);
+    }
+
     public Vector3d divSelf(double s) {
         x /= s;
         y /= s;
@@ -282,6 +416,10 @@ public class Vector3d {
         return new Vector3d(x / xs, y / ys, z / zs);
     }
 
+    public Vector3d div(double xs, double ys, double zs, Vector3d dest) {
+        return dest.set(x / xs, y / ys, z / zs);
+    }
+
     public Vector3d divSelf(double xs, double ys, double zs) {
         x /= xs;
         y /= ys;
@@ -293,6 +431,10 @@ public class Vector3d {
         return new Vector3d(x / other.x, y / other.y, z / other.z);
     }
 
+    public Vector3d div(Vector3d other, Vector3d dest) {
+        return dest.set(x / other.x, y / other.y, z / other.z);
+    }
+
     public Vector3d divSelf(Vector3d other) {
         x /= other.x;
         y /= other.y;
@@ -304,6 +446,10 @@ public class Vector3d {
         return new Vector3d(Math.abs(x), Math.abs(y), Math.abs(z));
     }
 
+    public Vector3d abs(Vector3d dest) {
+        return dest.set(Math.abs(x), Math.abs(y), Math.abs(z));
+    }
+
     public Vector3l round() {
         return new Vector3l(Math.round(x), Math.round(y), Math.round(z));
     }
@@ -462,7 +608,10 @@ public class Vector3d {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z);
+        int result = 31 + Double.hashCode(x);
+        result = 31 * result + Double.hashCode(y);
+        result = 31 * result + Double.hashCode(z);
+        return result;
     }
 
     @Override
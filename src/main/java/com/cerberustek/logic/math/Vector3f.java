@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -91,6 +89,14 @@ public class Vector3f {
         return new Vector3f(x_, y_, z_);
     }
 
+    public Vector3f cross(Vector3f other, Vector3f dest) {
+        float x_ = (y * other.z) - (z * other.y);
+        float y_ = (z * other.x) - (x * other.z);
+        float z_ = (x * other.y) - (y * other.x);
+
+        return dest.set(x_, y_, z_);
+    }
+
     public float length() {
         return (float) Math.sqrt((x * x) + (y * y) + (z * z));
     }
@@ -102,6 +108,13 @@ public class Vector3f {
         return div(length);
     }
 
+    public Vector3f normalized(Vector3f dest) {
+        float length = length();
+        if (length == 0)
+            return dest.set(this);
+        return div(length, dest);
+    }
+
     public Vector3f normalizeSelf() {
         float length = length();
         if (length == 0)
@@ -113,6 +126,10 @@ public class Vector3f {
         return new Vector3f(-x, -y, -z);
     }
 
+    public Vector3f invert(Vector3f dest) {
+        return dest.set(-x, -y, -z);
+    }
+
     public Vector3f invertSelf() {
         x = -x;
         y = -y;
@@ -129,10 +146,60 @@ public class Vector3f {
                         axis.mul(this.dot(axis.mul(1 - cosAngle)))));   // Rotation on local Y
     }
 
+    /**
+     * Rotates this vector around the specified axis and stores the result
+     * in dest. This computes the same as {@link #rotate(Vector3f, float)}
+     * without temporary vectors.
+     *
+     * @param axis normalized rotation axis
+     * @param angle angle in radians
+     * @param dest destination vector (may be this or axis)
+     * @return dest
+     */
+    public Vector3f rotate(Vector3f axis, float angle, Vector3f dest) {
+        float sinAngle = (float) Math.sin(-angle);
+        float cosAngle = (float) Math.cos(-angle);
+        float ax = axis.getX();
+        float ay = axis.getY();
+        float az = axis.getZ();
+        float d = (x * ax + y * ay + z * az) * (1 - cosAngle);
+
+        return dest.set(
+                (y * az - z * ay) * sinAngle + x * cosAngle + ax * d,
+                (z * ax - x * az) * sinAngle + y * cosAngle + ay * d,
+                (x * ay - y * ax) * sinAngle + z * cosAngle + az * d);
+    }
+
     public Vector3f rotate(Quaternionf rotation) {
         return rotation.mul(this).mul(rotation.conjugate()).re();
     }
 
+    /**
+     * Rotates this vector by the specified quaternion and stores the result
+     * in dest. This computes the same result as {@link #rotate(Quaternionf)}
+     * without any temporary quaternions.
+     *
+     * @param rotation rotation
+     * @param dest destination vector (may be this)
+     * @return dest
+     */
+    public Vector3f rotate(Quaternionf rotation, Vector3f dest) {
+        float qx = rotation.getX();
+        float qy = rotation.getY();
+        float qz = rotation.getZ();
+        float qw = rotation.getW();
+
+        // q * v * q' = (w^2 - u.u) * v + 2 * (u.v) * u + 2 * w * (u x v)
+        float s = qw * qw - (qx * qx + qy * qy + qz * qz);
+        float d = 2 * (qx * x + qy * y + qz * z);
+        float c = 2 * qw;
+
+        return dest.set(
+                s * x + d * qx + c * (qy * z - qz * y),
+                s * y + d * qy + c * (qz * x - qx * z),
+                s * z + d * qz + c * (qx * y - qy * x));
+    }
+
     public Quaternionf angel(Vector3f other) {
         return new Quaternionf((float) Math.acos(normalized().dot(other.normalized())), cross(other).normalized());
     }
@@ -141,31 +208,60 @@ public class Vector3f {
         return new Vector3f((float) Math.pow(x, s), (float) Math.pow(y, s), (float) Math.pow(z, s));
     }
 
+    public Vector3f pow(float s, Vector3f dest) {
+        return dest.set((float) Math.pow(x, s), (float) Math.pow(y, s), (float) Math.pow(z, s));
+    }
+
     public Vector3f pow(float xs, float ys, float zs) {
         return new Vector3f((float) Math.pow(x, xs), (float) Math.pow(y, ys), (float) Math.pow(z, zs));
     }
 
+    public Vector3f pow(float xs, float ys, float zs, Vector3f dest) {
+        return dest.set((float) Math.pow(x, xs), (float) Math.pow(y, ys), (float) Math.pow(z, zs));
+    }
+
     public Vector3f pow(Vector3f other) {
         return new Vector3f((float) Math.pow(x, other.getX()), (float) Math.pow(y, other.getY()),
                 (float) Math.pow(z, other.getZ()));
     }
 
+    public Vector3f pow(Vector3f other, Vector3f dest) {
+        return dest.set((float) Math.pow(x, other.getX()), (float) Math.pow(y, other.getY()),
+                (float) Math.pow(z, other.getZ()));
+    }
+
     public Vector3f mod(float s) {
         return new Vector3f(x % s, y % s, z % s);
     }
 
+    public Vector3f mod(float s, Vector3f dest) {
+        return dest.set(x % s, y % s, z % s);
+    }
+
     public Vector3f mod(float xs, float ys, float zs) {
         return new Vector3f(x % xs, y % ys, z % zs);
     }
 
+    public Vector3f mod(float xs, float ys, float zs, Vector3f dest) {
+        return dest.set(x % xs, y % ys, z % zs);
+    }
+
     public Vector3f mod(Vector3f other) {
         return new Vector3f(x % other.getX(), y % other.getY(), z % other.getZ());
     }
 
+    public Vector3f mod(Vector3f other, Vector3f dest) {
+        return dest.set(x % other.getX(), y % other.getY(), z % other.getZ());
+    }
+
     public Vector3f mul(float s) {
         return new Vector3f(x * s, y * s, z * s);
     }
 
+    public Vector3f mul(float s, Vector3f dest) {
+        return dest.set(x * s, y * s, z * s);
+    }
+
     public Vector3f mulSelf(float s) {
         x *= s;
         y *= s;
@@ -177,6 +273,10 @@ public class Vector3f {
         return new Vector3f(x * xs, y * ys, z * zs);
     }
 
+    public Vector3f mul(float xs, float ys, float zs, Vector3f dest) {
+        return dest.set(x * xs, y * ys, z * zs);
+    }
+
     public Vector3f mulSelf(float xs, float ys, float zs) {
         x *= xs;
         y *= ys;
@@ -188,6 +288,10 @@ public class Vector3f {
         return new Vector3f(x * other.x, y * other.y, z * other.z);
     }
 
+    public Vector3f mul(Vector3f other, Vector3f dest) {
+        return dest.set(x * other.x, y * other.y, z * other.z);
+    }
+
     public Vector3f mulSelf(Vector3f other) {
         x *= other.x;
         y *= other.y;
@@ -202,10 +306,21 @@ public class Vector3f {
                 x * mat.get(2, 0) + y * mat.get(2, 1) + z * mat.get(2, 2));
     }
 
+    public Vector3f mul(Matrix3f mat, Vector3f dest) {
+        return dest.set(
+                x * mat.get(0, 0) + y * mat.get(0, 1) + z * mat.get(0, 2),
+                x * mat.get(1, 0) + y * mat.get(1, 1) + z * mat.get(1, 2),
+                x * mat.get(2, 0) + y * mat.get(2, 1) + z * mat.get(2, 2));
+    }
+
     public Vector3f add(float s) {
         return new Vector3f(x + s, y + s, z + s);
     }
 
+    public Vector3f add(float s, Vector3f dest) {
+        return dest.set(x + s, y + s, z + s);
+    }
+
     public Vector3f addSelf(float s) {
         x += s;
         y += s;
@@ -217,6 +332,10 @@ public class Vector3f {
         return new Vector3f(x + xs, y + ys, z + zs);
     }
 
+    public Vector3f add(float xs, float ys, float zs, Vector3f dest) {
+        return dest.set(x + xs, y + ys, z + zs);
+    }
+
     public Vector3f addSelf(float xs, float ys, float zs) {
         x += xs;
         y += ys;
@@ -228,6 +347,10 @@ public class Vector3f {
         return new Vector3f(x + other.x, y + other.y, z + other.z);
     }
 
+    public Vector3f add(Vector3f other, Vector3f dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z);
+    }
+
     public Vector3f addSelf(Vector3f other) {
         x += other.x;
         y += other.y;
@@ -236,7 +359,11 @@ public class Vector3f {
     }
 
     public Vector3f sub(float s) {
-        return new Vector3f(x - s, x - s, z - s);
+        return new Vector3f(x - s, y - s, z - s);
+    }
+
+    public Vector3f sub(float s, Vector3f dest) {
+        return dest.set(x - s, y - s, z - s);
     }
 
     public Vector3f subSelf(float s) {
@@ -250,6 +377,10 @@ public class Vector3f {
         return new Vector3f(x - xs, y - ys, z - zs);
     }
 
+    public Vector3f sub(float xs, float ys, float zs, Vector3f dest) {
+        return dest.set(x - xs, y - ys, z - zs);
+    }
+
     public Vector3f subSelf(float xs, float ys, float zs) {
         x -= xs;
         y -= ys;
@@ -261,6 +392,10 @@ public class Vector3f {
         return new Vector3f(x - other.x, y - other.y, z - other.z);
     }
 
+    public Vector3f sub(Vector3f other, Vector3f dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z);
+    }
+
     public Vector3f subSelf(Vector3f other) {
         x -= other.x;
         y -= other.y;
@@ -272,6 +407,10 @@ public class Vector3f {
         return new Vector3f(x / s, y / s, z / s);
     }
 
+    public Vector3f div(float s, Vector3f dest) {
+        return dest.set(x / s, y / s, z / s);
+    }
+
     public Vector3f divSelf(float s) {
         x /= s;
         y /= s;
@@ -283,6 +422,10 @@ public class Vector3f {
         return new Vector3f(x / xs, y / ys, z / zs);
     }
 
+    public Vector3f div(float xs, float ys, float zs, Vector3f dest) {
+        return dest.set(x / xs, y / ys, z / zs);
+    }
+
     public Vector3f divSelf(float xs, float ys, float zs) {
         x /= xs;
         y /= ys;
@@ -294,6 +437,10 @@ public class Vector3f {
         return new Vector3f(x / other.x, y / other.y, z / other.z);
     }
 
+    public Vector3f div(Vector3f other, Vector3f dest) {
+        return dest.set(x / other.x, y / other.y, z / other.z);
+    }
+
     public Vector3f divSelf(Vector3f other) {
         x /= other.x;
         y /= other.y;
@@ -305,6 +452,10 @@ public class Vector3f {
         return new Vector3f(Math.abs(x), Math.abs(y), Math.abs(z));
     }
 
+    public Vector3f abs(Vector3f dest) {
+        return dest.set(Math.abs(x), Math.abs(y), Math.abs(z));
+    }
+
     public Vector3i round() {
         return new Vector3i(Math.round(x), Math.round(y), Math.round(z));
     }
@@ -467,7 +618,10 @@ public class Vector3f {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z);
+        int result = 31 + Float.hashCode(x);
+        result = 31 * result + Float.hashCode(y);
+        result = 31 * result + Float.hashCode(z);
+        return result;
     }
 
     @Override
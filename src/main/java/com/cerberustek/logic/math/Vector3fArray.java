@@ -0,0 +1,331 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A fixed size array of 3d float vectors.
+ *
+ * Other than a plain Vector3f[], this class stores the x, y and z
+ * components in three separate primitive arrays (structure of arrays).
+ * This keeps millions of vectors in just three objects and allows the
+ * bulk operations below to stream linearly through memory.
+ *
+ * All bulk operations work on the index range [off, off + len) of this
+ * array and the other operands and write their results to the same range
+ * of the destination. The destination may be this array or one of the
+ * operands. Unless noted otherwise, the element wise semantics are the
+ * same as for the respective methods of {@link Vector3f}.
+ */
+@SuppressWarnings("Duplicates")
+public class Vector3fArray {
+
+    private final float[] x;
+    private final float[] y;
+    private final float[] z;
+
+    public Vector3fArray(int size) {
+        this(new float[size], new float[size], new float[size]);
+    }
+
+    /**
+     * Creates a vector array backed by the specified component arrays.
+     *
+     * The arrays are not copied, so changes to them are visible through
+     * this vector array and vice versa.
+     *
+     * @param x x components
+     * @param y y components
+     * @param z z components
+     * @throws IllegalArgumentException is thrown if the arrays do not
+     *          have the same length
+     */
+    public Vector3fArray(float[] x, float[] y, float[] z) {
+        if (x.length != y.length || x.length != z.length)
+            throw new IllegalArgumentException("Component arrays differ in length");
+
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    public Vector3fArray(Vector3f... vectors) {
+        this(vectors.length);
+        for (int i = 0; i < vectors.length; i++)
+            set(i, vectors[i]);
+    }
+
+    public int size() {
+        return x.length;
+    }
+
+    public Vector3f get(int index) {
+        return new Vector3f(x[index], y[index], z[index]);
+    }
+
+    public Vector3f get(int index, Vector3f dest) {
+        return dest.set(x[index], y[index], z[index]);
+    }
+
+    public Vector3fArray set(int index, Vector3f value) {
+        return set(index, value.getX(), value.getY(), value.getZ());
+    }
+
+    public Vector3fArray set(int index, float x, float y, float z) {
+        this.x[index] = x;
+        this.y[index] = y;
+        this.z[index] = z;
+        return this;
+    }
+
+    public Vector3fArray fill(Vector3f value, int off, int len) {
+        checkRange(off, len);
+        Arrays.fill(x, off, off + len, value.getX());
+        Arrays.fill(y, off, off + len, value.getY());
+        Arrays.fill(z, off, off + len, value.getZ());
+        return this;
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public float getZ(int index) {
+        return z[index];
+    }
+
+    public Vector3fArray setX(int index, float value) {
+        x[index] = value;
+        return this;
+    }
+
+    public Vector3fArray setY(int index, float value) {
+        y[index] = value;
+        return this;
+    }
+
+    public Vector3fArray setZ(int index, float value) {
+        z[index] = value;
+        return this;
+    }
+
+    /**
+     * Returns the backing array of the x components.
+     * @return x components
+     */
+    public float[] getXArray() {
+        return x;
+    }
+
+    /**
+     * Returns the backing array of the y components.
+     * @return y components
+     */
+    public float[] getYArray() {
+        return y;
+    }
+
+    /**
+     * Returns the backing array of the z components.
+     * @return z components
+     */
+    public float[] getZArray() {
+        return z;
+    }
+
+    public Vector3fArray add(Vector3fArray other, Vector3fArray dest, int off, int len) {
+        checkRange(off, len, other, dest);
+        VectorKernels.add(x, off, other.x, off, dest.x, off, len);
+        VectorKernels.add(y, off, other.y, off, dest.y, off, len);
+        VectorKernels.add(z, off, other.z, off, dest.z, off, len);
+        return dest;
+    }
+
+    public Vector3fArray add(Vector3f value, Vector3fArray dest, int off, int len) {
+        checkRange(off, len, dest);
+        VectorKernels.add(x, off, value.getX(), dest.x, off, len);
+        VectorKernels.add(y, off, value.getY(), dest.y, off, len);
+        VectorKernels.add(z, off, value.getZ(), dest.z, off, len);
+        return dest;
+    }
+
+    public Vector3fArray sub(Vector3fArray other, Vector3fArray dest, int off, int len) {
+        checkRange(off, len, other, dest);
+        VectorKernels.sub(x, off, other.x, off, dest.x, off, len);
+        VectorKernels.sub(y, off, other.y, off, dest.y, off, len);
+        VectorKernels.sub(z, off, other.z, off, dest.z, off, len);
+        return dest;
+    }
+
+    public Vector3fArray sub(Vector3f value, Vector3fArray dest, int off, int len) {
+        checkRange(off, len, dest);
+        VectorKernels.add(x, off, -value.getX(), dest.x, off, len);
+        VectorKernels.add(y, off, -value.getY(), dest.y, off, len);
+        VectorKernels.add(z, off, -value.getZ(), dest.z, off, len);
+        return dest;
+    }
+
+    /**
+     * Multiplies the vectors of this and the other array component wise.
+     */
+    public Vector3fArray mul(Vector3fArray other, Vector3fArray dest, int off, int len) {
+        checkRange(off, len, other, dest);
+        VectorKernels.mul(x, off, other.x, off, dest.x, off, len);
+        VectorKernels.mul(y, off, other.y, off, dest.y, off, len);
+        VectorKernels.mul(z, off, other.z, off, dest.z, off, len);
+        return dest;
+    }
+
+    public Vector3fArray mul(float s, Vector3fArray dest, int off, int len) {
+        checkRange(off, len, dest);
+        VectorKernels.mul(x, off, s, dest.x, off, len);
+        VectorKernels.mul(y, off, s, dest.y, off, len);
+        VectorKernels.mul(z, off, s, dest.z, off, len);
+        return dest;
+    }
+
+    /**
+     * Computes dest = this * s + add for every vector in the range.
+     *
+     * This is the typical integration step for particles, e.g.
+     * <code>velocities.fma(dt, positions, positions, 0, n)</code>.
+     *
+     * @param s scalar to multiply this with
+     * @param add vectors to add to the scaled vectors of this
+     * @param dest destination array
+     * @param off index of the first vector
+     * @param len amount of vectors
+     * @return destination array
+     */
+    public Vector3fArray fma(float s, Vector3fArray add, Vector3fArray dest, int off, int len) {
+        checkRange(off, len, add, dest);
+        VectorKernels.fma(x, off, s, add.x, off, dest.x, off, len);
+        VectorKernels.fma(y, off, s, add.y, off, dest.y, off, len);
+        VectorKernels.fma(z, off, s, add.z, off, dest.z, off, len);
+        return dest;
+    }
+
+    public float[] dot(Vector3fArray other, float[] dest, int off, int len) {
+        checkRange(off, len, other);
+        Objects.checkFromIndexSize(off, len, dest.length);
+        VectorKernels.dot3(x, y, z, other.x, other.y, other.z, dest, off, len);
+        return dest;
+    }
+
+    public Vector3fArray cross(Vector3fArray other, Vector3fArray dest, int off, int len) {
+        checkRange(off, len, other, dest);
+        VectorKernels.cross3(x, y, z, other.x, other.y, other.z, dest.x, dest.y, dest.z, off, len);
+        return dest;
+    }
+
+    public float[] length(float[] dest, int off, int len) {
+        checkRange(off, len);
+        Objects.checkFromIndexSize(off, len, dest.length);
+        VectorKernels.length3(x, y, z, dest, off, len);
+        return dest;
+    }
+
+    /**
+     * Normalizes all vectors in the range.
+     *
+     * Just like {@link Vector3f#normalized()}, vectors with a length
+     * of zero are left untouched.
+     *
+     * @param dest destination array
+     * @param off index of the first vector
+     * @param len amount of vectors
+     * @return destination array
+     */
+    public Vector3fArray normalize(Vector3fArray dest, int off, int len) {
+        checkRange(off, len, dest);
+        VectorKernels.normalize3(x, y, z, dest.x, dest.y, dest.z, off, len);
+        return dest;
+    }
+
+    public Vector3fArray copy() {
+        return new Vector3fArray(x.clone(), y.clone(), z.clone());
+    }
+
+    public Vector3fArray copy(int srcOff, Vector3fArray dest, int destOff, int len) {
+        System.arraycopy(x, srcOff, dest.x, destOff, len);
+        System.arraycopy(y, srcOff, dest.y, destOff, len);
+        System.arraycopy(z, srcOff, dest.z, destOff, len);
+        return dest;
+    }
+
+    public Vector3dArray toVector3dArray() {
+        Vector3dArray out = new Vector3dArray(size());
+        for (int i = 0; i < size(); i++)
+            out.set(i, x[i], y[i], z[i]);
+        return out;
+    }
+
+    private void checkRange(int off, int len) {
+        Objects.checkFromIndexSize(off, len, size());
+    }
+
+    private void checkRange(int off, int len, Vector3fArray a) {
+        Objects.checkFromIndexSize(off, len, size());
+        Objects.checkFromIndexSize(off, len, a.size());
+    }
+
+    private void checkRange(int off, int len, Vector3fArray a, Vector3fArray b) {
+        Objects.checkFromIndexSize(off, len, size());
+        Objects.checkFromIndexSize(off, len, a.size());
+        Objects.checkFromIndexSize(off, len, b.size());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Vector3fArray that = (Vector3fArray) o;
+        return Arrays.equals(x, that.x) &&
+                Arrays.equals(y, that.y) &&
+                Arrays.equals(z, that.z);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(x);
+        result = 31 * result + Arrays.hashCode(y);
+        result = 31 * result + Arrays.hashCode(z);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append('[');
+        for (int i = 0; i < size(); i++)
+            stringBuilder.append("\n\tx: ").append(x[i]).append(" y: ").append(y[i]).append(" z: ").append(z[i]);
+        stringBuilder.append("\n]");
+        return stringBuilder.toString();
+    }
+}
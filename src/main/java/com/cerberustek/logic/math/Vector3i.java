@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -91,6 +89,14 @@ public class Vector3i {
         return new Vector3i(x_, y_, z_);
     }
 
+    public Vector3i cross(Vector3i other, Vector3i dest) {
+        int x_ = (y * other.z) - (z * other.y);
+        int y_ = (z * other.x) - (x * other.z);
+        int z_ = (x * other.y) - (y * other.x);
+
+        return dest.set(x_, y_, z_);
+    }
+
     public float length() {
         return (float) Math.sqrt((x * x) + (y * y) + (z * z));
     }
@@ -102,6 +108,13 @@ public class Vector3i {
         return div(length);
     }
 
+    public Vector3i normalized(Vector3i dest) {
+        float length = length();
+        if (length == 0)
+            return dest.set(x, y, z);
+        return div(length, dest);
+    }
+
     public Vector3i normalizeSelf() {
         float length = length();
         if (length == 0)
@@ -113,6 +126,10 @@ public class Vector3i {
         return new Vector3i(-x, -y, -z);
     }
 
+    public Vector3i invert(Vector3i dest) {
+        return dest.set(-x, -y, -z);
+    }
+
     public Vector3i invertSelf() {
         x = -x;
         y = -y;
@@ -143,35 +160,68 @@ public class Vector3i {
         return new Vector3i((int) Math.pow(x, s), (int) Math.pow(y, s), (int) Math.pow(z, s));
     }
 
+    public Vector3i pow(int s, Vector3i dest) {
+        return dest.set((int) Math.pow(x, s), (int) Math.pow(y, s), (int) Math.pow(z, s));
+    }
+
     public Vector3i pow(int xs, int ys, int zs) {
         return new Vector3i((int) Math.pow(x, xs), (int) Math.pow(y, ys), (int) Math.pow(z, zs));
     }
 
+    public Vector3i pow(int xs, int ys, int zs, Vector3i dest) {
+        return dest.set((int) Math.pow(x, xs), (int) Math.pow(y, ys), (int) Math.pow(z, zs));
+    }
+
     public Vector3i pow(Vector3i other) {
         return new Vector3i((int) Math.pow(x, other.getX()), (int) Math.pow(y, other.getY()),
                 (int) Math.pow(z, other.getZ()));
     }
 
+    public Vector3i pow(Vector3i other, Vector3i dest) {
+        return dest.set((int) Math.pow(x, other.getX()), (int) Math.pow(y, other.getY()),
+                (int) Math.pow(z, other.getZ()));
+    }
+
     public Vector3i mod(int s) {
         return new Vector3i(x % s, y % s, z % s);
     }
 
+    public Vector3i mod(int s, Vector3i dest) {
+        return dest.set(x % s, y % s, z % s);
+    }
+
     public Vector3i mod(int xs, int ys, int zs) {
         return new Vector3i(x % xs, y % ys, z % zs);
     }
 
+    public Vector3i mod(int xs, int ys, int zs, Vector3i dest) {
+        return dest.set(x % xs, y % ys, z % zs);
+    }
+
     public Vector3i mod(Vector3i other) {
         return new Vector3i(x % other.getX(), y % other.getY(), z % other.getZ());
     }
 
+    public Vector3i mod(Vector3i other, Vector3i dest) {
+        return dest.set(x % other.getX(), y % other.getY(), z % other.getZ());
+    }
+
     public Vector3i mul(int s) {
         return new Vector3i(x * s, y * s, z * s);
     }
 
+    public Vector3i mul(int s, Vector3i dest) {
+        return dest.set(x * s, y * s, z * s);
+    }
+
     public Vector3i mul(float s) {
         return new Vector3i((int) (x * s), (int) (y * s), (int) (z * s));
     }
 
+    public Vector3i mul(float s, Vector3i dest) {
+        return dest.set((int) (x * s), (int) (y * s), (int) (z * s));
+    }
+
     public Vector3i mulSelf(int s) {
         x *= s;
         y *= s;
@@ -190,10 +240,18 @@ public class Vector3i {
         return new Vector3i(x * xs, y * ys, z * zs);
     }
 
+    public Vector3i mul(int xs, int ys, int zs, Vector3i dest) {
+        return dest.set(x * xs, y * ys, z * zs);
+    }
+
     public Vector3i mul(float xs, float ys, float zs) {
         return new Vector3i((int) (x * xs), (int) (y * ys), (int) (z * zs));
     }
 
+    public Vector3i mul(float xs, float ys, float zs, Vector3i dest) {
+        return dest.set((int) (x * xs), (int) (y * ys), (int) (z * zs));
+    }
+
     public Vector3i mulSelf(int xs, int ys, int zs) {
         x *= xs;
         y *= ys;
@@ -212,10 +270,18 @@ public class Vector3i {
         return new Vector3i(x * other.x, y * other.y, z * other.z);
     }
 
+    public Vector3i mul(Vector3i other, Vector3i dest) {
+        return dest.set(x * other.x, y * other.y, z * other.z);
+    }
+
     public Vector3i mul(Vector3f other) {
         return new Vector3i((int) (x * other.getX()), (int) (y * other.getY()), (int) (z * other.getZ()));
     }
 
+    public Vector3i mul(Vector3f other, Vector3i dest) {
+        return dest.set((int) (x * other.getX()), (int) (y * other.getY()), (int) (z * other.getZ()));
+    }
+
     public Vector3i mulSelf(Vector3i other) {
         x *= other.x;
         y *= other.y;
@@ -234,6 +300,10 @@ public class Vector3i {
         return new Vector3i(x + s, y + s, z + s);
     }
 
+    public Vector3i add(int s, Vector3i dest) {
+        return dest.set(x + s, y + s, z + s);
+    }
+
     public Vector3i addSelf(int s) {
         x += s;
         y += s;
@@ -245,6 +315,10 @@ public class Vector3i {
         return new Vector3i(x + xs, y + ys, z + zs);
     }
 
+    public Vector3i add(int xs, int ys, int zs, Vector3i dest) {
+        return dest.set(x + xs, y + ys, z + zs);
+    }
+
     public Vector3i addSelf(int xs, int ys, int zs) {
         x += xs;
         y += ys;
@@ -256,6 +330,10 @@ public class Vector3i {
         return new Vector3i(x + other.x, y + other.y, z + other.z);
     }
 
+    public Vector3i add(Vector3i other, Vector3i dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z);
+    }
+
     public Vector3i addSelf(Vector3i other) {
         x += other.x;
         y += other.y;
@@ -264,7 +342,11 @@ public class Vector3i {
     }
 
     public Vector3i sub(int s) {
-        return new Vector3i(x - s, x - s, z - s);
+        return new Vector3i(x - s, y - s, z - s);
+    }
+
+    public Vector3i sub(int s, Vector3i dest) {
+        return dest.set(x - s, y - s, z - s);
     }
 
     public Vector3i subSelf(int s) {
@@ -278,6 +360,10 @@ public class Vector3i {
         return new Vector3i(x - xs, y - ys, z - zs);
     }
 
+    public Vector3i sub(int xs, int ys, int zs, Vector3i dest) {
+        return dest.set(x - xs, y - ys, z - zs);
+    }
+
     public Vector3i subSelf(int xs, int ys, int zs) {
         x -= xs;
         y -= ys;
@@ -289,6 +375,10 @@ public class Vector3i {
         return new Vector3i(x - other.x, y - other.y, z - other.z);
     }
 
+    public Vector3i sub(Vector3i other, Vector3i dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z);
+    }
+
     public Vector3i subSelf(Vector3i other) {
         x -= other.x;
         y -= other.y;
@@ -300,10 +390,18 @@ public class Vector3i {
         return new Vector3i(x / s, y / s, z / s);
     }
 
+    public Vector3i div(int s, Vector3i dest) {
+        return dest.set(x / s, y / s, z / s);
+    }
+
     public Vector3i div(float s) {
         return new Vector3i((int) (x / s), (int) (y / s), (int) (z / s));
     }
 
+    public Vector3i div(float s, Vector3i dest) {
+        return dest.set((int) (x / s), (int) (y / s), (int) (z / s));
+    }
+
     public Vector3i divSelf(int s) {
         x /= s;
         y /= s;
@@ -322,10 +420,18 @@ public class Vector3i {
         return new Vector3i(x / xs, y / ys, z / zs);
     }
 
+    public Vector3i div(int xs, int ys, int zs, Vector3i dest) {
+        return dest.set(x / xs, y / ys, z / zs);
+    }
+
     public Vector3i div(float xs, float ys, float zs) {
         return new Vector3i((int) (x / xs), (int) (y / ys), (int) (z / zs));
     }
 
+    public Vector3i div(float xs, float ys, float zs, Vector3i dest) {
+        return dest.set((int) (x / xs), (int) (y / ys), (int) (z / zs));
+    }
+
     public Vector3i divSelf(int xs, int ys, int zs) {
         x /= xs;
         y /= ys;
@@ -344,10 +450,18 @@ public class Vector3i {
         return new Vector3i(x / other.x, y / other.y, z / other.z);
     }
 
+    public Vector3i div(Vector3i other, Vector3i dest) {
+        return dest.set(x / other.x, y / other.y, z / other.z);
+    }
+
     public Vector3i div(Vector3f other) {
         return new Vector3i((int) (x / other.getX()), (int) (y / other.getY()), (int) (z / other.getZ()));
     }
 
+    public Vector3i div(Vector3f other, Vector3i dest) {
+        return dest.set((int) (x / other.getX()), (int) (y / other.getY()), (int) (z / other.getZ()));
+    }
+
     public Vector3i divSelf(Vector3i other) {
         x /= other.x;
         y /= other.y;
@@ -366,6 +480,10 @@ public class Vector3i {
         return new Vector3i(Math.abs(x), Math.abs(y), Math.abs(z));
     }
 
+    public Vector3i abs(Vector3i dest) {
+        return dest.set(Math.abs(x), Math.abs(y), Math.abs(z));
+    }
+
     public Vector3i set(Vector3i value) {
         x = value.x;
         y = value.y;
@@ -508,6 +626,34 @@ public class Vector3i {
         return new Vector2i(z, y);
     }
 
+    /**
+     * Returns the Morton (Z-order) key of this vector. Only 21 bits per
+     * axis are used, see {@link SpatialKeys#morton3(int, int, int)}.
+     *
+     * @return morton key
+     */
+    public long morton() {
+        return SpatialKeys.morton3(x, y, z);
+    }
+
+    public Vector3i setMorton(long key) {
+        return set(SpatialKeys.morton3X(key), SpatialKeys.morton3Y(key), SpatialKeys.morton3Z(key));
+    }
+
+    /**
+     * Returns the Hilbert key of this vector. Only 21 bits per axis are
+     * used, see {@link SpatialKeys#hilbert3(int, int, int)}.
+     *
+     * @return hilbert key
+     */
+    public long hilbert() {
+        return SpatialKeys.hilbert3(x, y, z);
+    }
+
+    public Vector3i setHilbert(long key) {
+        return setMorton(SpatialKeys.hilbert3ToMorton(key));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -520,7 +666,10 @@ public class Vector3i {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z);
+        int result = 31 + Integer.hashCode(x);
+        result = 31 * result + Integer.hashCode(y);
+        result = 31 * result + Integer.hashCode(z);
+        return result;
     }
 
     @Override
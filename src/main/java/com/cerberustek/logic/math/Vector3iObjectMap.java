@@ -0,0 +1,288 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import java.util.Arrays;
+
+/**
+ * Hash map from integer (x, y, z) coordinates to objects.
+ *
+ * Keys are stored unboxed in a flat int array and collisions are resolved
+ * by linear probing, so lookups take the raw coordinates and need neither
+ * a key object nor an entry object. Removal shifts following entries back
+ * instead of leaving tombstones behind.
+ *
+ * This map is not thread safe.
+ */
+@SuppressWarnings("Duplicates")
+public class Vector3iObjectMap<V> {
+
+    @FunctionalInterface
+    public interface EntryConsumer<V> {
+        void accept(int x, int y, int z, V value);
+    }
+
+    @FunctionalInterface
+    public interface ValueFactory<V> {
+        V create(int x, int y, int z);
+    }
+
+    private static final float LOAD_FACTOR = 0.6f;
+    /** Largest slot count for which the flat key array still fits in an int index */
+    private static final int MAX_CAPACITY = 1 << 29;
+
+    private int[] keys;
+    private Object[] values;
+    private boolean[] used;
+    private int mask;
+    private int size;
+    private int threshold;
+
+    public Vector3iObjectMap() {
+        this(16);
+    }
+
+    public Vector3iObjectMap(int expectedSize) {
+        if (expectedSize < 0)
+            throw new IllegalArgumentException("Expected size must not be negative!");
+        allocate(capacityFor(expectedSize));
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR);
+        if (needed > MAX_CAPACITY)
+            throw new IllegalArgumentException("Expected size exceeds the map capacity!");
+        int capacity = 2;
+        while (capacity < needed)
+            capacity <<= 1;
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity * 3];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        threshold = (int) Math.min(capacity * (double) LOAD_FACTOR, capacity - 1);
+    }
+
+    static int hash(int x, int y, int z) {
+        int h = x * 73856093 ^ y * 19349663 ^ z * 83492791;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Returns the slot of the key, or the bitwise complement of the free
+     * slot where it would be inserted.
+     */
+    private int find(int x, int y, int z) {
+        int index = hash(x, y, z) & mask;
+        while (used[index]) {
+            int k = index * 3;
+            if (keys[k] == x && keys[k + 1] == y && keys[k + 2] == z)
+                return index;
+            index = (index + 1) & mask;
+        }
+        return ~index;
+    }
+
+    private void insert(int index, int x, int y, int z, V value) {
+        if (size >= threshold) {
+            grow();
+            index = ~find(x, y, z);
+        }
+
+        int k = index * 3;
+        keys[k] = x;
+        keys[k + 1] = y;
+        keys[k + 2] = z;
+        values[index] = value;
+        used[index] = true;
+        size++;
+    }
+
+    private void grow() {
+        if (used.length >= MAX_CAPACITY)
+            throw new IllegalStateException("Map capacity exceeded!");
+
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(used.length * 2);
+
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (!oldUsed[i])
+                continue;
+            int o = i * 3;
+            int index = hash(oldKeys[o], oldKeys[o + 1], oldKeys[o + 2]) & mask;
+            while (used[index])
+                index = (index + 1) & mask;
+            System.arraycopy(oldKeys, o, keys, index * 3, 3);
+            values[index] = oldValues[i];
+            used[index] = true;
+        }
+    }
+
+    /**
+     * Closes the gap at the given slot by moving back entries of the same
+     * probe sequence.
+     */
+    private void shiftBack(int gap) {
+        int index = (gap + 1) & mask;
+        while (used[index]) {
+            int k = index * 3;
+            int home = hash(keys[k], keys[k + 1], keys[k + 2]) & mask;
+            // entries may only move towards their home slot
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                System.arraycopy(keys, k, keys, gap * 3, 3);
+                values[gap] = values[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        used[gap] = false;
+        values[gap] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int x, int y, int z) {
+        int index = find(x, y, z);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    public V get(Vector3i key) {
+        return get(key.getX(), key.getY(), key.getZ());
+    }
+
+    @SuppressWarnings("unchecked")
+    public V getOrDefault(int x, int y, int z, V defaultValue) {
+        int index = find(x, y, z);
+        return index >= 0 ? (V) values[index] : defaultValue;
+    }
+
+    public boolean containsKey(int x, int y, int z) {
+        return find(x, y, z) >= 0;
+    }
+
+    public boolean containsKey(Vector3i key) {
+        return containsKey(key.getX(), key.getY(), key.getZ());
+    }
+
+    /**
+     * Maps the coordinates to value.
+     *
+     * @return previous value or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int x, int y, int z, V value) {
+        int index = find(x, y, z);
+        if (index >= 0) {
+            V previous = (V) values[index];
+            values[index] = value;
+            return previous;
+        }
+        insert(~index, x, y, z, value);
+        return null;
+    }
+
+    public V put(Vector3i key, V value) {
+        return put(key.getX(), key.getY(), key.getZ(), value);
+    }
+
+    /**
+     * Returns the value of the coordinates and creates it with the factory
+     * if there is none yet.
+     *
+     * @return present or created value
+     */
+    @SuppressWarnings("unchecked")
+    public V computeIfAbsent(int x, int y, int z, ValueFactory<? extends V> factory) {
+        int index = find(x, y, z);
+        if (index >= 0)
+            return (V) values[index];
+        V value = factory.create(x, y, z);
+        insert(~index, x, y, z, value);
+        return value;
+    }
+
+    /**
+     * Removes the mapping of the coordinates.
+     *
+     * @return removed value or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int x, int y, int z) {
+        int index = find(x, y, z);
+        if (index < 0)
+            return null;
+        V previous = (V) values[index];
+        shiftBack(index);
+        size--;
+        return previous;
+    }
+
+    public V remove(Vector3i key) {
+        return remove(key.getX(), key.getY(), key.getZ());
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(EntryConsumer<? super V> consumer) {
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                int k = i * 3;
+                consumer.accept(keys[k], keys[k + 1], keys[k + 2], (V) values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(used, false);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder stringBuilder = new StringBuilder();
+        stringBuilder.append('{');
+        forEach((x, y, z, value) -> {
+            if (stringBuilder.length() > 1)
+                stringBuilder.append(", ");
+            stringBuilder.append('(').append(x).append(", ").append(y).append(", ").append(z).append(")=").append(value);
+        });
+        return stringBuilder.append('}').toString();
+    }
+}
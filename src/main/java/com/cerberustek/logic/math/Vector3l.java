@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 /**
  * Created by LateinCecker on 02.03.2016.
  */
@@ -91,6 +89,14 @@ public class Vector3l {
         return new Vector3l(x_, y_, z_);
     }
 
+    public Vector3l cross(Vector3l other, Vector3l dest) {
+        long x_ = (y * other.z) - (z * other.y);
+        long y_ = (z * other.x) - (x * other.z);
+        long z_ = (x * other.y) - (y * other.x);
+
+        return dest.set(x_, y_, z_);
+    }
+
     public double length() {
         return Math.sqrt((x * x) + (y * y) + (z * z));
     }
@@ -102,6 +108,13 @@ public class Vector3l {
         return div(length);
     }
 
+    public Vector3l normalized(Vector3l dest) {
+        double length = length();
+        if (length == 0)
+            return dest.set(x, y, z);
+        return div(length, dest);
+    }
+
     public Vector3l normalizeSelf() {
         double length = length();
         if (length == 0)
@@ -113,35 +126,68 @@ public class Vector3l {
         return new Vector3l((long) Math.pow(x, s), (long) Math.pow(y, s), (long) Math.pow(z, s));
     }
 
+    public Vector3l pow(long s, Vector3l dest) {
+        return dest.set((long) Math.pow(x, s), (long) Math.pow(y, s), (long) Math.pow(z, s));
+    }
+
     public Vector3l pow(long xs, long ys, long zs) {
         return new Vector3l((long) Math.pow(x, xs), (long) Math.pow(y, ys), (long) Math.pow(z, zs));
     }
 
+    public Vector3l pow(long xs, long ys, long zs, Vector3l dest) {
+        return dest.set((long) Math.pow(x, xs), (long) Math.pow(y, ys), (long) Math.pow(z, zs));
+    }
+
     public Vector3l pow(Vector3l other) {
         return new Vector3l((long) Math.pow(x, other.getX()), (long) Math.pow(y, other.getY()),
                 (long) Math.pow(z, other.getZ()));
     }
 
+    public Vector3l pow(Vector3l other, Vector3l dest) {
+        return dest.set((long) Math.pow(x, other.getX()), (long) Math.pow(y, other.getY()),
+                (long) Math.pow(z, other.getZ()));
+    }
+
     public Vector3l mod(long s) {
         return new Vector3l(x % s, y % s, z % s);
     }
 
+    public Vector3l mod(long s, Vector3l dest) {
+        return dest.set(x % s, y % s, z % s);
+    }
+
     public Vector3l mod(long xs, long ys, long zs) {
         return new Vector3l(x % xs, y % ys, z % zs);
     }
 
+    public Vector3l mod(long xs, long ys, long zs, Vector3l dest) {
+        return dest.set(x % xs, y % ys, z % zs);
+    }
+
     public Vector3l mod(Vector3l other) {
         return new Vector3l(x % other.getX(), y % other.getY(), z % other.getZ());
     }
 
+    public Vector3l mod(Vector3l other, Vector3l dest) {
+        return dest.set(x % other.getX(), y % other.getY(), z % other.getZ());
+    }
+
     public Vector3l mul(long s) {
         return new Vector3l(x * s, y * s, z * s);
     }
 
+    public Vector3l mul(long s, Vector3l dest) {
+        return dest.set(x * s, y * s, z * s);
+    }
+
     public Vector3l mul(double s) {
         return new Vector3l((long) (x * s), (long) (y * s), (long) (z * s));
     }
 
+    public Vector3l mul(double s, Vector3l dest) {
+        return dest.set((long) (x * s), (long) (y * s), (long) (z * s));
+    }
+
     public Vector3l mulSelf(long s) {
         x *= s;
         y *= s;
@@ -160,10 +206,18 @@ public class Vector3l {
         return new Vector3l(x * xs, y * ys, z * zs);
     }
 
+    public Vector3l mul(long xs, long ys, long zs, Vector3l dest) {
+        return dest.set(x * xs, y * ys, z * zs);
+    }
+
     public Vector3l mul(double xs, double ys, double zs) {
         return new Vector3l((long) (x * xs), (long) (y * ys), (long) (z * zs));
     }
 
+    public Vector3l mul(double xs, double ys, double zs, Vector3l dest) {
+        return dest.set((long) (x * xs), (long) (y * ys), (long) (z * zs));
+    }
+
     public Vector3l mulSelf(long xs, long ys, long zs) {
         x *= xs;
         y *= ys;
@@ -182,10 +236,18 @@ public class Vector3l {
         return new Vector3l(x * other.x, y * other.y, z * other.z);
     }
 
+    public Vector3l mul(Vector3l other, Vector3l dest) {
+        return dest.set(x * other.x, y * other.y, z * other.z);
+    }
+
     public Vector3l mul(Vector3d other) {
         return new Vector3l((long) (x * other.getX()), (long) (y * other.getY()), (long) (z * other.getZ()));
     }
 
+    public Vector3l mul(Vector3d other, Vector3l dest) {
+        return dest.set((long) (x * other.getX()), (long) (y * other.getY()), (long) (z * other.getZ()));
+    }
+
     public Vector3l mulSelf(Vector3l other) {
         x *= other.x;
         y *= other.y;
@@ -204,6 +266,10 @@ public class Vector3l {
         return new Vector3l(x + s, y + s, z + s);
     }
 
+    public Vector3l add(long s, Vector3l dest) {
+        return dest.set(x + s, y + s, z + s);
+    }
+
     public Vector3l addSelf(long s) {
         x += s;
         y += s;
@@ -215,6 +281,10 @@ public class Vector3l {
         return new Vector3l(x + xs, y + ys, z + zs);
     }
 
+    public Vector3l add(long xs, long ys, long zs, Vector3l dest) {
+        return dest.set(x + xs, y + ys, z + zs);
+    }
+
     public Vector3l addSelf(long xs, long ys, long zs) {
         x += xs;
         y += ys;
@@ -226,6 +296,10 @@ public class Vector3l {
         return new Vector3l(x + other.x, y + other.y, z + other.z);
     }
 
+    public Vector3l add(Vector3l other, Vector3l dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z);
+    }
+
     public Vector3l addSelf(Vector3l other) {
         x += other.x;
         y += other.y;
@@ -234,7 +308,11 @@ public class Vector3l {
     }
 
     public Vector3l sub(long s) {
-        return new Vector3l(x - s, x - s, z - s);
+        return new Vector3l(x - s, y - s, z - s);
+    }
+
+    public Vector3l sub(long s, Vector3l dest) {
+        return dest.set(x - s, y - s, z - s);
     }
 
     public Vector3l subSelf(long s) {
@@ -248,6 +326,10 @@ public class Vector3l {
         return new Vector3l(x - xs, y - ys, z - zs);
     }
 
+    public Vector3l sub(long xs, long ys, long zs, Vector3l dest) {
+        return dest.set(x - xs, y - ys, z - zs);
+    }
+
     public Vector3l subSelf(long xs, long ys, long zs) {
         x -= xs;
         y -= ys;
@@ -259,6 +341,10 @@ public class Vector3l {
         return new Vector3l(x - other.x, y - other.y, z - other.z);
     }
 
+    public Vector3l sub(Vector3l other, Vector3l dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z);
+    }
+
     public Vector3l subSelf(Vector3l other) {
         x -= other.x;
         y -= other.y;
@@ -270,10 +356,18 @@ public class Vector3l {
         return new Vector3l(x / s, y / s, z / s);
     }
 
+    public Vector3l div(long s, Vector3l dest) {
+        return dest.set(x / s, y / s, z / s);
+    }
+
     public Vector3l div(double s) {
         return new Vector3l((long) (x / s), (long) (y / s), (long) (z / s));
     }
 
+    public Vector3l div(double s, Vector3l dest) {
+        return dest.set((long) (x / s), (long) (y / s), (long) (z / s));
+    }
+
     public Vector3l divSelf(long s) {
         x /= s;
         y /= s;
@@ -292,10 +386,18 @@ public class Vector3l {
         return new Vector3l(x / xs, y / ys, z / zs);
     }
 
+    public Vector3l div(long xs, long ys, long zs, Vector3l dest) {
+        return dest.set(x / xs, y / ys, z / zs);
+    }
+
     public Vector3l div(double xy, double ys, double zs) {
         return new Vector3l((long) (x / xy), (long) (y / ys), (long) (z / zs));
     }
 
+    public Vector3l div(double xy, double ys, double zs, Vector3l dest) {
+        return dest.set((long) (x / xy), (long) (y / ys), (long) (z / zs));
+    }
+
     public Vector3l divSelf(long xs, long ys, long zs) {
         x /= xs;
         y /= ys;
@@ -314,10 +416,18 @@ public class Vector3l {
         return new Vector3l(x / other.x, y / other.y, z / other.z);
     }
 
+    public Vector3l div(Vector3l other, Vector3l dest) {
+        return dest.set(x / other.x, y / other.y, z / other.z);
+    }
+
     public Vector3l div(Vector3d other) {
         return new Vector3l((long) (x / other.getX()), (long) (y / other.getY()), (long) (z / other.getZ()));
     }
 
+    public Vector3l div(Vector3d other, Vector3l dest) {
+        return dest.set((long) (x / other.getX()), (long) (y / other.getY()), (long) (z / other.getZ()));
+    }
+
     public Vector3l divSelf(Vector3l other) {
         x /= other.x;
         y /= other.y;
@@ -336,6 +446,10 @@ public class Vector3l {
         return new Vector3l(Math.abs(x), Math.abs(y), Math.abs(z));
     }
 
+    public Vector3l abs(Vector3l dest) {
+        return dest.set(Math.abs(x), Math.abs(y), Math.abs(z));
+    }
+
     public Vector3l set(Vector3l value) {
         x = value.x;
         y = value.y;
@@ -478,6 +592,34 @@ public class Vector3l {
         return new Vector2l(z, y);
     }
 
+    /**
+     * Returns the Morton (Z-order) key of this vector. Only 21 bits per
+     * axis are used, see {@link SpatialKeys#morton3(int, int, int)}.
+     *
+     * @return morton key
+     */
+    public long morton() {
+        return SpatialKeys.morton3((int) x, (int) y, (int) z);
+    }
+
+    public Vector3l setMorton(long key) {
+        return set(SpatialKeys.morton3X(key), SpatialKeys.morton3Y(key), SpatialKeys.morton3Z(key));
+    }
+
+    /**
+     * Returns the Hilbert key of this vector. Only 21 bits per axis are
+     * used, see {@link SpatialKeys#hilbert3(int, int, int)}.
+     *
+     * @return hilbert key
+     */
+    public long hilbert() {
+        return SpatialKeys.hilbert3((int) x, (int) y, (int) z);
+    }
+
+    public Vector3l setHilbert(long key) {
+        return setMorton(SpatialKeys.hilbert3ToMorton(key));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -490,7 +632,10 @@ public class Vector3l {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z);
+        int result = 31 + Long.hashCode(x);
+        result = 31 * result + Long.hashCode(y);
+        result = 31 * result + Long.hashCode(z);
+        return result;
     }
 
     @Override
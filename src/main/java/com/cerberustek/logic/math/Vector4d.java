@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 public class Vector4d {
 
     private double x;
@@ -88,6 +86,13 @@ public class Vector4d {
         return div(length);
     }
 
+    public Vector4d normalized(Vector4d dest) {
+        double length = length();
+        if (length == 0)
+            return dest.set(this);
+        return div(length, dest);
+    }
+
     public Vector4d normalizeSelf() {
         double length = length();
         if (length == 0)
@@ -99,6 +104,10 @@ public class Vector4d {
         return new Vector4d(-x, -y, -z, -w);
     }
 
+    public Vector4d invert(Vector4d dest) {
+        return dest.set(-x, -y, -z, -w);
+    }
+
     public Vector4d invertSelf() {
         x = -x;
         y = -y;
@@ -115,6 +124,10 @@ public class Vector4d {
         return new Vector4d(x * s, y * s, z * s, w * s);
     }
 
+    public Vector4d mul(double s, Vector4d dest) {
+        return dest.set(x * s, y * s, z * s, w * s);
+    }
+
     public Vector4d mulSelf(double s) {
         x *= s;
         y *= s;
@@ -127,6 +140,10 @@ public class Vector4d {
         return new Vector4d(x * xs, y * ys, z * zs, w * ws);
     }
 
+    public Vector4d mul(double xs, double ys, double zs, double ws, Vector4d dest) {
+        return dest.set(x * xs, y * ys, z * zs, w * ws);
+    }
+
     public Vector4d mulSelf(double xs, double ys, double zs, double ws) {
         x *= xs;
         y *= ys;
@@ -139,6 +156,10 @@ public class Vector4d {
         return new Vector4d(x * other.x, y * other.y, z * other.z, w * other.w);
     }
 
+    public Vector4d mul(Vector4d other, Vector4d dest) {
+        return dest.set(x * other.x, y * other.y, z * other.z, w * other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4d mulSelf(Vector4d other) {
         x *= other.x;
@@ -152,6 +173,10 @@ public class Vector4d {
         return new Vector4d(x / s, y / s, z / s, w / s);
     }
 
+    public Vector4d div(double s, Vector4d dest) {
+        return dest.set(x / s, y / s, z / s, w / s);
+    }
+
     public Vector4d divSelf(double s) {
         x /= s;
         y /= s;
@@ -164,6 +189,10 @@ public class Vector4d {
         return new Vector4d(x / xs, y / ys, z / zs, w / ws);
     }
 
+    public Vector4d div(double xs, double ys, double zs, double ws, Vector4d dest) {
+        return dest.set(x / xs, y / ys, z / zs, w / ws);
+    }
+
     public Vector4d divSelf(double xs, double ys, double zs, double ws) {
         x /= xs;
         y /= ys;
@@ -176,6 +205,10 @@ public class Vector4d {
         return new Vector4d(x / other.x, y / other.y, z / other.z, w / other.w);
     }
 
+    public Vector4d div(Vector4d other, Vector4d dest) {
+        return dest.set(x / other.x, y / other.y, z / other.z, w / other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4d divSelf(Vector4d other) {
         x /= other.x;
@@ -189,6 +222,10 @@ public class Vector4d {
         return new Vector4d(x + s, y + s, z + s, w + s);
     }
 
+    public Vector4d add(double s, Vector4d dest) {
+        return dest.set(x + s, y + s, z + s, w + s);
+    }
+
     public Vector4d addSelf(double s) {
         x += s;
         y += s;
@@ -201,6 +238,10 @@ public class Vector4d {
         return new Vector4d(x + xs, y + ys, z + zs, w + ws);
     }
 
+    public Vector4d add(double xs, double ys, double zs, double ws, Vector4d dest) {
+        return dest.set(x + xs, y + ys, z + zs, w + ws);
+    }
+
     public Vector4d addSelf(double xs, double ys, double zs, double ws) {
         x += xs;
         y += ys;
@@ -213,6 +254,10 @@ public class Vector4d {
         return new Vector4d(x + other.x, y + other.y, z + other.z, w + other.w);
     }
 
+    public Vector4d add(Vector4d other, Vector4d dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z, w + other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4d addSelf(Vector4d other) {
         x += other.x;
@@ -226,6 +271,10 @@ public class Vector4d {
         return new Vector4d(x - s, y - s, z - s, w - s);
     }
 
+    public Vector4d sub(double s, Vector4d dest) {
+        return dest.set(x - s, y - s, z - s, w - s);
+    }
+
     public Vector4d subSelf(double s) {
         x -= s;
         y -= s;
@@ -238,6 +287,10 @@ public class Vector4d {
         return new Vector4d(x - xs, y - ys, z - zs, w - ws);
     }
 
+    public Vector4d sub(double xs, double ys, double zs, double ws, Vector4d dest) {
+        return dest.set(x - xs, y - ys, z - zs, w - ws);
+    }
+
     public Vector4d subSelf(double xs, double ys, double zs, double ws) {
         x -= xs;
         y -= ys;
@@ -250,6 +303,10 @@ public class Vector4d {
         return new Vector4d(x - other.x, y - other.y, z - other.z, w - other.w);
     }
 
+    public Vector4d sub(Vector4d other, Vector4d dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z, w - other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4d subSelf(Vector4d other) {
         x -= other.x;
@@ -382,6 +439,10 @@ public class Vector4d {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z, w);
+        int result = 31 + Double.hashCode(x);
+        result = 31 * result + Double.hashCode(y);
+        result = 31 * result + Double.hashCode(z);
+        result = 31 * result + Double.hashCode(w);
+        return result;
     }
 }
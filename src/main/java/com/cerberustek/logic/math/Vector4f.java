@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 public class Vector4f {
 
     private float x;
@@ -60,6 +58,13 @@ public class Vector4f {
         return div(length);
     }
 
+    public Vector4f normalized(Vector4f dest) {
+        float length = length();
+        if (length == 0)
+            return dest.set(this);
+        return div(length, dest);
+    }
+
     public Vector4f normalizeSelf() {
         float length = length();
         if (length == 0)
@@ -71,6 +76,10 @@ public class Vector4f {
         return new Vector4f(-x, -y, -z, -w);
     }
 
+    public Vector4f invert(Vector4f dest) {
+        return dest.set(-x, -y, -z, -w);
+    }
+
     public Vector4f invertSelf() {
         x = -x;
         y = -y;
@@ -87,6 +96,10 @@ public class Vector4f {
         return new Vector4f(x * s, y * s, z * s, w * s);
     }
 
+    public Vector4f mul(float s, Vector4f dest) {
+        return dest.set(x * s, y * s, z * s, w * s);
+    }
+
     public Vector4f mulSelf(float s) {
          x *= s;
          y *= s;
@@ -99,6 +112,10 @@ public class Vector4f {
         return new Vector4f(x * xs, y * ys, z * zs, w * ws);
     }
 
+    public Vector4f mul(float xs, float ys, float zs, float ws, Vector4f dest) {
+        return dest.set(x * xs, y * ys, z * zs, w * ws);
+    }
+
     public Vector4f mulSelf(float xs, float ys, float zs, float ws) {
         x *= xs;
         y *= ys;
@@ -111,6 +128,10 @@ public class Vector4f {
         return new Vector4f(x * other.x, y * other.y, z * other.z, w * other.w);
     }
 
+    public Vector4f mul(Vector4f other, Vector4f dest) {
+        return dest.set(x * other.x, y * other.y, z * other.z, w * other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4f mulSelf(Vector4f other) {
         x *= other.x;
@@ -124,6 +145,10 @@ public class Vector4f {
         return new Vector4f(x / s, y / s, z / s, w / s);
     }
 
+    public Vector4f div(float s, Vector4f dest) {
+        return dest.set(x / s, y / s, z / s, w / s);
+    }
+
     public Vector4f divSelf(float s) {
         x /= s;
         y /= s;
@@ -136,6 +161,10 @@ public class Vector4f {
         return new Vector4f(x / xs, y / ys, z / zs, w / ws);
     }
 
+    public Vector4f div(float xs, float ys, float zs, float ws, Vector4f dest) {
+        return dest.set(x / xs, y / ys, z / zs, w / ws);
+    }
+
     public Vector4f divSelf(float xs, float ys, float zs, float ws) {
         x /= xs;
         y /= ys;
@@ -148,6 +177,10 @@ public class Vector4f {
         return new Vector4f(x / other.x, y / other.y, z / other.z, w / other.w);
     }
 
+    public Vector4f div(Vector4f other, Vector4f dest) {
+        return dest.set(x / other.x, y / other.y, z / other.z, w / other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4f divSelf(Vector4f other) {
         x /= other.x;
@@ -161,6 +194,10 @@ public class Vector4f {
         return new Vector4f(x + s, y + s, z + s, w + s);
     }
 
+    public Vector4f add(float s, Vector4f dest) {
+        return dest.set(x + s, y + s, z + s, w + s);
+    }
+
     public Vector4f addSelf(float s) {
         x += s;
         y += s;
@@ -173,6 +210,10 @@ public class Vector4f {
         return new Vector4f(x + xs, y + ys, z + zs, w + ws);
     }
 
+    public Vector4f add(float xs, float ys, float zs, float ws, Vector4f dest) {
+        return dest.set(x + xs, y + ys, z + zs, w + ws);
+    }
+
     public Vector4f addSelf(float xs, float ys, float zs, float ws) {
         x += xs;
         y += ys;
@@ -185,6 +226,10 @@ public class Vector4f {
         return new Vector4f(x + other.x, y + other.y, z + other.z, w + other.w);
     }
 
+    public Vector4f add(Vector4f other, Vector4f dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z, w + other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4f addSelf(Vector4f other) {
         x += other.x;
@@ -198,6 +243,10 @@ public class Vector4f {
         return new Vector4f(x - s, y - s, z - s, w - s);
     }
 
+    public Vector4f sub(float s, Vector4f dest) {
+        return dest.set(x - s, y - s, z - s, w - s);
+    }
+
     public Vector4f subSelf(float s) {
         x -= s;
         y -= s;
@@ -210,6 +259,10 @@ public class Vector4f {
         return new Vector4f(x - xs, y - ys, z - zs, w - ws);
     }
 
+    public Vector4f sub(float xs, float ys, float zs, float ws, Vector4f dest) {
+        return dest.set(x - xs, y - ys, z - zs, w - ws);
+    }
+
     public Vector4f subSelf(float xs, float ys, float zs, float ws) {
         x -= xs;
         y -= ys;
@@ -222,6 +275,10 @@ public class Vector4f {
         return new Vector4f(x - other.x, y - other.y, z - other.z, w - other.w);
     }
 
+    public Vector4f sub(Vector4f other, Vector4f dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z, w - other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4f subSelf(Vector4f other) {
         x -= other.x;
@@ -356,7 +413,11 @@ public class Vector4f {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z, w);
+        int result = 31 + Float.hashCode(x);
+        result = 31 * result + Float.hashCode(y);
+        result = 31 * result + Float.hashCode(z);
+        result = 31 * result + Float.hashCode(w);
+        return result;
     }
 }
 
@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 public class Vector4i {
 
     private int x;
@@ -60,6 +58,13 @@ public class Vector4i {
         return div(length);
     }
 
+    public Vector4i normalized(Vector4i dest) {
+        float length = length();
+        if (length == 0)
+            return dest.set(x, y, z, w);
+        return div(length, dest);
+    }
+
     public Vector4i normalizeSelf() {
         float length = length();
         if (length == 0)
@@ -71,6 +76,10 @@ public class Vector4i {
         return new Vector4i(-x, -y, -z, -w);
     }
 
+    public Vector4i invert(Vector4i dest) {
+        return dest.set(-x, -y, -z, -w);
+    }
+
     public Vector4i invertSelf() {
         x = -x;
         y = -y;
@@ -87,10 +96,18 @@ public class Vector4i {
         return new Vector4i(x * s, y * s, z * s, w * s);
     }
 
+    public Vector4i mul(int s, Vector4i dest) {
+        return dest.set(x * s, y * s, z * s, w * s);
+    }
+
     public Vector4i mul(float s) {
         return new Vector4i((int) (x * s), (int) (y * s), (int) (z * s), (int) (w * s));
     }
 
+    public Vector4i mul(float s, Vector4i dest) {
+        return dest.set((int) (x * s), (int) (y * s), (int) (z * s), (int) (w * s));
+    }
+
     public Vector4i mulSelf(int s) {
         x *= s;
         y *= s;
@@ -112,10 +129,18 @@ public class Vector4i {
         return new Vector4i(x * xs, y * ys, z * zs, w * ws);
     }
 
+    public Vector4i mul(int xs, int ys, int zs, int ws, Vector4i dest) {
+        return dest.set(x * xs, y * ys, z * zs, w * ws);
+    }
+
     public Vector4i mul(float xs, float ys, float zs, float ws) {
         return new Vector4i((int) (x * xs), (int) (y * ys), (int) (z * zs), (int) (w * ws));
     }
 
+    public Vector4i mul(float xs, float ys, float zs, float ws, Vector4i dest) {
+        return dest.set((int) (x * xs), (int) (y * ys), (int) (z * zs), (int) (w * ws));
+    }
+
     public Vector4i mulSelf(int xs, int ys, int zs, int ws) {
         x *= xs;
         y *= ys;
@@ -137,10 +162,18 @@ public class Vector4i {
         return new Vector4i(x * other.x, y * other.y, z * other.z, w * other.w);
     }
 
+    public Vector4i mul(Vector4i other, Vector4i dest) {
+        return dest.set(x * other.x, y * other.y, z * other.z, w * other.w);
+    }
+
     public Vector4i mul(Vector4f other) {
         return new Vector4i((int) (x * other.getX()), (int) (y * other.getY()), (int) (z * other.getZ()), (int) (w * other.getW()));
     }
 
+    public Vector4i mul(Vector4f other, Vector4i dest) {
+        return dest.set((int) (x * other.getX()), (int) (y * other.getY()), (int) (z * other.getZ()), (int) (w * other.getW()));
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4i mulSelf(Vector4i other) {
         x *= other.x;
@@ -162,10 +195,18 @@ public class Vector4i {
         return new Vector4i(x / s, y / s, z / s, w / s);
     }
 
+    public Vector4i div(int s, Vector4i dest) {
+        return dest.set(x / s, y / s, z / s, w / s);
+    }
+
     public Vector4i div(float s) {
         return new Vector4i((int) (x / s), (int) (y / s), (int) (z / s), (int) (w / s));
     }
 
+    public Vector4i div(float s, Vector4i dest) {
+        return dest.set((int) (x / s), (int) (y / s), (int) (z / s), (int) (w / s));
+    }
+
     public Vector4i divSelf(int s) {
         x /= s;
         y /= s;
@@ -187,10 +228,18 @@ public class Vector4i {
         return new Vector4i(x / xs, y / ys, z / zs, w / ws);
     }
 
+    public Vector4i div(int xs, int ys, int zs, int ws, Vector4i dest) {
+        return dest.set(x / xs, y / ys, z / zs, w / ws);
+    }
+
     public Vector4i div(float xs, float ys, float zs, float ws) {
         return new Vector4i((int) (x / xs), (int) (y / ys), (int) (z / zs), (int) (w / ws));
     }
 
+    public Vector4i div(float xs, float ys, float zs, float ws, Vector4i dest) {
+        return dest.set((int) (x / xs), (int) (y / ys), (int) (z / zs), (int) (w / ws));
+    }
+
     public Vector4i divSelf(int xs, int ys, int zs, int ws) {
         x /= xs;
         y /= ys;
@@ -212,10 +261,18 @@ public class Vector4i {
         return new Vector4i(x / other.x, y / other.y, z / other.z, w / other.w);
     }
 
+    public Vector4i div(Vector4i other, Vector4i dest) {
+        return dest.set(x / other.x, y / other.y, z / other.z, w / other.w);
+    }
+
     public Vector4i div(Vector4f other) {
         return new Vector4i((int) (x / other.getX()), (int) (y / other.getY()), (int) (z / other.getZ()), (int) (w / other.getW()));
     }
 
+    public Vector4i div(Vector4f other, Vector4i dest) {
+        return dest.set((int) (x / other.getX()), (int) (y / other.getY()), (int) (z / other.getZ()), (int) (w / other.getW()));
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4i divSelf(Vector4i other) {
         x /= other.x;
@@ -237,6 +294,10 @@ public class Vector4i {
         return new Vector4i(x + s, y + s, z + s, w + s);
     }
 
+    public Vector4i add(int s, Vector4i dest) {
+        return dest.set(x + s, y + s, z + s, w + s);
+    }
+
     public Vector4i addSelf(int s) {
         x += s;
         y += s;
@@ -249,6 +310,10 @@ public class Vector4i {
         return new Vector4i(x + xs, y + ys, z + zs, w + ws);
     }
 
+    public Vector4i add(int xs, int ys, int zs, int ws, Vector4i dest) {
+        return dest.set(x + xs, y + ys, z + zs, w + ws);
+    }
+
     public Vector4i addSelf(int xs, int ys, int zs, int ws) {
         x += xs;
         y += ys;
@@ -261,6 +326,10 @@ public class Vector4i {
         return new Vector4i(x + other.x, y + other.y, z + other.z, w + other.w);
     }
 
+    public Vector4i add(Vector4i other, Vector4i dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z, w + other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4i addSelf(Vector4i other) {
         x += other.x;
@@ -274,6 +343,10 @@ public class Vector4i {
         return new Vector4i(x - s, y - s, z - s, w - s);
     }
 
+    public Vector4i sub(int s, Vector4i dest) {
+        return dest.set(x - s, y - s, z - s, w - s);
+    }
+
     public Vector4i subSelf(int s) {
         x -= s;
         y -= s;
@@ -286,6 +359,10 @@ public class Vector4i {
         return new Vector4i(x - xs, y - ys, z - zs, w - ws);
     }
 
+    public Vector4i sub(int xs, int ys, int zs, int ws, Vector4i dest) {
+        return dest.set(x - xs, y - ys, z - zs, w - ws);
+    }
+
     public Vector4i subSelf(int xs, int ys, int zs, int ws) {
         x -= xs;
         y -= ys;
@@ -298,6 +375,10 @@ public class Vector4i {
         return new Vector4i(x - other.x, y - other.y, z - other.z, w - other.w);
     }
 
+    public Vector4i sub(Vector4i other, Vector4i dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z, w - other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4i subSelf(Vector4i other) {
         x -= other.x;
@@ -433,6 +514,10 @@ public class Vector4i {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z, w);
+        int result = 31 + Integer.hashCode(x);
+        result = 31 * result + Integer.hashCode(y);
+        result = 31 * result + Integer.hashCode(z);
+        result = 31 * result + Integer.hashCode(w);
+        return result;
     }
 }
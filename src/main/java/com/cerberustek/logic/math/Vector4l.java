@@ -22,8 +22,6 @@
 
 package com.cerberustek.logic.math;
 
-import java.util.Objects;
-
 public class Vector4l {
     
     private long x;
@@ -60,6 +58,13 @@ public class Vector4l {
         return div(length);
     }
 
+    public Vector4l normalized(Vector4l dest) {
+        double length = length();
+        if (length == 0)
+            return dest.set(x, y, z, w);
+        return div(length, dest);
+    }
+
     public Vector4l normalizeSelf() {
         double length = length();
         if (length == 0)
@@ -71,6 +76,10 @@ public class Vector4l {
         return new Vector4l(-x, -y, -z, -w);
     }
 
+    public Vector4l invert(Vector4l dest) {
+        return dest.set(-x, -y, -z, -w);
+    }
+
     public Vector4l invertSelf() {
         x = -x;
         y = -y;
@@ -87,10 +96,18 @@ public class Vector4l {
         return new Vector4l(x * s, y * s, z * s, w * s);
     }
 
+    public Vector4l mul(long s, Vector4l dest) {
+        return dest.set(x * s, y * s, z * s, w * s);
+    }
+
     public Vector4l mul(double s) {
         return new Vector4l((long) (x * s), (long) (y * s), (long) (z * s), (long) (w * s));
     }
 
+    public Vector4l mul(double s, Vector4l dest) {
+        return dest.set((long) (x * s), (long) (y * s), (long) (z * s), (long) (w * s));
+    }
+
     public Vector4l mulSelf(long s) {
         x *= s;
         y *= s;
@@ -112,10 +129,18 @@ public class Vector4l {
         return new Vector4l(x * xs, y * ys, z * zs, w * ws);
     }
 
+    public Vector4l mul(long xs, long ys, long zs, long ws, Vector4l dest) {
+        return dest.set(x * xs, y * ys, z * zs, w * ws);
+    }
+
     public Vector4l mul(double xs, double ys, double zs, double ws) {
         return new Vector4l((long) (x * xs), (long) (y * ys), (long) (z * zs), (long) (w * ws));
     }
 
+    public Vector4l mul(double xs, double ys, double zs, double ws, Vector4l dest) {
+        return dest.set((long) (x * xs), (long) (y * ys), (long) (z * zs), (long) (w * ws));
+    }
+
     public Vector4l mulSelf(long xs, long ys, long zs, long ws) {
         x *= xs;
         y *= ys;
@@ -137,10 +162,18 @@ public class Vector4l {
         return new Vector4l(x * other.x, y * other.y, z * other.z, w * other.w);
     }
 
+    public Vector4l mul(Vector4l other, Vector4l dest) {
+        return dest.set(x * other.x, y * other.y, z * other.z, w * other.w);
+    }
+
     public Vector4l mul(Vector4d other) {
         return new Vector4l((long) (x * other.getX()), (long) (y * other.getY()), (long) (z * other.getZ()), (long) (w * other.getW()));
     }
 
+    public Vector4l mul(Vector4d other, Vector4l dest) {
+        return dest.set((long) (x * other.getX()), (long) (y * other.getY()), (long) (z * other.getZ()), (long) (w * other.getW()));
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4l mulSelf(Vector4l other) {
         x *= other.x;
@@ -162,10 +195,18 @@ public class Vector4l {
         return new Vector4l(x / s, y / s, z / s, w / s);
     }
 
+    public Vector4l div(long s, Vector4l dest) {
+        return dest.set(x / s, y / s, z / s, w / s);
+    }
+
     public Vector4l div(double s) {
         return new Vector4l((long) (x / s), (long) (y / s), (long) (z / s), (long) (w / s));
     }
 
+    public Vector4l div(double s, Vector4l dest) {
+        return dest.set((long) (x / s), (long) (y / s), (long) (z / s), (long) (w / s));
+    }
+
     public Vector4l divSelf(long s) {
         x /= s;
         y /= s;
@@ -187,10 +228,18 @@ public class Vector4l {
         return new Vector4l(x / xs, y / ys, z / zs, w / ws);
     }
 
+    public Vector4l div(long xs, long ys, long zs, long ws, Vector4l dest) {
+        return dest.set(x / xs, y / ys, z / zs, w / ws);
+    }
+
     public Vector4l div(double xs, double ys, double zs, double ws) {
         return new Vector4l((long) (x / xs), (long) (y / ys), (long) (z / zs), (long) (w / ws));
     }
 
+    public Vector4l div(double xs, double ys, double zs, double ws, Vector4l dest) {
+        return dest.set((long) (x / xs), (long) (y / ys), (long) (z / zs), (long) (w / ws));
+    }
+
     public Vector4l divSelf(long xs, long ys, long zs, long ws) {
         x /= xs;
         y /= ys;
@@ -212,10 +261,18 @@ public class Vector4l {
         return new Vector4l(x / other.x, y / other.y, z / other.z, w / other.w);
     }
 
+    public Vector4l div(Vector4l other, Vector4l dest) {
+        return dest.set(x / other.x, y / other.y, z / other.z, w / other.w);
+    }
+
     public Vector4l div(Vector4d other) {
         return new Vector4l((long) (x / other.getX()), (long) (y / other.getY()), (long) (z / other.getZ()), (long) (w / other.getW()));
     }
 
+    public Vector4l div(Vector4d other, Vector4l dest) {
+        return dest.set((long) (x / other.getX()), (long) (y / other.getY()), (long) (z / other.getZ()), (long) (w / other.getW()));
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4l divSelf(Vector4l other) {
         x /= other.x;
@@ -237,6 +294,10 @@ public class Vector4l {
         return new Vector4l(x + s, y + s, z + s, w + s);
     }
 
+    public Vector4l add(long s, Vector4l dest) {
+        return dest.set(x + s, y + s, z + s, w + s);
+    }
+
     public Vector4l addSelf(long s) {
         x += s;
         y += s;
@@ -249,6 +310,10 @@ public class Vector4l {
         return new Vector4l(x + xs, y + ys, z + zs, w + ws);
     }
 
+    public Vector4l add(long xs, long ys, long zs, long ws, Vector4l dest) {
+        return dest.set(x + xs, y + ys, z + zs, w + ws);
+    }
+
     public Vector4l addSelf(long xs, long ys, long zs, long ws) {
         x += xs;
         y += ys;
@@ -261,6 +326,10 @@ public class Vector4l {
         return new Vector4l(x + other.x, y + other.y, z + other.z, w + other.w);
     }
 
+    public Vector4l add(Vector4l other, Vector4l dest) {
+        return dest.set(x + other.x, y + other.y, z + other.z, w + other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4l addSelf(Vector4l other) {
         x += other.x;
@@ -274,6 +343,10 @@ public class Vector4l {
         return new Vector4l(x - s, y - s, z - s, w - s);
     }
 
+    public Vector4l sub(long s, Vector4l dest) {
+        return dest.set(x - s, y - s, z - s, w - s);
+    }
+
     public Vector4l subSelf(long s) {
         x -= s;
         y -= s;
@@ -286,6 +359,10 @@ public class Vector4l {
         return new Vector4l(x - xs, y - ys, z - zs, w - ws);
     }
 
+    public Vector4l sub(long xs, long ys, long zs, long ws, Vector4l dest) {
+        return dest.set(x - xs, y - ys, z - zs, w - ws);
+    }
+
     public Vector4l subSelf(long xs, long ys, long zs, long ws) {
         x -= xs;
         y -= ys;
@@ -298,6 +375,10 @@ public class Vector4l {
         return new Vector4l(x - other.x, y - other.y, z - other.z, w - other.w);
     }
 
+    public Vector4l sub(Vector4l other, Vector4l dest) {
+        return dest.set(x - other.x, y - other.y, z - other.z, w - other.w);
+    }
+
     @SuppressWarnings("Duplicates")
     public Vector4l subSelf(Vector4l other) {
         x -= other.x;
@@ -430,6 +511,10 @@ public class Vector4l {
 
     @Override
     public int hashCode() {
-        return Objects.hash(x, y, z, w);
+        int result = 31 + Long.hashCode(x);
+        result = 31 * result + Long.hashCode(y);
+        result = 31 * result + Long.hashCode(z);
+        result = 31 * result + Long.hashCode(w);
+        return result;
     }
 }
@@ -0,0 +1,137 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+/**
+ * Entry point for the bulk array kernels used by the vector arrays and
+ * the dense matrices.
+ *
+ * This is the Java 11 version of this class, which always runs the plain
+ * loops of {@link ScalarKernels}. The multi-release jar contains a
+ * replacement of this class for Java 17 and newer that dispatches to
+ * SIMD kernels built on the (incubating) Vector API, if the module
+ * jdk.incubator.vector is available at runtime.
+ *
+ * All kernels operate on the ranges [off, off + len) of their arrays.
+ * The destination may be one of the source arrays as long as the offsets
+ * are identical.
+ */
+final class VectorKernels {
+
+    /** Whether SIMD kernels are in use. Always false for this version */
+    static final boolean SIMD = false;
+
+    private VectorKernels() {}
+
+    static void add(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        ScalarKernels.add(a, aOff, b, bOff, dst, dstOff, len);
+    }
+
+    static void add(float[] a, int aOff, float s, float[] dst, int dstOff, int len) {
+        ScalarKernels.add(a, aOff, s, dst, dstOff, len);
+    }
+
+    static void sub(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        ScalarKernels.sub(a, aOff, b, bOff, dst, dstOff, len);
+    }
+
+    static void mul(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        ScalarKernels.mul(a, aOff, b, bOff, dst, dstOff, len);
+    }
+
+    static void mul(float[] a, int aOff, float s, float[] dst, int dstOff, int len) {
+        ScalarKernels.mul(a, aOff, s, dst, dstOff, len);
+    }
+
+    static void fma(float[] a, int aOff, float s, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        ScalarKernels.fma(a, aOff, s, b, bOff, dst, dstOff, len);
+    }
+
+    static float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        return ScalarKernels.dot(a, aOff, b, bOff, len);
+    }
+
+    static void dot3(float[] ax, float[] ay, float[] az, float[] bx, float[] by, float[] bz,
+                     float[] dst, int off, int len) {
+        ScalarKernels.dot3(ax, ay, az, bx, by, bz, dst, off, len);
+    }
+
+    static void cross3(float[] ax, float[] ay, float[] az, float[] bx, float[] by, float[] bz,
+                       float[] dx, float[] dy, float[] dz, int off, int len) {
+        ScalarKernels.cross3(ax, ay, az, bx, by, bz, dx, dy, dz, off, len);
+    }
+
+    static void length3(float[] x, float[] y, float[] z, float[] dst, int off, int len) {
+        ScalarKernels.length3(x, y, z, dst, off, len);
+    }
+
+    static void normalize3(float[] x, float[] y, float[] z, float[] dx, float[] dy, float[] dz, int off, int len) {
+        ScalarKernels.normalize3(x, y, z, dx, dy, dz, off, len);
+    }
+
+    static void add(double[] a, int aOff, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        ScalarKernels.add(a, aOff, b, bOff, dst, dstOff, len);
+    }
+
+    static void add(double[] a, int aOff, double s, double[] dst, int dstOff, int len) {
+        ScalarKernels.add(a, aOff, s, dst, dstOff, len);
+    }
+
+    static void sub(double[] a, int aOff, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        ScalarKernels.sub(a, aOff, b, bOff, dst, dstOff, len);
+    }
+
+    static void mul(double[] a, int aOff, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        ScalarKernels.mul(a, aOff, b, bOff, dst, dstOff, len);
+    }
+
+    static void mul(double[] a, int aOff, double s, double[] dst, int dstOff, int len) {
+        ScalarKernels.mul(a, aOff, s, dst, dstOff, len);
+    }
+
+    static void fma(double[] a, int aOff, double s, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        ScalarKernels.fma(a, aOff, s, b, bOff, dst, dstOff, len);
+    }
+
+    static double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        return ScalarKernels.dot(a, aOff, b, bOff, len);
+    }
+
+    static void dot3(double[] ax, double[] ay, double[] az, double[] bx, double[] by, double[] bz,
+                     double[] dst, int off, int len) {
+        ScalarKernels.dot3(ax, ay, az, bx, by, bz, dst, off, len);
+    }
+
+    static void cross3(double[] ax, double[] ay, double[] az, double[] bx, double[] by, double[] bz,
+                       double[] dx, double[] dy, double[] dz, int off, int len) {
+        ScalarKernels.cross3(ax, ay, az, bx, by, bz, dx, dy, dz, off, len);
+    }
+
+    static void length3(double[] x, double[] y, double[] z, double[] dst, int off, int len) {
+        ScalarKernels.length3(x, y, z, dst, off, len);
+    }
+
+    static void normalize3(double[] x, double[] y, double[] z, double[] dx, double[] dy, double[] dz, int off, int len) {
+        ScalarKernels.normalize3(x, y, z, dx, dy, dz, off, len);
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek.logic.math;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD implementations of the bulk array kernels on top of the Vector API.
+ *
+ * This class must only be loaded through {@link VectorKernels}, which
+ * checks that jdk.incubator.vector is present. Each kernel processes
+ * as many elements as possible with the preferred vector species of the
+ * platform and finishes the remaining tail with scalar code.
+ *
+ * Note that fma uses fused multiply-adds and dot sums up lane wise, so
+ * their results may differ from {@link ScalarKernels} in the last bits.
+ */
+@SuppressWarnings("Duplicates")
+final class SimdKernels {
+
+    private static final VectorSpecies<Float> F = FloatVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Double> D = DoubleVector.SPECIES_PREFERRED;
+
+    private SimdKernels() {}
+
+    static void add(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = F.loopBound(len); i < bound; i += F.length()) {
+            FloatVector va = FloatVector.fromArray(F, a, aOff + i);
+            FloatVector vb = FloatVector.fromArray(F, b, bOff + i);
+            va.add(vb).intoArray(dst, dstOff + i);
+        }
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] + b[bOff + i];
+    }
+
+    static void add(float[] a, int aOff, float s, float[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = F.loopBound(len); i < bound; i += F.length())
+            FloatVector.fromArray(F, a, aOff + i).add(s).intoArray(dst, dstOff + i);
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] + s;
+    }
+
+    static void sub(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = F.loopBound(len); i < bound; i += F.length()) {
+            FloatVector va = FloatVector.fromArray(F, a, aOff + i);
+            FloatVector vb = FloatVector.fromArray(F, b, bOff + i);
+            va.sub(vb).intoArray(dst, dstOff + i);
+        }
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] - b[bOff + i];
+    }
+
+    static void mul(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = F.loopBound(len); i < bound; i += F.length()) {
+            FloatVector va = FloatVector.fromArray(F, a, aOff + i);
+            FloatVector vb = FloatVector.fromArray(F, b, bOff + i);
+            va.mul(vb).intoArray(dst, dstOff + i);
+        }
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * b[bOff + i];
+    }
+
+    static void mul(float[] a, int aOff, float s, float[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = F.loopBound(len); i < bound; i += F.length())
+            FloatVector.fromArray(F, a, aOff + i).mul(s).intoArray(dst, dstOff + i);
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * s;
+    }
+
+    static void fma(float[] a, int aOff, float s, float[] b, int bOff, float[] dst, int dstOff, int len) {
+        FloatVector vs = FloatVector.broadcast(F, s);
+        int i = 0;
+        for (int bound = F.loopBound(len); i < bound; i += F.length()) {
+            FloatVector va = FloatVector.fromArray(F, a, aOff + i);
+            FloatVector vb = FloatVector.fromArray(F, b, bOff + i);
+            va.fma(vs, vb).intoArray(dst, dstOff + i);
+        }
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * s + b[bOff + i];
+    }
+
+    static float dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        FloatVector acc = FloatVector.zero(F);
+        int i = 0;
+        for (int bound = F.loopBound(len); i < bound; i += F.length()) {
+            FloatVector va = FloatVector.fromArray(F, a, aOff + i);
+            FloatVector vb = FloatVector.fromArray(F, b, bOff + i);
+            acc = va.fma(vb, acc);
+        }
+        float sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++)
+            sum += a[aOff + i] * b[bOff + i];
+        return sum;
+    }
+
+    static void dot3(float[] ax, float[] ay, float[] az, float[] bx, float[] by, float[] bz,
+                     float[] dst, int off, int len) {
+        int i = off;
+        for (int bound = off + F.loopBound(len); i < bound; i += F.length()) {
+            FloatVector x = FloatVector.fromArray(F, ax, i).mul(FloatVector.fromArray(F, bx, i));
+            FloatVector y = FloatVector.fromArray(F, ay, i).mul(FloatVector.fromArray(F, by, i));
+            FloatVector z = FloatVector.fromArray(F, az, i).mul(FloatVector.fromArray(F, bz, i));
+            x.add(y).add(z).intoArray(dst, i);
+        }
+        for (; i < off + len; i++)
+            dst[i] = (ax[i] * bx[i]) + (ay[i] * by[i]) + (az[i] * bz[i]);
+    }
+
+    static void cross3(float[] ax, float[] ay, float[] az, float[] bx, float[] by, float[] bz,
+                       float[] dx, float[] dy, float[] dz, int off, int len) {
+        int i = off;
+        for (int bound = off + F.loopBound(len); i < bound; i += F.length()) {
+            FloatVector x = FloatVector.fromArray(F, ax, i);
+            FloatVector y = FloatVector.fromArray(F, ay, i);
+            FloatVector z = FloatVector.fromArray(F, az, i);
+            FloatVector ox = FloatVector.fromArray(F, bx, i);
+            FloatVector oy = FloatVector.fromArray(F, by, i);
+            FloatVector oz = FloatVector.fromArray(F, bz, i);
+
+            y.mul(oz).sub(z.mul(oy)).intoArray(dx, i);
+            z.mul(ox).sub(x.mul(oz)).intoArray(dy, i);
+            x.mul(oy).sub(y.mul(ox)).intoArray(dz, i);
+        }
+        for (; i < off + len; i++) {
+            float x = ax[i], y = ay[i], z = az[i];
+            float ox = bx[i], oy = by[i], oz = bz[i];
+
+            dx[i] = (y * oz) - (z * oy);
+            dy[i] = (z * ox) - (x * oz);
+            dz[i] = (x * oy) - (y * ox);
+        }
+    }
+
+    static void length3(float[] x, float[] y, float[] z, float[] dst, int off, int len) {
+        int i = off;
+        for (int bound = off + F.loopBound(len); i < bound; i += F.length()) {
+            FloatVector vx = FloatVector.fromArray(F, x, i);
+            FloatVector vy = FloatVector.fromArray(F, y, i);
+            FloatVector vz = FloatVector.fromArray(F, z, i);
+            vx.mul(vx).add(vy.mul(vy)).add(vz.mul(vz)).sqrt().intoArray(dst, i);
+        }
+        for (; i < off + len; i++)
+            dst[i] = (float) Math.sqrt((x[i] * x[i]) + (y[i] * y[i]) + (z[i] * z[i]));
+    }
+
+    static void normalize3(float[] x, float[] y, float[] z, float[] dx, float[] dy, float[] dz, int off, int len) {
+        int i = off;
+        for (int bound = off + F.loopBound(len); i < bound; i += F.length()) {
+            FloatVector vx = FloatVector.fromArray(F, x, i);
+            FloatVector vy = FloatVector.fromArray(F, y, i);
+            FloatVector vz = FloatVector.fromArray(F, z, i);
+            FloatVector length = vx.mul(vx).add(vy.mul(vy)).add(vz.mul(vz)).sqrt();
+
+            // zero length vectors are left untouched
+            VectorMask<Float> nonZero = length.compare(VectorOperators.NE, 0f);
+            vx.div(length, nonZero).intoArray(dx, i);
+            vy.div(length, nonZero).intoArray(dy, i);
+            vz.div(length, nonZero).intoArray(dz, i);
+        }
+        for (; i < off + len; i++) {
+            float vx = x[i], vy = y[i], vz = z[i];
+            float length = (float) Math.sqrt((vx * vx) + (vy * vy) + (vz * vz));
+            if (length != 0) {
+                vx /= length;
+                vy /= length;
+                vz /= length;
+            }
+            dx[i] = vx;
+            dy[i] = vy;
+            dz[i] = vz;
+        }
+    }
+
+    static void add(double[] a, int aOff, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = D.loopBound(len); i < bound; i += D.length()) {
+            DoubleVector va = DoubleVector.fromArray(D, a, aOff + i);
+            DoubleVector vb = DoubleVector.fromArray(D, b, bOff + i);
+            va.add(vb).intoArray(dst, dstOff + i);
+        }
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] + b[bOff + i];
+    }
+
+    static void add(double[] a, int aOff, double s, double[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = D.loopBound(len); i < bound; i += D.length())
+            DoubleVector.fromArray(D, a, aOff + i).add(s).intoArray(dst, dstOff + i);
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] + s;
+    }
+
+    static void sub(double[] a, int aOff, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = D.loopBound(len); i < bound; i += D.length()) {
+            DoubleVector va = DoubleVector.fromArray(D, a, aOff + i);
+            DoubleVector vb = DoubleVector.fromArray(D, b, bOff + i);
+            va.sub(vb).intoArray(dst, dstOff + i);
+        }
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] - b[bOff + i];
+    }
+
+    static void mul(double[] a, int aOff, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = D.loopBound(len); i < bound; i += D.length()) {
+            DoubleVector va = DoubleVector.fromArray(D, a, aOff + i);
+            DoubleVector vb = DoubleVector.fromArray(D, b, bOff + i);
+            va.mul(vb).intoArray(dst, dstOff + i);
+        }
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * b[bOff + i];
+    }
+
+    static void mul(double[] a, int aOff, double s, double[] dst, int dstOff, int len) {
+        int i = 0;
+        for (int bound = D.loopBound(len); i < bound; i += D.length())
+            DoubleVector.fromArray(D, a, aOff + i).mul(s).intoArray(dst, dstOff + i);
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * s;
+    }
+
+    static void fma(double[] a, int aOff, double s, double[] b, int bOff, double[] dst, int dstOff, int len) {
+        DoubleVector vs = DoubleVector.broadcast(D, s);
+        int i = 0;
+        for (int bound = D.loopBound(len); i < bound; i += D.length()) {
+            DoubleVector va = DoubleVector.fromArray(D, a, aOff + i);
+            DoubleVector vb = DoubleVector.fromArray(D, b, bOff + i);
+            va.fma(vs, vb).intoArray(dst, dstOff + i);
+        }
+        for (; i < len; i++)
+            dst[dstOff + i] = a[aOff + i] * s + b[bOff + i];
+    }
+
+    static double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        DoubleVector acc = DoubleVector.zero(D);
+        int i = 0;
+        for (int bound = D.loopBound(len); i < bound; i += D.length()) {
+            DoubleVector va = DoubleVector.fromArray(D, a, aOff + i);
+            DoubleVector vb = DoubleVector.fromArray(D, b, bOff + i);
+            acc = va.fma(vb, acc);
+        }
+        double sum = acc.reduceLanes(VectorOperators.ADD);
+        for (; i < len; i++)
+            sum += a[aOff + i] * b[bOff + i];
+        return sum;
+    }
+
+    static void dot3(double[] ax, double[] ay, double[] az, double[] bx, double[] by, double[] bz,
+                     double[] dst, int off, int len) {
+        int i = off;
+        for (int bound = off + D.loopBound(len); i < bound; i += D.length()) {
+            DoubleVector x = DoubleVector.fromArray(D, ax, i).mul(DoubleVector.fromArray(D, bx, i));
+            DoubleVector y = DoubleVector.fromArray(D, ay, i).mul(DoubleVector.fromArray(D, by, i));
+            DoubleVector z = DoubleVector.fromArray(D, az, i).mul(DoubleVector.fromArray(D, bz, i));
+            x.add(y).add(z).intoArray(dst, i);
+        }
+        for (; i < off + len; i++)
+            dst[i] = (ax[i] * bx[i]) + (ay[i] * by[i]) + (az[i] * bz[i]);
+    }
+
+    static void cross3(double[] ax, double[] ay, double[] az, double[] bx, double[] by, double[] bz,
+                       double[] dx, double[] dy, double[] dz, int off, int len) {
+        int i = off;
+        for (int bound = off + D.loopBound(len); i < bound; i += D.length()) {
+            DoubleVector x = DoubleVector.fromArray(D, ax, i);
+            DoubleVector y = DoubleVector.fromArray(D, ay, i);
+            DoubleVector z = DoubleVector.fromArray(D, az, i);
+            DoubleVector ox = DoubleVector.fromArray(D, bx, i);
+            DoubleVector oy = DoubleVector.fromArray(D, by, i);
+            DoubleVector oz = DoubleVector.fromArray(D, bz, i);
+
+            y.mul(oz).sub(z.mul(oy)).intoArray(dx, i);
+            z.mul(ox).sub(x.mul(oz)).intoArray(dy, i);
+            x.mul(oy).sub(y.mul(ox)).intoArray(dz, i);
+        }
+        for (; i < off + len; i++) {
+            double x = ax[i], y = ay[i], z = az[i];
+            double ox = bx[i], oy = by[i], oz = bz[i];
+
+            dx[i] = (y * oz) - (z * oy);
+            dy[i] = (z * ox) - (x * oz);
+            dz[i] = (x * oy) - (y * ox);
+        }
+    }
+
+    static void length3(double[] x, double[] y, double[] z, double[] dst, int off, int len) {
+        int i = off;
+        for (int bound = off + D.loopBound(len); i < bound; i += D.length()) {
+            DoubleVector vx = DoubleVector.fromArray(D, x, i);
+            DoubleVector vy = DoubleVector.fromArray(D, y, i);
+            DoubleVector vz = DoubleVector.fromArray(D, z, i);
+            vx.mul(vx).add(vy.mul(vy)).add(vz.mul(vz)).sqrt().intoArray(dst, i);
+        }
+        for (; i < off + len; i++)
+            dst[i] = Math.sqrt((x[i] * x[i]) + (y[i] * y[i]) + (z[i] * z[i]));
+    }
+
+    static void normalize3(double[] x, double[] y, double[] z, double[] dx, double[] dy, double[] dz, int off, int len) {
+        int i = off;
+        for (int bound = off + D.loopBound(len); i < bound; i += D.length()) {
+            DoubleVector vx = DoubleVector.fromArray(D, x, i);
+            DoubleVector vy = DoubleVector.fromArray(D, y, i);
+            DoubleVector vz = DoubleVector.fromArray(D, z, i);
+            DoubleVector length = vx.mul(vx).add(vy.mul(vy)).add(vz.mul(vz)).sqrt();
+
+            // zero length vectors are left untouched
+            VectorMask<Double> nonZero = length.compare(VectorOperators.NE, 0d);
+            vx.div(length, nonZero).intoArray(dx, i);
+            vy.div(length, nonZero).intoArray(dy, i);
+            vz.div(length, nonZero).intoArray(dz, i);
+        }
+        for (; i < off + len; i++) {
+            double vx = x[i], vy = y[i], vz = z[i];
+            double length = Math.sqrt((vx * vx) + (vy * vy) + (vz * vz));
+            if (length != 0) {
+                vx /= length;
+                vy /= length;
+                vz /= length;
+            }
+            dx[i] = vx;
+            dy[i] = vy;
+            dz[i] = vz;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Cerberus-Math is a simple OpenGL-compatible math library.
+ * Visit https://cerberustek.com for more details
+ * Copyright (c)  2020  Adrian Paskert
+ * All rights reserved.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program. See the file LICENSE included with this
+ * distribution for more information.
+ * If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.cerberustek;
+
+import com.cerberustek.logic.math.CerberusMath;
+import com.cerberustek.logic.math.Matrix4f;
+import com.cerberustek.logic.math.Matrixxd;
+import com.cerberustek.logic.math.Quaternionf;
+
+/**
+ * Rough timing of the Matrix4f inversion paths against the general
+ * Gauss solver of Matrixxd.
+ */
+public class MatrixInvertBenchmark {
+
+    private static final int WARMUP = 2_000_000;
+    private static final int ITERATIONS = 10_000_000;
+
+    private static float sink;
+
+    public static void main(String... args) {
+        Matrix4f general = new Matrix4f().initProjection(1.2f, 1.5f, 0.1f, 100f)
+                .mul(new Matrix4f().initTranslation(1, 2, 3));
+        Matrix4f affine = new Matrix4f().initTranslation(1, 2, 3)
+                .mul(new Quaternionf(0.1f, 0.7f, -0.3f, 0.6f).normalized().toRotationMatrix())
+                .mul(new Matrix4f().initScale(2, 3, 4));
+        Matrix4f rigid = new Matrix4f().initTranslation(1, 2, 3)
+                .mul(new Quaternionf(0.1f, 0.7f, -0.3f, 0.6f).normalized().toRotationMatrix());
+        Matrix4f dest = new Matrix4f();
+
+        for (int round = 0; round < 2; round++) {
+            int n = round == 0 ? WARMUP : ITERATIONS;
+            boolean print = round == 1;
+
+            long start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                general.invert(dest);
+                sink += dest.get(0, 0);
+            }
+            report(print, "invert", start, n);
+
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                affine.invertAffine(dest);
+                sink += dest.get(0, 0);
+            }
+            report(print, "invertAffine", start, n);
+
+            start = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                rigid.invertRigid(dest);
+                sink += dest.get(0, 0);
+            }
+            report(print, "invertRigid", start, n);
+
+            Matrixxd matrix = new Matrixxd(general.toMatrix4d().getM());
+            Matrixxd identity = CerberusMath.diagD(4);
+            int gaussIterations = n / 10;
+            start = System.nanoTime();
+            for (int i = 0; i < gaussIterations; i++)
+                sink += CerberusMath.solveXGaussSmart(matrix, identity).get(0, 0);
+            report(print, "Matrixxd gauss", start, gaussIterations);
+        }
+        System.out.println("(" + sink + ")");
+    }
+
+    private static void report(boolean print, String name, long start, int iterations) {
+        if (print)
+            System.out.printf("%-16s %8.2f ns/op%n", name, (System.nanoTime() - start) / (double) iterations);
+    }
+}
@@ -23,7 +23,18 @@
 package com.cerberustek;
 
 import com.cerberustek.logic.math.CerberusMath;
+import com.cerberustek.logic.math.Matrix4f;
+import com.cerberustek.logic.math.MatrixParallelism;
 import com.cerberustek.logic.math.Matrixxd;
+import com.cerberustek.logic.math.Quaternionf;
+import com.cerberustek.logic.math.SparseMatrixd;
+import com.cerberustek.logic.math.Vector2iIntMap;
+import com.cerberustek.logic.math.Vector2iObjectMap;
+import com.cerberustek.logic.math.Vector3iIntMap;
+import com.cerberustek.logic.math.Vector3iObjectMap;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 public class Test {
 
@@ -53,8 +64,110 @@ public class Test {
         Matrixxd verification = inverted.mul(mat);
         System.out.println("Verification: \n" + verification + "\n\n");
 
+        testMatrix4fInversions();
+        testSparseFormats();
+        testMapCapacity();
 
         int deltaT = (int) (System.currentTimeMillis() - startTime);
         System.out.println("Done testing " + counter + " tests in " + deltaT + "ms!");
     }
+
+    /**
+     * The specialised Matrix4f inversions must agree with the general
+     * Gauss solver of Matrixxd.
+     */
+    private static void testMatrix4fInversions() {
+        Matrix4f general = new Matrix4f().initProjection(1.2f, 1.5f, 0.1f, 100f)
+                .mul(new Matrix4f().initTranslation(1, 2, 3));
+        Matrix4f affine = new Matrix4f().initTranslation(1, 2, 3)
+                .mul(new Quaternionf(0.1f, 0.7f, -0.3f, 0.6f).normalized().toRotationMatrix())
+                .mul(new Matrix4f().initScale(2, 3, 4));
+        Matrix4f rigid = new Matrix4f().initTranslation(1, 2, 3)
+                .mul(new Quaternionf(0.1f, 0.7f, -0.3f, 0.6f).normalized().toRotationMatrix());
+        Matrix4f dest = new Matrix4f();
+
+        checkInverse("invert", general, general.invert(dest));
+        checkInverse("invert", affine, affine.invert(dest));
+        checkInverse("invertAffine", affine, affine.invertAffine(dest));
+        checkInverse("invertAffine", rigid, rigid.invertAffine(dest));
+        checkInverse("invertRigid", rigid, rigid.invertRigid(dest));
+        System.out.println("Matrix4f inversions match the Gauss solver\n\n");
+    }
+
+    private static void checkInverse(String name, Matrix4f matrix, Matrix4f inverse) {
+        Matrixxd reference = CerberusMath.solveXGaussSmart(new Matrixxd(matrix.toMatrix4d().getM()),
+                CerberusMath.diagD(4));
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                double expected = reference.get(i, j);
+                if (Math.abs(inverse.get(i, j) - expected) > 1e-4 * Math.max(1, Math.abs(expected)))
+                    throw new IllegalStateException(name + " differs from the reference at (" + i + ", " + j + ")");
+            }
+        }
+        counter++;
+    }
+
+    /**
+     * Parallel CSC products run on a CSR copy and must match the CSR
+     * products.
+     */
+    private static void testSparseFormats() {
+        ForkJoinPool previous = MatrixParallelism.getPool();
+        MatrixParallelism.setPool(ForkJoinPool.commonPool());
+
+        Random random = new Random(21);
+        int n = 20000;
+        SparseMatrixd.Builder builder = SparseMatrixd.builder(n, n);
+        for (int k = 0; k < 20 * n; k++)
+            builder.add(random.nextInt(n), random.nextInt(n), random.nextDouble());
+        SparseMatrixd csr = builder.build(SparseMatrixd.Format.CSR);
+        SparseMatrixd csc = builder.build(SparseMatrixd.Format.CSC);
+
+        double[] x = new double[n];
+        Matrixxd b = new Matrixxd(n, 3);
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble();
+            for (int j = 0; j < 3; j++)
+                b.set(i, j, random.nextDouble());
+        }
+
+        double[] expected = csr.mul(x);
+        double[] actual = csc.mul(x);
+        Matrixxd expectedMatrix = csr.mul(b);
+        Matrixxd actualMatrix = csc.mul(b);
+        for (int i = 0; i < n; i++) {
+            if (Math.abs(expected[i] - actual[i]) > 1e-12)
+                throw new IllegalStateException("CSC and CSR vector products differ in row " + i);
+            for (int j = 0; j < 3; j++) {
+                if (Math.abs(expectedMatrix.get(i, j) - actualMatrix.get(i, j)) > 1e-12)
+                    throw new IllegalStateException("CSC and CSR matrix products differ in row " + i);
+            }
+        }
+        counter++;
+        System.out.println("Sparse CSC and CSR products match\n\n");
+
+        MatrixParallelism.setPool(previous);
+    }
+
+    /**
+     * Expected sizes beyond the largest key array must be rejected up front
+     * instead of overflowing the array length.
+     */
+    private static void testMapCapacity() {
+        checkRejected("Vector2iIntMap", () -> new Vector2iIntMap(Integer.MAX_VALUE));
+        checkRejected("Vector2iObjectMap", () -> new Vector2iObjectMap<>(Integer.MAX_VALUE));
+        checkRejected("Vector3iIntMap", () -> new Vector3iIntMap(Integer.MAX_VALUE));
+        checkRejected("Vector3iObjectMap", () -> new Vector3iObjectMap<>(Integer.MAX_VALUE));
+        System.out.println("Oversized maps are rejected\n\n");
+    }
+
+    private static void checkRejected(String name, Runnable constructor) {
+        try {
+            constructor.run();
+        } catch (IllegalArgumentException e) {
+            counter++;
+            return;
+        }
+        throw new IllegalStateException(name + " accepted an expected size beyond its capacity");
+    }
 }